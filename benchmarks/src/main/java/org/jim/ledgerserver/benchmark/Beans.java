@@ -0,0 +1,56 @@
+package org.jim.ledgerserver.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.function.BiFunction;
+
+/**
+ * 不启动 Spring 容器时组装被测 Bean：按字段名注入依赖，仓库接口用动态代理替身
+ *
+ * @author James Smith
+ */
+public final class Beans {
+
+    private Beans() {
+    }
+
+    /**
+     * 给 @Resource / @Value 字段赋值（沿父类查找）
+     */
+    public static <T> T inject(T target, String fieldName, Object value) {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return target;
+            } catch (NoSuchFieldException e) {
+                // 继续在父类中查找
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException(target.getClass().getSimpleName() + " has no field " + fieldName);
+    }
+
+    /**
+     * 接口替身：方法按名称交给 handler，未处理的方法（返回 null）直接抛错，避免基准悄悄走了空实现
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            Object result = handler.apply(method.getName(), args == null ? new Object[0] : args);
+            if (result == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package org.jim.ledgerserver.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口
+ * 参数与 JMH 命令行一致（如 {@code ReportService -p size=1000}），默认附加 gc profiler 输出每次调用的分配字节数。
+ *
+ * @author James Smith
+ */
+public final class LedgerBenchmarks {
+
+    private LedgerBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,71 @@
+package org.jim.ledgerserver.benchmark;
+
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 固定种子的合成数据，同一规模每次生成的内容一致，便于前后对比
+ *
+ * @author James Smith
+ */
+public final class SyntheticData {
+
+    public static final long SEED = 20240601L;
+
+    public static final long USER_ID = 1L;
+
+    public static final int LEDGERS = 5;
+
+    public static final int CATEGORIES = 40;
+
+    public static final int PAYMENT_METHODS = 8;
+
+    /**
+     * 交易分布在该时间起的一年内
+     */
+    public static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static final LocalDateTime END = START.plusYears(1).minusSeconds(1);
+
+    private static final String[] DESCRIPTIONS = {
+            "午餐", "地铁", "超市购物", "咖啡", "房租", "工资", "打车回家", "电影票",
+            "水电费", "话费充值", "外卖, 含配送费", "朋友聚餐 \"AA\"", "网购\n退货运费", "Taxi to airport"
+    };
+
+    private SyntheticData() {
+    }
+
+    /**
+     * 生成交易（约 20% 收入，分类、账本、支付方式均匀分布，少量记录缺分类或支付方式）
+     */
+    public static List<TransactionEntity> transactions(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        long seconds = Duration.between(START, END).getSeconds();
+        List<TransactionEntity> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TransactionEntity tx = new TransactionEntity();
+            tx.setId((long) i + 1);
+            tx.setDescription(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]);
+            tx.setAmount(BigDecimal.valueOf(random.nextLong(1, 500_000), 2));
+            tx.setType(random.nextInt(5) == 0 ? 1 : 2);
+            tx.setTransactionDateTime(START.plusSeconds(random.nextLong(seconds)));
+            tx.setLedgerId((long) random.nextInt(1, LEDGERS + 1));
+            tx.setCreatedByUserId(USER_ID);
+            tx.setCategoryId(random.nextInt(50) == 0 ? null : (long) random.nextInt(1, CATEGORIES + 1));
+            tx.setPaymentMethodId(random.nextInt(10) == 0 ? null : (long) random.nextInt(1, PAYMENT_METHODS + 1));
+            tx.setSource(1);
+            result.add(tx);
+        }
+        return result;
+    }
+
+    public static String description(int i) {
+        return DESCRIPTIONS[i % DESCRIPTIONS.length];
+    }
+}
@@ -0,0 +1,60 @@
+package org.jim.ledgerserver.common.util;
+
+import io.jsonwebtoken.Claims;
+import org.jim.ledgerserver.benchmark.Beans;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 解析与校验，每个已认证请求至少执行一次
+ * 开销只与 token 本身有关，不设规模参数；无效 token 走异常路径，单独测量。
+ *
+ * @author James Smith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+
+    private String token;
+
+    private String tamperedToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        Beans.inject(jwtUtil, "secret", "benchmark-secret-key-that-is-at-least-256-bits-long-for-hmac-sha");
+        Beans.inject(jwtUtil, "expiration", 604800000L);
+        token = jwtUtil.generateToken(10086L, "benchmark-user");
+        // 改动签名的第一个字符（最后一个字符可能只含填充位）
+        int signature = token.lastIndexOf('.') + 1;
+        char first = token.charAt(signature);
+        tamperedToken = token.substring(0, signature) + (first == 'A' ? 'B' : 'A') + token.substring(signature + 1);
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTamperedToken() {
+        return jwtUtil.validateToken(tamperedToken);
+    }
+
+    @Benchmark
+    public Long getUserIdFromToken() {
+        return jwtUtil.getUserIdFromToken(token);
+    }
+}
@@ -0,0 +1,113 @@
+package org.jim.ledgerserver.completion.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jim.ledgerserver.benchmark.Beans;
+import org.jim.ledgerserver.benchmark.SyntheticData;
+import org.jim.ledgerserver.common.cache.CacheInvalidationBus;
+import org.jim.ledgerserver.common.util.PinyinUtil;
+import org.jim.ledgerserver.completion.dto.CompletionQueryResponse;
+import org.jim.ledgerserver.completion.entity.CompletionPhraseEntity;
+import org.jim.ledgerserver.completion.repository.CompletionPhraseRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 补全查询（索引已缓存）：{@link CompletionPhraseService#queryCompletions} 按原文、全拼、首字母前缀查询
+ * 线上每个用户最多加载 2000 条短语，更大的规模用来观察索引随短语数增长的表现。
+ *
+ * @author James Smith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CompletionQueryBenchmark {
+
+    private static final String CHARACTERS = "午餐晚饭早点地铁公交打车超市水果咖啡奶茶房租水电话费工资奖金电影游戏书衣服鞋药医院快递外卖零食宠物";
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private CompletionPhraseService service;
+
+    /**
+     * 查询前缀，取自已有短语的原文、全拼和首字母
+     */
+    private String[] prefixes;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<CompletionPhraseEntity> phrases = phrases(size);
+        CompletionPhraseRepository repository = Beans.stub(CompletionPhraseRepository.class,
+                (method, args) -> "findTopPhrasesByUserId".equals(method) ? phrases : null);
+
+        service = new CompletionPhraseService(repository, new CacheInvalidationBus(), new SimpleMeterRegistry(),
+                new PhraseUsageBuffer());
+        Beans.inject(service, "cacheMaxBytes", Long.MAX_VALUE);
+        Beans.inject(service, "cacheIdleExpireMinutes", 60L);
+        Beans.inject(service, "warmUpThreads", 1);
+        service.init();
+        service.refreshUserCache(SyntheticData.USER_ID);
+
+        SplittableRandom random = new SplittableRandom(SyntheticData.SEED);
+        prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            CompletionPhraseEntity phrase = phrases.get(random.nextInt(phrases.size()));
+            String key = switch (i % 3) {
+                case 0 -> phrase.getPhrase();
+                case 1 -> phrase.getPhrasePinyin();
+                default -> phrase.getPhraseInitials();
+            };
+            prefixes[i] = key.substring(0, Math.min(key.length(), 1 + random.nextInt(3)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public CompletionQueryResponse queryCompletions() {
+        String prefix = prefixes[next++ & (prefixes.length - 1)];
+        return service.queryCompletions(SyntheticData.USER_ID, prefix);
+    }
+
+    /**
+     * 2-6 个常用字随机组合的短语，附全拼和首字母
+     */
+    private static List<CompletionPhraseEntity> phrases(int size) {
+        SplittableRandom random = new SplittableRandom(SyntheticData.SEED);
+        long now = System.currentTimeMillis();
+        List<CompletionPhraseEntity> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int length = 2 + random.nextInt(5);
+            StringBuilder text = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                text.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+            }
+            String phrase = text.toString();
+            PinyinUtil.Spelling spelling = CompletionPhraseService.spell(phrase);
+            CompletionPhraseEntity entity = new CompletionPhraseEntity()
+                    .setUserId(SyntheticData.USER_ID)
+                    .setPhrase(phrase)
+                    .setPhrasePrefix(phrase.substring(0, 1))
+                    .setPhrasePinyin(spelling.full())
+                    .setPhraseInitials(spelling.initials())
+                    .setFrequency(1 + random.nextInt(100))
+                    .setLastUsedAt(now - random.nextLong(TimeUnit.DAYS.toMillis(90)))
+                    .setSourceType("USER");
+            entity.setId((long) i + 1);
+            result.add(entity);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package org.jim.ledgerserver.ledger.service;
+
+import org.jim.ledgerserver.benchmark.SyntheticData;
+import org.jim.ledgerserver.ledger.vo.DailyStatisticsResp;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热力图每日统计：{@link TransactionService#getDailyStatistics} 按日期累加收支
+ *
+ * @author James Smith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class DailyStatisticsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private TransactionService transactionService;
+
+    private String startTime;
+
+    private String endTime;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transactionService = ReportFixture.transactionService(SyntheticData.transactions(size));
+        startTime = SyntheticData.START.toString();
+        endTime = SyntheticData.END.toString();
+    }
+
+    @Benchmark
+    public List<DailyStatisticsResp> dailyStatistics() {
+        return transactionService.getDailyStatistics(null, startTime, endTime, SyntheticData.USER_ID);
+    }
+}
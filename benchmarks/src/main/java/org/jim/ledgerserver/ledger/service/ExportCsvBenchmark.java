@@ -0,0 +1,79 @@
+package org.jim.ledgerserver.ledger.service;
+
+import org.jim.ledgerserver.benchmark.SyntheticData;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.jim.ledgerserver.ledger.vo.export.ExportTransactionData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易导出 CSV：整表拼接（{@link ExportService#appendTransactionsCsv}）与单元格转义（{@link ExportService#escapeCsv}）
+ *
+ * @author James Smith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ExportCsvBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private final ExportService exportService = new ExportService();
+
+    private List<ExportTransactionData> transactions;
+
+    /**
+     * 一批单元格：多数无需转义，少数含逗号、引号或换行
+     */
+    private String[] cells;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<TransactionEntity> entities = SyntheticData.transactions(size);
+        transactions = new ArrayList<>(size);
+        for (TransactionEntity tx : entities) {
+            ExportTransactionData data = new ExportTransactionData();
+            data.setId(tx.getId());
+            data.setName(tx.getDescription());
+            data.setDescription(tx.getDescription());
+            data.setAmount(tx.getAmount());
+            data.setType(tx.getType() == 1 ? "INCOME" : "EXPENSE");
+            data.setTransactionDateTime(tx.getTransactionDateTime());
+            data.setLedgerName("账本" + tx.getLedgerId());
+            data.setCategoryName(tx.getCategoryId() == null ? null : "分类" + tx.getCategoryId());
+            data.setPaymentMethodName(tx.getPaymentMethodId() == null ? null : "支付方式" + tx.getPaymentMethodId());
+            data.setCreateTime(tx.getTransactionDateTime());
+            transactions.add(data);
+        }
+        cells = new String[1024];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = SyntheticData.description(i);
+        }
+    }
+
+    @Benchmark
+    public int appendTransactionsCsv() {
+        StringBuilder sb = new StringBuilder();
+        exportService.appendTransactionsCsv(sb, transactions);
+        return sb.length();
+    }
+
+    /**
+     * 每次调用转义 1024 个单元格，与规模参数无关
+     */
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void escapeCsv(Blackhole blackhole) {
+        for (String cell : cells) {
+            blackhole.consume(exportService.escapeCsv(cell));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.jim.ledgerserver.ledger.service;
+
+import org.jim.ledgerserver.benchmark.Beans;
+import org.jim.ledgerserver.benchmark.SyntheticData;
+import org.jim.ledgerserver.ledger.entity.CategoryEntity;
+import org.jim.ledgerserver.ledger.entity.LedgerEntity;
+import org.jim.ledgerserver.ledger.entity.PaymentMethodEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.jim.ledgerserver.ledger.repository.CategoryRepository;
+import org.jim.ledgerserver.ledger.repository.LedgerRepository;
+import org.jim.ledgerserver.ledger.repository.PaymentMethodRepository;
+import org.jim.ledgerserver.ledger.repository.TransactionRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 报表类基准的被测对象：仓库替身直接返回内存中的交易和名称数据，只测聚合本身
+ *
+ * @author James Smith
+ */
+final class ReportFixture {
+
+    private ReportFixture() {
+    }
+
+    /**
+     * findAll(spec) 返回给定交易的仓库替身
+     */
+    static TransactionRepository transactionRepository(List<TransactionEntity> transactions) {
+        return Beans.stub(TransactionRepository.class,
+                (method, args) -> "findAll".equals(method) && args.length == 1 ? transactions : null);
+    }
+
+    static ReportService reportService(List<TransactionEntity> transactions) {
+        ReportService service = new ReportService();
+        Beans.inject(service, "transactionRepository", transactionRepository(transactions));
+        Beans.inject(service, "categoryService", categoryService());
+        Beans.inject(service, "ledgerService", ledgerService());
+        Beans.inject(service, "paymentMethodService", paymentMethodService());
+        return service;
+    }
+
+    static TransactionService transactionService(List<TransactionEntity> transactions) {
+        return Beans.inject(new TransactionService(), "transactionRepository", transactionRepository(transactions));
+    }
+
+    private static CategoryService categoryService() {
+        CategoryRepository repository = Beans.stub(CategoryRepository.class, (method, args) -> {
+            if (!"findById".equals(method)) {
+                return null;
+            }
+            Long id = (Long) args[0];
+            CategoryEntity category = new CategoryEntity();
+            category.setId(id);
+            category.setName("分类" + id);
+            category.setIcon(id % 3 == 0 ? null : "🍜");
+            return Optional.of(category);
+        });
+        return Beans.inject(new CategoryService(), "categoryRepository", repository);
+    }
+
+    private static LedgerService ledgerService() {
+        LedgerRepository repository = Beans.stub(LedgerRepository.class, (method, args) -> {
+            if (!"findById".equals(method)) {
+                return null;
+            }
+            Long id = (Long) args[0];
+            LedgerEntity ledger = new LedgerEntity();
+            ledger.setId(id);
+            ledger.setName("账本" + id);
+            ledger.setOwnerUserId(SyntheticData.USER_ID);
+            return Optional.of(ledger);
+        });
+        return Beans.inject(new LedgerService(), "ledgerRepository", repository);
+    }
+
+    private static PaymentMethodService paymentMethodService() {
+        PaymentMethodRepository repository = Beans.stub(PaymentMethodRepository.class, (method, args) -> {
+            if (!"findById".equals(method)) {
+                return null;
+            }
+            Long id = (Long) args[0];
+            PaymentMethodEntity paymentMethod = new PaymentMethodEntity();
+            paymentMethod.setId(id);
+            paymentMethod.setName("支付方式" + id);
+            paymentMethod.setIcon("💳");
+            return Optional.of(paymentMethod);
+        });
+        return Beans.inject(new PaymentMethodService(), "paymentMethodRepository", repository);
+    }
+}
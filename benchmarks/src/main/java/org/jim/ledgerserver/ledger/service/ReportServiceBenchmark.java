@@ -0,0 +1,57 @@
+package org.jim.ledgerserver.ledger.service;
+
+import org.jim.ledgerserver.benchmark.SyntheticData;
+import org.jim.ledgerserver.ledger.vo.CategoryStatisticsResp;
+import org.jim.ledgerserver.ledger.vo.ReportQueryReq;
+import org.jim.ledgerserver.ledger.vo.TrendStatisticsResp;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报表聚合：按分类/账本/支付方式分组与按时间分桶
+ * 交易由仓库替身直接返回，测得的是查询之后的内存聚合。
+ *
+ * @author James Smith
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ReportServiceBenchmark {
+
+    /**
+     * 时间范围内的交易条数
+     */
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    /**
+     * 分组维度 / 时间粒度
+     */
+    @Param({"category:day", "ledger:week", "paymentMethod:month"})
+    private String shape;
+
+    private ReportService reportService;
+
+    private ReportQueryReq request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reportService = ReportFixture.reportService(SyntheticData.transactions(size));
+        String[] parts = shape.split(":");
+        request = new ReportQueryReq(null, null, null, SyntheticData.START, SyntheticData.END, parts[1], parts[0]);
+    }
+
+    @Benchmark
+    public CategoryStatisticsResp statisticsByDimension() {
+        return reportService.getStatisticsByCategory(request, SyntheticData.USER_ID);
+    }
+
+    @Benchmark
+    public TrendStatisticsResp trendBuckets() {
+        return reportService.getTrendStatistics(request, SyntheticData.USER_ID);
+    }
+}
@@ -0,0 +1,102 @@
+package org.jim.ledgerserver.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 调用服务 HTTP 接口并记录延迟
+ * 响应为 HTTP 200 且 JSONResult.code 为 200 时视为成功，返回 data 节点；否则记为错误并返回 null。
+ *
+ * @author James Smith
+ */
+final class ApiClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient httpClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final String baseUrl;
+
+    private final LatencyReport report;
+
+    ApiClient(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl, LatencyReport report) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.report = report;
+    }
+
+    /**
+     * GET 请求
+     *
+     * @param endpoint 统计用的接口标识（路由模板）
+     * @param path     请求路径
+     * @param query    查询参数，值为 null 的参数省略
+     */
+    JsonNode get(String endpoint, String path, Map<String, Object> query, String token) {
+        String queryString = query.entrySet().stream()
+                .filter(e -> e.getValue() != null)
+                .map(e -> e.getKey() + "=" + URLEncoder.encode(String.valueOf(e.getValue()), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        URI uri = URI.create(baseUrl + path + (queryString.isEmpty() ? "" : "?" + queryString));
+        return send("GET " + endpoint, HttpRequest.newBuilder(uri).GET(), token);
+    }
+
+    /**
+     * POST JSON 请求体
+     */
+    JsonNode post(String endpoint, String path, Object body, String token) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json));
+        return send("POST " + endpoint, builder, token);
+    }
+
+    private JsonNode send(String endpoint, HttpRequest.Builder builder, String token) {
+        builder.timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            JsonNode root = objectMapper.readTree(response.body());
+            if (root.path("code").asInt() != 200) {
+                return null;
+            }
+            success = true;
+            return root.path("data");
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            // 计入读取和解析响应体的时间，与客户端感知一致
+            report.record(endpoint, System.nanoTime() - start, success);
+        }
+    }
+}
@@ -0,0 +1,590 @@
+package org.jim.ledgerserver.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 合成数据生成器
+ *
+ * 表结构由服务启动时创建，系统分类也由服务初始化，因此需要先对目标库启动过一次服务；
+ * 生成期间请停止服务：交易主键直接按号段表之后的值写入，结束时再把号段表推进到最大ID之后。
+ * 数据特征：
+ * <ul>
+ *     <li>分类按 Zipf 分布选取（系统分类按排序号视为由常用到少用）</li>
+ *     <li>每个用户一个个人账本；约 shared-ledger-ratio × users 个共享账本，每个 2–10 名成员</li>
+ *     <li>每个用户的交易数服从以 transactions-per-user 为均值的指数分布，少数重度用户贡献大量数据</li>
+ *     <li>一部分交易带 2–5 笔追加的子交易（parent_id），一部分带附件</li>
+ * </ul>
+ *
+ * @author James Smith
+ */
+final class DataGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int ATTACHMENT_BATCH_SIZE = 50;
+
+    private static final int BCRYPT_STRENGTH = 12;
+
+    private static final int TYPE_INCOME = 1;
+
+    private static final int TYPE_EXPENSE = 2;
+
+    private static final int ROLE_OWNER = 1;
+
+    private static final int ROLE_EDITOR = 3;
+
+    private static final int ROLE_VIEWER = 4;
+
+    private static final int LEDGER_PERSONAL = 1;
+
+    private static final int LEDGER_SHARED = 2;
+
+    private static final String[][] PAYMENT_METHODS = {
+            {"现金", "💵", "CASH"},
+            {"支付宝", "🟦", "ALIPAY"},
+            {"微信", "💚", "WECHAT"},
+            {"银行卡", "💳", "BANK_CARD"}
+    };
+
+    private static final String[] DESCRIPTION_SUFFIXES = {"", "", "", " 周末", " 和同事", " 网购", " 线下", " 补记", " 月卡"};
+
+    /**
+     * 一天中各小时的相对记账频率（早中晚三个高峰）
+     */
+    private static final double[] HOUR_WEIGHTS = {
+            0.2, 0.1, 0.1, 0.1, 0.1, 0.2, 0.5, 1.5, 2.0, 1.2, 1.0, 1.5,
+            2.5, 1.8, 1.0, 0.9, 1.0, 1.3, 2.2, 2.5, 1.8, 1.4, 0.9, 0.5
+    };
+
+    private final Options options;
+
+    private final SplittableRandom random;
+
+    private final double[] hourCumulative;
+
+    private Connection connection;
+
+    private long nextTransactionId;
+
+    private long transactionCount;
+
+    private long childCount;
+
+    private long attachmentCount;
+
+    DataGenerator(Options options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.getLong("seed", 42));
+        this.hourCumulative = new double[HOUR_WEIGHTS.length];
+        double sum = 0;
+        for (int i = 0; i < HOUR_WEIGHTS.length; i++) {
+            sum += HOUR_WEIGHTS[i];
+            hourCumulative[i] = sum;
+        }
+    }
+
+    private record Category(long id, String name) {
+    }
+
+    /**
+     * 生成的用户：个人账本、支付方式、可记账的共享账本
+     */
+    private static final class SyntheticUser {
+
+        final long id;
+
+        long personalLedgerId;
+
+        final List<Long> paymentMethodIds = new ArrayList<>();
+
+        final List<Long> sharedLedgerIds = new ArrayList<>();
+
+        SyntheticUser(long id) {
+            this.id = id;
+        }
+    }
+
+    void generate() throws SQLException {
+        String url = options.require("jdbc-url");
+        int userCount = options.getInt("users", 1000);
+        String prefix = options.get("user-prefix", "lt_");
+
+        long started = System.nanoTime();
+        try (Connection conn = DriverManager.getConnection(withBatchRewrite(url),
+                options.get("jdbc-user", "root"), options.get("jdbc-password", ""))) {
+            this.connection = conn;
+            conn.setAutoCommit(false);
+
+            Map<Integer, List<Category>> categories = loadSystemCategories();
+            if (countExistingUsers(prefix) > 0) {
+                throw new IllegalStateException("已存在前缀为 " + prefix + " 的用户，请换一个 --user-prefix 或先清理数据");
+            }
+
+            List<SyntheticUser> users = insertUsers(prefix, userCount);
+            log("users: %d", users.size());
+            insertPersonalLedgers(users, prefix);
+            int sharedLedgers = insertSharedLedgers(users, prefix);
+            log("ledgers: %d personal, %d shared", users.size(), sharedLedgers);
+            insertPaymentMethods(users);
+            log("payment methods: %d", users.size() * PAYMENT_METHODS.length);
+
+            nextTransactionId = reserveTransactionIdStart();
+            insertTransactions(users, categories);
+            advanceTransactionIdGenerator();
+        }
+        log("done in %ds: %d transactions (%d children), %d attachments",
+                (System.nanoTime() - started) / 1_000_000_000L, transactionCount, childCount, attachmentCount);
+    }
+
+    // ==================== 用户与账本 ====================
+
+    private List<SyntheticUser> insertUsers(String prefix, int userCount) throws SQLException {
+        String passwordHash = new BCryptPasswordEncoder(BCRYPT_STRENGTH).encode(options.get("password", "loadtest123"));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO `user` (username, password, nickname, status, role, create_time, update_time) "
+                        + "VALUES (?, ?, ?, 1, 'USER', ?, ?)")) {
+            for (int i = 0; i < userCount; i++) {
+                ps.setString(1, prefix + i);
+                ps.setString(2, passwordHash);
+                ps.setString(3, "压测用户" + i);
+                ps.setTimestamp(4, now);
+                ps.setTimestamp(5, now);
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+
+        // 按用户名顺序取回ID，下标与用户编号一致
+        Map<String, Long> ids = new HashMap<>(userCount * 2);
+        try (PreparedStatement ps = connection.prepareStatement("SELECT id, username FROM `user` WHERE username LIKE ?")) {
+            ps.setString(1, likePrefix(prefix));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getString(2), rs.getLong(1));
+                }
+            }
+        }
+        List<SyntheticUser> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(new SyntheticUser(ids.get(prefix + i)));
+        }
+        return users;
+    }
+
+    private void insertPersonalLedgers(List<SyntheticUser> users, String prefix) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO ledger (name, description, owner_user_id, type, is_public, create_time, update_time) "
+                        + "VALUES (?, ?, ?, ?, false, ?, ?)")) {
+            for (int i = 0; i < users.size(); i++) {
+                ps.setString(1, "日常账本");
+                ps.setString(2, prefix + "personal");
+                ps.setLong(3, users.get(i).id);
+                ps.setInt(4, LEDGER_PERSONAL);
+                ps.setTimestamp(5, now);
+                ps.setTimestamp(6, now);
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+
+        Map<Long, Long> ledgerByOwner = new HashMap<>(users.size() * 2);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT id, owner_user_id FROM ledger WHERE description = ? AND type = ?")) {
+            ps.setString(1, prefix + "personal");
+            ps.setInt(2, LEDGER_PERSONAL);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ledgerByOwner.put(rs.getLong(2), rs.getLong(1));
+                }
+            }
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement("UPDATE `user` SET default_ledger_id = ? WHERE id = ?")) {
+            for (int i = 0; i < users.size(); i++) {
+                SyntheticUser user = users.get(i);
+                user.personalLedgerId = ledgerByOwner.get(user.id);
+                ps.setLong(1, user.personalLedgerId);
+                ps.setLong(2, user.id);
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+    }
+
+    /**
+     * 共享账本：所有者随机，成员 2–10 人（含所有者），其余成员多为记账员
+     */
+    private int insertSharedLedgers(List<SyntheticUser> users, String prefix) throws SQLException {
+        if (users.size() < 2) {
+            return 0;
+        }
+        int count = (int) Math.round(users.size() * options.getDouble("shared-ledger-ratio", 0.2));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ledgerPs = connection.prepareStatement(
+                "INSERT INTO ledger (name, description, owner_user_id, type, max_members, is_public, create_time, update_time) "
+                        + "VALUES (?, ?, ?, ?, 10, false, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement memberPs = connection.prepareStatement(
+                     "INSERT INTO ledger_member (ledger_id, user_id, role, joined_at, invited_by_user_id, status, create_time, update_time) "
+                             + "VALUES (?, ?, ?, ?, ?, 1, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                SyntheticUser owner = users.get(random.nextInt(users.size()));
+                ledgerPs.setString(1, "共享账本" + i);
+                ledgerPs.setString(2, prefix + "shared");
+                ledgerPs.setLong(3, owner.id);
+                ledgerPs.setInt(4, LEDGER_SHARED);
+                ledgerPs.setTimestamp(5, now);
+                ledgerPs.setTimestamp(6, now);
+                ledgerPs.executeUpdate();
+                long ledgerId;
+                try (ResultSet keys = ledgerPs.getGeneratedKeys()) {
+                    keys.next();
+                    ledgerId = keys.getLong(1);
+                }
+
+                int members = Math.min(users.size(), 2 + random.nextInt(9));
+                List<SyntheticUser> chosen = new ArrayList<>(members);
+                chosen.add(owner);
+                while (chosen.size() < members) {
+                    SyntheticUser candidate = users.get(random.nextInt(users.size()));
+                    if (!chosen.contains(candidate)) {
+                        chosen.add(candidate);
+                    }
+                }
+                for (SyntheticUser member : chosen) {
+                    boolean isOwner = member == owner;
+                    int role = isOwner ? ROLE_OWNER : random.nextInt(5) == 0 ? ROLE_VIEWER : ROLE_EDITOR;
+                    memberPs.setLong(1, ledgerId);
+                    memberPs.setLong(2, member.id);
+                    memberPs.setInt(3, role);
+                    memberPs.setTimestamp(4, now);
+                    if (isOwner) {
+                        memberPs.setNull(5, Types.BIGINT);
+                    } else {
+                        memberPs.setLong(5, owner.id);
+                    }
+                    memberPs.setTimestamp(6, now);
+                    memberPs.setTimestamp(7, now);
+                    memberPs.addBatch();
+                    if (role != ROLE_VIEWER) {
+                        member.sharedLedgerIds.add(ledgerId);
+                    }
+                }
+                if ((i + 1) % 100 == 0) {
+                    memberPs.executeBatch();
+                    connection.commit();
+                }
+            }
+            memberPs.executeBatch();
+        }
+        connection.commit();
+        return count;
+    }
+
+    private void insertPaymentMethods(List<SyntheticUser> users) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO payment_method (name, icon, type, user_id, is_default, sort_order, create_time, update_time) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int rows = 0;
+            for (SyntheticUser user : users) {
+                for (int i = 0; i < PAYMENT_METHODS.length; i++) {
+                    ps.setString(1, PAYMENT_METHODS[i][0]);
+                    ps.setString(2, PAYMENT_METHODS[i][1]);
+                    ps.setString(3, PAYMENT_METHODS[i][2]);
+                    ps.setLong(4, user.id);
+                    ps.setBoolean(5, i == 0);
+                    ps.setInt(6, i);
+                    ps.setTimestamp(7, now);
+                    ps.setTimestamp(8, now);
+                    ps.addBatch();
+                    if (++rows % BATCH_SIZE == 0) {
+                        ps.executeBatch();
+                    }
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+
+        Map<Long, SyntheticUser> byId = new HashMap<>(users.size() * 2);
+        users.forEach(user -> byId.put(user.id, user));
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT id, user_id FROM payment_method WHERE user_id >= ? AND user_id <= ? ORDER BY id")) {
+            ps.setLong(1, users.stream().mapToLong(u -> u.id).min().orElse(0));
+            ps.setLong(2, users.stream().mapToLong(u -> u.id).max().orElse(0));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    SyntheticUser user = byId.get(rs.getLong(2));
+                    if (user != null) {
+                        user.paymentMethodIds.add(rs.getLong(1));
+                    }
+                }
+            }
+        }
+    }
+
+    // ==================== 交易 ====================
+
+    private void insertTransactions(List<SyntheticUser> users, Map<Integer, List<Category>> categories) throws SQLException {
+        double perUser = options.getDouble("transactions-per-user", 300);
+        int months = options.getInt("months", 12);
+        double aggregateRate = options.getDouble("aggregate-rate", 0.02);
+        double attachmentRate = options.getDouble("attachment-rate", 0.01);
+        double exponent = options.getDouble("zipf-exponent", 1.1);
+        Zipf expenseZipf = new Zipf(categories.get(TYPE_EXPENSE).size(), exponent);
+        Zipf incomeZipf = new Zipf(categories.get(TYPE_INCOME).size(), exponent);
+        LocalDateTime end = LocalDateTime.now();
+        long rangeDays = Math.max(1, Duration.between(end.minusMonths(months), end).toDays());
+        Timestamp now = Timestamp.valueOf(end);
+
+        try (PreparedStatement txPs = connection.prepareStatement(
+                "INSERT INTO `transaction` (id, description, amount, type, transaction_date_time, ledger_id, "
+                        + "created_by_user_id, category_id, payment_method_id, source, parent_id, create_time, update_time) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement attachmentPs = connection.prepareStatement(
+                     "INSERT INTO transaction_attachment (transaction_id, file_name, file_type, file_size, file_data, "
+                             + "uploaded_by_user_id, create_time, update_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int pendingTx = 0;
+            int pendingAttachments = 0;
+            for (SyntheticUser user : users) {
+                // 指数分布：均值为 perUser，少数用户远高于均值
+                long count = Math.max(1, Math.round(-perUser * Math.log(1 - random.nextDouble())));
+                for (long n = 0; n < count; n++) {
+                    int type = random.nextInt(100) < 85 ? TYPE_EXPENSE : TYPE_INCOME;
+                    List<Category> typeCategories = categories.get(type);
+                    Category category = typeCategories.get((type == TYPE_EXPENSE ? expenseZipf : incomeZipf).sample(random));
+                    long ledgerId = user.sharedLedgerIds.isEmpty() || random.nextInt(10) < 7
+                            ? user.personalLedgerId
+                            : user.sharedLedgerIds.get(random.nextInt(user.sharedLedgerIds.size()));
+                    Long paymentMethodId = user.paymentMethodIds.isEmpty() || random.nextInt(20) == 0
+                            ? null
+                            : user.paymentMethodIds.get(random.nextInt(user.paymentMethodIds.size()));
+                    LocalDateTime time = end.minusDays(random.nextLong(rangeDays)).withHour(sampleHour())
+                            .withMinute(random.nextInt(60)).withSecond(random.nextInt(60)).withNano(0);
+                    String description = category.name() + DESCRIPTION_SUFFIXES[random.nextInt(DESCRIPTION_SUFFIXES.length)];
+                    int source = random.nextInt(10) == 0 ? 2 : 1;
+
+                    long parentId = nextTransactionId++;
+                    addTransaction(txPs, parentId, description, amount(type), type, time, ledgerId, user.id,
+                            category.id(), paymentMethodId, source, null, now);
+                    pendingTx++;
+                    transactionCount++;
+
+                    // 追加记录：同一分类、同一账本，时间在父交易之后几天内
+                    if (random.nextDouble() < aggregateRate) {
+                        int children = 2 + random.nextInt(4);
+                        for (int c = 0; c < children; c++) {
+                            addTransaction(txPs, nextTransactionId++, description, amount(type), type,
+                                    time.plusHours(1 + random.nextInt(72)), ledgerId, user.id, category.id(),
+                                    paymentMethodId, source, parentId, now);
+                            pendingTx++;
+                            transactionCount++;
+                            childCount++;
+                        }
+                    }
+
+                    if (random.nextDouble() < attachmentRate) {
+                        addAttachment(attachmentPs, parentId, user.id, now);
+                        pendingAttachments++;
+                        attachmentCount++;
+                    }
+
+                    if (pendingTx >= BATCH_SIZE) {
+                        // 附件引用交易ID，先写交易
+                        txPs.executeBatch();
+                        pendingTx = 0;
+                        if (pendingAttachments >= ATTACHMENT_BATCH_SIZE) {
+                            attachmentPs.executeBatch();
+                            pendingAttachments = 0;
+                        }
+                        connection.commit();
+                        if (transactionCount % 100_000 < BATCH_SIZE) {
+                            log("transactions: %d", transactionCount);
+                        }
+                    }
+                }
+            }
+            txPs.executeBatch();
+            attachmentPs.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private void addTransaction(PreparedStatement ps, long id, String description, BigDecimal amount, int type,
+                                LocalDateTime time, long ledgerId, long userId, long categoryId, Long paymentMethodId,
+                                int source, Long parentId, Timestamp now) throws SQLException {
+        ps.setLong(1, id);
+        ps.setString(2, description);
+        ps.setBigDecimal(3, amount);
+        ps.setInt(4, type);
+        ps.setTimestamp(5, Timestamp.valueOf(time));
+        ps.setLong(6, ledgerId);
+        ps.setLong(7, userId);
+        ps.setLong(8, categoryId);
+        if (paymentMethodId == null) {
+            ps.setNull(9, Types.BIGINT);
+        } else {
+            ps.setLong(9, paymentMethodId);
+        }
+        ps.setInt(10, source);
+        if (parentId == null) {
+            ps.setNull(11, Types.BIGINT);
+        } else {
+            ps.setLong(11, parentId);
+        }
+        ps.setTimestamp(12, now);
+        ps.setTimestamp(13, now);
+        ps.addBatch();
+    }
+
+    /**
+     * 附件内容为 2–32KB 的随机字节（PDF 类型，服务端不生成缩略图）
+     */
+    private void addAttachment(PreparedStatement ps, long transactionId, long userId, Timestamp now) throws SQLException {
+        byte[] data = new byte[2048 + random.nextInt(30 * 1024)];
+        for (int i = 0; i < data.length; i += 8) {
+            long bits = random.nextLong();
+            for (int j = 0; j < 8 && i + j < data.length; j++) {
+                data[i + j] = (byte) (bits >>> (j * 8));
+            }
+        }
+        ps.setLong(1, transactionId);
+        ps.setString(2, "receipt-" + transactionId + ".pdf");
+        ps.setString(3, "application/pdf");
+        ps.setLong(4, data.length);
+        ps.setBytes(5, data);
+        ps.setLong(6, userId);
+        ps.setTimestamp(7, now);
+        ps.setTimestamp(8, now);
+        ps.addBatch();
+    }
+
+    /**
+     * 金额：对数正态分布，支出中位数约 35 元，收入约 2000 元
+     */
+    private BigDecimal amount(int type) {
+        double median = type == TYPE_EXPENSE ? 35 : 2000;
+        double value = median * Math.exp(random.nextDouble() * 2 - 1 + (random.nextDouble() - 0.5) * 1.5);
+        return BigDecimal.valueOf(Math.max(0.01, value)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private int sampleHour() {
+        double target = random.nextDouble() * hourCumulative[hourCumulative.length - 1];
+        for (int hour = 0; hour < hourCumulative.length; hour++) {
+            if (target < hourCumulative[hour]) {
+                return hour;
+            }
+        }
+        return hourCumulative.length - 1;
+    }
+
+    // ==================== 号段与元数据 ====================
+
+    /**
+     * 从号段表的当前上界之后开始分配交易ID，避开服务已预取的号段
+     */
+    private long reserveTransactionIdStart() throws SQLException {
+        long start = 1;
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT GREATEST(COALESCE((SELECT MAX(id) FROM `transaction`), 0), "
+                     + "COALESCE((SELECT next_val FROM id_generator WHERE name = 'transaction'), 0))")) {
+            if (rs.next()) {
+                start = rs.getLong(1) + 1;
+            }
+        }
+        return start;
+    }
+
+    private void advanceTransactionIdGenerator() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO id_generator (name, next_val) VALUES ('transaction', ?) "
+                        + "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))")) {
+            // 留出一个号段的余量
+            ps.setLong(1, nextTransactionId + 100);
+            ps.executeUpdate();
+        }
+        connection.commit();
+    }
+
+    /**
+     * 系统分类，按排序号排列（越靠前越常用）
+     */
+    private Map<Integer, List<Category>> loadSystemCategories() throws SQLException {
+        Map<Integer, List<Category>> categories = new HashMap<>();
+        categories.put(TYPE_INCOME, new ArrayList<>());
+        categories.put(TYPE_EXPENSE, new ArrayList<>());
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id, name, type FROM category "
+                     + "WHERE is_system = true AND delete_time IS NULL ORDER BY type, sort_order, id")) {
+            while (rs.next()) {
+                List<Category> list = categories.get(rs.getInt(3));
+                if (list != null) {
+                    list.add(new Category(rs.getLong(1), rs.getString(2)));
+                }
+            }
+        }
+        if (categories.get(TYPE_INCOME).isEmpty() || categories.get(TYPE_EXPENSE).isEmpty()) {
+            throw new IllegalStateException("未找到系统分类：请先对目标库启动一次服务，由其创建表结构和系统分类");
+        }
+        return categories;
+    }
+
+    private int countExistingUsers(String prefix) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT COUNT(*) FROM `user` WHERE username LIKE ?")) {
+            ps.setString(1, likePrefix(prefix));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * LIKE 前缀匹配，转义前缀中的通配符（默认前缀 lt_ 含下划线）
+     */
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static String withBatchRewrite(String url) {
+        if (url.contains("rewriteBatchedStatements")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.printf("[generate] " + format + "%n", args);
+    }
+}
@@ -0,0 +1,300 @@
+package org.jim.ledgerserver.loadtest;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JFR 录制文件的按接口归因
+ * 服务端每个请求提交一条 ledger.EndpointRequest 事件（起止时间 + 线程 + Controller.method）。
+ * 第一遍读出各线程上的请求区间，第二遍把分配采样、CPU 采样、监视器等待、线程 park 按“同一线程、开始时刻落在请求区间内”归到接口；
+ * GC 暂停是全局的，按与各请求区间的重叠时长计入。落不到任何请求上的事件（后台线程、空闲）归入 {@link #UNATTRIBUTED}。
+ *
+ * @author James Smith
+ */
+final class JfrEndpointAnalyzer {
+
+    static final String ENDPOINT_EVENT = "ledger.EndpointRequest";
+
+    static final String UNATTRIBUTED = "(unattributed)";
+
+    /**
+     * 归因到应用代码时识别的包前缀
+     */
+    private static final String APP_PACKAGE = "org.jim.ledgerserver.";
+
+    /**
+     * 单个请求区间（纳秒时间戳）
+     */
+    private record Interval(long start, long end, String endpoint) {
+    }
+
+    /**
+     * 单个接口的累计数据
+     */
+    static final class EndpointProfile {
+
+        final String endpoint;
+
+        long requests;
+
+        long errors;
+
+        long totalNanos;
+
+        long allocatedBytes;
+
+        long cpuSamples;
+
+        long monitorBlockedNanos;
+
+        long monitorEvents;
+
+        long parkedNanos;
+
+        long gcPauseOverlapNanos;
+
+        final Map<String, Long> allocationByClass = new HashMap<>();
+
+        final Map<String, Long> allocationBySite = new HashMap<>();
+
+        final Map<String, Long> cpuByMethod = new HashMap<>();
+
+        final Map<String, Long> monitorByClass = new HashMap<>();
+
+        EndpointProfile(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        double avgMs() {
+            return requests == 0 ? 0 : totalNanos / 1e6 / requests;
+        }
+
+        double allocatedKbPerRequest() {
+            return requests == 0 ? 0 : allocatedBytes / 1024.0 / requests;
+        }
+
+        double cpuSamplesPerRequest() {
+            return requests == 0 ? 0 : (double) cpuSamples / requests;
+        }
+    }
+
+    /**
+     * 分析结果
+     *
+     * @param profiles        按分配字节数倒序的各接口数据（含未归因项）
+     * @param totalCpuSamples CPU 采样总数
+     * @param gcPauses        GC 暂停次数
+     * @param gcPauseNanos    GC 暂停总时长
+     * @param recordingNanos  录制时长
+     */
+    record Result(List<EndpointProfile> profiles, long totalCpuSamples, long gcPauses, long gcPauseNanos,
+                  long recordingNanos) {
+    }
+
+    private final Map<Long, List<Interval>> intervalsByThread = new HashMap<>();
+
+    private final List<Interval> allIntervals = new ArrayList<>();
+
+    private final Map<String, EndpointProfile> profiles = new HashMap<>();
+
+    private long maxIntervalNanos;
+
+    private long totalCpuSamples;
+
+    private long gcPauses;
+
+    private long gcPauseNanos;
+
+    private long firstEvent = Long.MAX_VALUE;
+
+    private long lastEvent = Long.MIN_VALUE;
+
+    Result analyze(Path recording) throws IOException {
+        readIntervals(recording);
+        if (allIntervals.isEmpty()) {
+            throw new IllegalStateException("no " + ENDPOINT_EVENT + " events in " + recording
+                    + ", is the server running a build with EndpointEvent?");
+        }
+        attribute(recording);
+
+        List<EndpointProfile> sorted = new ArrayList<>(profiles.values());
+        sorted.sort(Comparator.comparingLong((EndpointProfile p) -> p.allocatedBytes).reversed());
+        return new Result(sorted, totalCpuSamples, gcPauses, gcPauseNanos, Math.max(0, lastEvent - firstEvent));
+    }
+
+    private void readIntervals(Path recording) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (!ENDPOINT_EVENT.equals(event.getEventType().getName()) || event.getThread() == null) {
+                    continue;
+                }
+                String endpoint = event.getString("endpoint");
+                Interval interval = new Interval(nanos(event.getStartTime()), nanos(event.getEndTime()), endpoint);
+                intervalsByThread.computeIfAbsent(event.getThread().getJavaThreadId(), k -> new ArrayList<>()).add(interval);
+                allIntervals.add(interval);
+                maxIntervalNanos = Math.max(maxIntervalNanos, interval.end() - interval.start());
+
+                EndpointProfile profile = profile(endpoint);
+                profile.requests++;
+                profile.totalNanos += interval.end() - interval.start();
+                if (event.getInt("status") >= 400) {
+                    profile.errors++;
+                }
+            }
+        }
+        Comparator<Interval> byStart = Comparator.comparingLong(Interval::start);
+        intervalsByThread.values().forEach(list -> list.sort(byStart));
+        allIntervals.sort(byStart);
+    }
+
+    private void attribute(Path recording) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                long start = nanos(event.getStartTime());
+                firstEvent = Math.min(firstEvent, start);
+                lastEvent = Math.max(lastEvent, nanos(event.getEndTime()));
+                switch (event.getEventType().getName()) {
+                    case "jdk.ObjectAllocationSample" -> {
+                        EndpointProfile profile = profile(endpointAt(event.getThread(), start));
+                        long weight = event.getLong("weight");
+                        profile.allocatedBytes += weight;
+                        profile.allocationByClass.merge(className(event.getClass("objectClass")), weight, Long::sum);
+                        profile.allocationBySite.merge(appFrame(event.getStackTrace()), weight, Long::sum);
+                    }
+                    case "jdk.ExecutionSample" -> {
+                        EndpointProfile profile = profile(endpointAt(event.getThread("sampledThread"), start));
+                        profile.cpuSamples++;
+                        profile.cpuByMethod.merge(leafFrame(event.getStackTrace()), 1L, Long::sum);
+                        totalCpuSamples++;
+                    }
+                    case "jdk.JavaMonitorEnter" -> {
+                        EndpointProfile profile = profile(endpointAt(event.getThread(), start));
+                        long duration = event.getDuration().toNanos();
+                        profile.monitorBlockedNanos += duration;
+                        profile.monitorEvents++;
+                        profile.monitorByClass.merge(className(event.getClass("monitorClass")), duration, Long::sum);
+                    }
+                    case "jdk.ThreadPark" -> profile(endpointAt(event.getThread(), start)).parkedNanos
+                            += event.getDuration().toNanos();
+                    case "jdk.GCPhasePause" -> {
+                        gcPauses++;
+                        gcPauseNanos += event.getDuration().toNanos();
+                        attributePause(start, nanos(event.getEndTime()));
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * GC 暂停期间所有在途请求都被拖慢，按重叠时长计入各自的接口
+     */
+    private void attributePause(long pauseStart, long pauseEnd) {
+        int from = firstStartingAtOrAfter(allIntervals, pauseStart - maxIntervalNanos);
+        for (int i = from; i < allIntervals.size(); i++) {
+            Interval interval = allIntervals.get(i);
+            if (interval.start() >= pauseEnd) {
+                break;
+            }
+            long overlap = Math.min(pauseEnd, interval.end()) - Math.max(pauseStart, interval.start());
+            if (overlap > 0) {
+                profile(interval.endpoint()).gcPauseOverlapNanos += overlap;
+            }
+        }
+    }
+
+    /**
+     * 线程在该时刻正在处理的请求对应的接口
+     */
+    private String endpointAt(RecordedThread thread, long time) {
+        if (thread == null) {
+            return UNATTRIBUTED;
+        }
+        List<Interval> intervals = intervalsByThread.get(thread.getJavaThreadId());
+        if (intervals == null) {
+            return UNATTRIBUTED;
+        }
+        // 同一线程上的请求区间不重叠，取开始时刻不晚于 time 的最后一个
+        int index = firstStartingAtOrAfter(intervals, time + 1) - 1;
+        if (index < 0 || intervals.get(index).end() < time) {
+            return UNATTRIBUTED;
+        }
+        return intervals.get(index).endpoint();
+    }
+
+    private static int firstStartingAtOrAfter(List<Interval> intervals, long time) {
+        int low = 0;
+        int high = intervals.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (intervals.get(mid).start() < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private EndpointProfile profile(String endpoint) {
+        return profiles.computeIfAbsent(endpoint, EndpointProfile::new);
+    }
+
+    /**
+     * 栈顶方法（CPU 实际消耗的位置）
+     */
+    private static String leafFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "(no stack)";
+        }
+        return method(stackTrace.getFrames().getFirst());
+    }
+
+    /**
+     * 离栈顶最近的应用代码帧，说明是哪段业务代码触发了分配；栈被截断时可能找不到
+     */
+    private static String appFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "(no stack)";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                return method(frame) + ":" + frame.getLineNumber();
+            }
+        }
+        return "(framework)";
+    }
+
+    private static String method(RecordedFrame frame) {
+        if (frame.getMethod() == null) {
+            return "(native)";
+        }
+        String type = frame.getMethod().getType().getName();
+        return type.substring(type.lastIndexOf('.') + 1) + "." + frame.getMethod().getName();
+    }
+
+    private static String className(RecordedClass type) {
+        return type == null ? "(unknown)" : type.getName();
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+}
@@ -0,0 +1,128 @@
+package org.jim.ledgerserver.loadtest;
+
+import org.jim.ledgerserver.loadtest.JfrEndpointAnalyzer.EndpointProfile;
+import org.jim.ledgerserver.loadtest.JfrEndpointAnalyzer.Result;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按接口的 JFR 归因报告
+ * 文本报告给人看（汇总表 + 各接口的分配类型、分配位置、CPU 热点方法）；CSV 只含按请求归一化的数值列，
+ * 同一请求组合下不同版本的 CSV 可以直接对比，传入基线 CSV 时输出各接口的变化百分比。
+ *
+ * @author James Smith
+ */
+final class JfrEndpointReport {
+
+    private static final int TOP_N = 5;
+
+    private static final String CSV_HEADER = "endpoint,requests,errors,avg_ms,alloc_mb,alloc_kb_per_request,"
+            + "cpu_samples,cpu_samples_per_request,cpu_share,monitor_blocked_ms,monitor_events,parked_ms,gc_pause_overlap_ms";
+
+    private final Result result;
+
+    JfrEndpointReport(Result result) {
+        this.result = result;
+    }
+
+    void print(PrintWriter out) {
+        out.printf("recording %.1fs, %d CPU samples, %d GC pauses (%.1f ms total)%n%n",
+                result.recordingNanos() / 1e9, result.totalCpuSamples(), result.gcPauses(), result.gcPauseNanos() / 1e6);
+        out.printf("%-48s %8s %8s %10s %10s %8s %10s %10s %10s%n", "endpoint", "requests", "avg(ms)", "alloc(MB)",
+                "KB/req", "cpu%", "lock(ms)", "park(ms)", "gc(ms)");
+        for (EndpointProfile p : result.profiles()) {
+            out.printf("%-48s %8d %8.1f %10.1f %10.1f %8.1f %10.1f %10.1f %10.1f%n", p.endpoint, p.requests, p.avgMs(),
+                    p.allocatedBytes / 1048576.0, p.allocatedKbPerRequest(), cpuShare(p) * 100,
+                    p.monitorBlockedNanos / 1e6, p.parkedNanos / 1e6, p.gcPauseOverlapNanos / 1e6);
+        }
+
+        for (EndpointProfile p : result.profiles()) {
+            if (p.allocatedBytes == 0 && p.cpuSamples == 0 && p.monitorEvents == 0) {
+                continue;
+            }
+            out.printf("%n== %s%n", p.endpoint);
+            printTop(out, "allocated types", p.allocationByClass, p.allocatedBytes);
+            printTop(out, "allocation sites", p.allocationBySite, p.allocatedBytes);
+            printTop(out, "hot methods", p.cpuByMethod, p.cpuSamples);
+            printTop(out, "contended monitors", p.monitorByClass, p.monitorBlockedNanos);
+        }
+        out.flush();
+    }
+
+    /**
+     * 对比基线：只比较按请求归一化的指标，请求数不同的两次运行也可比
+     */
+    void printComparison(PrintWriter out, Path baseline) throws IOException {
+        Map<String, String[]> previous = new HashMap<>();
+        List<String> lines = Files.readAllLines(baseline, StandardCharsets.UTF_8);
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            String[] columns = splitCsv(line);
+            previous.put(columns[0], columns);
+        }
+
+        out.printf("%nvs baseline %s%n", baseline);
+        out.printf("%-48s %16s %16s %16s%n", "endpoint", "avg(ms)", "KB/req", "cpu/req");
+        for (EndpointProfile p : result.profiles()) {
+            String[] before = previous.get(p.endpoint);
+            if (before == null || p.requests == 0) {
+                continue;
+            }
+            out.printf("%-48s %16s %16s %16s%n", p.endpoint,
+                    change(Double.parseDouble(before[3]), p.avgMs()),
+                    change(Double.parseDouble(before[5]), p.allocatedKbPerRequest()),
+                    change(Double.parseDouble(before[7]), p.cpuSamplesPerRequest()));
+        }
+        out.flush();
+    }
+
+    void writeCsv(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(CSV_HEADER);
+        for (EndpointProfile p : result.profiles()) {
+            lines.add(String.format("\"%s\",%d,%d,%.2f,%.2f,%.2f,%d,%.3f,%.4f,%.2f,%d,%.2f,%.2f", p.endpoint,
+                    p.requests, p.errors, p.avgMs(), p.allocatedBytes / 1048576.0, p.allocatedKbPerRequest(),
+                    p.cpuSamples, p.cpuSamplesPerRequest(), cpuShare(p), p.monitorBlockedNanos / 1e6,
+                    p.monitorEvents, p.parkedNanos / 1e6, p.gcPauseOverlapNanos / 1e6));
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    private double cpuShare(EndpointProfile p) {
+        return result.totalCpuSamples() == 0 ? 0 : (double) p.cpuSamples / result.totalCpuSamples();
+    }
+
+    private static void printTop(PrintWriter out, String title, Map<String, Long> values, long total) {
+        if (values.isEmpty() || total == 0) {
+            return;
+        }
+        out.println("  " + title + ":");
+        values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_N)
+                .forEach(e -> out.printf("    %5.1f%%  %s%n", e.getValue() * 100.0 / total, e.getKey()));
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) {
+            return String.format("%.2f (new)", after);
+        }
+        return String.format("%.2f (%+.0f%%)", after, (after - before) * 100 / before);
+    }
+
+    /**
+     * 只有第一列（接口名）带引号，且接口名不含引号和逗号
+     */
+    private static String[] splitCsv(String line) {
+        String[] columns = line.split(",");
+        columns[0] = columns[0].replace("\"", "");
+        return columns;
+    }
+}
@@ -0,0 +1,122 @@
+package org.jim.ledgerserver.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接口统计的吞吐与延迟（HdrHistogram，微秒精度）
+ * 预热阶段的请求不计入；接口以 "方法 路由模板" 标识，如 POST /api/transactions/query。
+ *
+ * @author James Smith
+ */
+final class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    private volatile boolean measuring;
+
+    private volatile long measureStartNanos;
+
+    private volatile long measureEndNanos;
+
+    private static final class EndpointStats {
+
+        final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * 单个接口的汇总
+     */
+    record Row(String endpoint, long count, long errors, double throughput,
+               double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+
+    void startMeasuring() {
+        endpoints.clear();
+        measureStartNanos = System.nanoTime();
+        measuring = true;
+    }
+
+    void stopMeasuring() {
+        measureEndNanos = System.nanoTime();
+        measuring = false;
+    }
+
+    boolean isMeasuring() {
+        return measuring;
+    }
+
+    void record(String endpoint, long elapsedNanos, boolean success) {
+        if (!measuring) {
+            return;
+        }
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        stats.latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1, elapsedNanos / 1000)));
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    long totalRequests() {
+        return endpoints.values().stream().mapToLong(s -> s.latency.getTotalCount()).sum();
+    }
+
+    List<Row> rows() {
+        double seconds = Math.max(1e-9, (measureEndNanos - measureStartNanos) / 1e9);
+        List<Row> rows = new ArrayList<>();
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long allErrors = 0;
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet().stream().sorted(Map.Entry.comparingByKey()).toList()) {
+            Histogram h = entry.getValue().latency.copy();
+            long errors = entry.getValue().errors.sum();
+            rows.add(row(entry.getKey(), h, errors, seconds));
+            all.add(h);
+            allErrors += errors;
+        }
+        rows.add(row("ALL", all, allErrors, seconds));
+        return rows;
+    }
+
+    private static Row row(String endpoint, Histogram h, long errors, double seconds) {
+        return new Row(endpoint, h.getTotalCount(), errors, h.getTotalCount() / seconds,
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0,
+                h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0,
+                h.getMaxValue() / 1000.0);
+    }
+
+    void print(PrintWriter out) {
+        out.printf("%-48s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (Row r : rows()) {
+            out.printf("%-48s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    r.endpoint(), r.count(), r.errors(), r.throughput(), r.p50Ms(), r.p90Ms(), r.p99Ms(), r.p999Ms(), r.maxMs());
+        }
+        out.flush();
+    }
+
+    void writeCsv(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,count,errors,throughput,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+        for (Row r : rows()) {
+            lines.add(String.format("\"%s\",%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f", r.endpoint(), r.count(), r.errors(),
+                    r.throughput(), r.p50Ms(), r.p90Ms(), r.p99Ms(), r.p999Ms(), r.maxMs()));
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,86 @@
+package org.jim.ledgerserver.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.PrintWriter;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP 压测驱动
+ * 每个虚拟用户占用一个虚拟线程，循环执行 {@link UserJourney} 直到结束；先预热再统计，结束后按接口输出吞吐与延迟分位数。
+ * 这是闭环模型（上一个请求返回后才发下一个），服务变慢时请求速率随之下降，延迟应结合吞吐一起看。
+ *
+ * @author James Smith
+ */
+final class LoadDriver {
+
+    private final Options options;
+
+    LoadDriver(Options options) {
+        this.options = options;
+    }
+
+    void run() throws Exception {
+        String baseUrl = options.require("base-url");
+        int virtualUsers = options.getInt("virtual-users", 200);
+        int users = options.getInt("users", 1000);
+        String prefix = options.get("user-prefix", "lt_");
+        String password = options.get("password", "loadtest123");
+        long thinkTimeMs = options.getLong("think-time-ms", 500);
+        Duration warmUp = options.getDuration("warm-up", Duration.ofSeconds(30));
+        Duration duration = options.getDuration("duration", Duration.ofMinutes(5));
+        SplittableRandom seed = new SplittableRandom(options.getLong("seed", 42));
+
+        LatencyReport report = new LatencyReport();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        ApiClient api = new ApiClient(httpClient, new ObjectMapper(), baseUrl, report);
+
+        long deadline = System.nanoTime() + warmUp.toNanos() + duration.toNanos();
+        System.out.printf("[run] %d virtual users against %s, warm-up %s, measure %s%n", virtualUsers, baseUrl, warmUp, duration);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < virtualUsers; i++) {
+                UserJourney journey = new UserJourney(api, prefix + (i % users), password, thinkTimeMs, seed.split());
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                        try {
+                            journey.runOnce();
+                        } catch (InterruptedException e) {
+                            return;
+                        } catch (RuntimeException e) {
+                            // 单个虚拟用户的意外错误不影响其他用户
+                            System.err.println("[run] journey failed: " + e);
+                        }
+                    }
+                });
+            }
+
+            TimeUnit.NANOSECONDS.sleep(warmUp.toNanos());
+            report.startMeasuring();
+            long measureEnd = System.nanoTime() + duration.toNanos();
+            while (System.nanoTime() < measureEnd) {
+                TimeUnit.SECONDS.sleep(Math.min(10, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(measureEnd - System.nanoTime()))));
+                System.out.printf("[run] %d requests measured%n", report.totalRequests());
+            }
+            report.stopMeasuring();
+            // 结束时不等待进行中的长请求（如导出），直接中断
+            executor.shutdownNow();
+        }
+
+        PrintWriter out = new PrintWriter(System.out);
+        report.print(out);
+        String reportPath = options.get("report", "");
+        if (!reportPath.isBlank()) {
+            report.writeCsv(Path.of(reportPath));
+            System.out.println("[run] report written to " + reportPath);
+        }
+    }
+}
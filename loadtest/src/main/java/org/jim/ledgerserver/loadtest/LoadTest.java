@@ -0,0 +1,54 @@
+package org.jim.ledgerserver.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 压测工具入口
+ * <pre>
+ * generate  向 MySQL 写入合成数据（用户、共享账本、交易、子交易、附件）
+ * run       用虚拟线程模拟用户操作路径请求 HTTP 接口，输出各接口吞吐与延迟分位数
+ * profile   重放固定的请求组合并录制 JFR，按接口归因分配、CPU 采样、锁等待和 GC 暂停
+ * </pre>
+ *
+ * @author James Smith
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            System.exit(1);
+        }
+        Options options = new Options(Arrays.copyOfRange(args, 1, args.length));
+        switch (args[0]) {
+            case "generate" -> new DataGenerator(options).generate();
+            case "run" -> new LoadDriver(options).run();
+            case "profile" -> new ProfileDriver(options).run();
+            default -> {
+                usage();
+                System.exit(1);
+            }
+        }
+    }
+
+    private static void usage() {
+        System.err.println("""
+                usage:
+                  java -jar loadtest.jar generate --jdbc-url=jdbc:mysql://localhost:3306/ledger_db --jdbc-user=... --jdbc-password=...
+                      [--users=1000] [--transactions-per-user=300] [--shared-ledger-ratio=0.2] [--months=12]
+                      [--zipf-exponent=1.1] [--aggregate-rate=0.02] [--attachment-rate=0.01]
+                      [--user-prefix=lt_] [--password=loadtest123] [--seed=42]
+                  java -jar loadtest.jar run --base-url=http://localhost:9432
+                      [--virtual-users=200] [--users=1000] [--duration=5m] [--warm-up=30s] [--think-time-ms=500]
+                      [--user-prefix=lt_] [--password=loadtest123] [--report=loadtest-report.csv] [--seed=42]
+                  java -jar loadtest.jar profile --base-url=http://localhost:9432 --pid=<server pid>
+                      [--virtual-users=20] [--users=1000] [--iterations=100] [--warm-up-iterations=20]
+                      [--settings=profile] [--jfr-out=ledger-profile.jfr] [--report=jfr-report.csv]
+                      [--baseline=<previous jfr-report.csv>] [--user-prefix=lt_] [--password=loadtest123] [--seed=42]
+                  java -jar loadtest.jar profile --jfr=<recording.jfr> [--report=jfr-report.csv] [--baseline=...]
+                """);
+    }
+}
@@ -0,0 +1,132 @@
+package org.jim.ledgerserver.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * JFR 按接口剖析
+ * 用固定种子、固定轮数、无停顿的 {@link UserJourney} 重放同一组请求：先预热（不录制），再通过 jcmd 在服务进程上开启 JFR，
+ * 重放结束后导出录制文件并交给 {@link JfrEndpointAnalyzer} 归因。种子、轮数和数据集不变时请求组合不变，两次运行的报告可以对比。
+ * 只传 --jfr 时跳过重放，直接分析已有的录制文件（例如服务以 -XX:StartFlightRecording 启动时录下的）。
+ *
+ * @author James Smith
+ */
+final class ProfileDriver {
+
+    private static final String RECORDING_NAME = "ledger-endpoint-profile";
+
+    private final Options options;
+
+    ProfileDriver(Options options) {
+        this.options = options;
+    }
+
+    void run() throws Exception {
+        Path recording;
+        String existing = options.get("jfr", "");
+        if (!existing.isBlank()) {
+            recording = Path.of(existing);
+        } else {
+            recording = Path.of(options.get("jfr-out", "ledger-profile.jfr")).toAbsolutePath();
+            replay(recording);
+        }
+
+        System.out.println("[profile] analyzing " + recording);
+        JfrEndpointAnalyzer.Result result = new JfrEndpointAnalyzer().analyze(recording);
+        JfrEndpointReport report = new JfrEndpointReport(result);
+        PrintWriter out = new PrintWriter(System.out);
+        report.print(out);
+        String baseline = options.get("baseline", "");
+        if (!baseline.isBlank()) {
+            report.printComparison(out, Path.of(baseline));
+        }
+        String reportPath = options.get("report", "jfr-report.csv");
+        report.writeCsv(Path.of(reportPath));
+        System.out.println("[profile] report written to " + reportPath);
+    }
+
+    private void replay(Path recording) throws Exception {
+        String baseUrl = options.require("base-url");
+        String pid = options.require("pid");
+        int virtualUsers = options.getInt("virtual-users", 20);
+        int users = options.getInt("users", 1000);
+        int iterations = options.getInt("iterations", 100);
+        int warmUpIterations = options.getInt("warm-up-iterations", 20);
+        String prefix = options.get("user-prefix", "lt_");
+        String password = options.get("password", "loadtest123");
+        String settings = options.get("settings", "profile");
+        SplittableRandom seed = new SplittableRandom(options.getLong("seed", 42));
+
+        LatencyReport latency = new LatencyReport();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        ApiClient api = new ApiClient(httpClient, new ObjectMapper(), baseUrl, latency);
+        List<UserJourney> journeys = new ArrayList<>(virtualUsers);
+        for (int i = 0; i < virtualUsers; i++) {
+            journeys.add(new UserJourney(api, prefix + (i % users), password, 0, seed.split()));
+        }
+
+        System.out.printf("[profile] warm-up: %d virtual users x %d iterations%n", virtualUsers, warmUpIterations);
+        replay(journeys, warmUpIterations);
+
+        jcmd(pid, "JFR.start", "name=" + RECORDING_NAME, "settings=" + settings);
+        try {
+            System.out.printf("[profile] recording: %d virtual users x %d iterations%n", virtualUsers, iterations);
+            latency.startMeasuring();
+            replay(journeys, iterations);
+            latency.stopMeasuring();
+            jcmd(pid, "JFR.dump", "name=" + RECORDING_NAME, "filename=" + recording);
+        } finally {
+            jcmd(pid, "JFR.stop", "name=" + RECORDING_NAME);
+        }
+        latency.print(new PrintWriter(System.out));
+    }
+
+    /**
+     * 每个虚拟用户在自己的虚拟线程上连续执行固定轮数，全部完成后返回
+     */
+    private static void replay(List<UserJourney> journeys, int iterations) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(journeys.size());
+            for (UserJourney journey : journeys) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        journey.runOnce();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    /**
+     * jcmd 需与服务进程在同一台机器、同一用户下执行
+     */
+    private static void jcmd(String pid, String... command) throws IOException, InterruptedException {
+        List<String> args = new ArrayList<>(List.of("jcmd", pid));
+        args.addAll(List.of(command));
+        Process process = new ProcessBuilder(args).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("jcmd " + String.join(" ", command) + " failed: " + output);
+        }
+        System.out.println("[profile] " + String.join(" ", command) + ": " + output.strip());
+    }
+}
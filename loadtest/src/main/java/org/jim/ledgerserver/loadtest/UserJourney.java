@@ -0,0 +1,219 @@
+package org.jim.ledgerserver.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 单个虚拟用户的操作路径
+ * 每轮按权重选一条路径执行：打开应用、滚动交易列表、月视图、报表、Agent 分析、导出。
+ * 路径内相邻请求之间按指数分布等待（均值 think-time-ms），模拟真实用户的停顿。
+ *
+ * @author James Smith
+ */
+final class UserJourney {
+
+    private static final String[] ANALYSIS_TYPES = {"summary", "trend", "category_breakdown", "ranking"};
+
+    private static final String[] REPORT_DIMENSIONS = {"category", "ledger", "paymentMethod"};
+
+    private final ApiClient api;
+
+    private final String username;
+
+    private final String password;
+
+    private final long thinkTimeMs;
+
+    private final SplittableRandom random;
+
+    private String token;
+
+    private final List<Long> ledgerIds = new ArrayList<>();
+
+    /**
+     * 路径及其权重
+     */
+    private enum Journey {
+        OPEN_APP(10), SCROLL_LIST(35), MONTH_VIEW(25), REPORT(15), AGENT_ANALYZE(10), EXPORT(5);
+
+        final int weight;
+
+        Journey(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final int TOTAL_WEIGHT = Arrays.stream(Journey.values()).mapToInt(j -> j.weight).sum();
+
+    UserJourney(ApiClient api, String username, String password, long thinkTimeMs, SplittableRandom random) {
+        this.api = api;
+        this.username = username;
+        this.password = password;
+        this.thinkTimeMs = thinkTimeMs;
+        this.random = random;
+    }
+
+    /**
+     * 执行一轮：未登录时先走打开应用，否则按权重随机选一条路径
+     */
+    void runOnce() throws InterruptedException {
+        if (token == null) {
+            openApp();
+            return;
+        }
+        int pick = random.nextInt(TOTAL_WEIGHT);
+        for (Journey journey : Journey.values()) {
+            pick -= journey.weight;
+            if (pick < 0) {
+                switch (journey) {
+                    case OPEN_APP -> openApp();
+                    case SCROLL_LIST -> scrollList();
+                    case MONTH_VIEW -> monthView();
+                    case REPORT -> report();
+                    case AGENT_ANALYZE -> agentAnalyze();
+                    case EXPORT -> export();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * 打开应用：登录（或复用 token）、个人信息、账本、分类、支付方式
+     */
+    private void openApp() throws InterruptedException {
+        if (token == null) {
+            JsonNode login = api.post("/user/login", "/user/login", Map.of("username", username, "password", password), null);
+            if (login == null) {
+                think();
+                return;
+            }
+            token = login.path("token").asText();
+        }
+        api.get("/user/profile", "/user/profile", Map.of(), token);
+        JsonNode ledgers = api.get("/api/ledgers", "/api/ledgers", Map.of(), token);
+        if (ledgers != null && ledgers.isArray()) {
+            ledgerIds.clear();
+            ledgers.forEach(ledger -> ledgerIds.add(ledger.path("id").asLong()));
+        }
+        api.get("/api/categories", "/api/categories", Map.of(), token);
+        api.get("/api/payment-methods", "/api/payment-methods", Map.of(), token);
+        think();
+    }
+
+    /**
+     * 滚动交易列表：从第一页起向下翻 1–5 页，偶尔展开一笔聚合交易
+     */
+    private void scrollList() throws InterruptedException {
+        Long ledgerId = pickLedger();
+        int pages = 1 + random.nextInt(5);
+        for (int page = 0; page < pages; page++) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("ledgerId", ledgerId);
+            body.put("page", page);
+            body.put("size", 20);
+            body.put("sortBy", "transactionDateTime");
+            body.put("sortDirection", "DESC");
+            JsonNode result = api.post("/api/transactions/query", "/api/transactions/query", body, token);
+            if (result == null) {
+                break;
+            }
+            JsonNode content = result.path("content");
+            if (random.nextInt(10) == 0 && content.size() > 0) {
+                long id = content.get(random.nextInt(content.size())).path("id").asLong();
+                api.get("/api/transactions/{id}/aggregated", "/api/transactions/" + id + "/aggregated", Map.of(), token);
+            }
+            think();
+            if (!result.path("hasNext").asBoolean()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 月视图：热力图每日统计与月度汇总
+     */
+    private void monthView() throws InterruptedException {
+        Long ledgerId = pickLedger();
+        YearMonth month = YearMonth.now().minusMonths(random.nextInt(6));
+        Map<String, Object> query = new LinkedHashMap<>();
+        query.put("ledgerId", ledgerId);
+        query.put("startTime", month.atDay(1).atStartOfDay().toString());
+        query.put("endTime", month.atEndOfMonth().atTime(23, 59, 59).toString());
+        api.get("/api/transactions/daily-statistics", "/api/transactions/daily-statistics", query, token);
+        api.get("/api/transactions/monthly-summary", "/api/transactions/monthly-summary", query, token);
+        think();
+    }
+
+    /**
+     * 报表：近一个月或近一年的分组统计与趋势
+     */
+    private void report() throws InterruptedException {
+        boolean year = random.nextInt(3) == 0;
+        LocalDateTime end = LocalDate.now().atTime(23, 59, 59);
+        LocalDateTime start = (year ? end.minusYears(1) : end.minusMonths(1)).toLocalDate().atStartOfDay();
+        Map<String, Object> body = new HashMap<>();
+        body.put("ledgerId", pickLedger());
+        body.put("startTime", start.toString());
+        body.put("endTime", end.toString());
+        body.put("groupBy", year ? "month" : "day");
+        body.put("dimension", REPORT_DIMENSIONS[random.nextInt(REPORT_DIMENSIONS.length)]);
+        api.post("/api/reports/by-category", "/api/reports/by-category", body, token);
+        think();
+        api.post("/api/reports/trend", "/api/reports/trend", body, token);
+        think();
+    }
+
+    /**
+     * Agent 分析：近三个月的汇总 / 趋势 / 分类占比 / 排行
+     */
+    private void agentAnalyze() throws InterruptedException {
+        LocalDate end = LocalDate.now();
+        Map<String, Object> body = new HashMap<>();
+        body.put("ledgerId", pickLedger());
+        body.put("startTime", end.minusMonths(3).toString());
+        body.put("endTime", end.toString());
+        body.put("analysisType", ANALYSIS_TYPES[random.nextInt(ANALYSIS_TYPES.length)]);
+        body.put("topN", 10);
+        api.post("/api/agent/analyze", "/api/agent/analyze", body, token);
+        think();
+    }
+
+    /**
+     * 导出交易（CSV）
+     */
+    private void export() throws InterruptedException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("format", "CSV");
+        body.put("dataType", "TRANSACTIONS");
+        body.put("ledgerId", pickLedger());
+        api.post("/api/export/data", "/api/export/data", body, token);
+        think();
+    }
+
+    /**
+     * 一半请求不限账本，其余随机选一个可见账本
+     */
+    private Long pickLedger() {
+        if (ledgerIds.isEmpty() || random.nextBoolean()) {
+            return null;
+        }
+        return ledgerIds.get(random.nextInt(ledgerIds.size()));
+    }
+
+    private void think() throws InterruptedException {
+        if (thinkTimeMs > 0) {
+            Thread.sleep((long) (-thinkTimeMs * Math.log(1 - random.nextDouble())));
+        }
+    }
+}
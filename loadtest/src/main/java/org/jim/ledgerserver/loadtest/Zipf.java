@@ -0,0 +1,35 @@
+package org.jim.ledgerserver.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zipf 分布采样：第 k 个元素（从 0 开始）被选中的概率与 1/(k+1)^s 成正比
+ * 预先计算累积分布，采样为一次二分查找。
+ *
+ * @author James Smith
+ */
+final class Zipf {
+
+    private final double[] cumulative;
+
+    Zipf(int size, double exponent) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        cumulative = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
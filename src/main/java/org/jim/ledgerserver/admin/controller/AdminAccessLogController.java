@@ -0,0 +1,72 @@
+package org.jim.ledgerserver.admin.controller;
+
+import jakarta.annotation.Resource;
+import org.jim.ledgerserver.admin.vo.AccessLogSettingsReq;
+import org.jim.ledgerserver.admin.vo.AccessLogSettingsResp;
+import org.jim.ledgerserver.common.JSONResult;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.monitor.AccessLogSettings;
+import org.jim.ledgerserver.common.monitor.AccessLogWriter;
+import org.jim.ledgerserver.common.util.PermissionUtil;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 管理员 - 访问日志运行时配置
+ * @author James Smith
+ */
+@RestController
+@RequestMapping("/api/admin/access-log")
+public class AdminAccessLogController {
+
+    @Resource
+    private AccessLogSettings accessLogSettings;
+
+    @Resource
+    private AccessLogWriter accessLogWriter;
+
+    @Resource
+    private PermissionUtil permissionUtil;
+
+    /**
+     * 查询当前配置
+     */
+    @GetMapping
+    public JSONResult<AccessLogSettingsResp> getSettings() {
+        requireAdmin();
+        return JSONResult.success(toResp());
+    }
+
+    /**
+     * 运行时修改采样率、慢请求阈值、MCP 请求体采集开关（重启后恢复为配置文件的值）
+     */
+    @PutMapping
+    public JSONResult<AccessLogSettingsResp> updateSettings(@RequestBody AccessLogSettingsReq request) {
+        requireAdmin();
+        if (request.sampleRate() != null) {
+            accessLogSettings.setSampleRate(request.sampleRate());
+        }
+        if (request.slowThresholdMs() != null) {
+            accessLogSettings.setSlowThresholdMs(request.slowThresholdMs());
+        }
+        if (request.mcpBodyCapture() != null) {
+            accessLogSettings.setMcpBodyCapture(request.mcpBodyCapture());
+        }
+        return JSONResult.success(toResp());
+    }
+
+    private AccessLogSettingsResp toResp() {
+        return new AccessLogSettingsResp(
+                accessLogSettings.getSampleRate(),
+                accessLogSettings.getSlowThresholdMs(),
+                accessLogSettings.isMcpBodyCapture(),
+                accessLogWriter.getQueueSize(),
+                accessLogWriter.getDroppedCount()
+        );
+    }
+
+    private void requireAdmin() {
+        if (!permissionUtil.isCurrentUserAdmin()) {
+            throw new BusinessException(403, "仅管理员可访问");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.jim.ledgerserver.admin.controller;
+
+import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.jim.ledgerserver.admin.vo.CacheRegionStatsResp;
+import org.jim.ledgerserver.common.JSONResult;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.util.PermissionUtil;
+import org.jim.ledgerserver.completion.dto.CompletionCacheStats;
+import org.jim.ledgerserver.completion.service.CompletionPhraseService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 管理员 - 缓存监控
+ * @author James Smith
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+public class AdminCacheController {
+
+    @Resource
+    private EntityManagerFactory entityManagerFactory;
+
+    @Resource
+    private PermissionUtil permissionUtil;
+
+    @Resource
+    private CompletionPhraseService completionPhraseService;
+
+    /**
+     * 查询 Hibernate 二级缓存各区域的命中统计
+     */
+    @GetMapping("/stats")
+    public JSONResult<List<CacheRegionStatsResp>> getCacheStats() {
+        if (!permissionUtil.isCurrentUserAdmin()) {
+            throw new BusinessException(403, "仅管理员可访问");
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStatsResp> result = new ArrayList<>();
+        for (String region : Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted().toList()) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats == null) {
+                continue;
+            }
+            long hits = regionStats.getHitCount();
+            long misses = regionStats.getMissCount();
+            long total = hits + misses;
+            result.add(new CacheRegionStatsResp(
+                    region,
+                    hits,
+                    misses,
+                    regionStats.getPutCount(),
+                    total == 0 ? 0D : (double) hits / total,
+                    regionStats.getElementCountInMemory()
+            ));
+        }
+        return JSONResult.success(result);
+    }
+
+    /**
+     * 查询本节点补全短语缓存的容量与命中统计
+     */
+    @GetMapping("/completion")
+    public JSONResult<CompletionCacheStats> getCompletionCacheStats() {
+        if (!permissionUtil.isCurrentUserAdmin()) {
+            throw new BusinessException(403, "仅管理员可访问");
+        }
+        return JSONResult.success(completionPhraseService.getCacheStats());
+    }
+}
@@ -0,0 +1,130 @@
+package org.jim.ledgerserver.admin.controller;
+
+import jakarta.annotation.Resource;
+import org.jim.ledgerserver.admin.vo.ProfilingRecordingResp;
+import org.jim.ledgerserver.admin.vo.ProfilingSummaryResp;
+import org.jim.ledgerserver.admin.vo.ThreadDumpResp;
+import org.jim.ledgerserver.common.JSONResult;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.monitor.OnDemandProfiler;
+import org.jim.ledgerserver.common.util.PermissionUtil;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 管理员 - 按需剖析（本节点）：JFR 录制、录制摘要、线程转储
+ * @author James Smith
+ */
+@RestController
+@RequestMapping("/api/admin/profiling")
+public class AdminProfilingController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Resource
+    private OnDemandProfiler onDemandProfiler;
+
+    @Resource
+    private PermissionUtil permissionUtil;
+
+    /**
+     * 开始 JFR 录制，到时自动停止
+     *
+     * @param durationSeconds 录制时长（秒），默认 ledger.profiling.default-duration-seconds，不超过 max-duration-seconds
+     * @return 录制信息
+     */
+    @PostMapping("/recordings")
+    public JSONResult<ProfilingRecordingResp> start(@RequestParam(required = false) Integer durationSeconds) {
+        requireAdmin();
+        return JSONResult.success(toResp(onDemandProfiler.start(durationSeconds)));
+    }
+
+    /**
+     * 停止当前录制并返回摘要
+     *
+     * @param limit 每个排行返回的条数，默认 20，最大 100
+     * @return 录制摘要
+     */
+    @PostMapping("/recordings/stop")
+    public JSONResult<ProfilingSummaryResp> stop(@RequestParam(defaultValue = "20") int limit) {
+        requireAdmin();
+        return JSONResult.success(toResp(onDemandProfiler.stop(Math.clamp(limit, 1, MAX_LIMIT))));
+    }
+
+    /**
+     * 本节点的录制文件（新的在前）
+     */
+    @GetMapping("/recordings")
+    public JSONResult<List<ProfilingRecordingResp>> list() {
+        requireAdmin();
+        return JSONResult.success(onDemandProfiler.list().stream().map(AdminProfilingController::toResp).toList());
+    }
+
+    /**
+     * 已结束录制的摘要：热点方法、分配位置、阻塞线程、GC 暂停
+     *
+     * @param file 录制文件名
+     * @param limit 每个排行返回的条数，默认 20，最大 100
+     * @return 录制摘要
+     */
+    @GetMapping("/recordings/{file}/summary")
+    public JSONResult<ProfilingSummaryResp> summary(@PathVariable String file,
+                                                    @RequestParam(defaultValue = "20") int limit) {
+        requireAdmin();
+        return JSONResult.success(toResp(onDemandProfiler.summarize(file, Math.clamp(limit, 1, MAX_LIMIT))));
+    }
+
+    /**
+     * 线程转储
+     *
+     * @param blockedOnly 只返回阻塞线程，默认 false
+     * @return 线程转储
+     */
+    @GetMapping("/thread-dump")
+    public JSONResult<ThreadDumpResp> threadDump(@RequestParam(defaultValue = "false") boolean blockedOnly) {
+        requireAdmin();
+        OnDemandProfiler.ThreadDump dump = onDemandProfiler.threadDump(blockedOnly);
+        return JSONResult.success(new ThreadDumpResp(
+                dump.threadCount(),
+                dump.stateCounts(),
+                dump.deadlocked(),
+                dump.blocked().stream().map(AdminProfilingController::toResp).toList(),
+                dump.threads().stream().map(AdminProfilingController::toResp).toList()));
+    }
+
+    private void requireAdmin() {
+        if (!permissionUtil.isCurrentUserAdmin()) {
+            throw new BusinessException(403, "仅管理员可访问");
+        }
+    }
+
+    private static ProfilingRecordingResp toResp(OnDemandProfiler.RecordingInfo info) {
+        return new ProfilingRecordingResp(info.file(), info.state(), info.startTime(), info.durationSeconds(),
+                info.sizeBytes());
+    }
+
+    private static ProfilingSummaryResp toResp(OnDemandProfiler.Summary s) {
+        return new ProfilingSummaryResp(
+                s.file(),
+                s.durationMs(),
+                s.cpuSamples(),
+                toResp(s.hotMethods()),
+                s.allocatedBytes(),
+                toResp(s.allocationSites()),
+                s.blockedMs(),
+                toResp(s.blockedThreads()),
+                s.gcPauses(),
+                s.gcPauseMs(),
+                s.maxGcPauseMs());
+    }
+
+    private static List<ProfilingSummaryResp.Entry> toResp(List<OnDemandProfiler.Entry> entries) {
+        return entries.stream().map(e -> new ProfilingSummaryResp.Entry(e.name(), e.value(), e.percent())).toList();
+    }
+
+    private static ThreadDumpResp.ThreadResp toResp(OnDemandProfiler.ThreadSnapshot t) {
+        return new ThreadDumpResp.ThreadResp(t.id(), t.name(), t.state(), t.daemon(), t.lockName(),
+                t.lockOwnerName(), t.blockedCount(), t.waitedCount(), t.stack());
+    }
+}
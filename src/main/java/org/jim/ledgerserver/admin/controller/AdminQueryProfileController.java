@@ -0,0 +1,74 @@
+package org.jim.ledgerserver.admin.controller;
+
+import jakarta.annotation.Resource;
+import org.jim.ledgerserver.admin.vo.QueryFingerprintStatsResp;
+import org.jim.ledgerserver.common.JSONResult;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.monitor.QueryProfiler;
+import org.jim.ledgerserver.common.util.PermissionUtil;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 管理员 - SQL 耗时画像（本节点）
+ * @author James Smith
+ */
+@RestController
+@RequestMapping("/api/admin/query-profile")
+@ConditionalOnProperty(name = "ledger.slow-query.enabled", havingValue = "true")
+public class AdminQueryProfileController {
+
+    private static final int MAX_LIMIT = 200;
+
+    @Resource
+    private QueryProfiler queryProfiler;
+
+    @Resource
+    private PermissionUtil permissionUtil;
+
+    /**
+     * 耗时最高的 SQL 指纹
+     *
+     * @param sortBy 排序字段 total（累计耗时，默认）/ p99 / max / count / rows
+     * @param limit 返回条数，默认 20，最大 200
+     * @return 指纹统计列表
+     */
+    @GetMapping("/top")
+    public JSONResult<List<QueryFingerprintStatsResp>> getTopFingerprints(
+            @RequestParam(defaultValue = "total") String sortBy,
+            @RequestParam(defaultValue = "20") int limit) {
+        requireAdmin();
+        List<QueryFingerprintStatsResp> result = queryProfiler.top(sortBy, Math.clamp(limit, 1, MAX_LIMIT)).stream()
+                .map(s -> new QueryFingerprintStatsResp(
+                        s.key().fingerprint(),
+                        s.key().repository(),
+                        s.key().caller(),
+                        s.count(),
+                        s.totalMs(),
+                        s.avgMs(),
+                        s.p50Ms(),
+                        s.p99Ms(),
+                        s.maxMs(),
+                        s.rows()))
+                .toList();
+        return JSONResult.success(result);
+    }
+
+    /**
+     * 清空统计（例如发布新版本后重新采集）
+     */
+    @DeleteMapping
+    public JSONResult<Void> reset() {
+        requireAdmin();
+        queryProfiler.reset();
+        return JSONResult.success();
+    }
+
+    private void requireAdmin() {
+        if (!permissionUtil.isCurrentUserAdmin()) {
+            throw new BusinessException(403, "仅管理员可访问");
+        }
+    }
+}
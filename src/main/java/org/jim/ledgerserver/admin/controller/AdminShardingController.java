@@ -0,0 +1,116 @@
+package org.jim.ledgerserver.admin.controller;
+
+import jakarta.annotation.Resource;
+import org.jim.ledgerserver.admin.vo.ShardMoveResp;
+import org.jim.ledgerserver.admin.vo.ShardRebalanceResp;
+import org.jim.ledgerserver.admin.vo.ShardStatusResp;
+import org.jim.ledgerserver.common.JSONResult;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.sharding.ShardKey;
+import org.jim.ledgerserver.common.sharding.ShardMigrator;
+import org.jim.ledgerserver.common.util.PermissionUtil;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 管理员 - 交易分片：数据量、单个账本迁移、按行数均衡
+ * @author James Smith
+ */
+@RestController
+@RequestMapping("/api/admin/sharding")
+@ConditionalOnProperty(name = "ledger.sharding.enabled", havingValue = "true")
+public class AdminShardingController {
+
+    private static final int MAX_MOVES = 1000;
+
+    @Resource
+    private ShardMigrator shardMigrator;
+
+    @Resource
+    private PermissionUtil permissionUtil;
+
+    /**
+     * 各分片的交易、附件行数和最大的账本/用户
+     *
+     * @param top 每个分片返回的最大账本/用户数，默认 10
+     */
+    @GetMapping("/status")
+    public JSONResult<List<ShardStatusResp>> status(@RequestParam(defaultValue = "10") int top) {
+        requireAdmin();
+        return JSONResult.success(shardMigrator.status(Math.clamp(top, 0, 100)).stream()
+                .map(s -> new ShardStatusResp(s.shard(), s.transactions(), s.attachments(), s.directoryEntries(),
+                        s.largestKeys().stream()
+                                .map(k -> new ShardStatusResp.KeyRows(k.key().toString(), k.rows()))
+                                .toList()))
+                .toList());
+    }
+
+    /**
+     * 把一个账本（或一个用户未归属账本的交易）迁移到目标分片，迁移期间该账本只读
+     *
+     * @param scope       ledger / user
+     * @param id          账本ID或用户ID
+     * @param targetShard 目标分片号
+     */
+    @PostMapping("/move")
+    public JSONResult<ShardMoveResp> move(@RequestParam String scope,
+                                          @RequestParam Long id,
+                                          @RequestParam int targetShard) {
+        requireAdmin();
+        ShardMigrator.MoveResult result = shardMigrator.move(new ShardKey(parseScope(scope), id), targetShard);
+        return JSONResult.success(new ShardMoveResp(result.key().toString(), result.sourceShard(),
+                result.targetShard(), result.transactions(), result.attachments(), result.durationMs()));
+    }
+
+    /**
+     * 生成均衡计划（不执行），附带最近一次执行的进度
+     *
+     * @param tolerance 行数差不超过平均值的该比例时视为均衡，默认 0.1
+     * @param maxMoves  最多迁移的账本/用户数，默认 100
+     */
+    @GetMapping("/rebalance")
+    public JSONResult<ShardRebalanceResp> plan(@RequestParam(defaultValue = "0.1") double tolerance,
+                                               @RequestParam(defaultValue = "100") int maxMoves) {
+        requireAdmin();
+        return JSONResult.success(toResp(shardMigrator.plan(tolerance, Math.clamp(maxMoves, 0, MAX_MOVES)),
+                shardMigrator.rebalanceProgress()));
+    }
+
+    /**
+     * 生成均衡计划并在后台执行，进度通过 GET /rebalance 查看
+     */
+    @PostMapping("/rebalance")
+    public JSONResult<ShardRebalanceResp> rebalance(@RequestParam(defaultValue = "0.1") double tolerance,
+                                                    @RequestParam(defaultValue = "100") int maxMoves) {
+        requireAdmin();
+        ShardMigrator.RebalancePlan plan = shardMigrator.plan(tolerance, Math.clamp(maxMoves, 0, MAX_MOVES));
+        return JSONResult.success(toResp(plan, shardMigrator.rebalance(plan)));
+    }
+
+    private void requireAdmin() {
+        if (!permissionUtil.isCurrentUserAdmin()) {
+            throw new BusinessException(403, "仅管理员可访问");
+        }
+    }
+
+    private static ShardKey.Scope parseScope(String scope) {
+        try {
+            return ShardKey.Scope.valueOf(scope.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("scope 只能是 ledger 或 user");
+        }
+    }
+
+    private static ShardRebalanceResp toResp(ShardMigrator.RebalancePlan plan, ShardMigrator.RebalanceProgress p) {
+        return new ShardRebalanceResp(
+                plan.moves().stream()
+                        .map(m -> new ShardRebalanceResp.Move(m.key().toString(), m.sourceShard(), m.targetShard(), m.rows()))
+                        .toList(),
+                plan.rowsBefore(),
+                plan.rowsAfter(),
+                p == null ? null : new ShardRebalanceResp.Progress(p.state(), p.total(), p.completed(), p.failed(),
+                        p.current(), p.lastError(), p.startTime(), p.endTime()));
+    }
+}
@@ -0,0 +1,23 @@
+package org.jim.ledgerserver.admin.vo;
+
+/**
+ * 访问日志配置更新请求（字段为 null 表示不修改）
+ * @author James Smith
+ */
+public record AccessLogSettingsReq(
+        /**
+         * 采样率（0-1）
+         */
+        Double sampleRate,
+
+        /**
+         * 慢请求阈值（毫秒）
+         */
+        Long slowThresholdMs,
+
+        /**
+         * 是否采集 MCP 请求体
+         */
+        Boolean mcpBodyCapture
+) {
+}
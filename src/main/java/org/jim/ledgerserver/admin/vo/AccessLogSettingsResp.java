@@ -0,0 +1,33 @@
+package org.jim.ledgerserver.admin.vo;
+
+/**
+ * 访问日志当前配置与队列状态
+ * @author James Smith
+ */
+public record AccessLogSettingsResp(
+        /**
+         * 采样率（0-1）
+         */
+        double sampleRate,
+
+        /**
+         * 慢请求阈值（毫秒）
+         */
+        long slowThresholdMs,
+
+        /**
+         * 是否采集 MCP 请求体
+         */
+        boolean mcpBodyCapture,
+
+        /**
+         * 队列中待写出的条目数
+         */
+        int queueSize,
+
+        /**
+         * 因队列满被丢弃的条目总数
+         */
+        long droppedCount
+) {
+}
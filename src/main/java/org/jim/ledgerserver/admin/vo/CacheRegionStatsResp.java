@@ -0,0 +1,38 @@
+package org.jim.ledgerserver.admin.vo;
+
+/**
+ * 二级缓存区域统计
+ * @author James Smith
+ */
+public record CacheRegionStatsResp(
+        /**
+         * 区域名称
+         */
+        String region,
+
+        /**
+         * 命中次数
+         */
+        long hitCount,
+
+        /**
+         * 未命中次数
+         */
+        long missCount,
+
+        /**
+         * 写入次数
+         */
+        long putCount,
+
+        /**
+         * 命中率（0-1，无访问时为0）
+         */
+        double hitRatio,
+
+        /**
+         * 当前内存中的条目数（-1 表示缓存实现不支持）
+         */
+        long elementCountInMemory
+) {
+}
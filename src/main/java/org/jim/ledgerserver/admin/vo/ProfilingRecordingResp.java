@@ -0,0 +1,35 @@
+package org.jim.ledgerserver.admin.vo;
+
+import java.time.Instant;
+
+/**
+ * JFR 录制文件信息
+ * @author James Smith
+ */
+public record ProfilingRecordingResp(
+        /**
+         * 文件名（用于查询摘要）
+         */
+        String file,
+
+        /**
+         * RUNNING（录制中）/ FINISHED
+         */
+        String state,
+
+        /**
+         * 开始时间（已结束的文件为最后修改时间）
+         */
+        Instant startTime,
+
+        /**
+         * 录制时长上限（秒），已结束的文件为 0
+         */
+        long durationSeconds,
+
+        /**
+         * 文件大小（字节），录制中为 0
+         */
+        long sizeBytes
+) {
+}
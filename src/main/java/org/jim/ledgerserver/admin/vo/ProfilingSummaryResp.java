@@ -0,0 +1,73 @@
+package org.jim.ledgerserver.admin.vo;
+
+import java.util.List;
+
+/**
+ * JFR 录制摘要
+ * @author James Smith
+ */
+public record ProfilingSummaryResp(
+        /**
+         * 录制文件名
+         */
+        String file,
+
+        /**
+         * 录制覆盖的时长（毫秒）
+         */
+        long durationMs,
+
+        /**
+         * CPU 采样总数
+         */
+        long cpuSamples,
+
+        /**
+         * 热点方法（value 为 CPU 采样数）
+         */
+        List<Entry> hotMethods,
+
+        /**
+         * 采样估算的分配总字节数
+         */
+        long allocatedBytes,
+
+        /**
+         * 分配位置，格式为“类型 @ 方法:行号”（value 为分配字节数）
+         */
+        List<Entry> allocationSites,
+
+        /**
+         * 监视器等待总时长（毫秒）
+         */
+        long blockedMs,
+
+        /**
+         * 阻塞线程，格式为“线程 on 锁类型”（value 为等待毫秒数）
+         */
+        List<Entry> blockedThreads,
+
+        /**
+         * GC 暂停次数
+         */
+        long gcPauses,
+
+        /**
+         * GC 暂停总时长（毫秒）
+         */
+        long gcPauseMs,
+
+        /**
+         * 最长一次 GC 暂停（毫秒）
+         */
+        long maxGcPauseMs
+) {
+    /**
+     * 排行项
+     */
+    public record Entry(
+            String name,
+            long value,
+            double percent
+    ) {}
+}
@@ -0,0 +1,58 @@
+package org.jim.ledgerserver.admin.vo;
+
+/**
+ * SQL 指纹耗时统计
+ * @author James Smith
+ */
+public record QueryFingerprintStatsResp(
+        /**
+         * SQL 指纹（字面量替换为 ?）
+         */
+        String fingerprint,
+
+        /**
+         * 发起语句的仓库方法，不经过仓库时为空
+         */
+        String repository,
+
+        /**
+         * 调用方（类名.方法名）
+         */
+        String caller,
+
+        /**
+         * 执行次数
+         */
+        long count,
+
+        /**
+         * 累计耗时（毫秒）
+         */
+        long totalMs,
+
+        /**
+         * 平均耗时（毫秒）
+         */
+        double avgMs,
+
+        /**
+         * 最近若干次执行的耗时中位数（毫秒）
+         */
+        long p50Ms,
+
+        /**
+         * 最近若干次执行的耗时 99 分位（毫秒）
+         */
+        long p99Ms,
+
+        /**
+         * 最大耗时（毫秒）
+         */
+        long maxMs,
+
+        /**
+         * 累计行数（查询为返回行数，更新为影响行数）
+         */
+        long rows
+) {
+}
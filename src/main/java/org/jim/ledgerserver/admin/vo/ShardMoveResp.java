@@ -0,0 +1,32 @@
+package org.jim.ledgerserver.admin.vo;
+
+/**
+ * 分片迁移结果
+ * @author James Smith
+ */
+public record ShardMoveResp(
+        /**
+         * ledger:账本ID 或 user:用户ID
+         */
+        String key,
+
+        int sourceShard,
+
+        int targetShard,
+
+        /**
+         * 复制的交易行数
+         */
+        long transactions,
+
+        /**
+         * 复制的附件行数
+         */
+        long attachments,
+
+        /**
+         * 耗时（毫秒，含等待各节点刷新目录的时间）
+         */
+        long durationMs
+) {
+}
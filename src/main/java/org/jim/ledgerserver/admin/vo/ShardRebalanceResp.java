@@ -0,0 +1,58 @@
+package org.jim.ledgerserver.admin.vo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分片均衡计划与执行进度
+ * @author James Smith
+ */
+public record ShardRebalanceResp(
+        /**
+         * 计划迁移的键（按执行顺序）
+         */
+        List<Move> moves,
+
+        /**
+         * 迁移前各分片交易行数
+         */
+        Map<Integer, Long> rowsBefore,
+
+        /**
+         * 按计划迁移后各分片交易行数
+         */
+        Map<Integer, Long> rowsAfter,
+
+        /**
+         * 后台执行进度，只生成计划时为最近一次执行的进度（可能为空）
+         */
+        Progress progress
+) {
+    public record Move(
+            String key,
+            int sourceShard,
+            int targetShard,
+            long rows
+    ) {}
+
+    public record Progress(
+            /**
+             * RUNNING / COMPLETED / FAILED
+             */
+            String state,
+            int total,
+            int completed,
+            int failed,
+            /**
+             * 正在迁移的键
+             */
+            String current,
+            /**
+             * 最近一次失败原因
+             */
+            String lastError,
+            LocalDateTime startTime,
+            LocalDateTime endTime
+    ) {}
+}
@@ -0,0 +1,45 @@
+package org.jim.ledgerserver.admin.vo;
+
+import java.util.List;
+
+/**
+ * 分片数据量
+ * @author James Smith
+ */
+public record ShardStatusResp(
+        /**
+         * 分片号
+         */
+        int shard,
+
+        /**
+         * 交易行数
+         */
+        long transactions,
+
+        /**
+         * 附件行数
+         */
+        long attachments,
+
+        /**
+         * 目录中登记在该分片的账本/用户数
+         */
+        long directoryEntries,
+
+        /**
+         * 交易最多的账本/用户
+         */
+        List<KeyRows> largestKeys
+) {
+    /**
+     * 分片键及其交易行数
+     */
+    public record KeyRows(
+            /**
+             * ledger:账本ID 或 user:用户ID（未归属账本的个人交易）
+             */
+            String key,
+            long rows
+    ) {}
+}
@@ -0,0 +1,50 @@
+package org.jim.ledgerserver.admin.vo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 线程转储
+ * @author James Smith
+ */
+public record ThreadDumpResp(
+        /**
+         * 线程总数
+         */
+        int threadCount,
+
+        /**
+         * 各状态的线程数
+         */
+        Map<String, Integer> stateCounts,
+
+        /**
+         * 死锁中的线程名
+         */
+        List<String> deadlocked,
+
+        /**
+         * 阻塞线程（BLOCKED，或在等待其他线程持有的锁）
+         */
+        List<ThreadResp> blocked,
+
+        /**
+         * 全部线程（只取阻塞线程时为空）
+         */
+        List<ThreadResp> threads
+) {
+    /**
+     * 单个线程
+     */
+    public record ThreadResp(
+            long id,
+            String name,
+            String state,
+            boolean daemon,
+            String lockName,
+            String lockOwnerName,
+            long blockedCount,
+            long waitedCount,
+            List<String> stack
+    ) {}
+}
@@ -0,0 +1,40 @@
+package org.jim.ledgerserver.base;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 时间字段基类（不含主键）
+ * 需要自定义主键生成策略的实体（如批量写入的交易）直接继承该类
+ *
+ * @author James Smith
+ */
+@Data
+@MappedSuperclass
+public class BaseTimeEntity {
+
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @UpdateTimestamp
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updateTime;
+
+    /**
+     * 数据删除时间。如果有值，则表示该数据已被删除。无值则表示该数据未被删除。
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime deleteTime;
+}
@@ -0,0 +1,117 @@
+package org.jim.ledgerserver.common.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 跨节点缓存失效总线
+ *
+ * 写入方调用 {@link #publish(String, String)} 发布 (cacheName, key)，其他节点收到后回调本地监听器剔除缓存。
+ * 发布方自身的本地缓存由发布方直接维护（刷新或剔除），总线不会回调发布节点的监听器。
+ * 处于事务中时，事件在事务提交后才发出，避免其他节点在提交前重新加载到旧数据。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+    /**
+     * 当前节点ID（每次启动随机生成）
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    private final List<Consumer<CacheInvalidationEvent>> observers = new CopyOnWriteArrayList<>();
+
+    @Resource
+    private CacheInvalidationTransport transport;
+
+    @PostConstruct
+    public void start() {
+        transport.start(this::onRemoteEvent);
+    }
+
+    /**
+     * 订阅其他节点发布的失效事件
+     *
+     * @param cacheName 缓存名称
+     * @param listener  回调参数为缓存键，null 表示清空整个缓存
+     */
+    public void subscribe(String cacheName, Consumer<String> listener) {
+        listeners.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * 观察所有已生效的变更：本节点提交后发出的事件和收到的其他节点事件，不区分缓存名称
+     */
+    public void observe(Consumer<CacheInvalidationEvent> observer) {
+        observers.add(observer);
+    }
+
+    /**
+     * 发布失效事件
+     *
+     * @param cacheName 缓存名称
+     * @param key       缓存键，null 表示清空整个缓存
+     */
+    public void publish(String cacheName, String key) {
+        CacheInvalidationEvent event = new CacheInvalidationEvent(cacheName, key, nodeId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void send(CacheInvalidationEvent event) {
+        notifyObservers(event);
+        try {
+            transport.send(event);
+        } catch (Exception e) {
+            // 广播失败只记录日志，不影响已提交的业务写入
+            log.warn("Failed to publish cache invalidation {}:{}: {}", event.cacheName(), event.key(), e.getMessage());
+        }
+    }
+
+    private void onRemoteEvent(CacheInvalidationEvent event) {
+        if (nodeId.equals(event.sourceNode())) {
+            return;
+        }
+        notifyObservers(event);
+        List<Consumer<String>> cacheListeners = listeners.get(event.cacheName());
+        if (cacheListeners == null) {
+            return;
+        }
+        for (Consumer<String> listener : cacheListeners) {
+            listener.accept(event.key());
+        }
+    }
+
+    private void notifyObservers(CacheInvalidationEvent event) {
+        for (Consumer<CacheInvalidationEvent> observer : observers) {
+            observer.accept(event);
+        }
+    }
+}
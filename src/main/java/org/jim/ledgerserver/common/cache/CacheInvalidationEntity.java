@@ -0,0 +1,45 @@
+package org.jim.ledgerserver.common.cache;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * 缓存失效事件表，作为跨节点失效广播的数据库通道
+ * @author James Smith
+ */
+@Data
+@Entity
+@Table(name = "cache_invalidation", indexes = {
+        @Index(name = "idx_cache_invalidation_create_time", columnList = "create_time")
+})
+public class CacheInvalidationEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Comment("事件ID（自增，各节点按ID顺序消费）")
+    private Long id;
+
+    @Column(name = "cache_name", nullable = false, length = 64)
+    @Comment("缓存名称")
+    private String cacheName;
+
+    @Column(name = "cache_key", length = 255)
+    @Comment("缓存键，为空表示清空整个缓存")
+    private String cacheKey;
+
+    @Column(name = "source_node", nullable = false, length = 64)
+    @Comment("发布节点ID")
+    private String sourceNode;
+
+    @Column(name = "create_time", updatable = false)
+    @Comment("创建时间")
+    private LocalDateTime createTime;
+
+    @PrePersist
+    protected void onCreate() {
+        createTime = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,12 @@
+package org.jim.ledgerserver.common.cache;
+
+/**
+ * 缓存失效事件
+ *
+ * @param cacheName  缓存名称
+ * @param key        缓存键，null 表示清空整个缓存
+ * @param sourceNode 发布事件的节点ID，接收方据此跳过自己发出的事件
+ * @author James Smith
+ */
+public record CacheInvalidationEvent(String cacheName, String key, String sourceNode) {
+}
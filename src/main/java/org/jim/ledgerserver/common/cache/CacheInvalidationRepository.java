@@ -0,0 +1,42 @@
+package org.jim.ledgerserver.common.cache;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 缓存失效事件数据访问层
+ * @author James Smith
+ */
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidationEntity, Long> {
+
+    /**
+     * 查询指定ID之后的事件（按ID升序）
+     */
+    List<CacheInvalidationEntity> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * 按ID查询事件（补读空洞中晚提交的事件）
+     */
+    List<CacheInvalidationEntity> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * 当前最大事件ID，节点启动时从这里开始消费
+     */
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM CacheInvalidationEntity c")
+    Long findMaxId();
+
+    /**
+     * 清理过期事件
+     */
+    @Modifying
+    @Query("DELETE FROM CacheInvalidationEntity c WHERE c.createTime < ?1")
+    int deleteByCreateTimeBefore(LocalDateTime time);
+}
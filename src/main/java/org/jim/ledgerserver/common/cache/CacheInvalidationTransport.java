@@ -0,0 +1,24 @@
+package org.jim.ledgerserver.common.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 缓存失效事件的跨节点传输通道
+ * 默认实现为数据库轮询（{@link JdbcCacheInvalidationTransport}），后续可替换为消息队列等实现
+ *
+ * @author James Smith
+ */
+public interface CacheInvalidationTransport {
+
+    /**
+     * 发送事件到其他节点（在业务事务提交之后调用）
+     */
+    void send(CacheInvalidationEvent event);
+
+    /**
+     * 开始接收其他节点发送的事件
+     *
+     * @param receiver 事件回调
+     */
+    void start(Consumer<CacheInvalidationEvent> receiver);
+}
@@ -0,0 +1,174 @@
+package org.jim.ledgerserver.common.cache;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * 基于 cache_invalidation 表轮询的失效通道（默认实现）
+ * 只依赖 MySQL（测试时可用嵌入式数据库），每个节点按自增ID顺序消费新事件。
+ *
+ * 自增ID在并发插入或回滚时可能出现空洞：较小ID的事件可能晚于较大ID提交。
+ * 因此只把水位推进到连续已消费的位置，空洞超过 gap-timeout 仍未出现才认定为回滚并跳过。
+ * 新事件从已消费的最大ID之后读取，空洞里的ID单独按ID补读，空洞存在期间新事件照常送达。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ledger.cache.invalidation.transport", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    /**
+     * 单次轮询最多读取的事件数
+     */
+    private static final int POLL_BATCH_SIZE = 500;
+
+    @Resource
+    private CacheInvalidationRepository repository;
+
+    @Value("${ledger.cache.invalidation.gap-timeout-ms:30000}")
+    private long gapTimeoutMs;
+
+    @Value("${ledger.cache.invalidation.retention-minutes:10}")
+    private long retentionMinutes;
+
+    private volatile Consumer<CacheInvalidationEvent> receiver;
+
+    /**
+     * 水位：小于等于该ID的事件都已消费
+     */
+    private long watermark;
+
+    /**
+     * 水位之上已消费的事件ID
+     */
+    private final NavigableSet<Long> consumedAboveWatermark = new TreeSet<>();
+
+    /**
+     * 首次发现空洞的时间，0 表示当前没有空洞
+     */
+    private long gapDetectedAt;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void send(CacheInvalidationEvent event) {
+        CacheInvalidationEntity entity = new CacheInvalidationEntity();
+        entity.setCacheName(event.cacheName());
+        entity.setCacheKey(event.key());
+        entity.setSourceNode(event.sourceNode());
+        repository.save(entity);
+    }
+
+    @Override
+    public synchronized void start(Consumer<CacheInvalidationEvent> receiver) {
+        // 只消费启动之后的事件，启动前的状态本节点本来就没有缓存
+        this.watermark = repository.findMaxId();
+        this.receiver = receiver;
+        log.info("Cache invalidation transport started at event id {}", watermark);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.cache.invalidation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        if (receiver == null) {
+            return;
+        }
+        try {
+            // 开启只读副本时这里读的是副本：事件在数据变更提交后才写入，副本按提交顺序回放，
+            // 收到事件时副本上已是新数据，失效后重新加载不会把旧值放回缓存
+            long high = consumedAboveWatermark.isEmpty() ? watermark : consumedAboveWatermark.last();
+            List<CacheInvalidationEntity> events;
+            do {
+                events = repository.findByIdGreaterThanOrderByIdAsc(high, PageRequest.of(0, POLL_BATCH_SIZE));
+                for (CacheInvalidationEntity event : events) {
+                    if (consumedAboveWatermark.add(event.getId())) {
+                        deliver(event);
+                    }
+                    high = event.getId();
+                }
+            } while (events.size() == POLL_BATCH_SIZE);
+            fillGaps();
+            advanceWatermark();
+        } catch (Exception e) {
+            log.warn("Failed to poll cache invalidation events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定期清理过期事件，所有节点都会执行，重复删除无副作用
+     */
+    @Scheduled(fixedDelayString = "${ledger.cache.invalidation.purge-interval-ms:60000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = repository.deleteByCreateTimeBefore(LocalDateTime.now().minusMinutes(retentionMinutes));
+        if (deleted > 0) {
+            log.debug("Purged {} expired cache invalidation events", deleted);
+        }
+    }
+
+    private void deliver(CacheInvalidationEntity event) {
+        try {
+            receiver.accept(new CacheInvalidationEvent(event.getCacheName(), event.getCacheKey(), event.getSourceNode()));
+        } catch (Exception e) {
+            log.warn("Failed to apply cache invalidation event {}: {}", event.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 补读水位与已消费最大ID之间缺失的事件（晚于更大ID提交的插入）
+     */
+    private void fillGaps() {
+        if (consumedAboveWatermark.isEmpty()) {
+            return;
+        }
+        List<Long> missing = new ArrayList<>();
+        long high = consumedAboveWatermark.last();
+        for (long id = watermark + 1; id < high && missing.size() < POLL_BATCH_SIZE; id++) {
+            if (!consumedAboveWatermark.contains(id)) {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (CacheInvalidationEntity event : repository.findByIdInOrderByIdAsc(missing)) {
+            if (consumedAboveWatermark.add(event.getId())) {
+                deliver(event);
+            }
+        }
+    }
+
+    private void advanceWatermark() {
+        while (!consumedAboveWatermark.isEmpty() && consumedAboveWatermark.first() == watermark + 1) {
+            watermark = consumedAboveWatermark.pollFirst();
+        }
+        if (consumedAboveWatermark.isEmpty()) {
+            gapDetectedAt = 0;
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (gapDetectedAt == 0) {
+            gapDetectedAt = now;
+        } else if (now - gapDetectedAt > gapTimeoutMs) {
+            // 空洞长时间未填补，视为回滚的插入，跳过
+            log.debug("Skipping cache invalidation id gap ({}, {})", watermark, consumedAboveWatermark.first());
+            watermark = consumedAboveWatermark.first() - 1;
+            gapDetectedAt = 0;
+            advanceWatermark();
+        }
+    }
+}
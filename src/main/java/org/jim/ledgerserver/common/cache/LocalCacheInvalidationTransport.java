@@ -0,0 +1,27 @@
+package org.jim.ledgerserver.common.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * 单节点部署使用的空通道：不做跨节点广播
+ * 配置 ledger.cache.invalidation.transport=local 启用
+ *
+ * @author James Smith
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.cache.invalidation.transport", havingValue = "local")
+public class LocalCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    @Override
+    public void send(CacheInvalidationEvent event) {
+        // 单节点无需广播
+    }
+
+    @Override
+    public void start(Consumer<CacheInvalidationEvent> receiver) {
+        // 单节点不会收到其他节点的事件
+    }
+}
@@ -0,0 +1,29 @@
+package org.jim.ledgerserver.common.cache;
+
+import jakarta.annotation.Resource;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * 二级缓存实体监听器
+ * 实体新增/更新/删除后通知其他节点剔除该实体的二级缓存（本节点由 Hibernate READ_WRITE 策略自行维护）。
+ * 新增也需广播：其他节点的查询缓存可能缓存了“不存在”的结果。
+ * 监听器由 Hibernate 在 EntityManagerFactory 初始化期间创建，依赖需懒加载以避免循环依赖。
+ *
+ * @author James Smith
+ */
+public class SecondLevelCacheListener {
+
+    @Lazy
+    @Resource
+    private SecondLevelCacheSynchronizer secondLevelCacheSynchronizer;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        secondLevelCacheSynchronizer.publish(entity);
+    }
+}
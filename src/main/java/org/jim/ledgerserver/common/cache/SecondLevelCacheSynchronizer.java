@@ -0,0 +1,96 @@
+package org.jim.ledgerserver.common.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.jim.ledgerserver.base.BaseEntity;
+import org.jim.ledgerserver.ledger.entity.BudgetSettingEntity;
+import org.jim.ledgerserver.ledger.entity.LedgerEntity;
+import org.jim.ledgerserver.ledger.entity.PaymentMethodEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionTemplateEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 二级缓存跨节点同步
+ * 通过 {@link CacheInvalidationBus} 广播实体变更，其他节点按区域剔除对应实体
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+public class SecondLevelCacheSynchronizer {
+
+    public static final String CACHE_NAME = "hibernate-l2";
+
+    /**
+     * 区域名 -> 实体类型，区域名与实体上 @Cache(region) 保持一致
+     */
+    private static final Map<String, Class<?>> REGION_ENTITIES = Map.of(
+            "ledger", LedgerEntity.class,
+            "payment_method", PaymentMethodEntity.class,
+            "transaction_template", TransactionTemplateEntity.class,
+            "budget_setting", BudgetSettingEntity.class
+    );
+
+    @Resource
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Resource
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void init() {
+        cacheInvalidationBus.subscribe(CACHE_NAME, this::evict);
+    }
+
+    /**
+     * 广播实体变更，键格式为 region:id
+     */
+    public void publish(Object entity) {
+        String region = regionOf(entity);
+        Long id = idOf(entity);
+        if (region != null && id != null) {
+            cacheInvalidationBus.publish(CACHE_NAME, region + ":" + id);
+        }
+    }
+
+    private void evict(String key) {
+        if (key == null) {
+            entityManagerFactory.getCache().evictAll();
+            return;
+        }
+        int separator = key.indexOf(':');
+        Class<?> entityClass = REGION_ENTITIES.get(key.substring(0, separator));
+        if (entityClass == null) {
+            log.warn("Unknown second-level cache region in invalidation key {}", key);
+            return;
+        }
+        entityManagerFactory.getCache().evict(entityClass, Long.valueOf(key.substring(separator + 1)));
+        if (entityClass == BudgetSettingEntity.class) {
+            // 预算设置按账本ID查询走查询缓存，其他节点的更新时间戳不会同步过来
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+        }
+    }
+
+    private String regionOf(Object entity) {
+        for (Map.Entry<String, Class<?>> entry : REGION_ENTITIES.entrySet()) {
+            if (entry.getValue().isInstance(entity)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private Long idOf(Object entity) {
+        return switch (entity) {
+            case BaseEntity baseEntity -> baseEntity.getId();
+            case PaymentMethodEntity paymentMethod -> paymentMethod.getId();
+            case TransactionTemplateEntity template -> template.getId();
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package org.jim.ledgerserver.common.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.jim.ledgerserver.common.monitor.QueryProfiler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * 数据源代理配置
+ * 用 datasource-proxy 包装连接池，所有 JDBC 语句（Hibernate 与 JdbcTemplate）都交给 {@link QueryProfiler} 统计；
+ * 同时代理 ResultSet，用于统计查询返回的行数。
+ * 只包装实际的连接池：开启只读副本时，路由数据源和外层的延迟连接代理只是转发，再包一层会重复统计。
+ * 仅在 ledger.slow-query.enabled 开启时生效。
+ *
+ * @author James Smith
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.slow-query.enabled", havingValue = "true")
+public class DataSourceProxyConfig {
+
+    @Bean
+    static BeanPostProcessor queryProfilerDataSourcePostProcessor(ObjectProvider<QueryProfiler> queryProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)
+                        || bean instanceof DelegatingDataSource || bean instanceof AbstractRoutingDataSource) {
+                    return bean;
+                }
+                QueryProfiler profiler = queryProfiler.getObject();
+                if (dataSource instanceof ProxyDataSource proxy) {
+                    // 已被其他代理包装过（如测试中的语句计数），追加监听即可，这种情况下不统计查询行数
+                    proxy.getProxyConfig().getQueryListener().addListener(profiler);
+                    return proxy;
+                }
+                return profiled(dataSource, beanName, profiler);
+            }
+        };
+    }
+
+    /**
+     * 包装不是 Bean 的连接池（如分片连接池），未开启画像时原样返回
+     */
+    public static DataSource profiled(DataSource dataSource, String name, QueryProfiler profiler) {
+        if (profiler == null) {
+            return dataSource;
+        }
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name(name)
+                .listener(profiler)
+                .proxyResultSet(profiler.rowCounter())
+                .build();
+    }
+}
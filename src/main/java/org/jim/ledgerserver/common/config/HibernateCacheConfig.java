@@ -0,0 +1,56 @@
+package org.jim.ledgerserver.common.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate 二级缓存配置（JCache + Caffeine）
+ * 按配置为每个区域创建独立的容量上限和过期时间，并交给 Hibernate 使用
+ *
+ * @author James Smith
+ */
+@Configuration
+@EnableConfigurationProperties(HibernateCacheProperties.class)
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(HibernateCacheProperties properties) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // 默认 URI 的 CacheManager 是 JVM 内共享的，同一进程里再启动一个应用上下文（如测试）时会重复建缓存；
+        // 每个上下文使用自己的 URI，关闭时也只关闭自己的缓存
+        URI uri = URI.create(getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(this)));
+        CacheManager cacheManager = provider.getCacheManager(uri, getClass().getClassLoader());
+
+        properties.getRegions().forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.getMaxSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(name, configuration);
+        });
+
+        // 更新时间戳区域用于判断查询缓存是否过期，条目极少且不能被淘汰，否则查询缓存可能返回旧数据
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStatisticsEnabled(true);
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
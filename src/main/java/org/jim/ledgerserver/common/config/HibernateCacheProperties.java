@@ -0,0 +1,37 @@
+package org.jim.ledgerserver.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hibernate 二级缓存区域配置
+ *
+ * @author James Smith
+ */
+@Data
+@ConfigurationProperties(prefix = "ledger.hibernate-cache")
+public class HibernateCacheProperties {
+
+    /**
+     * 区域名 -> 区域配置
+     */
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+
+        /**
+         * 最大条目数
+         */
+        private long maxSize = 10000;
+
+        /**
+         * 写入后过期时间
+         */
+        private Duration ttl = Duration.ofMinutes(30);
+    }
+}
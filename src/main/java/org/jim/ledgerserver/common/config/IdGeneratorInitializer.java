@@ -0,0 +1,46 @@
+package org.jim.ledgerserver.common.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.jim.ledgerserver.ledger.entity.TransactionAttachmentEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 主键号段初始化
+ * 交易表和附件表由自增主键切换为号段主键后，号段起始值必须高于表中已有的最大ID，
+ * 否则 Hibernate 首次取号会从 1 开始造成主键冲突。
+ * 启动时（表结构由 Hibernate 更新之后）校正一次，与 V1_16、V1_21 迁移脚本逻辑一致，重复执行无副作用。
+ * 启用分片时交易表不在主库，由 ShardSchemaManager 按分片校正。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "ledger.sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class IdGeneratorInitializer {
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void init() {
+        align("transaction", TransactionEntity.ID_ALLOCATION_SIZE);
+        align("transaction_attachment", TransactionAttachmentEntity.ID_ALLOCATION_SIZE);
+    }
+
+    private void align(String table, int allocationSize) {
+        jdbcTemplate.update(
+                "INSERT INTO id_generator (name, next_val) " +
+                "SELECT '" + table + "', COALESCE(MAX(id), 0) + ? FROM `" + table + "` " +
+                "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))",
+                allocationSize);
+        log.info("{} id generator aligned, next_val={}", table,
+                jdbcTemplate.queryForObject("SELECT next_val FROM id_generator WHERE name = ?", Long.class, table));
+    }
+}
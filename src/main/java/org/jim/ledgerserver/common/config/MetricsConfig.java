@@ -0,0 +1,27 @@
+package org.jim.ledgerserver.common.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 监控指标配置
+ * HTTP 请求、Hikari 连接池、JVM/GC、Hibernate 统计由 Actuator 自动注册；
+ * 这里启用 {@code @Timed} 切面，为业务服务的公开方法计时（指标名 ledger.service，按 class / method 打标签）
+ *
+ * @author James Smith
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 服务方法计时指标名
+     */
+    public static final String SERVICE_TIMER = "ledger.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,87 @@
+package org.jim.ledgerserver.common.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jim.ledgerserver.common.cache.CacheInvalidationBus;
+import org.jim.ledgerserver.common.cache.SecondLevelCacheSynchronizer;
+import org.jim.ledgerserver.common.datasource.ReadYourWritesWindow;
+import org.jim.ledgerserver.common.datasource.ReplicaRoutingDataSource;
+import org.jim.ledgerserver.common.util.DataVersionTracker;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * 只读副本数据源配置（ledger.datasource.replica.enabled=true 时生效）
+ * 主库沿用 spring.datasource 配置，副本使用 ledger.datasource.replica；两个连接池各自注册为 Bean，连接池指标和 SQL 画像分别统计。
+ * 应用使用的数据源是 LazyConnectionDataSourceProxy 包装的 {@link ReplicaRoutingDataSource}。
+ * 写后读一致窗口从缓存失效总线上得知数据版本和二级缓存实体的变更（包括其他节点的）。
+ *
+ * @author James Smith
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "ledger.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("ledger.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${ledger.datasource.replica.url}") String url,
+                                              @Value("${ledger.datasource.replica.username}") String username,
+                                              @Value("${ledger.datasource.replica.password:}") String password) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    @Bean
+    public ReadYourWritesWindow readYourWritesWindow(
+            @Value("${ledger.datasource.replica.read-your-writes-ms:5000}") long readYourWritesMs) {
+        return new ReadYourWritesWindow(Duration.ofMillis(readYourWritesMs), Ticker.systemTicker());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWritesWindow readYourWritesWindow,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, readYourWritesWindow, meterRegistry));
+    }
+
+    /**
+     * 总线依赖数据源（JDBC 传输），不能在创建数据源时订阅，等所有单例创建完成后再注册
+     */
+    @Bean
+    public SmartInitializingSingleton readYourWritesWindowFeed(ReadYourWritesWindow readYourWritesWindow,
+                                                               CacheInvalidationBus cacheInvalidationBus) {
+        return () -> cacheInvalidationBus.observe(event -> {
+            if (DataVersionTracker.CACHE_NAME.equals(event.cacheName())) {
+                readYourWritesWindow.recordScopeWrite(event.key() == null ? DataVersionTracker.GLOBAL_KEY : event.key());
+            } else if (SecondLevelCacheSynchronizer.CACHE_NAME.equals(event.cacheName())) {
+                readYourWritesWindow.recordCachedEntityWrite();
+            }
+        });
+    }
+}
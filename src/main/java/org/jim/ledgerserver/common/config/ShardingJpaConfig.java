@@ -0,0 +1,177 @@
+package org.jim.ledgerserver.common.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.jim.ledgerserver.common.monitor.QueryProfiler;
+import org.jim.ledgerserver.common.sharding.ShardDataSources;
+import org.jim.ledgerserver.common.sharding.ShardRoutingDataSource;
+import org.jim.ledgerserver.common.sharding.ShardSchemaManager;
+import org.jim.ledgerserver.common.sharding.ShardingProperties;
+import org.jim.ledgerserver.ledger.repository.TransactionAttachmentRepository;
+import org.jim.ledgerserver.ledger.repository.TransactionRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypesScanner;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 交易分片配置（ledger.sharding.enabled=true 时生效）
+ *
+ * 交易和附件拆成单独的持久化单元 shard，数据源是按 {@link ShardRoutingDataSource} 路由的各分片连接池，
+ * 不使用二级缓存；TransactionRepository、TransactionAttachmentRepository 挂在这个单元上，其余实体和仓库留在主库。
+ * 声明了第二个 EntityManagerFactory 后 Spring Boot 不再自动配置主库的 EntityManagerFactory 和事务管理器，
+ * 这里按自动配置的方式（同样的 Hibernate 属性和定制器）补上，主库行为不变。
+ *
+ * @author James Smith
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "ledger.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingJpaConfig {
+
+    private static final Set<String> SHARDED_ENTITY_NAMES = Set.copyOf(
+            ShardSchemaManager.SHARDED_ENTITIES.stream().map(Class::getName).toList());
+
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(ShardingProperties properties,
+                                             ObjectProvider<QueryProfiler> queryProfiler,
+                                             MeterRegistry meterRegistry) {
+        List<DataSource> pools = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = properties.getShards().get(i);
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            pool.setPoolName("HikariCP-shard-" + i);
+            pool.setMaximumPoolSize(properties.getMaximumPoolSize());
+            pool.addDataSourceProperty("rewriteBatchedStatements", "true");
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.add(DataSourceProxyConfig.profiled(pool, "shard" + i, queryProfiler.getIfAvailable()));
+        }
+        return new ShardDataSources(pools);
+    }
+
+    @Bean
+    @Primary
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(EntityManagerFactoryBuilder builder,
+                                                                       DataSource dataSource,
+                                                                       JpaProperties jpaProperties,
+                                                                       HibernateProperties hibernateProperties,
+                                                                       ObjectProvider<HibernatePropertiesCustomizer> customizers,
+                                                                       ConfigurableListableBeanFactory beanFactory,
+                                                                       ResourceLoader resourceLoader) {
+        PersistenceManagedTypes scanned = new PersistenceManagedTypesScanner(resourceLoader)
+                .scan(AutoConfigurationPackages.get(beanFactory).toArray(String[]::new));
+        List<String> mainEntities = scanned.getManagedClassNames().stream()
+                .filter(name -> !SHARDED_ENTITY_NAMES.contains(name))
+                .toList();
+        return builder.dataSource(dataSource)
+                .managedTypes(PersistenceManagedTypes.of(mainEntities, scanned.getManagedPackages()))
+                .properties(hibernateProperties(jpaProperties, hibernateProperties,
+                        customizers.orderedStream().toList(), beanFactory))
+                .persistenceUnit("default")
+                .build();
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean shardEntityManagerFactory(EntityManagerFactoryBuilder builder,
+                                                                            ShardDataSources shardDataSources,
+                                                                            JpaProperties jpaProperties,
+                                                                            HibernateProperties hibernateProperties,
+                                                                            ConfigurableListableBeanFactory beanFactory) {
+        Map<String, Object> properties = hibernateProperties(jpaProperties, hibernateProperties, List.of(), beanFactory);
+        // 表结构由 ShardSchemaManager 逐个分片更新
+        Object ddlAuto = properties.put(AvailableSettings.HBM2DDL_AUTO, "none");
+        properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+        properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+        new ShardSchemaManager(shardDataSources, properties,
+                ddlAuto != null && !"none".equals(ddlAuto) && !"validate".equals(ddlAuto)).initializeAll();
+
+        return builder.dataSource(new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shardDataSources.all())))
+                .managedTypes(PersistenceManagedTypes.of(List.copyOf(SHARDED_ENTITY_NAMES), List.of()))
+                .properties(properties)
+                .persistenceUnit("shard")
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(@Qualifier("entityManagerFactory") EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public JpaTransactionManager shardTransactionManager(@Qualifier("shardEntityManagerFactory") EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    /**
+     * 与 Spring Boot 自动配置相同的 Hibernate 属性（命名策略、ddl-auto、spring.jpa.properties 等）
+     */
+    private static Map<String, Object> hibernateProperties(JpaProperties jpaProperties,
+                                                           HibernateProperties hibernateProperties,
+                                                           Collection<HibernatePropertiesCustomizer> customizers,
+                                                           ConfigurableListableBeanFactory beanFactory) {
+        Map<String, Object> properties = new LinkedHashMap<>(hibernateProperties.determineHibernateProperties(
+                jpaProperties.getProperties(),
+                new HibernateSettings().ddlAuto(() -> "none").hibernatePropertiesCustomizers(customizers)));
+        properties.put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory));
+        return properties;
+    }
+
+    /**
+     * 嵌套配置类会被组件扫描单独注册，外层的条件不会带过来，需要各自声明
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "ledger.sharding.enabled", havingValue = "true")
+    @EnableJpaRepositories(basePackages = "org.jim.ledgerserver",
+            excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = {TransactionRepository.class, TransactionAttachmentRepository.class}))
+    static class MainRepositories {
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "ledger.sharding.enabled", havingValue = "true")
+    @EnableJpaRepositories(basePackageClasses = TransactionRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = {TransactionRepository.class, TransactionAttachmentRepository.class}),
+            entityManagerFactoryRef = "shardEntityManagerFactory",
+            transactionManagerRef = "shardTransactionManager")
+    static class ShardRepositories {
+    }
+}
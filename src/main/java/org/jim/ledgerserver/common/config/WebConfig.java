@@ -2,6 +2,7 @@ package org.jim.ledgerserver.common.config;
 
 import jakarta.annotation.Resource;
 import org.jim.ledgerserver.common.interceptor.AuthInterceptor;
+import org.jim.ledgerserver.common.interceptor.ConditionalRequestInterceptor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -17,6 +18,9 @@ public class WebConfig implements WebMvcConfigurer {
     @Resource
     private AuthInterceptor authInterceptor;
 
+    @Resource
+    private ConditionalRequestInterceptor conditionalRequestInterceptor;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(authInterceptor)
@@ -33,5 +37,19 @@ public class WebConfig implements WebMvcConfigurer {
                         "/js/**",
                         "/images/**"
                 );
+
+        // 条件请求（ETag / 304），依赖认证拦截器写入的 UserContext
+        registry.addInterceptor(conditionalRequestInterceptor)
+                .addPathPatterns(
+                        "/api/transactions/query",
+                        "/api/transactions/monthly-summary",
+                        "/api/transactions/daily-statistics",
+                        "/api/ledgers",
+                        "/api/ledgers/owned",
+                        "/api/ledgers/shared",
+                        "/api/categories",
+                        "/api/categories/**",
+                        "/api/budgets/overview"
+                );
     }
 }
@@ -0,0 +1,135 @@
+package org.jim.ledgerserver.common.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 写后读一致窗口
+ * 用户写入后的一段时间内，其只读事务仍走主库，避免刚保存的数据因副本延迟“消失”。
+ * 除写入者本人外，还按数据范围（与 ETag 使用的数据版本键相同，如 ledger:1、user:2、global）记录最近的变更：
+ * 请求声明了要读取的范围且该范围在窗口内变更过时同样走主库，共享账本的其他成员不会拿到新 ETag 配旧数据。
+ * 用户维度的记录只在本节点内存中，请求被负载均衡到其他节点时不生效，窗口应覆盖副本的常见延迟；
+ * 范围维度的记录同时来自其他节点广播的失效事件。
+ *
+ * @author James Smith
+ */
+public class ReadYourWritesWindow {
+
+    private static final int MAX_USERS = 100_000;
+
+    private static final int MAX_SCOPES = 100_000;
+
+    /**
+     * 当前请求读取的数据范围，由条件请求拦截器在计算 ETag 时登记
+     */
+    private static final ThreadLocal<List<String>> READ_SCOPES = new ThreadLocal<>();
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    private final Cache<String, Boolean> recentScopes;
+
+    private final long windowNanos;
+
+    private final Ticker ticker;
+
+    /**
+     * 最近一次二级缓存实体变更的时刻（ticker 读数），未发生过时为 Long.MIN_VALUE
+     */
+    private final AtomicLong lastCachedEntityWrite = new AtomicLong(Long.MIN_VALUE);
+
+    public ReadYourWritesWindow(Duration window, Ticker ticker) {
+        this.windowNanos = window.toNanos();
+        this.ticker = ticker;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(MAX_USERS)
+                .ticker(ticker)
+                .build();
+        this.recentScopes = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(MAX_SCOPES)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * 登记当前请求读取的数据范围
+     */
+    public static void readsScope(String scope) {
+        List<String> scopes = READ_SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayList<>();
+            READ_SCOPES.set(scopes);
+        }
+        scopes.add(scope);
+    }
+
+    /**
+     * 请求结束时清除登记的数据范围
+     */
+    public static void clearReadScopes() {
+        READ_SCOPES.remove();
+    }
+
+    /**
+     * 记录用户的一次写入，窗口从此刻重新计算
+     */
+    public void recordWrite(Long userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 用户是否在窗口内写过
+     */
+    public boolean isRecentWriter(Long userId) {
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    /**
+     * 记录某个数据范围的一次已提交变更（本节点或其他节点）
+     */
+    public void recordScopeWrite(String scope) {
+        if (scope != null) {
+            recentScopes.put(scope, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 当前请求登记的数据范围中是否有在窗口内变更过的
+     */
+    public boolean readsRecentWrite() {
+        List<String> scopes = READ_SCOPES.get();
+        if (scopes == null) {
+            return false;
+        }
+        for (String scope : scopes) {
+            if (recentScopes.getIfPresent(scope) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 记录一次二级缓存实体的变更（本节点或其他节点）
+     */
+    public void recordCachedEntityWrite() {
+        lastCachedEntityWrite.set(ticker.read());
+    }
+
+    /**
+     * 窗口内是否有二级缓存实体变更过：此时副本上可能还是旧值，从副本读到的实体不能放进二级缓存
+     */
+    public boolean hasRecentCachedEntityWrite() {
+        long last = lastCachedEntityWrite.get();
+        return last != Long.MIN_VALUE && ticker.read() - last < windowNanos;
+    }
+}
@@ -0,0 +1,141 @@
+package org.jim.ledgerserver.common.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.jim.ledgerserver.common.util.UserContext;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * 主库 / 只读副本路由
+ * 只读事务（包括 Spring Data 仓库方法默认的只读事务）走副本，其余走主库：读写事务、无事务的语句、没有登录用户的请求（定时任务等），
+ * 以及写后读一致窗口内的写入者和读取了窗口内变更过的数据范围的请求。
+ * 路由依据的事务状态在事务开始之后才设置，必须包在 {@link LazyConnectionDataSourceProxy} 里，执行第一条语句时才真正取连接。
+ * 副本取连接失败时退回主库。
+ * 窗口内有二级缓存实体变更时，走副本的会话只读二级缓存、不写入，避免把副本上的旧值缓存下来。
+ *
+ * @author James Smith
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final DataSource primary;
+
+    private final DataSource replica;
+
+    private final ReadYourWritesWindow readYourWritesWindow;
+
+    private final Counter primaryCounter;
+
+    private final Counter replicaCounter;
+
+    private final Counter stickyCounter;
+
+    private final Counter fallbackCounter;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesWindow readYourWritesWindow,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.primaryCounter = routeCounter(meterRegistry, "primary");
+        this.replicaCounter = routeCounter(meterRegistry, "replica");
+        this.stickyCounter = routeCounter(meterRegistry, "sticky");
+        this.fallbackCounter = routeCounter(meterRegistry, "fallback");
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        initialize();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() != Route.REPLICA) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            fallbackCounter.increment();
+            log.warn("Replica unavailable, falling back to primary: {}", e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            primaryCounter.increment();
+            return Route.PRIMARY;
+        }
+        Long userId = UserContext.getCurrentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWrite(userId);
+            primaryCounter.increment();
+            return Route.PRIMARY;
+        }
+        if (userId == null) {
+            primaryCounter.increment();
+            return Route.PRIMARY;
+        }
+        if (readYourWritesWindow.isRecentWriter(userId) || readYourWritesWindow.readsRecentWrite()) {
+            stickyCounter.increment();
+            return Route.PRIMARY;
+        }
+        if (readYourWritesWindow.hasRecentCachedEntityWrite()) {
+            disableSecondLevelCachePuts();
+        }
+        replicaCounter.increment();
+        return Route.REPLICA;
+    }
+
+    /**
+     * 当前事务绑定的 Hibernate 会话改为只读二级缓存，事务结束后会话随之关闭
+     */
+    private static void disableSecondLevelCachePuts() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+
+    /**
+     * 开始写时记录一次，事务结束时再记录一次：长事务提交后窗口仍从提交时刻算起
+     */
+    private void recordWrite(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        readYourWritesWindow.recordWrite(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    readYourWritesWindow.recordWrite(userId);
+                }
+            });
+        }
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("ledger.datasource.routes")
+                .description("Physical connections acquired, by routing decision")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
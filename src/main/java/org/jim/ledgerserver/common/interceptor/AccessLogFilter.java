@@ -0,0 +1,128 @@
+package org.jim.ledgerserver.common.interceptor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jim.ledgerserver.common.monitor.AccessLogEntry;
+import org.jim.ledgerserver.common.monitor.AccessLogSettings;
+import org.jim.ledgerserver.common.monitor.AccessLogWriter;
+import org.jim.ledgerserver.common.monitor.EndpointEvent;
+import org.jim.ledgerserver.common.monitor.LogRedactor;
+import org.jim.ledgerserver.common.monitor.QueryCountInspector;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * 访问日志过滤器
+ * 每个请求输出一行结构化日志（耗时、状态码、用户、SQL 条数），按采样率异步写出；
+ * SQL 条数同时按接口路径模板记入指标 http.server.requests.statements；
+ * 开启 JFR 录制时每个请求提交一条 {@link EndpointEvent}，供按接口归因分配、CPU 和锁等待
+ *
+ * @author James Smith
+ */
+@Component
+@Order(0) // 在请求体缓存过滤器之前执行，耗时包含完整的请求处理
+public class AccessLogFilter implements Filter {
+
+    /**
+     * 认证通过后写入的用户ID（UserContext 在拦截器 afterCompletion 中已清除，这里通过请求属性传递）
+     */
+    public static final String USER_ID_ATTRIBUTE = AccessLogFilter.class.getName() + ".userId";
+
+    /**
+     * 开启调试采集时写入的 MCP 请求体
+     */
+    public static final String BODY_ATTRIBUTE = AccessLogFilter.class.getName() + ".body";
+
+    @Resource
+    private AccessLogSettings accessLogSettings;
+
+    @Resource
+    private AccessLogWriter accessLogWriter;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        QueryCountInspector.reset();
+        EndpointEvent event = new EndpointEvent();
+        event.begin();
+        boolean failed = false;
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failed = true;
+            throw e;
+        } finally {
+            long latencyMs = (System.nanoTime() - startNanos) / 1_000_000;
+            int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : httpResponse.getStatus();
+            int queryCount = QueryCountInspector.current();
+            QueryCountInspector.clear();
+            recordQueryCount(httpRequest, queryCount);
+            commitEndpointEvent(event, httpRequest, status);
+
+            if (accessLogSettings.shouldLog(status, latencyMs)) {
+                Object body = httpRequest.getAttribute(BODY_ATTRIBUTE);
+                accessLogWriter.submit(new AccessLogEntry(
+                        startTime,
+                        httpRequest.getMethod(),
+                        httpRequest.getRequestURI(),
+                        LogRedactor.redactQuery(httpRequest.getQueryString()),
+                        status,
+                        latencyMs,
+                        (Long) httpRequest.getAttribute(USER_ID_ATTRIBUTE),
+                        queryCount,
+                        body == null ? null : LogRedactor.redactBody(body.toString())
+                ));
+            }
+        }
+    }
+
+    /**
+     * 以处理器方法（Controller.method）标识接口，未匹配到处理器的请求使用路径模板
+     */
+    private void commitEndpointEvent(EndpointEvent event, HttpServletRequest request, int status) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        event.uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        event.endpoint = handler instanceof HandlerMethod method
+                ? method.getBeanType().getSimpleName() + "." + method.getMethod().getName()
+                : event.uri;
+        event.httpMethod = request.getMethod();
+        event.status = status;
+        event.commit();
+    }
+
+    /**
+     * 按路径模板（而不是原始 URI）打标签，避免路径参数造成指标数量膨胀；未匹配到处理器的请求归为 UNKNOWN
+     */
+    private void recordQueryCount(HttpServletRequest request, int queryCount) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("http.server.requests.statements")
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(queryCount);
+    }
+}
@@ -1,18 +1,21 @@
 package org.jim.ledgerserver.common.interceptor;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.jim.ledgerserver.common.monitor.AccessLogSettings;
 import org.jim.ledgerserver.common.util.JwtUtil;
 import org.jim.ledgerserver.common.util.UserContext;
 import org.jim.ledgerserver.user.entity.UserEntity;
 import org.jim.ledgerserver.user.service.UserService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
 
 /**
  * 认证拦截器
@@ -30,23 +33,49 @@ public class AuthInterceptor implements HandlerInterceptor {
     @Resource
     private UserService userService;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Resource
+    private AccessLogSettings accessLogSettings;
+
+    @Resource
+    private McpTokenExtractor mcpTokenExtractor;
+
+    @Resource
+    private MeterRegistry meterRegistry;
 
+    /**
+     * 认证耗时（含 MCP 请求体中的 token 提取），按通道与结果打标签
+     */
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        // 打印请求的 URL
-        log.info("Incoming request: {}", request.getRequestURI());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean passed = false;
+        try {
+            passed = authenticate(request, response);
+            return passed;
+        } finally {
+            sample.stop(Timer.builder("ledger.auth")
+                    .description("Time spent authenticating a request")
+                    .tag("channel", request.getRequestURI().startsWith("/mcp") ? "mcp" : "api")
+                    .tag("outcome", passed ? "passed" : "rejected")
+                    .register(meterRegistry));
+        }
+    }
 
+    private boolean authenticate(HttpServletRequest request, HttpServletResponse response) throws Exception {
         // 放行 /mcp
         if (request.getRequestURI().startsWith("/mcp")) {
-            String authorization = request.getHeader("Authorization");
-            log.info("MCP Authorization header========================: {}", authorization);
-            
-            // 打印请求体信息
-            printRequestBody(request);
+            // 调试时采集请求体，随访问日志异步输出（脱敏后）
+            if (accessLogSettings.isMcpBodyCapture()) {
+                captureRequestBody(request);
+            }
 
-            // 尝试从请求体中提取token并设置到上下文
-            extractAndSetTokenFromRequestBody(request);
+            // 请求头已携带 token 时直接使用，不再读取请求体；否则从请求体 params._meta.token 中提取
+            String headerToken = getTokenFromHeader(request);
+            if (StringUtils.isNotBlank(headerToken)) {
+                setUserContextFromMcpToken(request, headerToken);
+            } else {
+                extractAndSetTokenFromRequestBody(request);
+            }
 
             return true;
         }
@@ -74,6 +103,7 @@ public class AuthInterceptor implements HandlerInterceptor {
         try {
             UserEntity user = userService.getUserByToken(token);
             UserContext.setCurrentUser(user);
+            request.setAttribute(AccessLogFilter.USER_ID_ATTRIBUTE, user.getId());
         } catch (Exception e) {
             // token 解析失败或用户不存在
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -103,9 +133,9 @@ public class AuthInterceptor implements HandlerInterceptor {
      */
     private String getTokenFromRequest(HttpServletRequest request) {
         // 1. 尝试从 Authorization header 获取
-        String bearerToken = request.getHeader("Authorization");
-        if (StringUtils.isNotBlank(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+        String bearerToken = getTokenFromHeader(request);
+        if (StringUtils.isNotBlank(bearerToken)) {
+            return bearerToken;
         }
 
         // 2. 尝试从 query parameter 获取
@@ -118,117 +148,72 @@ public class AuthInterceptor implements HandlerInterceptor {
     }
 
     /**
-     * 打印请求体信息
-     * 使用缓存包装器来读取请求体明文内容
+     * 从 Authorization header 获取 Bearer token
      *
      * @param request HTTP 请求
+     * @return token 字符串，如果不存在则返回 null
      */
-    private void printRequestBody(HttpServletRequest request) {
-        try {
-            // 打印请求基本信息
-            log.info("=== MCP Request Info ===");
-            log.info("Method: {}", request.getMethod());
-            log.info("URI: {}", request.getRequestURI());
-            log.info("Query String: {}", request.getQueryString());
-            log.info("Content-Type: {}", request.getContentType());
-            log.info("Content-Length: {}", request.getContentLength());
-            log.info("Remote Address: {}", request.getRemoteAddr());
-            
-            // 打印所有请求头
-            log.info("=== Request Headers ===");
-            request.getHeaderNames().asIterator().forEachRemaining(headerName -> {
-                log.info("{}: {}", headerName, request.getHeader(headerName));
-            });
-            
-            // 如果是缓存包装器，读取请求体明文内容
-            if (request instanceof CachedBodyHttpServletRequest) {
-                CachedBodyHttpServletRequest cachedRequest = (CachedBodyHttpServletRequest) request;
-                String body = cachedRequest.getBody();
-                
-                log.info("=== Request Body (Plain Text) ===");
-                if (body != null && !body.trim().isEmpty()) {
-                    log.info("Body Content:\n{}", body);
-                } else {
-                    log.info("Request body is empty");
-                }
+    static String getTokenFromHeader(HttpServletRequest request) {
+        String bearerToken = request.getHeader("Authorization");
+        if (StringUtils.isNotBlank(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+
+    /**
+     * 采集 MCP 请求体到请求属性，由访问日志过滤器脱敏后输出
+     *
+     * @param request HTTP 请求
+     */
+    private void captureRequestBody(HttpServletRequest request) {
+        if (request instanceof CachedBodyHttpServletRequest cachedRequest) {
+            request.setAttribute(AccessLogFilter.BODY_ATTRIBUTE, cachedRequest.getBody());
+        }
+    }
+
+    /**
+     * 从MCP请求体中提取token并设置到上下文
+     * 流式读取，找到 params._meta.token 即停止解析
+     *
+     * @param request HTTP 请求
+     */
+    private void extractAndSetTokenFromRequestBody(HttpServletRequest request) {
+        if (!(request instanceof CachedBodyHttpServletRequest cachedRequest)) {
+            log.debug("Request is not a cached body request, cannot extract token from body");
+            return;
+        }
+        try (InputStream body = cachedRequest.getBodyStream()) {
+            String token = mcpTokenExtractor.extract(body);
+            if (StringUtils.isNotBlank(token)) {
+                setUserContextFromMcpToken(request, token);
             } else {
-                // 如果不是缓存包装器，只打印基本信息
-                log.info("=== Request Body Info ===");
-                if (request.getContentLength() > 0) {
-                    log.info("Request has body with length: {} bytes", request.getContentLength());
-                    log.info("Request body content type: {}", request.getContentType());
-                    log.info("Note: Body content not cached, cannot read plain text");
-                } else {
-                    log.info("No request body");
-                }
+                log.debug("No params._meta.token found in MCP request");
             }
-            
         } catch (Exception e) {
-            log.warn("Failed to print request body info: {}", e.getMessage());
+            log.warn("Failed to extract token from MCP request body: {}", e.getMessage());
         }
     }
 
     /**
-     * 从MCP请求体中提取token并设置到上下文
+     * 根据 MCP 请求携带的 token 设置用户上下文，token 无效时不拦截请求
      *
      * @param request HTTP 请求
+     * @param token   JWT token
      */
-    private void extractAndSetTokenFromRequestBody(HttpServletRequest request) {
+    private void setUserContextFromMcpToken(HttpServletRequest request, String token) {
+        UserContext.setCurrentToken(token);
         try {
-            // 只处理缓存包装器的请求
-            if (request instanceof CachedBodyHttpServletRequest) {
-                CachedBodyHttpServletRequest cachedRequest = (CachedBodyHttpServletRequest) request;
-                String body = cachedRequest.getBody();
-                
-                if (body != null && !body.trim().isEmpty()) {
-                    log.info("Attempting to extract token from MCP request body");
-                    
-                    // 解析JSON请求体
-                    JsonNode rootNode = objectMapper.readTree(body);
-                    
-                    // 检查是否存在 params._meta.token 字段
-                    if (rootNode.has("params")) {
-                        JsonNode paramsNode = rootNode.get("params");
-                        if (paramsNode.has("_meta")) {
-                            JsonNode metaNode = paramsNode.get("_meta");
-                            if (metaNode.has("token")) {
-                                String token = metaNode.get("token").asText();
-                                if (StringUtils.isNotBlank(token)) {
-                                    log.info("Found token in MCP request, setting to UserContext");
-                                    UserContext.setCurrentToken(token);
-                                    
-                                    // 尝试根据token设置用户信息
-                                    try {
-                                        if (jwtUtil.validateToken(token)) {
-                                            UserEntity user = userService.getUserByToken(token);
-                                            UserContext.setCurrentUser(user);
-                                            log.info("Successfully set user context from MCP token: {}", user.getUsername());
-                                        } else {
-                                            log.warn("Token from MCP request is invalid");
-                                        }
-                                    } catch (Exception e) {
-                                        log.warn("Failed to set user context from MCP token: {}", e.getMessage());
-                                    }
-                                } else {
-                                    log.debug("Token field exists but is empty in MCP request");
-                                }
-                            } else {
-                                log.debug("No token field found in _meta of MCP request");
-                            }
-                        } else {
-                            log.debug("No _meta field found in params of MCP request");
-                        }
-                    } else {
-                        log.debug("No params field found in MCP request");
-                    }
-                } else {
-                    log.debug("MCP request body is empty, cannot extract token");
-                }
+            if (jwtUtil.validateToken(token)) {
+                UserEntity user = userService.getUserByToken(token);
+                UserContext.setCurrentUser(user);
+                request.setAttribute(AccessLogFilter.USER_ID_ATTRIBUTE, user.getId());
+                log.debug("Set user context from MCP token: {}", user.getUsername());
             } else {
-                log.debug("Request is not a cached body request, cannot extract token from body");
+                log.warn("Token from MCP request is invalid");
             }
         } catch (Exception e) {
-            log.warn("Failed to extract token from MCP request body: {}", e.getMessage());
+            log.warn("Failed to set user context from MCP token: {}", e.getMessage());
         }
     }
 }
@@ -1,8 +1,11 @@
 package org.jim.ledgerserver.common.interceptor;
 
+import jakarta.annotation.Resource;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jim.ledgerserver.common.monitor.AccessLogSettings;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
@@ -10,7 +13,9 @@ import java.io.IOException;
 
 /**
  * 请求体缓存过滤器
- * 为/mcp路径的请求缓存请求体，以便后续多次读取
+ * 为/mcp路径以及交易查询接口的请求缓存请求体，以便后续多次读取
+ * （交易查询需要在进入 Controller 前读取 ledgerId 计算 ETag）
+ * MCP 请求头已携带 token 时无需读取请求体，直接放行（调试采集请求体时除外）
  *
  * @author James Smith
  */
@@ -19,14 +24,18 @@ import java.io.IOException;
 @Order(1) // 确保在其他过滤器之前执行
 public class CachedBodyFilter implements Filter {
 
+    @Resource
+    private AccessLogSettings accessLogSettings;
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         
-        // 只对/mcp路径的请求进行缓存处理
-        if (httpRequest.getRequestURI().startsWith("/mcp")) {
+        String uri = httpRequest.getRequestURI();
+        if ((uri.startsWith("/mcp") && needsBodyForMcp(httpRequest))
+                || ConditionalRequestInterceptor.TRANSACTION_QUERY_PATH.equals(uri)) {
             // 包装请求以缓存请求体
             CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(httpRequest);
             chain.doFilter(cachedRequest, response);
@@ -35,4 +44,8 @@ public class CachedBodyFilter implements Filter {
             chain.doFilter(request, response);
         }
     }
-}
\ No newline at end of file
+
+    private boolean needsBodyForMcp(HttpServletRequest request) {
+        return StringUtils.isBlank(AuthInterceptor.getTokenFromHeader(request)) || accessLogSettings.isMcpBodyCapture();
+    }
+}
@@ -54,6 +54,15 @@ public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
         return this.cachedBody.clone();
     }
 
+    /**
+     * 以输入流方式读取缓存的请求体（共享底层数组，不复制）
+     *
+     * @return 请求体输入流
+     */
+    public InputStream getBodyStream() {
+        return new ByteArrayInputStream(this.cachedBody);
+    }
+
     /**
      * 自定义ServletInputStream实现
      */
@@ -88,5 +97,10 @@ public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
         public int read() throws IOException {
             return cachedBodyInputStream.read();
         }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return cachedBodyInputStream.read(b, off, len);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+package org.jim.ledgerserver.common.interceptor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jim.ledgerserver.common.datasource.ReadYourWritesWindow;
+import org.jim.ledgerserver.common.util.DataVersionTracker;
+import org.jim.ledgerserver.common.util.UserContext;
+import org.jim.ledgerserver.ledger.repository.LedgerRepository;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 条件请求拦截器
+ * 根据账本/用户数据版本计算强 ETag，命中 If-None-Match 时直接返回 304，
+ * 不进入 Controller，也不触发任何业务查询与序列化。
+ * 参与计算的数据版本键同时登记到 {@link ReadYourWritesWindow}：这些数据刚变更过时，本次请求的读取走主库，
+ * 避免新 ETag 对应副本上的旧数据。
+ * 必须注册在 AuthInterceptor 之后（依赖 UserContext）。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+public class ConditionalRequestInterceptor implements HandlerInterceptor {
+
+    /**
+     * 交易查询接口（POST，账本ID在请求体中）
+     */
+    public static final String TRANSACTION_QUERY_PATH = "/api/transactions/query";
+
+    private static final Set<String> LEDGER_SCOPED_GET_PATHS = Set.of(
+            "/api/transactions/monthly-summary",
+            "/api/transactions/daily-statistics"
+    );
+
+    private static final String BUDGET_OVERVIEW_PATH = "/api/budgets/overview";
+
+    private static final Set<String> LEDGER_LIST_PATHS = Set.of(
+            "/api/ledgers",
+            "/api/ledgers/owned",
+            "/api/ledgers/shared"
+    );
+
+    private static final Set<String> CATEGORY_PATHS = Set.of(
+            "/api/categories",
+            "/api/categories/expense",
+            "/api/categories/income",
+            "/api/categories/custom"
+    );
+
+    private static final String CATEGORY_TYPE_PATH_PREFIX = "/api/categories/type/";
+
+    @Resource
+    private DataVersionTracker dataVersionTracker;
+
+    @Resource
+    private LedgerRepository ledgerRepository;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWritesWindow.clearReadScopes();
+        Long userId = UserContext.getCurrentUserId();
+        if (userId == null) {
+            return true;
+        }
+
+        String etag = computeETag(request, userId);
+        if (etag == null) {
+            return true;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            // 返回 false 时不会回调 afterCompletion
+            ReadYourWritesWindow.clearReadScopes();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadYourWritesWindow.clearReadScopes();
+    }
+
+    /**
+     * 计算 ETag，返回 null 表示该请求不参与条件请求
+     */
+    private String computeETag(HttpServletRequest request, Long userId) {
+        String uri = request.getRequestURI();
+        String method = request.getMethod();
+
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+                .putLong(dataVersionTracker.getEpoch())
+                .putLong(userId)
+                .putString(method, StandardCharsets.UTF_8)
+                .putString(uri, StandardCharsets.UTF_8)
+                .putString(StringUtils.defaultString(request.getQueryString()), StandardCharsets.UTF_8);
+
+        if (TRANSACTION_QUERY_PATH.equals(uri) && "POST".equals(method)) {
+            CachedBodyHttpServletRequest cachedRequest =
+                    WebUtils.getNativeRequest(request, CachedBodyHttpServletRequest.class);
+            if (cachedRequest == null) {
+                return null;
+            }
+            byte[] body = cachedRequest.getBodyBytes();
+            hasher.putBytes(body);
+            putLedgerScope(hasher, readLedgerId(body), userId);
+        } else if (!"GET".equals(method)) {
+            return null;
+        } else if (LEDGER_SCOPED_GET_PATHS.contains(uri)) {
+            putLedgerScope(hasher, parseLong(request.getParameter("ledgerId")), userId);
+        } else if (BUDGET_OVERVIEW_PATH.equals(uri)) {
+            // 预算概览的剩余天数、日均可用等字段依赖当天日期
+            putLedgerScope(hasher, parseLong(request.getParameter("ledgerId")), userId);
+            hasher.putString(LocalDate.now().toString(), StandardCharsets.UTF_8);
+        } else if (LEDGER_LIST_PATHS.contains(uri)) {
+            putAccessibleLedgers(hasher, userId);
+        } else if (CATEGORY_PATHS.contains(uri) || uri.startsWith(CATEGORY_TYPE_PATH_PREFIX)) {
+            ReadYourWritesWindow.readsScope(DataVersionTracker.userKey(userId));
+            ReadYourWritesWindow.readsScope(DataVersionTracker.GLOBAL_KEY);
+            hasher.putLong(dataVersionTracker.getUserVersion(userId))
+                    .putLong(dataVersionTracker.getGlobalVersion());
+        } else {
+            return null;
+        }
+
+        return "\"" + hasher.hash() + "\"";
+    }
+
+    /**
+     * 指定账本时只依赖该账本版本；未指定账本时依赖用户可访问的全部账本
+     */
+    private void putLedgerScope(Hasher hasher, Long ledgerId, Long userId) {
+        if (ledgerId != null) {
+            ReadYourWritesWindow.readsScope(DataVersionTracker.ledgerKey(ledgerId));
+            hasher.putLong(ledgerId).putLong(dataVersionTracker.getLedgerVersion(ledgerId));
+        } else {
+            putAccessibleLedgers(hasher, userId);
+        }
+    }
+
+    /**
+     * 账本ID集合本身也参与哈希，加入/退出/删除账本会直接改变 ETag
+     */
+    private void putAccessibleLedgers(Hasher hasher, Long userId) {
+        // 先登记用户范围：可访问账本列表本身也可能刚变更
+        ReadYourWritesWindow.readsScope(DataVersionTracker.userKey(userId));
+        hasher.putLong(dataVersionTracker.getUserVersion(userId));
+        List<Long> ledgerIds = ledgerRepository.findAccessibleLedgerIdsByUserId(userId);
+        for (Long ledgerId : ledgerIds) {
+            ReadYourWritesWindow.readsScope(DataVersionTracker.ledgerKey(ledgerId));
+            hasher.putLong(ledgerId).putLong(dataVersionTracker.getLedgerVersion(ledgerId));
+        }
+    }
+
+    private Long readLedgerId(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode ledgerIdNode = objectMapper.readTree(body).get("ledgerId");
+            return ledgerIdNode == null || ledgerIdNode.isNull() ? null : ledgerIdNode.asLong();
+        } catch (Exception e) {
+            log.debug("Failed to read ledgerId from request body: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Long parseLong(String value) {
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
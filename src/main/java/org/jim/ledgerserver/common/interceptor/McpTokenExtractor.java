@@ -0,0 +1,95 @@
+package org.jim.ledgerserver.common.interceptor;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * MCP 请求体 token 流式提取器
+ * 使用 Jackson 流式解析器只读到 params._meta.token 为止，其余字段直接跳过，
+ * 不构建字符串和 JSON 树。支持单个请求对象和 JSON-RPC 批量数组。
+ *
+ * @author James Smith
+ */
+@Component
+public class McpTokenExtractor {
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    /**
+     * 提取 params._meta.token
+     *
+     * @param body 请求体输入流（调用方负责关闭）
+     * @return token，不存在时返回 null
+     */
+    public String extract(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken root = parser.nextToken();
+            if (root == JsonToken.START_OBJECT) {
+                return findInRequest(parser);
+            }
+            if (root == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    String token = findInRequest(parser);
+                    if (token != null) {
+                        return token;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 当前位置为请求对象的 START_OBJECT，找不到时消费到对应的 END_OBJECT
+     */
+    private String findInRequest(JsonParser parser) throws IOException {
+        return findInObject(parser, "params", this::findInParams);
+    }
+
+    private String findInParams(JsonParser parser) throws IOException {
+        return findInObject(parser, "_meta", this::findInMeta);
+    }
+
+    private String findInMeta(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("token".equals(field) && value == JsonToken.VALUE_STRING) {
+                return parser.getText();
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    /**
+     * 在当前对象中查找指定字段，字段值为对象时交给 nested 继续查找，其他字段跳过
+     */
+    private String findInObject(JsonParser parser, String fieldName, NestedFinder nested) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (fieldName.equals(field) && value == JsonToken.START_OBJECT) {
+                String token = nested.find(parser);
+                if (token != null) {
+                    return token;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface NestedFinder {
+        String find(JsonParser parser) throws IOException;
+    }
+}
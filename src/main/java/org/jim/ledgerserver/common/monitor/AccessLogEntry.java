@@ -0,0 +1,28 @@
+package org.jim.ledgerserver.common.monitor;
+
+/**
+ * 访问日志条目（一次请求一条）
+ *
+ * @param timestamp  请求开始时间（毫秒时间戳）
+ * @param method     HTTP 方法
+ * @param path       请求路径
+ * @param query      查询字符串（已脱敏）
+ * @param status     响应状态码
+ * @param latencyMs  耗时（毫秒）
+ * @param userId     当前用户ID，未登录为 null
+ * @param queryCount 本次请求执行的 SQL 条数
+ * @param body       MCP 请求体（仅开启调试采集时记录，已脱敏）
+ * @author James Smith
+ */
+public record AccessLogEntry(
+        long timestamp,
+        String method,
+        String path,
+        String query,
+        int status,
+        long latencyMs,
+        Long userId,
+        int queryCount,
+        String body
+) {
+}
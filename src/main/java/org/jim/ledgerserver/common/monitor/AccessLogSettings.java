@@ -0,0 +1,74 @@
+package org.jim.ledgerserver.common.monitor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 访问日志运行时配置
+ * 初始值来自配置文件，管理员可通过 /api/admin/access-log 在运行时调整
+ *
+ * @author James Smith
+ */
+@Component
+public class AccessLogSettings {
+
+    /**
+     * 采样率（0-1），慢请求和 5xx 总是记录
+     */
+    private volatile double sampleRate;
+
+    /**
+     * 超过该耗时的请求总是记录（毫秒）
+     */
+    private volatile long slowThresholdMs;
+
+    /**
+     * 是否采集 MCP 请求体（仅用于调试，已脱敏）
+     */
+    private volatile boolean mcpBodyCapture;
+
+    public AccessLogSettings(@Value("${ledger.access-log.sample-rate:1.0}") double sampleRate,
+                             @Value("${ledger.access-log.slow-threshold-ms:1000}") long slowThresholdMs,
+                             @Value("${ledger.access-log.mcp-body-capture:false}") boolean mcpBodyCapture) {
+        setSampleRate(sampleRate);
+        this.slowThresholdMs = slowThresholdMs;
+        this.mcpBodyCapture = mcpBodyCapture;
+    }
+
+    /**
+     * 判断该请求是否需要记录
+     */
+    public boolean shouldLog(int status, long latencyMs) {
+        if (status >= 500 || latencyMs >= slowThresholdMs) {
+            return true;
+        }
+        double rate = sampleRate;
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+    }
+
+    public long getSlowThresholdMs() {
+        return slowThresholdMs;
+    }
+
+    public void setSlowThresholdMs(long slowThresholdMs) {
+        this.slowThresholdMs = Math.max(0, slowThresholdMs);
+    }
+
+    public boolean isMcpBodyCapture() {
+        return mcpBodyCapture;
+    }
+
+    public void setMcpBodyCapture(boolean mcpBodyCapture) {
+        this.mcpBodyCapture = mcpBodyCapture;
+    }
+}
@@ -0,0 +1,116 @@
+package org.jim.ledgerserver.common.monitor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步访问日志写入器
+ * 请求线程只做一次非阻塞入队；队列满时直接丢弃并计数，由后台线程序列化为 JSON 行输出到 ACCESS_LOG。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+public class AccessLogWriter {
+
+    /**
+     * 独立的日志名，便于在日志配置中单独输出到文件
+     */
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS_LOG");
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    private final BlockingQueue<AccessLogEntry> queue;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private long reportedDroppedCount;
+
+    private volatile boolean running = true;
+
+    private Thread worker;
+
+    public AccessLogWriter(@Value("${ledger.access-log.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::drainLoop, "access-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * 提交日志条目（非阻塞）
+     */
+    public void submit(AccessLogEntry entry) {
+        if (!queue.offer(entry)) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                AccessLogEntry entry = queue.poll(1, TimeUnit.SECONDS);
+                if (entry != null) {
+                    write(entry);
+                }
+                reportDropped();
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        // 停机时输出剩余条目
+        AccessLogEntry entry;
+        while ((entry = queue.poll()) != null) {
+            write(entry);
+        }
+        reportDropped();
+    }
+
+    private void write(AccessLogEntry entry) {
+        try {
+            ACCESS_LOG.info(objectMapper.writeValueAsString(entry));
+        } catch (Exception e) {
+            log.debug("Failed to write access log entry: {}", e.getMessage());
+        }
+    }
+
+    private void reportDropped() {
+        long dropped = droppedCount.get();
+        if (dropped > reportedDroppedCount) {
+            log.warn("Access log queue full, dropped {} entries (total {})", dropped - reportedDroppedCount, dropped);
+            reportedDroppedCount = dropped;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.jim.ledgerserver.common.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 单次 HTTP 请求的 JFR 事件
+ * 事件的起止时间和所在线程即请求的处理区间，分析录制文件时据此把同一线程上的分配采样、CPU 采样、锁等待等事件归到接口上。
+ * 未开启 JFR 录制时 begin/commit 几乎没有开销。
+ *
+ * @author James Smith
+ */
+@Name(EndpointEvent.NAME)
+@Label("Endpoint Request")
+@Category({"Ledger", "HTTP"})
+@Description("A single HTTP request handled by a controller method")
+@StackTrace(false)
+public class EndpointEvent extends Event {
+
+    public static final String NAME = "ledger.EndpointRequest";
+
+    @Label("Endpoint")
+    @Description("Controller.method, or the path template when no controller matched")
+    public String endpoint;
+
+    @Label("HTTP Method")
+    public String httpMethod;
+
+    @Label("URI Pattern")
+    public String uri;
+
+    @Label("Status")
+    public int status;
+}
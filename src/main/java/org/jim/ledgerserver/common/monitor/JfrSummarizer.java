@@ -0,0 +1,151 @@
+package org.jim.ledgerserver.common.monitor;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JFR 录制文件摘要
+ * 热点方法取 CPU 采样的栈顶方法；分配位置取分配采样中第一个非 JDK 栈帧，并带上分配的类型；
+ * 阻塞线程取监视器等待事件，按线程（线程池合并）和锁对象类型汇总等待时长。
+ *
+ * @author James Smith
+ */
+final class JfrSummarizer {
+
+    private JfrSummarizer() {
+    }
+
+    static OnDemandProfiler.Summary summarize(Path recording, int limit) throws IOException {
+        Map<String, Long> hotMethods = new HashMap<>();
+        Map<String, Long> allocationSites = new HashMap<>();
+        Map<String, Long> blockedThreads = new HashMap<>();
+        long cpuSamples = 0;
+        long allocatedBytes = 0;
+        long blockedNanos = 0;
+        long gcPauses = 0;
+        long gcPauseNanos = 0;
+        long maxGcPauseNanos = 0;
+        Instant first = null;
+        Instant last = null;
+
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (first == null || event.getStartTime().isBefore(first)) {
+                    first = event.getStartTime();
+                }
+                if (last == null || event.getEndTime().isAfter(last)) {
+                    last = event.getEndTime();
+                }
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        cpuSamples++;
+                        hotMethods.merge(leafFrame(event.getStackTrace()), 1L, Long::sum);
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        long weight = event.getLong("weight");
+                        allocatedBytes += weight;
+                        allocationSites.merge(className(event.getClass("objectClass")) + " @ "
+                                + allocationSite(event.getStackTrace()), weight, Long::sum);
+                    }
+                    case "jdk.JavaMonitorEnter" -> {
+                        long duration = event.getDuration().toNanos();
+                        blockedNanos += duration;
+                        blockedThreads.merge(threadName(event.getThread()) + " on "
+                                + className(event.getClass("monitorClass")), duration, Long::sum);
+                    }
+                    case "jdk.GCPhasePause" -> {
+                        long duration = event.getDuration().toNanos();
+                        gcPauses++;
+                        gcPauseNanos += duration;
+                        maxGcPauseNanos = Math.max(maxGcPauseNanos, duration);
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        return new OnDemandProfiler.Summary(
+                recording.getFileName().toString(),
+                first == null ? 0 : last.toEpochMilli() - first.toEpochMilli(),
+                cpuSamples,
+                top(hotMethods, cpuSamples, limit, 1),
+                allocatedBytes,
+                top(allocationSites, allocatedBytes, limit, 1),
+                blockedNanos / 1_000_000,
+                top(blockedThreads, blockedNanos, limit, 1_000_000),
+                gcPauses,
+                gcPauseNanos / 1_000_000,
+                maxGcPauseNanos / 1_000_000);
+    }
+
+    /**
+     * 取值最大的前 limit 项，value 按 divisor 换算（纳秒换算为毫秒）
+     */
+    private static List<OnDemandProfiler.Entry> top(Map<String, Long> values, long total, int limit, long divisor) {
+        return values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(e -> new OnDemandProfiler.Entry(e.getKey(), e.getValue() / divisor,
+                        total == 0 ? 0 : e.getValue() * 100.0 / total))
+                .toList();
+    }
+
+    private static String leafFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "(no stack)";
+        }
+        return method(stackTrace.getFrames().getFirst());
+    }
+
+    /**
+     * 跳过 JDK 内部的数组扩容、字符串拼接等帧，定位到触发分配的库或业务代码
+     */
+    private static String allocationSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "(no stack)";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame() || frame.getMethod() == null) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return method(frame) + ":" + frame.getLineNumber();
+            }
+        }
+        return "(jdk)";
+    }
+
+    private static String method(RecordedFrame frame) {
+        if (frame.getMethod() == null) {
+            return "(native)";
+        }
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private static String className(RecordedClass type) {
+        return type == null ? "(unknown)" : type.getName();
+    }
+
+    private static String threadName(RecordedThread thread) {
+        if (thread == null) {
+            return "(unknown)";
+        }
+        // 线程池中的线程按池汇总：http-nio-9432-exec-12 -> http-nio-9432-exec-*
+        String name = thread.getJavaName() != null ? thread.getJavaName() : thread.getOSName();
+        return name == null ? "(unknown)" : name.replaceFirst("\\d+$", "*");
+    }
+}
@@ -0,0 +1,50 @@
+package org.jim.ledgerserver.common.monitor;
+
+import java.util.regex.Pattern;
+
+/**
+ * 日志脱敏工具
+ * 对查询字符串和 JSON 中的 token、密码等字段做掩码处理
+ *
+ * @author James Smith
+ */
+public final class LogRedactor {
+
+    private static final String MASK = "***";
+
+    /**
+     * 查询参数：token=xxx / access_token=xxx / password=xxx
+     */
+    private static final Pattern QUERY_SECRET = Pattern.compile(
+            "(?i)((?:^|&)(?:token|access_token|refresh_token|password)=)[^&]*");
+
+    /**
+     * JSON 字段："token": "xxx" / "password": "xxx" / "authorization": "xxx"
+     */
+    private static final Pattern JSON_SECRET = Pattern.compile(
+            "(?i)(\"(?:token|access_token|refresh_token|password|authorization)\"\\s*:\\s*\")[^\"]*(\")");
+
+    /**
+     * 裸露的 JWT（三段 base64url）
+     */
+    private static final Pattern JWT = Pattern.compile(
+            "eyJ[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+");
+
+    private LogRedactor() {
+    }
+
+    public static String redactQuery(String query) {
+        if (query == null || query.isEmpty()) {
+            return query;
+        }
+        return QUERY_SECRET.matcher(query).replaceAll("$1" + MASK);
+    }
+
+    public static String redactBody(String body) {
+        if (body == null || body.isEmpty()) {
+            return body;
+        }
+        String redacted = JSON_SECRET.matcher(body).replaceAll("$1" + MASK + "$2");
+        return JWT.matcher(redacted).replaceAll(MASK);
+    }
+}
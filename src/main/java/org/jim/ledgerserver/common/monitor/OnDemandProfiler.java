@@ -0,0 +1,363 @@
+package org.jim.ledgerserver.common.monitor;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 按需剖析（本节点）
+ * 同一时刻只允许一个 JFR 录制，录制到时自动停止，文件写入本机 spool 目录；
+ * spool 目录按文件数、总大小和保留时长清理，最新的一个文件总是保留。另提供不依赖 JFR 的线程转储。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+public class OnDemandProfiler {
+
+    private static final String RECORDING_NAME = "ledger-on-demand";
+
+    private static final String FILE_PREFIX = "ledger-";
+
+    private static final Pattern FILE_NAME = Pattern.compile("ledger-\\d{8}-\\d{6}\\.jfr");
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final int STACK_DEPTH = 32;
+
+    @Value("${ledger.profiling.spool-dir:${java.io.tmpdir}/ledger-jfr}")
+    private String spoolDir;
+
+    @Value("${ledger.profiling.settings:profile}")
+    private String settings;
+
+    @Value("${ledger.profiling.default-duration-seconds:60}")
+    private int defaultDurationSeconds;
+
+    @Value("${ledger.profiling.max-duration-seconds:300}")
+    private int maxDurationSeconds;
+
+    @Value("${ledger.profiling.max-files:10}")
+    private int maxFiles;
+
+    @Value("${ledger.profiling.max-total-mb:500}")
+    private long maxTotalMb;
+
+    @Value("${ledger.profiling.retention-hours:72}")
+    private int retentionHours;
+
+    private Recording active;
+
+    private Path activeFile;
+
+    /**
+     * 录制文件信息
+     * @param file 文件名
+     * @param state RUNNING（录制中，尚未写出）/ FINISHED
+     * @param startTime 录制开始时间
+     * @param durationSeconds 录制时长上限（秒），已结束的文件为 0
+     * @param sizeBytes 文件大小
+     */
+    public record RecordingInfo(String file, String state, Instant startTime, long durationSeconds, long sizeBytes) {
+    }
+
+    /**
+     * 摘要中的一项
+     * @param name 方法 / 分配位置 / 线程与锁
+     * @param value CPU 采样数 / 分配字节数 / 等待毫秒数
+     * @param percent 占总量的百分比
+     */
+    public record Entry(String name, long value, double percent) {
+    }
+
+    /**
+     * 录制文件摘要
+     */
+    public record Summary(String file, long durationMs, long cpuSamples, List<Entry> hotMethods,
+                          long allocatedBytes, List<Entry> allocationSites, long blockedMs, List<Entry> blockedThreads,
+                          long gcPauses, long gcPauseMs, long maxGcPauseMs) {
+    }
+
+    /**
+     * 单个线程的快照
+     */
+    public record ThreadSnapshot(long id, String name, String state, boolean daemon, String lockName,
+                                 String lockOwnerName, long blockedCount, long waitedCount, List<String> stack) {
+    }
+
+    /**
+     * 线程转储
+     * @param threadCount 线程总数
+     * @param stateCounts 各状态的线程数
+     * @param deadlocked 死锁中的线程名
+     * @param blocked 处于 BLOCKED 或在等待其他线程持有的锁的线程
+     * @param threads 全部线程（只取阻塞线程时为空）
+     */
+    public record ThreadDump(int threadCount, Map<String, Integer> stateCounts, List<String> deadlocked,
+                             List<ThreadSnapshot> blocked, List<ThreadSnapshot> threads) {
+    }
+
+    /**
+     * 开始录制，到时自动停止并写出文件
+     * @param durationSeconds 录制时长（秒），为空取默认值，超过上限按上限
+     */
+    public synchronized RecordingInfo start(Integer durationSeconds) {
+        if (isRunning()) {
+            throw new BusinessException("已有录制正在进行: " + activeFile.getFileName());
+        }
+        closeActive();
+        purge();
+
+        int seconds = durationSeconds == null ? defaultDurationSeconds : Math.clamp(durationSeconds, 1, maxDurationSeconds);
+        Path file;
+        Recording recording;
+        try {
+            file = Files.createDirectories(Paths.get(spoolDir))
+                    .resolve(FILE_PREFIX + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+            if (Files.exists(file)) {
+                throw new BusinessException("录制过于频繁，请稍后再试");
+            }
+            recording = new Recording(Configuration.getConfiguration(settings));
+            recording.setName(RECORDING_NAME);
+            recording.setToDisk(true);
+            recording.setDestination(file);
+            recording.setDuration(Duration.ofSeconds(seconds));
+        } catch (IOException | ParseException e) {
+            log.error("Failed to create JFR recording", e);
+            throw new BusinessException("创建录制失败: " + e.getMessage());
+        }
+        recording.start();
+        active = recording;
+        activeFile = file;
+        log.info("JFR recording started: file={}, duration={}s, settings={}", file, seconds, settings);
+        return new RecordingInfo(file.getFileName().toString(), RecordingState.RUNNING.name(),
+                recording.getStartTime(), seconds, 0);
+    }
+
+    /**
+     * 提前停止当前录制（已到时自动停止的直接返回），并返回摘要
+     */
+    public synchronized Summary stop(int limit) {
+        if (active == null) {
+            throw new BusinessException("没有进行中的录制");
+        }
+        Path file = activeFile;
+        if (isRunning()) {
+            active.stop();
+            log.info("JFR recording stopped: file={}", file);
+        }
+        closeActive();
+        purge();
+        return summarize(file.getFileName().toString(), limit);
+    }
+
+    /**
+     * spool 目录中的录制文件（新的在前）
+     */
+    public synchronized List<RecordingInfo> list() {
+        List<RecordingInfo> result = new ArrayList<>();
+        if (isRunning()) {
+            result.add(new RecordingInfo(activeFile.getFileName().toString(), RecordingState.RUNNING.name(),
+                    active.getStartTime(), active.getDuration().toSeconds(), 0));
+        }
+        for (Path file : spoolFiles()) {
+            if (isRunning() && file.equals(activeFile)) {
+                continue;
+            }
+            result.add(new RecordingInfo(file.getFileName().toString(), "FINISHED",
+                    lastModified(file), 0, size(file)));
+        }
+        return result;
+    }
+
+    /**
+     * 解析已结束的录制文件
+     * @param fileName spool 目录中的文件名
+     * @param limit 每个列表返回的条数
+     */
+    public Summary summarize(String fileName, int limit) {
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches()) {
+            throw new BusinessException("录制文件名无效");
+        }
+        Path file = Paths.get(spoolDir).resolve(fileName);
+        synchronized (this) {
+            if (isRunning() && file.equals(activeFile)) {
+                throw new BusinessException("录制尚未结束");
+            }
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new BusinessException(404, "录制文件不存在或已清理");
+        }
+        try {
+            return JfrSummarizer.summarize(file, limit);
+        } catch (IOException e) {
+            log.error("Failed to parse JFR recording {}", file, e);
+            throw new BusinessException("解析录制文件失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 线程转储：锁信息在 JVM 支持时一并采集，每个线程最多取 {@value #STACK_DEPTH} 层栈帧
+     * @param blockedOnly 只返回阻塞线程
+     */
+    public ThreadDump threadDump(boolean blockedOnly) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        ThreadInfo[] infos = bean.dumpAllThreads(bean.isObjectMonitorUsageSupported(),
+                bean.isSynchronizerUsageSupported(), STACK_DEPTH);
+
+        Map<String, Integer> stateCounts = new TreeMap<>();
+        List<ThreadSnapshot> blocked = new ArrayList<>();
+        List<ThreadSnapshot> threads = new ArrayList<>();
+        for (ThreadInfo info : infos) {
+            if (info == null) {
+                continue;
+            }
+            stateCounts.merge(info.getThreadState().name(), 1, Integer::sum);
+            ThreadSnapshot snapshot = snapshot(info);
+            if (info.getThreadState() == Thread.State.BLOCKED || info.getLockOwnerName() != null) {
+                blocked.add(snapshot);
+            }
+            if (!blockedOnly) {
+                threads.add(snapshot);
+            }
+        }
+
+        long[] deadlockedIds = bean.isSynchronizerUsageSupported()
+                ? bean.findDeadlockedThreads() : bean.findMonitorDeadlockedThreads();
+        List<String> deadlocked = deadlockedIds == null ? List.of() : Arrays.stream(bean.getThreadInfo(deadlockedIds))
+                .filter(info -> info != null)
+                .map(ThreadInfo::getThreadName)
+                .toList();
+        return new ThreadDump(infos.length, stateCounts, deadlocked, blocked, threads);
+    }
+
+    /**
+     * 定期清理 spool 目录，并释放已到时停止的录制
+     */
+    @Scheduled(fixedDelay = 600_000L)
+    public synchronized void purgeExpired() {
+        if (active != null && !isRunning()) {
+            closeActive();
+        }
+        purge();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (isRunning()) {
+            active.stop();
+            log.info("JFR recording stopped on shutdown: file={}", activeFile);
+        }
+        closeActive();
+    }
+
+    private boolean isRunning() {
+        return active != null && active.getState() == RecordingState.RUNNING;
+    }
+
+    private void closeActive() {
+        if (active != null) {
+            active.close();
+            active = null;
+            activeFile = null;
+        }
+    }
+
+    /**
+     * 从新到旧保留：超过文件数、累计大小或保留时长的删除
+     */
+    private void purge() {
+        Instant expireBefore = Instant.now().minus(Duration.ofHours(retentionHours));
+        long maxTotalBytes = maxTotalMb * 1024 * 1024;
+        long totalBytes = 0;
+        int kept = 0;
+        for (Path file : spoolFiles()) {
+            totalBytes += size(file);
+            boolean keep = kept == 0
+                    || (kept < maxFiles && totalBytes <= maxTotalBytes && lastModified(file).isAfter(expireBefore));
+            if (keep) {
+                kept++;
+                continue;
+            }
+            try {
+                Files.deleteIfExists(file);
+                log.info("Purged JFR recording {}", file);
+            } catch (IOException e) {
+                log.warn("Failed to delete JFR recording {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * spool 目录中的录制文件，新的在前
+     */
+    private List<Path> spoolFiles() {
+        Path dir = Paths.get(spoolDir);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> FILE_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing(OnDemandProfiler::lastModified).reversed())
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list JFR spool directory {}: {}", dir, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static ThreadSnapshot snapshot(ThreadInfo info) {
+        List<String> stack = new ArrayList<>(info.getStackTrace().length);
+        for (StackTraceElement element : info.getStackTrace()) {
+            stack.add(element.toString());
+        }
+        LockInfo lock = info.getLockInfo();
+        return new ThreadSnapshot(info.getThreadId(), info.getThreadName(), info.getThreadState().name(),
+                info.isDaemon(), lock == null ? null : lock.toString(), info.getLockOwnerName(),
+                info.getBlockedCount(), info.getWaitedCount(), stack);
+    }
+
+    private static Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.jim.ledgerserver.common.monitor;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 统计当前线程执行的 SQL 条数
+ * 注册为 Hibernate StatementInspector，每条语句准备时计数一次，不修改 SQL
+ *
+ * @author James Smith
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNTER = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNTER.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * 重置当前线程计数（请求开始时调用）
+     */
+    public static void reset() {
+        COUNTER.get()[0] = 0;
+    }
+
+    /**
+     * 当前线程自上次重置以来执行的 SQL 条数
+     */
+    public static int current() {
+        return COUNTER.get()[0];
+    }
+
+    /**
+     * 清理当前线程计数（请求结束时调用）
+     */
+    public static void clear() {
+        COUNTER.remove();
+    }
+}
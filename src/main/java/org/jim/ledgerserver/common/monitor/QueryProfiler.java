@@ -0,0 +1,304 @@
+package org.jim.ledgerserver.common.monitor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 耗时画像
+ * 挂在数据源代理上，按（SQL 指纹、仓库方法、调用方）汇总执行次数、耗时和行数，
+ * 耗时分位数按每个指纹最近 {@code ledger.slow-query.sample-size} 次执行计算；
+ * 超过阈值的语句记一条日志，只带参数的类型和长度，不带参数值。
+ * 默认关闭（{@code ledger.slow-query.enabled}）；开启后只统计按 {@code sample-rate} 抽中的语句，
+ * 既没抽中也不慢的语句不取调用栈、不算指纹。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ledger.slow-query.enabled", havingValue = "true")
+public class QueryProfiler implements QueryExecutionListener {
+
+    private static final String BASE_PACKAGE = "org.jim.ledgerserver.";
+
+    private static final String MONITOR_PACKAGE = "org.jim.ledgerserver.common.monitor.";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    /**
+     * 当前线程正在读取的查询结果所属的统计项，ResultSet.next() 时累加行数
+     */
+    private static final ThreadLocal<Stats> READING = new ThreadLocal<>();
+
+    @Value("${ledger.slow-query.threshold-ms:200}")
+    private long slowThresholdMs;
+
+    @Value("${ledger.slow-query.sample-rate:0.1}")
+    private double sampleRate;
+
+    @Value("${ledger.slow-query.sample-size:1024}")
+    private int sampleSize;
+
+    @Value("${ledger.slow-query.max-fingerprints:1000}")
+    private int maxFingerprints;
+
+    /**
+     * 原始 SQL -> 指纹，避免每次执行都重新解析
+     */
+    private final Cache<String, String> fingerprints = Caffeine.newBuilder().maximumSize(5000).build();
+
+    private final Map<Key, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 统计项已满时丢弃的执行次数
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 统计维度
+     * @param fingerprint SQL 指纹
+     * @param repository 仓库方法（不经过仓库的语句为 null）
+     * @param caller 调用方（本项目中最近的非仓库栈帧）
+     */
+    public record Key(String fingerprint, String repository, String caller) {
+    }
+
+    /**
+     * 单个统计项的快照
+     */
+    public record Snapshot(Key key, long count, long totalMs, double avgMs, long p50Ms, long p99Ms, long maxMs,
+                           long rows) {
+    }
+
+    private final class Stats {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder totalMs = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxMs = new AtomicLong();
+
+        /**
+         * 最近若干次耗时（环形缓冲）
+         */
+        final long[] samples = new long[sampleSize];
+        int next;
+        int filled;
+
+        void record(long elapsedMs, long affectedRows) {
+            count.increment();
+            totalMs.add(elapsedMs);
+            rows.add(affectedRows);
+            maxMs.accumulateAndGet(elapsedMs, Math::max);
+            synchronized (this) {
+                samples[next] = elapsedMs;
+                next = (next + 1) % samples.length;
+                filled = Math.min(filled + 1, samples.length);
+            }
+        }
+
+        Snapshot snapshot(Key key) {
+            long[] sorted;
+            synchronized (this) {
+                sorted = Arrays.copyOf(samples, filled);
+            }
+            Arrays.sort(sorted);
+            long n = count.sum();
+            long total = totalMs.sum();
+            return new Snapshot(key, n, total, n == 0 ? 0 : (double) total / n,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), maxMs.get(), rows.sum());
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        READING.remove();
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsedMs = execInfo.getElapsedTime();
+        boolean slow = elapsedMs >= slowThresholdMs;
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!slow && !sampled) {
+            return;
+        }
+        String sql = queryInfoList.getFirst().getQuery();
+        Key key = new Key(fingerprints.get(sql, SqlFingerprint::of), RepositoryCallSiteAspect.current(), caller());
+
+        if (slow) {
+            log.warn("Slow query {}ms [{} <- {}] {} params={}", elapsedMs,
+                    key.repository() == null ? "-" : key.repository(), key.caller(), key.fingerprint(),
+                    parameterShapes(queryInfoList));
+        }
+        if (!sampled) {
+            return;
+        }
+
+        Stats entry = stats.get(key);
+        if (entry == null) {
+            if (stats.size() >= maxFingerprints) {
+                dropped.increment();
+                return;
+            }
+            entry = stats.computeIfAbsent(key, k -> new Stats());
+        }
+        Object result = execInfo.getResult();
+        entry.record(elapsedMs, affectedRows(result));
+        if (result instanceof ResultSet) {
+            READING.set(entry);
+        }
+    }
+
+    /**
+     * ResultSet 代理：只拦截 next() 累加行数，其余方法直接转给驱动，不经过监听器
+     */
+    public ResultSetProxyLogicFactory rowCounter() {
+        return (resultSet, connectionInfo, proxyConfig) -> (proxy, method, args) -> {
+            if (method.getDeclaringClass() == ProxyJdbcObject.class) {
+                return "getTarget".equals(method.getName()) ? resultSet : proxyConfig;
+            }
+            Object result;
+            try {
+                result = method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            if (result == Boolean.TRUE && "next".equals(method.getName())) {
+                Stats entry = READING.get();
+                if (entry != null) {
+                    entry.rows.increment();
+                }
+            }
+            return result;
+        };
+    }
+
+    /**
+     * 统计快照，按 sortBy 降序
+     * @param sortBy total / p99 / max / count / rows
+     * @param limit 最多返回条数
+     */
+    public List<Snapshot> top(String sortBy, int limit) {
+        Comparator<Snapshot> comparator = switch (sortBy == null ? "total" : sortBy) {
+            case "p99" -> Comparator.comparingLong(Snapshot::p99Ms);
+            case "max" -> Comparator.comparingLong(Snapshot::maxMs);
+            case "count" -> Comparator.comparingLong(Snapshot::count);
+            case "rows" -> Comparator.comparingLong(Snapshot::rows);
+            default -> Comparator.comparingLong(Snapshot::totalMs);
+        };
+        List<Snapshot> snapshots = new ArrayList<>(stats.size());
+        stats.forEach((key, entry) -> snapshots.add(entry.snapshot(key)));
+        snapshots.sort(comparator.reversed());
+        return snapshots.size() > limit ? snapshots.subList(0, limit) : snapshots;
+    }
+
+    public int size() {
+        return stats.size();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * 清空统计
+     */
+    public void reset() {
+        stats.clear();
+        dropped.reset();
+    }
+
+    /**
+     * 本项目中最近的调用方栈帧（跳过监控代码和 Spring 生成的代理类）
+     */
+    private static String caller() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(BASE_PACKAGE)
+                        && !frame.getClassName().startsWith(MONITOR_PACKAGE)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName();
+                    return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+                })
+                .orElse("-"));
+    }
+
+    /**
+     * 更新语句的影响行数；查询语句的行数在读取结果时累加
+     */
+    private static long affectedRows(Object result) {
+        if (result instanceof Integer rows) {
+            return Math.max(rows, 0);
+        }
+        if (result instanceof int[] batch) {
+            long rows = 0;
+            for (int r : batch) {
+                rows += Math.max(r, 0);
+            }
+            return rows;
+        }
+        return 0;
+    }
+
+    /**
+     * 参数形状：类型与字符串长度，批量语句附带批次数，如 [Long, String(12), null] x50
+     */
+    private static String parameterShapes(List<QueryInfo> queryInfoList) {
+        QueryInfo query = queryInfoList.getFirst();
+        if (query.getParametersList().isEmpty()) {
+            return "[]";
+        }
+        List<ParameterSetOperation> first = new ArrayList<>(query.getParametersList().getFirst());
+        first.sort(Comparator.comparingInt(op -> op.getArgs()[0] instanceof Integer index ? index : Integer.MAX_VALUE));
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < first.size(); i++) {
+            ParameterSetOperation op = first.get(i);
+            Object value = op.getArgs().length > 1 ? op.getArgs()[1] : null;
+            sb.append(i == 0 ? "" : ", ");
+            if (value == null || "setNull".equals(op.getMethod().getName())) {
+                sb.append("null");
+            } else if (value instanceof CharSequence text) {
+                sb.append("String(").append(text.length()).append(')');
+            } else {
+                sb.append(value.getClass().getSimpleName());
+            }
+        }
+        sb.append(']');
+        if (query.getParametersList().size() > 1) {
+            sb.append(" x").append(query.getParametersList().size());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package org.jim.ledgerserver.common.monitor;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 记录当前线程正在执行的 Spring Data 仓库方法
+ * 供 {@link QueryProfiler} 把 SQL 归到发起它的仓库方法上，如 TransactionRepository.findAll(spec, Pageable)
+ *
+ * @author James Smith
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "ledger.slow-query.enabled", havingValue = "true")
+public class RepositoryCallSiteAspect {
+
+    private static final String BASE_PACKAGE = "org.jim.ledgerserver.";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private record LabelKey(Class<?> targetClass, Method method) {
+    }
+
+    private final Map<LabelKey, String> labels = new ConcurrentHashMap<>();
+
+    /**
+     * 当前线程正在执行的仓库方法，不在仓库调用中时返回 null
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        String previous = CURRENT.get();
+        CURRENT.set(label(joinPoint));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    private String label(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget() == null ? method.getDeclaringClass() : joinPoint.getTarget().getClass();
+        return labels.computeIfAbsent(new LabelKey(targetClass, method), key -> repositoryName(key.targetClass())
+                + "." + method.getName()
+                + Arrays.stream(method.getParameterTypes()).map(RepositoryCallSiteAspect::parameterLabel)
+                        .collect(Collectors.joining(", ", "(", ")")));
+    }
+
+    /**
+     * 仓库代理实现的本项目接口名
+     */
+    private static String repositoryName(Class<?> targetClass) {
+        for (Class<?> type : ClassUtils.getAllInterfacesForClass(targetClass)) {
+            if (type.getName().startsWith(BASE_PACKAGE)) {
+                return type.getSimpleName();
+            }
+        }
+        return targetClass.getSimpleName();
+    }
+
+    private static String parameterLabel(Class<?> type) {
+        return Specification.class.isAssignableFrom(type) ? "spec" : type.getSimpleName();
+    }
+}
@@ -0,0 +1,115 @@
+package org.jim.ledgerserver.common.monitor;
+
+import java.util.regex.Pattern;
+
+/**
+ * SQL 指纹
+ * 把字面量（字符串、数字）替换为 ?，去掉注释、合并空白、转小写，IN 列表和多值 VALUES 折叠为一项，
+ * 同一条语句无论参数和列表长度如何都得到相同的指纹。
+ *
+ * @author James Smith
+ */
+public final class SqlFingerprint {
+
+    private static final Pattern IN_LIST = Pattern.compile("\\bin \\(\\?(?:, \\?)*\\)");
+
+    private static final Pattern VALUES_LIST = Pattern.compile("(\\((?:\\?, )*\\?\\))(?:, \\((?:\\?, )*\\?\\))+");
+
+    /**
+     * 指纹最大长度，超长部分截断
+     */
+    private static final int MAX_LENGTH = 2000;
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(Math.min(sql.length(), MAX_LENGTH * 2));
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                i = skipQuoted(sql, i, c);
+                sb.append('?');
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (!sb.isEmpty() && sb.charAt(sb.length() - 1) != ' ' && sb.charAt(sb.length() - 1) != '(') {
+                    sb.append(' ');
+                }
+            } else if (Character.isDigit(c) && !isIdentifierPart(sb)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                sb.append('?');
+            } else if (c == ')' && !sb.isEmpty() && sb.charAt(sb.length() - 1) == ' ') {
+                sb.setCharAt(sb.length() - 1, ')');
+                i++;
+            } else if (c == ',') {
+                if (!sb.isEmpty() && sb.charAt(sb.length() - 1) == ' ') {
+                    sb.setLength(sb.length() - 1);
+                }
+                sb.append(", ");
+                i++;
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+            } else {
+                sb.append(Character.toLowerCase(c));
+                i++;
+            }
+            if (sb.length() > MAX_LENGTH * 2) {
+                break;
+            }
+        }
+
+        String fingerprint = sb.toString().trim();
+        fingerprint = IN_LIST.matcher(fingerprint).replaceAll("in (?+)");
+        fingerprint = VALUES_LIST.matcher(fingerprint).replaceAll("$1");
+        return fingerprint.length() > MAX_LENGTH ? fingerprint.substring(0, MAX_LENGTH) : fingerprint;
+    }
+
+    /**
+     * 跳过引号内的内容（支持重复引号和反斜杠转义），返回引号结束后的位置
+     */
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * 数字是否是标识符的一部分（如 t1_0、col2）
+     */
+    private static boolean isIdentifierPart(StringBuilder sb) {
+        if (sb.isEmpty()) {
+            return false;
+        }
+        char last = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '`' || last == '$';
+    }
+}
@@ -0,0 +1,183 @@
+package org.jim.ledgerserver.common.sharding;
+
+import org.jim.ledgerserver.ledger.entity.TransactionAttachmentEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 合并扇出到各分片的仓库调用结果
+ * 按结果类型合并：列表拼接（同一实体只保留一条，迁移复制到切换之间两个分片上会各有一份）并按 Sort 重新排序，
+ * 分页先各取前 offset + size 条再归并截取，计数和金额相加，Optional 取第一个有值的；
+ * 分组统计（List&lt;Object[]&gt;，首列为分组键，其余列为 SUM/COUNT）按分组键重新累加，再按最后一列降序排列。
+ *
+ * @author James Smith
+ */
+final class FanOutMerger {
+
+    private FanOutMerger() {
+    }
+
+    /**
+     * 扇出查询时每个分片使用的分页参数：从第一条取到目标页末尾
+     */
+    static Pageable shardPageable(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        return PageRequest.of(0, (int) (pageable.getOffset() + pageable.getPageSize()), pageable.getSort());
+    }
+
+    /**
+     * @param results  各分片的返回值
+     * @param pageable 调用参数中的分页（没有则为 null）
+     * @param sort     调用参数中的排序（没有则取分页的排序）
+     */
+    static Object merge(List<Object> results, Pageable pageable, Sort sort) {
+        Object sample = results.stream().filter(Objects::nonNull).findFirst().orElse(null);
+        return switch (sample) {
+            case null -> null;
+            case Page<?> ignored -> mergePages(results, pageable);
+            case Optional<?> ignored -> results.stream()
+                    .map(r -> (Optional<?>) r)
+                    .filter(Optional::isPresent)
+                    .findFirst()
+                    .orElse(Optional.empty());
+            case Boolean ignored -> results.stream().anyMatch(Boolean.TRUE::equals);
+            case Long ignored -> results.stream().filter(Objects::nonNull).mapToLong(r -> ((Number) r).longValue()).sum();
+            case Integer ignored -> results.stream().filter(Objects::nonNull).mapToInt(r -> ((Number) r).intValue()).sum();
+            case BigDecimal ignored -> results.stream().filter(Objects::nonNull).map(r -> (BigDecimal) r)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            case List<?> ignored -> mergeLists(results, sort != null ? sort : pageable != null ? pageable.getSort() : null);
+            default -> sample;
+        };
+    }
+
+    private static Page<Object> mergePages(List<Object> results, Pageable pageable) {
+        List<Object> contents = new ArrayList<>();
+        long total = 0;
+        for (Object result : results) {
+            Page<?> page = (Page<?>) result;
+            contents.add(page.getContent());
+            total += page.getTotalElements();
+        }
+        List<Object> merged = mergeEntities(contents, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(merged, pageable, total);
+        }
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, total);
+    }
+
+    private static List<Object> mergeLists(List<Object> results, Sort sort) {
+        boolean grouped = results.stream()
+                .filter(Objects::nonNull)
+                .flatMap(r -> ((List<?>) r).stream())
+                .findFirst()
+                .map(row -> row instanceof Object[])
+                .orElse(false);
+        return grouped ? mergeGroups(results) : mergeEntities(results, sort);
+    }
+
+    private static List<Object> mergeEntities(List<Object> results, Sort sort) {
+        Map<Object, Object> byId = new LinkedHashMap<>();
+        List<Object> others = new ArrayList<>();
+        for (Object result : results) {
+            if (result == null) {
+                continue;
+            }
+            for (Object item : (List<?>) result) {
+                Long id = switch (item) {
+                    case TransactionEntity t -> t.getId();
+                    case TransactionAttachmentEntity a -> a.getId();
+                    case null, default -> null;
+                };
+                if (id == null) {
+                    others.add(item);
+                } else {
+                    byId.putIfAbsent(id, item);
+                }
+            }
+        }
+        List<Object> merged = new ArrayList<>(byId.values());
+        merged.addAll(others);
+        if (sort != null && sort.isSorted()) {
+            merged.sort(comparator(sort));
+        }
+        return merged;
+    }
+
+    private static List<Object> mergeGroups(List<Object> results) {
+        Map<Object, Object[]> groups = new LinkedHashMap<>();
+        for (Object result : results) {
+            if (result == null) {
+                continue;
+            }
+            for (Object item : (List<?>) result) {
+                Object[] row = (Object[]) item;
+                groups.merge(row[0], row.clone(), (existing, added) -> {
+                    for (int i = 1; i < existing.length; i++) {
+                        existing[i] = add((Number) existing[i], (Number) added[i]);
+                    }
+                    return existing;
+                });
+            }
+        }
+        List<Object> merged = new ArrayList<>(groups.values());
+        merged.sort(Comparator.comparing((Object row) -> decimal(((Object[]) row)[((Object[]) row).length - 1]))
+                .reversed());
+        return merged;
+    }
+
+    private static Number add(Number a, Number b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a instanceof BigDecimal || b instanceof BigDecimal) {
+            return decimal(a).add(decimal(b));
+        }
+        if (a instanceof Double || b instanceof Double) {
+            return a.doubleValue() + b.doubleValue();
+        }
+        return a.longValue() + b.longValue();
+    }
+
+    private static BigDecimal decimal(Object value) {
+        return value == null ? BigDecimal.ZERO : new BigDecimal(value.toString());
+    }
+
+    /**
+     * 与数据库排序一致：升序时 NULL 在前（MySQL 默认行为）
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object> comparator(Sort sort) {
+        Comparator<Object> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<Object> byProperty = Comparator.comparing(
+                    item -> (Comparable) new BeanWrapperImpl(item).getPropertyValue(order.getProperty()),
+                    Comparator.nullsFirst(Comparator.<Comparable>naturalOrder()));
+            if (order.isDescending()) {
+                byProperty = byProperty.reversed();
+            }
+            result = result == null ? byProperty : result.thenComparing(byProperty);
+        }
+        return result;
+    }
+}
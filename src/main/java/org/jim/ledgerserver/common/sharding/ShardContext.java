@@ -0,0 +1,106 @@
+package org.jim.ledgerserver.common.sharding;
+
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程的分片上下文
+ * 分片号由 {@link ShardRoutingAspect} 在调用交易仓库前设置，{@link ShardRoutingDataSource} 据此选择连接池；
+ * 业务代码只需要在 Specification 查询已限定账本时通过 {@link #forLedger} 声明账本，避免查询扇出到所有分片；
+ * 写附件时通过 {@link #forTransaction} 带上所属交易，路由时不必再到各分片查找交易。
+ * 未启用分片时声明不起作用。
+ *
+ * @author James Smith
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private static final ThreadLocal<Long> LEDGER_HINT = new ThreadLocal<>();
+
+    private static final ThreadLocal<ParentTransaction> PARENT_TRANSACTION = new ThreadLocal<>();
+
+    /**
+     * 附件所属交易及其分片键
+     */
+    record ParentTransaction(Long transactionId, ShardKey key) {
+    }
+
+    private ShardContext() {
+    }
+
+    /**
+     * 执行只涉及指定账本交易的查询
+     *
+     * @param ledgerId 账本ID，为空时不声明
+     * @param query    查询
+     * @return 查询结果
+     */
+    public static <T> T forLedger(Long ledgerId, Supplier<T> query) {
+        if (ledgerId == null) {
+            return query.get();
+        }
+        Long previous = LEDGER_HINT.get();
+        LEDGER_HINT.set(ledgerId);
+        try {
+            return query.get();
+        } finally {
+            restore(LEDGER_HINT, previous);
+        }
+    }
+
+    /**
+     * 执行属于指定交易的附件写入，附件按该交易的账本/用户路由
+     *
+     * @param transaction 附件所属交易
+     * @param write       写入
+     * @return 写入结果
+     */
+    public static <T> T forTransaction(TransactionEntity transaction, Supplier<T> write) {
+        ParentTransaction previous = PARENT_TRANSACTION.get();
+        PARENT_TRANSACTION.set(new ParentTransaction(transaction.getId(),
+                ShardKey.of(transaction.getLedgerId(), transaction.getCreatedByUserId())));
+        try {
+            return write.get();
+        } finally {
+            restore(PARENT_TRANSACTION, previous);
+        }
+    }
+
+    static ParentTransaction parentTransaction() {
+        return PARENT_TRANSACTION.get();
+    }
+
+    static Long ledgerHint() {
+        return LEDGER_HINT.get();
+    }
+
+    static Integer currentShard() {
+        return SHARD.get();
+    }
+
+    static <T> T onShard(int shard, ShardCall<T> action) throws Throwable {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return action.call();
+        } finally {
+            restore(SHARD, previous);
+        }
+    }
+
+    @FunctionalInterface
+    interface ShardCall<T> {
+
+        T call() throws Throwable;
+    }
+
+    private static <T> void restore(ThreadLocal<T> holder, T previous) {
+        if (previous == null) {
+            holder.remove();
+        } else {
+            holder.set(previous);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.jim.ledgerserver.common.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * 各分片的连接池（下标即分片号）
+ * 交易仓库经由 {@link ShardRoutingDataSource} 使用；目录、建表和迁移直接按分片号访问。
+ *
+ * @author James Smith
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<DataSource> dataSources;
+
+    private final List<JdbcTemplate> jdbcTemplates;
+
+    public ShardDataSources(List<DataSource> dataSources) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalStateException("ledger.sharding.shards must not be empty when sharding is enabled");
+        }
+        this.dataSources = List.copyOf(dataSources);
+        this.jdbcTemplates = this.dataSources.stream().map(JdbcTemplate::new).toList();
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public DataSource get(int shard) {
+        return dataSources.get(shard);
+    }
+
+    public List<DataSource> all() {
+        return dataSources;
+    }
+
+    public JdbcTemplate jdbc(int shard) {
+        return jdbcTemplates.get(shard);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.jim.ledgerserver.common.sharding;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.jim.ledgerserver.common.cache.CacheInvalidationBus;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 分片目录：账本/用户 -> 分片
+ *
+ * 目录中没有记录的键按固定规则定位：启用分片前已有交易的留在 {@code legacy-shard}，其余按键哈希分布；
+ * 规则在各节点上结果一致，首次写入时再把结果登记到目录，之后只有迁移才会改变位置。
+ * 查询结果在本地缓存，迁移改变位置后通过 {@link CacheInvalidationBus} 通知其他节点。
+ *
+ * @author James Smith
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.sharding.enabled", havingValue = "true")
+public class ShardDirectory {
+
+    static final String CACHE_NAME = "shard-directory";
+
+    @Resource
+    private ShardDirectoryRepository shardDirectoryRepository;
+
+    @Resource
+    private ShardDataSources shardDataSources;
+
+    @Resource
+    private ShardingProperties shardingProperties;
+
+    @Resource
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private Cache<ShardKey, Placement> placements;
+
+    /**
+     * @param shard     分片号
+     * @param migrating 是否正在迁移
+     * @param assigned  是否已登记到目录
+     */
+    record Placement(int shard, boolean migrating, boolean assigned) {
+    }
+
+    @PostConstruct
+    public void init() {
+        placements = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(shardingProperties.getDirectoryCacheTtl())
+                .build();
+        cacheInvalidationBus.subscribe(CACHE_NAME, key -> {
+            if (key == null) {
+                placements.invalidateAll();
+            } else {
+                placements.invalidate(ShardKey.parse(key));
+            }
+        });
+    }
+
+    /**
+     * 读取该键的交易应访问的分片
+     */
+    public int shardForRead(ShardKey key) {
+        return placement(key).shard();
+    }
+
+    /**
+     * 写入该键的交易应访问的分片，首次写入时登记到目录；迁移期间拒绝写入
+     */
+    public int shardForWrite(ShardKey key) {
+        Placement placement = placement(key);
+        if (!placement.assigned()) {
+            if (shardDirectoryRepository.insertIfAbsent(key.scope().name(), key.id(), placement.shard()) > 0) {
+                placement = new Placement(placement.shard(), false, true);
+                placements.put(key, placement);
+            } else {
+                // 其他节点已登记，位置规则相同，一般就是同一个分片
+                placements.invalidate(key);
+                placement = placement(key);
+            }
+        }
+        if (placement.migrating()) {
+            throw new BusinessException(503, "账本数据迁移中，请稍后重试");
+        }
+        return placement.shard();
+    }
+
+    /**
+     * 标记迁移开始，此后各节点拒绝该键的写入
+     *
+     * @return 当前所在分片
+     */
+    int markMigrating(ShardKey key) {
+        int shard = shardForWrite(key);
+        update(key, shard, true);
+        return shard;
+    }
+
+    /**
+     * 迁移完成，切换到目标分片
+     */
+    void completeMigration(ShardKey key, int targetShard) {
+        update(key, targetShard, false);
+    }
+
+    /**
+     * 迁移失败，恢复写入，位置不变
+     */
+    void abortMigration(ShardKey key, int sourceShard) {
+        update(key, sourceShard, false);
+    }
+
+    /**
+     * 各分片登记的账本/用户数
+     */
+    Map<Integer, Long> countByShard() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (int i = 0; i < shardDataSources.size(); i++) {
+            counts.put(i, 0L);
+        }
+        for (Object[] row : shardDirectoryRepository.countByShard()) {
+            counts.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private void update(ShardKey key, int shard, boolean migrating) {
+        ShardDirectoryEntity entity = shardDirectoryRepository.findByScopeAndRoutingKey(key.scope().name(), key.id())
+                .orElseThrow(() -> new IllegalStateException("Shard directory entry missing for " + key));
+        entity.setShard(shard);
+        entity.setMigrating(migrating);
+        shardDirectoryRepository.save(entity);
+        placements.invalidate(key);
+        cacheInvalidationBus.publish(CACHE_NAME, key.toString());
+    }
+
+    private Placement placement(ShardKey key) {
+        return placements.get(key, this::load);
+    }
+
+    private Placement load(ShardKey key) {
+        return shardDirectoryRepository.findByScopeAndRoutingKey(key.scope().name(), key.id())
+                .map(entity -> new Placement(entity.getShard(), entity.getMigrating(), true))
+                .orElseGet(() -> new Placement(defaultShard(key), false, false));
+    }
+
+    /**
+     * 未登记的键的位置
+     */
+    private int defaultShard(ShardKey key) {
+        int legacyShard = shardingProperties.getLegacyShard();
+        Boolean legacyRows = shardDataSources.jdbc(legacyShard).query(
+                "SELECT 1 FROM `transaction` WHERE " + key.transactionFilter() + " LIMIT 1",
+                (ResultSetExtractor<Boolean>) ResultSet::next, key.id());
+        if (Boolean.TRUE.equals(legacyRows)) {
+            return legacyShard;
+        }
+        return Math.floorMod(Long.hashCode(key.id() * 0x9E3779B97F4A7C15L), shardDataSources.size());
+    }
+}
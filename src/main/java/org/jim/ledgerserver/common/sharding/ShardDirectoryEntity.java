@@ -0,0 +1,49 @@
+package org.jim.ledgerserver.common.sharding;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * 分片目录：账本/用户的交易所在分片，保存在主库
+ * @author James Smith
+ */
+@Data
+@Entity
+@Table(name = "shard_directory", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_shard_directory_key", columnNames = {"scope", "routing_key"})
+})
+public class ShardDirectoryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "scope", nullable = false, length = 16)
+    @Comment("键类型：LEDGER / USER")
+    private String scope;
+
+    @Column(name = "routing_key", nullable = false)
+    @Comment("账本ID或用户ID")
+    private Long routingKey;
+
+    @Column(name = "shard", nullable = false)
+    @Comment("分片号")
+    private Integer shard;
+
+    @Column(name = "migrating", nullable = false)
+    @Comment("是否正在迁移（迁移期间拒绝写入）")
+    private Boolean migrating;
+
+    @Column(name = "update_time")
+    @Comment("更新时间")
+    private LocalDateTime updateTime;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updateTime = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,37 @@
+package org.jim.ledgerserver.common.sharding;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 分片目录数据访问层
+ * @author James Smith
+ */
+@Repository
+public interface ShardDirectoryRepository extends JpaRepository<ShardDirectoryEntity, Long> {
+
+    Optional<ShardDirectoryEntity> findByScopeAndRoutingKey(String scope, Long routingKey);
+
+    /**
+     * 登记分片，已有记录时保持不变（多个节点同时首次写入同一账本时以先登记的为准）
+     * 单独提交：交易写入分片后不随外层业务事务回滚，目录也不能回滚
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO shard_directory (scope, routing_key, shard, migrating, update_time) " +
+            "VALUES (?1, ?2, ?3, false, NOW())", nativeQuery = true)
+    int insertIfAbsent(String scope, Long routingKey, int shard);
+
+    /**
+     * 各分片登记的账本/用户数 [shard, count]
+     */
+    @Query("SELECT d.shard, COUNT(d) FROM ShardDirectoryEntity d GROUP BY d.shard")
+    List<Object[]> countByShard();
+}
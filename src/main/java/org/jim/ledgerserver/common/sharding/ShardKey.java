@@ -0,0 +1,52 @@
+package org.jim.ledgerserver.common.sharding;
+
+/**
+ * 分片键：账本内的交易按账本ID分片，未归属账本的个人交易按创建用户ID分片
+ *
+ * @param scope 键的类型
+ * @param id    账本ID或用户ID
+ * @author James Smith
+ */
+public record ShardKey(Scope scope, Long id) {
+
+    public enum Scope {
+        LEDGER,
+        USER
+    }
+
+    public static ShardKey ledger(Long ledgerId) {
+        return new ShardKey(Scope.LEDGER, ledgerId);
+    }
+
+    public static ShardKey user(Long userId) {
+        return new ShardKey(Scope.USER, userId);
+    }
+
+    /**
+     * 交易所属的分片键
+     */
+    public static ShardKey of(Long ledgerId, Long createdByUserId) {
+        return ledgerId != null ? ledger(ledgerId) : user(createdByUserId);
+    }
+
+    /**
+     * 在分片上筛选该键全部交易的条件，参数为 {@link #id()}
+     */
+    String transactionFilter() {
+        return scope == Scope.LEDGER ? "ledger_id = ?" : "ledger_id IS NULL AND created_by_user_id = ?";
+    }
+
+    @Override
+    public String toString() {
+        return scope.name().toLowerCase() + ":" + id;
+    }
+
+    /**
+     * {@link #toString()} 的逆操作，用于失效广播中的缓存键
+     */
+    static ShardKey parse(String text) {
+        int separator = text.indexOf(':');
+        return new ShardKey(Scope.valueOf(text.substring(0, separator).toUpperCase()),
+                Long.valueOf(text.substring(separator + 1)));
+    }
+}
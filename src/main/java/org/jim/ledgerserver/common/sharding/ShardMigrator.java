@@ -0,0 +1,444 @@
+package org.jim.ledgerserver.common.sharding;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.jim.ledgerserver.ledger.repository.TransactionRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 分片迁移工具：把一个账本（或一个用户的个人交易）连同附件搬到另一个分片，以及按行数自动均衡
+ *
+ * 单个键的迁移步骤：
+ * <ol>
+ *     <li>目录标记迁移中，等待其他节点刷新目录，此后该键的写入被拒绝，读取仍走源分片</li>
+ *     <li>流式读取源分片的交易和附件，按批写入目标分片（REPLACE，中断后重跑不会主键冲突），核对行数</li>
+ *     <li>目录切换到目标分片，再等一轮，确保没有节点还在读源分片</li>
+ *     <li>删除源分片上的数据</li>
+ * </ol>
+ * 第 2 步失败时清理目标分片上已复制的数据并恢复写入，位置不变。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ledger.sharding.enabled", havingValue = "true")
+public class ShardMigrator {
+
+    /**
+     * 附件带原图数据，单批条数要小
+     */
+    private static final int ATTACHMENT_BATCH_SIZE = 20;
+
+    private static final int DELETE_BATCH_SIZE = 5000;
+
+    @Resource
+    private ShardDirectory shardDirectory;
+
+    @Resource
+    private ShardDataSources shardDataSources;
+
+    @Resource
+    private ShardingProperties shardingProperties;
+
+    @Resource
+    private TransactionRepository transactionRepository;
+
+    private final ExecutorService rebalanceExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("shard-rebalance").daemon().factory());
+
+    private volatile RebalanceProgress rebalanceProgress;
+
+    /**
+     * @param shard            分片号
+     * @param transactions     交易行数
+     * @param attachments      附件行数
+     * @param directoryEntries 目录中登记在该分片的账本/用户数
+     * @param largestKeys      交易最多的账本/用户
+     */
+    public record ShardStatus(int shard, long transactions, long attachments, long directoryEntries,
+                              List<KeyRows> largestKeys) {
+    }
+
+    public record KeyRows(ShardKey key, long rows) {
+    }
+
+    public record MoveResult(ShardKey key, int sourceShard, int targetShard, long transactions, long attachments,
+                             long durationMs) {
+    }
+
+    public record Move(ShardKey key, int sourceShard, int targetShard, long rows) {
+    }
+
+    /**
+     * @param moves      计划迁移的键（按执行顺序）
+     * @param rowsBefore 迁移前各分片交易行数
+     * @param rowsAfter  按计划迁移后各分片交易行数
+     */
+    public record RebalancePlan(List<Move> moves, Map<Integer, Long> rowsBefore, Map<Integer, Long> rowsAfter) {
+    }
+
+    /**
+     * @param state     RUNNING / COMPLETED / FAILED
+     * @param current   正在迁移的键
+     * @param lastError 最近一次失败原因
+     */
+    public record RebalanceProgress(String state, int total, int completed, int failed, String current,
+                                    String lastError, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+
+    /**
+     * 各分片的数据量
+     *
+     * @param top 每个分片返回交易最多的前几个账本/用户
+     */
+    public List<ShardStatus> status(int top) {
+        Map<Integer, Long> directoryCounts = shardDirectory.countByShard();
+        List<ShardStatus> result = new ArrayList<>();
+        for (int shard = 0; shard < shardDataSources.size(); shard++) {
+            JdbcTemplate jdbc = shardDataSources.jdbc(shard);
+            List<KeyRows> keys = keyRows(shard);
+            result.add(new ShardStatus(
+                    shard,
+                    keys.stream().mapToLong(KeyRows::rows).sum(),
+                    jdbc.queryForObject("SELECT COUNT(*) FROM transaction_attachment", Long.class),
+                    directoryCounts.getOrDefault(shard, 0L),
+                    keys.stream().limit(top).toList()));
+        }
+        return result;
+    }
+
+    public RebalanceProgress rebalanceProgress() {
+        return rebalanceProgress;
+    }
+
+    /**
+     * 迁移一个账本/用户的交易到目标分片
+     */
+    public MoveResult move(ShardKey key, int targetShard) {
+        if (targetShard < 0 || targetShard >= shardDataSources.size()) {
+            throw new BusinessException("分片不存在: " + targetShard);
+        }
+        if (shardDirectory.shardForRead(key) == targetShard) {
+            throw new BusinessException("已在目标分片");
+        }
+        long start = System.currentTimeMillis();
+        int sourceShard = shardDirectory.markMigrating(key);
+        long[] counts;
+        try {
+            awaitGracePeriod();
+            counts = copy(sourceShard, targetShard, key.transactionFilter(), key.id());
+            long sourceRows = countRows(sourceShard, key);
+            long targetRows = countRows(targetShard, key);
+            if (sourceRows != targetRows) {
+                throw new IllegalStateException("Row count mismatch after copy: source=" + sourceRows + ", target=" + targetRows);
+            }
+        } catch (RuntimeException e) {
+            log.error("Shard migration of {} from {} to {} failed, rolling back", key, sourceShard, targetShard, e);
+            deleteRows(targetShard, key);
+            shardDirectory.abortMigration(key, sourceShard);
+            throw new BusinessException("迁移失败: " + e.getMessage());
+        }
+        shardDirectory.completeMigration(key, targetShard);
+        awaitGracePeriod();
+        deleteRows(sourceShard, key);
+
+        MoveResult result = new MoveResult(key, sourceShard, targetShard, counts[0], counts[1],
+                System.currentTimeMillis() - start);
+        log.info("Shard migration done: {}", result);
+        return result;
+    }
+
+    /**
+     * 交易改挂到其他账本后保存；新旧账本不在同一分片时把这条交易连同附件搬过去
+     * 复制、更新、删除三步分别在两个分片上执行，中途失败会在两个分片上各留一份，需按日志人工清理。
+     *
+     * @param transaction 已设置新账本的交易
+     * @param previousKey 修改前的分片键
+     * @return 保存后的交易
+     */
+    public TransactionEntity saveMoved(TransactionEntity transaction, ShardKey previousKey) {
+        int sourceShard = shardDirectory.shardForWrite(previousKey);
+        int targetShard = shardDirectory.shardForWrite(ShardKey.of(transaction.getLedgerId(), transaction.getCreatedByUserId()));
+        if (sourceShard == targetShard) {
+            return transactionRepository.save(transaction);
+        }
+        copy(sourceShard, targetShard, "id = ?", transaction.getId());
+        TransactionEntity saved = transactionRepository.save(transaction);
+        JdbcTemplate source = shardDataSources.jdbc(sourceShard);
+        source.update("DELETE FROM transaction_attachment WHERE transaction_id = ?", transaction.getId());
+        source.update("DELETE FROM `transaction` WHERE id = ?", transaction.getId());
+        return saved;
+    }
+
+    /**
+     * 按各分片交易行数生成均衡计划：反复从最多的分片挑一个不超过差值一半的最大的键搬到最少的分片
+     *
+     * @param tolerance 行数差不超过平均值的该比例时视为均衡
+     * @param maxMoves  最多迁移的键数
+     */
+    public RebalancePlan plan(double tolerance, int maxMoves) {
+        int shardCount = shardDataSources.size();
+        long[] loads = new long[shardCount];
+        List<List<KeyRows>> keysByShard = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            List<KeyRows> keys = new ArrayList<>(keyRows(shard));
+            keysByShard.add(keys);
+            loads[shard] = keys.stream().mapToLong(KeyRows::rows).sum();
+        }
+        Map<Integer, Long> before = toMap(loads);
+        long average = Math.max(1, Arrays.stream(loads).sum() / shardCount);
+
+        List<Move> moves = new ArrayList<>();
+        while (moves.size() < maxMoves) {
+            int source = 0;
+            int target = 0;
+            for (int shard = 1; shard < shardCount; shard++) {
+                if (loads[shard] > loads[source]) {
+                    source = shard;
+                }
+                if (loads[shard] < loads[target]) {
+                    target = shard;
+                }
+            }
+            long gap = loads[source] - loads[target];
+            if (gap <= tolerance * average) {
+                break;
+            }
+            KeyRows candidate = keysByShard.get(source).stream()
+                    .filter(k -> k.rows() <= gap / 2)
+                    .max(Comparator.comparingLong(KeyRows::rows))
+                    .orElse(null);
+            if (candidate == null) {
+                break;
+            }
+            keysByShard.get(source).remove(candidate);
+            keysByShard.get(target).add(candidate);
+            loads[source] -= candidate.rows();
+            loads[target] += candidate.rows();
+            moves.add(new Move(candidate.key(), source, target, candidate.rows()));
+        }
+        return new RebalancePlan(moves, before, toMap(loads));
+    }
+
+    /**
+     * 后台按计划依次迁移，进度见 {@link #rebalanceProgress()}
+     */
+    public synchronized RebalanceProgress rebalance(RebalancePlan plan) {
+        if (rebalanceProgress != null && "RUNNING".equals(rebalanceProgress.state())) {
+            throw new BusinessException("已有均衡任务在执行");
+        }
+        LocalDateTime startTime = LocalDateTime.now();
+        rebalanceProgress = new RebalanceProgress("RUNNING", plan.moves().size(), 0, 0, null, null, startTime, null);
+        rebalanceExecutor.execute(() -> {
+            int completed = 0;
+            int failed = 0;
+            String lastError = null;
+            for (Move move : plan.moves()) {
+                rebalanceProgress = new RebalanceProgress("RUNNING", plan.moves().size(), completed, failed,
+                        move.key().toString(), lastError, startTime, null);
+                try {
+                    move(move.key(), move.targetShard());
+                    completed++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    lastError = move.key() + ": " + e.getMessage();
+                }
+            }
+            rebalanceProgress = new RebalanceProgress(failed == 0 ? "COMPLETED" : "FAILED", plan.moves().size(),
+                    completed, failed, null, lastError, startTime, LocalDateTime.now());
+        });
+        return rebalanceProgress;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebalanceExecutor.shutdownNow();
+    }
+
+    /**
+     * 复制源分片上满足条件的交易及其附件
+     *
+     * @return [交易行数, 附件行数]
+     */
+    private long[] copy(int sourceShard, int targetShard, String filter, Object... args) {
+        JdbcTemplate source = streaming(sourceShard);
+        JdbcTemplate target = shardDataSources.jdbc(targetShard);
+        RowBatch transactions = new RowBatch(target, "transaction");
+        RowBatch attachments = new RowBatch(target, "transaction_attachment");
+        int batchSize = shardingProperties.getMigrationBatchSize();
+        source.query("SELECT * FROM `transaction` WHERE " + filter, rs -> {
+            transactions.add(rs);
+            if (transactions.size() >= batchSize) {
+                copyAttachments(sourceShard, transactions.flush(), attachments);
+            }
+        }, args);
+        copyAttachments(sourceShard, transactions.flush(), attachments);
+        return new long[]{transactions.copied(), attachments.copied()};
+    }
+
+    private void copyAttachments(int sourceShard, List<Long> transactionIds, RowBatch attachments) {
+        if (transactionIds.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(",", Collections.nCopies(transactionIds.size(), "?"));
+        streaming(sourceShard).query("SELECT * FROM transaction_attachment WHERE transaction_id IN (" + placeholders + ")",
+                rs -> {
+                    attachments.add(rs);
+                    if (attachments.size() >= ATTACHMENT_BATCH_SIZE) {
+                        attachments.flush();
+                    }
+                }, transactionIds.toArray());
+        attachments.flush();
+    }
+
+    private void deleteRows(int shard, ShardKey key) {
+        JdbcTemplate jdbc = shardDataSources.jdbc(shard);
+        String filter = key.transactionFilter();
+        int deleted;
+        do {
+            deleted = jdbc.update("DELETE FROM transaction_attachment WHERE transaction_id IN "
+                    + "(SELECT id FROM `transaction` WHERE " + filter + ") LIMIT " + DELETE_BATCH_SIZE, key.id());
+        } while (deleted > 0);
+        do {
+            deleted = jdbc.update("DELETE FROM `transaction` WHERE " + filter + " LIMIT " + DELETE_BATCH_SIZE, key.id());
+        } while (deleted > 0);
+    }
+
+    private long countRows(int shard, ShardKey key) {
+        return shardDataSources.jdbc(shard).queryForObject(
+                "SELECT COUNT(*) FROM `transaction` WHERE " + key.transactionFilter(), Long.class, key.id());
+    }
+
+    /**
+     * 分片上每个账本/用户的交易行数（降序）
+     */
+    private List<KeyRows> keyRows(int shard) {
+        JdbcTemplate jdbc = shardDataSources.jdbc(shard);
+        List<KeyRows> rows = new ArrayList<>(jdbc.query(
+                "SELECT ledger_id, COUNT(*) FROM `transaction` WHERE ledger_id IS NOT NULL GROUP BY ledger_id",
+                (rs, i) -> new KeyRows(ShardKey.ledger(rs.getLong(1)), rs.getLong(2))));
+        rows.addAll(jdbc.query(
+                "SELECT created_by_user_id, COUNT(*) FROM `transaction` WHERE ledger_id IS NULL GROUP BY created_by_user_id",
+                (rs, i) -> new KeyRows(ShardKey.user(rs.getLong(1)), rs.getLong(2))));
+        rows.sort(Comparator.comparingLong(KeyRows::rows).reversed());
+        return rows;
+    }
+
+    /**
+     * 逐行读取的 JdbcTemplate（MySQL 驱动在 fetchSize 为 Integer.MIN_VALUE 时不把整个结果集读进内存）
+     */
+    private JdbcTemplate streaming(int shard) {
+        JdbcTemplate jdbc = new JdbcTemplate(shardDataSources.get(shard));
+        jdbc.setFetchSize(Integer.MIN_VALUE);
+        return jdbc;
+    }
+
+    private void awaitGracePeriod() {
+        Duration grace = shardingProperties.getMigrationGracePeriod();
+        try {
+            Thread.sleep(grace);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard directory refresh", e);
+        }
+    }
+
+    private static Map<Integer, Long> toMap(long[] loads) {
+        Map<Integer, Long> map = new TreeMap<>();
+        for (int i = 0; i < loads.length; i++) {
+            map.put(i, loads[i]);
+        }
+        return map;
+    }
+
+    /**
+     * 按列原样复制的批量写入
+     */
+    private static final class RowBatch {
+
+        private final JdbcTemplate target;
+
+        private final String table;
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        private final List<Long> ids = new ArrayList<>();
+
+        private String sql;
+
+        private int idColumn;
+
+        private long copied;
+
+        RowBatch(JdbcTemplate target, String table) {
+            this.target = target;
+            this.table = table;
+        }
+
+        void add(ResultSet rs) throws SQLException {
+            ResultSetMetaData meta = rs.getMetaData();
+            if (sql == null) {
+                List<String> columns = new ArrayList<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    columns.add("`" + meta.getColumnLabel(i) + "`");
+                    if ("id".equalsIgnoreCase(meta.getColumnLabel(i))) {
+                        idColumn = i;
+                    }
+                }
+                sql = "REPLACE INTO `" + table + "` (" + String.join(",", columns) + ") VALUES ("
+                        + String.join(",", Collections.nCopies(columns.size(), "?")) + ")";
+            }
+            Object[] row = new Object[meta.getColumnCount()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            rows.add(row);
+            ids.add(rs.getLong(idColumn));
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        long copied() {
+            return copied;
+        }
+
+        /**
+         * 写入目标分片
+         *
+         * @return 本批的ID
+         */
+        List<Long> flush() {
+            if (rows.isEmpty()) {
+                return List.of();
+            }
+            target.batchUpdate(sql, rows);
+            copied += rows.size();
+            List<Long> flushed = new ArrayList<>(ids);
+            rows.clear();
+            ids.clear();
+            return flushed;
+        }
+    }
+}
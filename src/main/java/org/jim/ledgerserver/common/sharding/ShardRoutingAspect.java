@@ -0,0 +1,197 @@
+package org.jim.ledgerserver.common.sharding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.ledger.entity.TransactionAttachmentEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 交易仓库分片路由
+ *
+ * 能确定分片键的调用只发往一个分片：参数里有交易/附件实体（写入），有名为 ledgerId 的参数，
+ * 或调用方用 {@link ShardContext#forLedger} 声明了账本；saveAll 等批量写入按实体分组后逐个分片执行。
+ * 附件跟随所属交易，调用方用 {@link ShardContext#forTransaction} 声明交易时直接按其账本/用户路由。
+ * 其余调用（按用户、按ID、Specification 查询等）依次发往所有分片，由 {@link FanOutMerger} 合并结果。
+ * 每个分片上的调用各自使用分片事务，多个分片之间不保证原子性。
+ *
+ * @author James Smith
+ */
+@Aspect
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "ledger.sharding.enabled", havingValue = "true")
+public class ShardRoutingAspect {
+
+    private static final String LEDGER_ID = "ledgerId";
+
+    @Resource
+    private ShardDirectory shardDirectory;
+
+    @Resource
+    private ShardDataSources shardDataSources;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private Counter routedCalls;
+
+    private Counter fanOutCalls;
+
+    private Counter undeclaredParentLookups;
+
+    @PostConstruct
+    public void init() {
+        routedCalls = Counter.builder("ledger.sharding.calls").tag("route", "single").register(meterRegistry);
+        fanOutCalls = Counter.builder("ledger.sharding.calls").tag("route", "fanout").register(meterRegistry);
+        undeclaredParentLookups = Counter.builder("ledger.sharding.attachment.parent.lookups")
+                .description("Attachment writes routed by looking up the parent transaction on every shard")
+                .register(meterRegistry);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..)) && "
+            + "(target(org.jim.ledgerserver.ledger.repository.TransactionRepository) "
+            + "|| target(org.jim.ledgerserver.ledger.repository.TransactionAttachmentRepository))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardContext.currentShard() != null) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object[] args = joinPoint.getArgs();
+
+        if (args.length == 1 && args[0] instanceof Iterable<?> entities && isEntityBatch(entities)) {
+            return routeBatch(joinPoint, entities);
+        }
+        Integer shard = resolveShard(method, args);
+        if (shard != null) {
+            routedCalls.increment();
+            return ShardContext.onShard(shard, joinPoint::proceed);
+        }
+        return fanOut(joinPoint, args);
+    }
+
+    /**
+     * 能确定分片时返回分片号，否则返回 null（扇出）
+     */
+    private Integer resolveShard(Method method, Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof TransactionEntity || arg instanceof TransactionAttachmentEntity) {
+                return shardDirectory.shardForWrite(keyOf(arg));
+            }
+        }
+        Annotation[][] annotations = method.getParameterAnnotations();
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Long ledgerId && LEDGER_ID.equals(parameterName(parameters[i], annotations[i]))) {
+                return shardDirectory.shardForRead(ShardKey.ledger(ledgerId));
+            }
+        }
+        Long hint = ShardContext.ledgerHint();
+        return hint == null ? null : shardDirectory.shardForRead(ShardKey.ledger(hint));
+    }
+
+    private Object routeBatch(ProceedingJoinPoint joinPoint, Iterable<?> entities) throws Throwable {
+        Map<Integer, List<Object>> groups = new LinkedHashMap<>();
+        Map<ShardKey, Integer> shards = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            int shard = shards.computeIfAbsent(keyOf(entity), shardDirectory::shardForWrite);
+            groups.computeIfAbsent(shard, s -> new ArrayList<>()).add(entity);
+        }
+        List<Object> results = new ArrayList<>();
+        for (Map.Entry<Integer, List<Object>> group : groups.entrySet()) {
+            routedCalls.increment();
+            Object result = ShardContext.onShard(group.getKey(), () -> joinPoint.proceed(new Object[]{group.getValue()}));
+            if (result instanceof Iterable<?> saved) {
+                saved.forEach(results::add);
+            }
+        }
+        return joinPoint.getSignature() instanceof MethodSignature signature && signature.getReturnType() == void.class
+                ? null : results;
+    }
+
+    private Object fanOut(ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        fanOutCalls.increment();
+        Pageable pageable = null;
+        Sort sort = null;
+        Object[] shardArgs = args.clone();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Pageable p) {
+                pageable = p;
+                shardArgs[i] = FanOutMerger.shardPageable(p);
+            } else if (args[i] instanceof Sort s) {
+                sort = s;
+            }
+        }
+        List<Object> results = new ArrayList<>(shardDataSources.size());
+        for (int shard = 0; shard < shardDataSources.size(); shard++) {
+            results.add(ShardContext.onShard(shard, () -> joinPoint.proceed(shardArgs)));
+        }
+        return FanOutMerger.merge(results, pageable, sort);
+    }
+
+    private ShardKey keyOf(Object entity) {
+        return switch (entity) {
+            case TransactionEntity t -> ShardKey.of(t.getLedgerId(), t.getCreatedByUserId());
+            case TransactionAttachmentEntity a -> keyOfTransaction(a.getTransactionId());
+            default -> throw new IllegalArgumentException("Not a sharded entity: " + entity.getClass().getName());
+        };
+    }
+
+    /**
+     * 附件跟随所属交易存放，按交易的账本/用户路由；调用方没有声明所属交易时到各分片查找
+     */
+    private ShardKey keyOfTransaction(Long transactionId) {
+        ShardContext.ParentTransaction parent = ShardContext.parentTransaction();
+        if (parent != null && parent.transactionId().equals(transactionId)) {
+            return parent.key();
+        }
+        undeclaredParentLookups.increment();
+        for (int shard = 0; shard < shardDataSources.size(); shard++) {
+            List<ShardKey> keys = shardDataSources.jdbc(shard).query(
+                    "SELECT ledger_id, created_by_user_id FROM `transaction` WHERE id = ?",
+                    (rs, rowNum) -> ShardKey.of(rs.getObject("ledger_id", Long.class),
+                            rs.getObject("created_by_user_id", Long.class)),
+                    transactionId);
+            if (!keys.isEmpty()) {
+                return keys.getFirst();
+            }
+        }
+        throw new BusinessException("交易不存在");
+    }
+
+    private static boolean isEntityBatch(Iterable<?> entities) {
+        for (Object entity : entities) {
+            return entity instanceof TransactionEntity || entity instanceof TransactionAttachmentEntity;
+        }
+        return false;
+    }
+
+    private static String parameterName(Parameter parameter, Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Param param) {
+                return param.value();
+            }
+        }
+        return parameter.isNamePresent() ? parameter.getName() : null;
+    }
+}
@@ -0,0 +1,34 @@
+package org.jim.ledgerserver.common.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按 {@link ShardContext} 中的分片号选择连接池
+ * 外层需要包一层 LazyConnectionDataSourceProxy：事务开始时还没有执行语句，推迟到第一条语句再取连接。
+ * 未设置分片号时（如 Hibernate 启动时读取数据库元数据）使用 0 号分片。
+ *
+ * @author James Smith
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.getFirst());
+        setLenientFallback(false);
+        initialize();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.currentShard();
+    }
+}
@@ -0,0 +1,101 @@
+package org.jim.ledgerserver.common.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.tool.schema.Action;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.jim.ledgerserver.ledger.entity.TransactionAttachmentEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分片表结构与主键号段初始化
+ * 分片持久化单元的 ddl-auto 只会作用于启动时拿到的那个连接，所以在这里逐个分片执行 Hibernate 的 schema update；
+ * 再把每个分片的号段起点放到各自的区间（分片号 × 2^40），迁移后的数据保留原ID也不会与目标分片新分配的ID冲突。
+ *
+ * @author James Smith
+ */
+@Slf4j
+public class ShardSchemaManager {
+
+    /**
+     * 单个分片的主键区间大小
+     */
+    static final long SHARD_ID_SPACE = 1L << 40;
+
+    /**
+     * 分片持久化单元包含的实体
+     */
+    public static final List<Class<?>> SHARDED_ENTITIES = List.of(TransactionEntity.class, TransactionAttachmentEntity.class);
+
+    private final ShardDataSources shardDataSources;
+
+    private final Map<String, Object> hibernateProperties;
+
+    private final boolean updateSchema;
+
+    /**
+     * @param hibernateProperties 分片持久化单元的 Hibernate 配置（取命名策略）
+     * @param updateSchema        是否更新表结构（ddl-auto 为 none/validate 时不更新，只校正号段）
+     */
+    public ShardSchemaManager(ShardDataSources shardDataSources, Map<String, Object> hibernateProperties,
+                              boolean updateSchema) {
+        this.shardDataSources = shardDataSources;
+        this.hibernateProperties = hibernateProperties;
+        this.updateSchema = updateSchema;
+    }
+
+    public void initializeAll() {
+        for (int shard = 0; shard < shardDataSources.size(); shard++) {
+            if (updateSchema) {
+                updateSchema(shard);
+            }
+            alignIdGenerator(shard, "transaction", TransactionEntity.ID_ALLOCATION_SIZE);
+            alignIdGenerator(shard, "transaction_attachment", TransactionAttachmentEntity.ID_ALLOCATION_SIZE);
+        }
+    }
+
+    private void updateSchema(int shard) {
+        StandardServiceRegistryBuilder builder = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, shardDataSources.get(shard));
+        for (String setting : List.of(AvailableSettings.PHYSICAL_NAMING_STRATEGY, AvailableSettings.IMPLICIT_NAMING_STRATEGY)) {
+            if (hibernateProperties.containsKey(setting)) {
+                builder.applySetting(setting, hibernateProperties.get(setting));
+            }
+        }
+        StandardServiceRegistry registry = builder.build();
+        try {
+            MetadataSources sources = new MetadataSources(registry);
+            SHARDED_ENTITIES.forEach(sources::addAnnotatedClass);
+            Metadata metadata = sources.buildMetadata();
+            SchemaManagementToolCoordinator.process(metadata, registry,
+                    Map.of(AvailableSettings.JAKARTA_HBM2DDL_DATABASE_ACTION, Action.UPDATE,
+                            AvailableSettings.HBM2DDL_HALT_ON_ERROR, true),
+                    action -> {
+                    });
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    /**
+     * 号段取本分片区间内已有的最大ID之后，区间内没有数据时从区间起点开始
+     */
+    private void alignIdGenerator(int shard, String table, int allocationSize) {
+        long base = shard * SHARD_ID_SPACE;
+        JdbcTemplate jdbc = shardDataSources.jdbc(shard);
+        jdbc.update("INSERT INTO id_generator (name, next_val) " +
+                        "SELECT '" + table + "', COALESCE(MAX(id), ?) + ? FROM `" + table + "` WHERE id >= ? AND id < ? " +
+                        "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))",
+                base, allocationSize, base, base + SHARD_ID_SPACE);
+        log.info("Shard {} {} id generator aligned, next_val={}", shard, table,
+                jdbc.queryForObject("SELECT next_val FROM id_generator WHERE name = ?", Long.class, table));
+    }
+}
@@ -0,0 +1,63 @@
+package org.jim.ledgerserver.common.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 交易分片配置
+ *
+ * @author James Smith
+ */
+@Data
+@ConfigurationProperties(prefix = "ledger.sharding")
+public class ShardingProperties {
+
+    /**
+     * 是否启用分片，关闭时交易表与其他表同库
+     */
+    private boolean enabled = false;
+
+    /**
+     * 分片列表，下标即分片号；已有分片的顺序不能调整，扩容只能在末尾追加
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * 启用分片前的交易数据所在分片，目录中没有记录的账本/用户按此分片读取
+     */
+    private int legacyShard = 0;
+
+    /**
+     * 每个分片连接池的最大连接数
+     */
+    private int maximumPoolSize = 10;
+
+    /**
+     * 分片目录本地缓存时间，其他节点迁移账本后最迟在此时间后看到新位置
+     */
+    private Duration directoryCacheTtl = Duration.ofSeconds(30);
+
+    /**
+     * 迁移时每批复制的交易条数
+     */
+    private int migrationBatchSize = 500;
+
+    /**
+     * 迁移标记和切换后等待其他节点刷新目录的时间，应大于失效广播的轮询间隔
+     */
+    private Duration migrationGracePeriod = Duration.ofSeconds(3);
+
+    @Data
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
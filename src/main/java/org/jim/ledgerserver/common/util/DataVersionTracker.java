@@ -0,0 +1,157 @@
+package org.jim.ledgerserver.common.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.jim.ledgerserver.common.cache.CacheInvalidationBus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 数据版本计数器
+ * 按账本、按用户维护单调递增的版本号，由写路径递增，供 ETag 条件请求使用。
+ * 在事务中调用时，递增动作延迟到事务提交之后，避免读请求拿到新版本却读到旧数据。
+ * 递增会通过 {@link CacheInvalidationBus} 广播，其他节点收到后同步递增本地计数器。
+ * 广播先于本地递增注册：总线的观察者（写后读一致窗口）先记下变更，新版本号才对读请求可见。
+ *
+ * @author James Smith
+ */
+@Component
+public class DataVersionTracker {
+
+    /**
+     * 失效总线上的缓存名称，键为 ledger:{id} / user:{id} / global
+     */
+    public static final String CACHE_NAME = "data-version";
+
+    private static final String LEDGER_KEY_PREFIX = "ledger:";
+
+    private static final String USER_KEY_PREFIX = "user:";
+
+    public static final String GLOBAL_KEY = "global";
+
+    @Resource
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * 启动纪元：进程重启后计数器归零，纪元不同可保证重启前后的 ETag 不会碰撞
+     */
+    private final long epoch = System.currentTimeMillis();
+
+    private final Map<Long, AtomicLong> ledgerVersions = new ConcurrentHashMap<>();
+
+    private final Map<Long, AtomicLong> userVersions = new ConcurrentHashMap<>();
+
+    /**
+     * 全局版本（系统预设分类等所有用户共享的数据）
+     */
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cacheInvalidationBus.subscribe(CACHE_NAME, this::onRemoteBump);
+    }
+
+    public static String ledgerKey(Long ledgerId) {
+        return LEDGER_KEY_PREFIX + ledgerId;
+    }
+
+    public static String userKey(Long userId) {
+        return USER_KEY_PREFIX + userId;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getLedgerVersion(Long ledgerId) {
+        AtomicLong version = ledgerId == null ? null : ledgerVersions.get(ledgerId);
+        return version == null ? 0L : version.get();
+    }
+
+    public long getUserVersion(Long userId) {
+        AtomicLong version = userId == null ? null : userVersions.get(userId);
+        return version == null ? 0L : version.get();
+    }
+
+    public long getGlobalVersion() {
+        return globalVersion.get();
+    }
+
+    /**
+     * 账本数据（交易、预算、成员、账本信息）发生变化
+     */
+    public void bumpLedger(Long ledgerId) {
+        if (ledgerId != null) {
+            cacheInvalidationBus.publish(CACHE_NAME, ledgerKey(ledgerId));
+            afterCommit(() -> incrementLedger(ledgerId));
+        }
+    }
+
+    /**
+     * 用户私有数据（自定义分类、可访问账本列表、未归属账本的交易）发生变化
+     */
+    public void bumpUser(Long userId) {
+        if (userId != null) {
+            cacheInvalidationBus.publish(CACHE_NAME, userKey(userId));
+            afterCommit(() -> incrementUser(userId));
+        }
+    }
+
+    /**
+     * 交易所在范围发生变化：有账本时递增账本版本，否则递增创建者的用户版本
+     */
+    public void bumpLedgerOrUser(Long ledgerId, Long userId) {
+        if (ledgerId != null) {
+            bumpLedger(ledgerId);
+        } else {
+            bumpUser(userId);
+        }
+    }
+
+    /**
+     * 全局共享数据发生变化
+     */
+    public void bumpGlobal() {
+        cacheInvalidationBus.publish(CACHE_NAME, GLOBAL_KEY);
+        afterCommit(globalVersion::incrementAndGet);
+    }
+
+    /**
+     * 其他节点发生写入，同步递增本地计数器
+     */
+    private void onRemoteBump(String key) {
+        if (key == null || GLOBAL_KEY.equals(key)) {
+            globalVersion.incrementAndGet();
+        } else if (key.startsWith(LEDGER_KEY_PREFIX)) {
+            incrementLedger(Long.valueOf(key.substring(LEDGER_KEY_PREFIX.length())));
+        } else if (key.startsWith(USER_KEY_PREFIX)) {
+            incrementUser(Long.valueOf(key.substring(USER_KEY_PREFIX.length())));
+        }
+    }
+
+    private void incrementLedger(Long ledgerId) {
+        ledgerVersions.computeIfAbsent(ledgerId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    private void incrementUser(Long userId) {
+        userVersions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.jim.ledgerserver.common.util;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 拼音转换工具类
+ * 汉字转为不带声调的小写拼音（ü 写作 v），多音字可取第一个读音或列出各读音的组合；
+ * 其他字符转为小写后原样保留，空白字符丢弃。
+ * @author James Smith
+ */
+public final class PinyinUtil {
+
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    private PinyinUtil() {
+    }
+
+    /**
+     * 全拼与首字母
+     * @param full 全拼，如 "午餐" -> "wucan"
+     * @param initials 首字母，如 "午餐" -> "wc"
+     */
+    public record Spelling(String full, String initials) {
+    }
+
+    /**
+     * 计算文本的全拼与首字母，多音字取第一个读音
+     * @param text 文本
+     * @return 全拼与首字母，text 为 null 时两者均为空串
+     */
+    public static Spelling spell(String text) {
+        return spellAll(text, 1).get(0);
+    }
+
+    /**
+     * 计算文本各读音组合的全拼与首字母，如 "银行" -> yinxing/yx、yinhang/yh ...
+     * 第一个组合各字均取第一个读音，组合数超过 limit 时截断
+     * @param text 文本
+     * @param limit 最多返回的组合数
+     * @return 至少一个组合，text 为 null 时为一个空串组合
+     */
+    public static List<Spelling> spellAll(String text, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        List<Spelling> spellings = List.of(new Spelling("", ""));
+        if (text == null) {
+            return spellings;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            List<String> syllables = toSyllables(c);
+            List<Spelling> next = new ArrayList<>(Math.min(limit, spellings.size() * syllables.size()));
+            expand:
+            for (Spelling spelling : spellings) {
+                for (String syllable : syllables) {
+                    next.add(new Spelling(spelling.full() + syllable, spelling.initials() + syllable.charAt(0)));
+                    if (next.size() == limit) {
+                        break expand;
+                    }
+                }
+            }
+            spellings = next;
+        }
+        return spellings;
+    }
+
+    /**
+     * 单个字符的候选音节：汉字为去重后的各读音，其他字符为其小写
+     */
+    private static List<String> toSyllables(char c) {
+        String lower = String.valueOf(Character.toLowerCase(c));
+        if (c < 0x4E00 || c > 0x9FFF) {
+            return List.of(lower);
+        }
+        try {
+            String[] readings = PinyinHelper.toHanyuPinyinStringArray(c, FORMAT);
+            // 去掉声调后不同声调的读音会重复
+            return readings == null || readings.length == 0 ? List.of(lower) : Arrays.stream(readings).distinct().toList();
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            return List.of(lower);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.jim.ledgerserver.completion.dto;
+
+/**
+ * 补全短语缓存统计（本节点）
+ * @author James Smith
+ */
+public record CompletionCacheStats(
+        /**
+         * 缓存的用户数
+         */
+        long userCount,
+
+        /**
+         * 估算占用的堆内存（字节）
+         */
+        long estimatedBytes,
+
+        /**
+         * 容量上限（字节）
+         */
+        long maxBytes,
+
+        /**
+         * 命中次数
+         */
+        long hitCount,
+
+        /**
+         * 未命中次数
+         */
+        long missCount,
+
+        /**
+         * 命中率（0-1，无访问时为0）
+         */
+        double hitRatio,
+
+        /**
+         * 因容量或闲置过期被淘汰的次数
+         */
+        long evictionCount
+) {
+}
@@ -22,6 +22,16 @@ public class CompletionPhraseDTO {
      */
     private String phrase;
 
+    /**
+     * 全拼
+     */
+    private String phrasePinyin;
+
+    /**
+     * 拼音首字母
+     */
+    private String phraseInitials;
+
     /**
      * 使用频率
      */
@@ -43,10 +43,15 @@ public class CompletionQueryResponse {
         private String phrase;
 
         /**
-         * 补全部分（phrase 减去 prefix）
+         * 补全部分（phrase 减去 prefix）；拼音匹配时为完整短语，客户端用它替换已输入的拼音
          */
         private String completion;
 
+        /**
+         * 匹配方式：PHRASE 原文前缀 / PINYIN 全拼前缀 / INITIALS 首字母前缀
+         */
+        private String matchType;
+
         /**
          * 匹配分数（用于排序，越高越优先）
          */
@@ -16,7 +16,7 @@ import org.jim.ledgerserver.base.BaseEntity;
  * 设计考虑：
  * 1. 按用户隔离数据
  * 2. 使用频率权重优化排序
- * 3. 支持前缀匹配查询
+ * 3. 支持前缀匹配查询（原文、全拼、首字母）
  *
  * @author James Smith
  */
@@ -49,6 +49,20 @@ public class CompletionPhraseEntity extends BaseEntity {
     @Column(nullable = false, length = 10)
     private String phrasePrefix;
 
+    /**
+     * 短语全拼（如 午餐 -> wucan，非汉字转小写保留），添加短语时计算
+     * 多音字的各读音组合以空格分隔（如 银行 -> yinxing yinhang ...）
+     * 列太长无法整列建索引，前缀索引见 V1_18 迁移脚本
+     */
+    @Column(length = 1000)
+    private String phrasePinyin;
+
+    /**
+     * 短语拼音首字母（如 午餐 -> wc），多音字同样以空格分隔
+     */
+    @Column(length = 500)
+    private String phraseInitials;
+
     /**
      * 使用频率（每次使用+1）
      */
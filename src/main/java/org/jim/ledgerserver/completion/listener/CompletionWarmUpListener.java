@@ -0,0 +1,23 @@
+package org.jim.ledgerserver.completion.listener;
+
+import jakarta.annotation.Resource;
+import org.jim.ledgerserver.completion.service.CompletionPhraseService;
+import org.jim.ledgerserver.user.event.UserLoggedInEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户登录后在后台预热补全短语缓存，第一次输入时即可命中
+ * @author James Smith
+ */
+@Component
+public class CompletionWarmUpListener {
+
+    @Resource
+    private CompletionPhraseService completionPhraseService;
+
+    @EventListener
+    public void handleUserLoggedIn(UserLoggedInEvent event) {
+        completionPhraseService.warmUpAsync(event.getUserId());
+    }
+}
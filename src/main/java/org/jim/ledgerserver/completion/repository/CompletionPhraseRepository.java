@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,14 +25,15 @@ import java.util.Optional;
 public interface CompletionPhraseRepository extends JpaRepository<CompletionPhraseEntity, Long> {
 
     /**
-     * 根据前缀查找短语（高频优先）
-     * 使用 phrasePrefix 字段进行快速匹配，再用完整 phrase 进行过滤
+     * 根据前缀查找短语（高频优先），原文、全拼、首字母任一匹配即可
+     * 多音字的其他读音组合以空格分隔存在同一列，按 "空格+前缀" 匹配（用不上前缀索引，在用户的短语内扫描）
      */
     @Query("""
         SELECT c FROM completion_phrase c 
         WHERE c.userId = :userId 
         AND c.deleteTime IS NULL
-        AND c.phrase LIKE :prefix% 
+        AND (c.phrase LIKE :prefix% OR c.phrasePinyin LIKE :prefix% OR c.phraseInitials LIKE :prefix%
+            OR c.phrasePinyin LIKE CONCAT('% ', :prefix, '%') OR c.phraseInitials LIKE CONCAT('% ', :prefix, '%'))
         ORDER BY c.frequency DESC, c.lastUsedAt DESC
         """)
     List<CompletionPhraseEntity> findByUserIdAndPhrasePrefix(
@@ -63,6 +65,7 @@ public interface CompletionPhraseRepository extends JpaRepository<CompletionPhra
      * 增加短语使用频率
      */
     @Modifying
+    @Transactional
     @Query("""
         UPDATE completion_phrase c 
         SET c.frequency = c.frequency + 1, c.lastUsedAt = :lastUsedAt 
@@ -70,6 +73,11 @@ public interface CompletionPhraseRepository extends JpaRepository<CompletionPhra
         """)
     void incrementFrequency(@Param("id") Long id, @Param("lastUsedAt") Long lastUsedAt);
 
+    /**
+     * 尚未计算拼音的短语（用于回填）
+     */
+    List<CompletionPhraseEntity> findByPhrasePinyinIsNullOrderByIdAsc(Pageable pageable);
+
     /**
      * 获取用户短语总数
      */
@@ -79,6 +87,7 @@ public interface CompletionPhraseRepository extends JpaRepository<CompletionPhra
      * 删除用户最旧的短语（LRU淘汰）
      */
     @Modifying
+    @Transactional
     @Query(value = """
         UPDATE completion_phrase SET delete_time = NOW() 
         WHERE user_id = :userId AND delete_time IS NULL
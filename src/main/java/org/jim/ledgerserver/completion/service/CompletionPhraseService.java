@@ -1,44 +1,84 @@
 package org.jim.ledgerserver.completion.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jim.ledgerserver.common.cache.CacheInvalidationBus;
+import org.jim.ledgerserver.common.config.MetricsConfig;
+import org.jim.ledgerserver.common.util.PinyinUtil;
+import org.jim.ledgerserver.completion.dto.CompletionCacheStats;
 import org.jim.ledgerserver.completion.dto.CompletionPhraseDTO;
 import org.jim.ledgerserver.completion.dto.CompletionPhraseRequest;
 import org.jim.ledgerserver.completion.dto.CompletionQueryResponse;
 import org.jim.ledgerserver.completion.dto.CompletionQueryResponse.CompletionResult;
 import org.jim.ledgerserver.completion.entity.CompletionPhraseEntity;
 import org.jim.ledgerserver.completion.repository.CompletionPhraseRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * 补全短语服务
  * 
  * 核心功能：
  * 1. 高频短语存储与检索
- * 2. LRU 淘汰策略（每用户最多存储 200 条）
- * 3. 内存缓存加速查询
+ * 2. LRU 淘汰策略（每用户最多存储 2000 条）
+ * 3. 每用户一棵内存前缀索引（PhraseIndex），节点上预存 topK，查询耗时只与前缀长度有关；
+ *    索引按估算内存大小限量缓存，闲置过期，登录时在后台预热
+ * 4. 使用次数写回缓冲（见 PhraseUsageBuffer）
+ * 5. 拼音补全：短语的全拼、首字母与原文一起建索引，输入 wucan / wc 可补全出 午餐
  *
  * @author James Smith
  */
 @Slf4j
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Service
 @RequiredArgsConstructor
 public class CompletionPhraseService {
 
     private final CompletionPhraseRepository repository;
 
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final MeterRegistry meterRegistry;
+
+    private final PhraseUsageBuffer phraseUsageBuffer;
+
+    /**
+     * 失效总线上的缓存名称，键为 userId
+     */
+    public static final String CACHE_NAME = "completion-phrase";
+
     /**
      * 每用户最大短语数量
      */
-    private static final int MAX_PHRASES_PER_USER = 200;
+    private static final int MAX_PHRASES_PER_USER = 2000;
 
     /**
      * 查询返回最大数量
@@ -46,17 +86,102 @@ public class CompletionPhraseService {
     private static final int MAX_QUERY_RESULTS = 5;
 
     /**
-     * 内存缓存：userId -> 高频短语列表
-     * 生产环境应使用 Redis 等分布式缓存
+     * 全拼、首字母列宽
+     */
+    private static final int PINYIN_MAX_LENGTH = 1000;
+
+    private static final int INITIALS_MAX_LENGTH = 500;
+
+    /**
+     * 多音字读音组合上限
+     */
+    private static final int MAX_SPELLINGS = 16;
+
+    /**
+     * 匹配方式
+     */
+    private static final String MATCH_PHRASE = "PHRASE";
+
+    private static final String MATCH_PINYIN = "PINYIN";
+
+    private static final String MATCH_INITIALS = "INITIALS";
+
+    /**
+     * 索引节点保存的候选数量，多留一条用于排除与前缀完全相同的短语
+     */
+    private static final int INDEX_TOP_K = MAX_QUERY_RESULTS + 1;
+
+    /**
+     * 时间衰减系数表：DECAY[n] = 0.9^n，超过一年按一年计
      */
-    private final ConcurrentHashMap<Long, List<CompletionPhraseDTO>> userPhraseCache = new ConcurrentHashMap<>();
+    private static final double[] DECAY = IntStream.rangeClosed(0, 365).mapToDouble(d -> Math.pow(0.9, d)).toArray();
+
+    /**
+     * 排序：按频率降序，最后使用时间降序
+     */
+    private static final Comparator<CompletionPhraseDTO> RANKING = Comparator
+        .comparing(CompletionPhraseDTO::getFrequency, Comparator.reverseOrder())
+        .thenComparing(CompletionPhraseDTO::getLastUsedAt, Comparator.reverseOrder());
+
+    @Value("${ledger.completion.cache.max-bytes:67108864}")
+    private long cacheMaxBytes;
+
+    @Value("${ledger.completion.cache.idle-expire-minutes:30}")
+    private long cacheIdleExpireMinutes;
+
+    @Value("${ledger.completion.cache.warm-up-threads:2}")
+    private int warmUpThreads;
+
+    /**
+     * 内存缓存：userId -> 该用户全部短语的前缀索引
+     * 按索引估算的字节数限量（W-TinyLFU 淘汰），闲置一段时间后过期；
+     * 多节点部署时通过 CacheInvalidationBus 剔除其他节点上的旧缓存
+     */
+    private Cache<Long, PhraseIndex> userPhraseCache;
+
+    /**
+     * 正在后台加载索引的用户，避免重复加载
+     */
+    private final Set<Long> warmingUsers = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor warmUpExecutor;
+
+    @PostConstruct
+    public void init() {
+        userPhraseCache = Caffeine.newBuilder()
+            .maximumWeight(cacheMaxBytes)
+            .weigher((Long userId, PhraseIndex index) -> (int) Math.min(Integer.MAX_VALUE, index.estimatedBytes()))
+            .expireAfterAccess(Duration.ofMinutes(cacheIdleExpireMinutes))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userPhraseCache, CACHE_NAME);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        warmUpExecutor = new ThreadPoolExecutor(warmUpThreads, warmUpThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(256), runnable -> {
+                Thread thread = new Thread(runnable, "completion-warm-up-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        cacheInvalidationBus.subscribe(CACHE_NAME, key -> {
+            if (key == null) {
+                userPhraseCache.invalidateAll();
+            } else {
+                userPhraseCache.invalidate(Long.valueOf(key));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        warmUpExecutor.shutdownNow();
+    }
 
     /**
      * 根据前缀查询补全结果
      * 
-     * 性能优化：
-     * 1. 先查内存缓存
-     * 2. 缓存未命中再查数据库
+     * 缓存未命中时本次直接查数据库，同时在后台加载该用户的前缀索引
      */
     public CompletionQueryResponse queryCompletions(Long userId, String prefix) {
         long startTime = System.currentTimeMillis();
@@ -69,46 +194,26 @@ public class CompletionPhraseService {
                 .setQueryTimeMs(0L);
         }
 
-        // 优先从缓存中匹配
-        List<CompletionPhraseDTO> cachedPhrases = userPhraseCache.get(userId);
-        boolean fromCache = cachedPhrases != null;
-
-        List<CompletionResult> results;
+        PhraseIndex index = userPhraseCache.getIfPresent(userId);
+        boolean fromCache = index != null;
+        List<CompletionPhraseDTO> candidates;
         if (fromCache) {
-            // 从缓存中前缀匹配
-            results = cachedPhrases.stream()
-                .filter(p -> p.getPhrase().startsWith(prefix) && !p.getPhrase().equals(prefix))
-                .sorted((a, b) -> {
-                    // 按频率降序，最后使用时间降序
-                    int freqCompare = b.getFrequency().compareTo(a.getFrequency());
-                    if (freqCompare != 0) return freqCompare;
-                    return b.getLastUsedAt().compareTo(a.getLastUsedAt());
-                })
-                .limit(MAX_QUERY_RESULTS)
-                .map(p -> new CompletionResult()
-                    .setPhrase(p.getPhrase())
-                    .setCompletion(p.getPhrase().substring(prefix.length()))
-                    .setScore(calculateScore(p))
-                    .setSourceType(p.getSourceType()))
-                .collect(Collectors.toList());
+            // 索引返回的候选已按热度排好序
+            candidates = index.search(prefix);
         } else {
-            // 从数据库查询
-            List<CompletionPhraseEntity> entities = repository.findByUserIdAndPhrasePrefix(
-                userId, 
-                prefix, 
-                PageRequest.of(0, MAX_QUERY_RESULTS)
-            );
-            
-            results = entities.stream()
-                .filter(e -> !e.getPhrase().equals(prefix)) // 排除完全相同的
-                .map(e -> new CompletionResult()
-                    .setPhrase(e.getPhrase())
-                    .setCompletion(e.getPhrase().substring(prefix.length()))
-                    .setScore(calculateScore(e))
-                    .setSourceType(e.getSourceType()))
+            warmUpAsync(userId);
+            candidates = repository.findByUserIdAndPhrasePrefix(userId, prefix, PageRequest.of(0, INDEX_TOP_K))
+                .stream()
+                .map(this::toDTO)
                 .collect(Collectors.toList());
         }
 
+        List<CompletionResult> results = candidates.stream()
+            .filter(p -> !p.getPhrase().equals(prefix)) // 排除完全相同的
+            .limit(MAX_QUERY_RESULTS)
+            .map(p -> toResult(p, prefix))
+            .collect(Collectors.toList());
+
         long queryTime = System.currentTimeMillis() - startTime;
         log.debug("Completion query for user {} with prefix '{}': {} results in {}ms (cache: {})",
             userId, prefix, results.size(), queryTime, fromCache);
@@ -122,49 +227,74 @@ public class CompletionPhraseService {
 
     /**
      * 添加或更新短语
+     *
+     * 已有短语的使用次数只在内存中累加（同时原地更新缓存排名），由 {@link PhraseUsageBuffer} 定期合并写回；
+     * 只有新短语才会同步写库。
      */
-    @Transactional
     public CompletionPhraseDTO addOrUpdatePhrase(Long userId, CompletionPhraseRequest request) {
         String phrase = request.getPhrase().trim();
-        
+        long now = System.currentTimeMillis();
+
+        // 缓存命中：不访问数据库
+        PhraseIndex index = userPhraseCache.getIfPresent(userId);
+        if (index != null) {
+            CompletionPhraseDTO updated = index.recordUsage(phrase, now);
+            if (updated != null) {
+                phraseUsageBuffer.record(updated.getId(), userId, now);
+                return updated;
+            }
+        }
+
         // 检查是否已存在
         Optional<CompletionPhraseEntity> existing = repository
             .findByUserIdAndPhraseAndDeleteTimeIsNull(userId, phrase);
 
-        CompletionPhraseEntity entity;
         if (existing.isPresent()) {
-            // 已存在，增加频率
-            entity = existing.get();
-            repository.incrementFrequency(entity.getId(), System.currentTimeMillis());
-            entity.setFrequency(entity.getFrequency() + 1);
-            entity.setLastUsedAt(System.currentTimeMillis());
-        } else {
-            // 不存在，检查是否需要淘汰旧数据
-            long count = repository.countByUserIdAndDeleteTimeIsNull(userId);
-            if (count >= MAX_PHRASES_PER_USER) {
-                // 淘汰最不常用的短语
-                int toDelete = (int) (count - MAX_PHRASES_PER_USER + 1);
-                repository.deleteOldestPhrases(userId, toDelete);
-                log.info("Evicted {} old phrases for user {}", toDelete, userId);
+            // 已存在，增加频率（写回缓冲）
+            CompletionPhraseEntity entity = existing.get();
+            phraseUsageBuffer.record(entity.getId(), userId, now);
+            CompletionPhraseDTO dto = toDTO(entity)
+                .setFrequency(entity.getFrequency() + phraseUsageBuffer.pendingDelta(entity.getId()))
+                .setLastUsedAt(now);
+            if (index != null) {
+                index.upsert(dto);
             }
+            return dto;
+        }
 
-            // 创建新短语
-            entity = new CompletionPhraseEntity()
-                .setUserId(userId)
-                .setPhrase(phrase)
-                .setPhrasePrefix(phrase.substring(0, Math.min(10, phrase.length())))
-                .setFrequency(1)
-                .setLastUsedAt(System.currentTimeMillis())
-                .setSourceType(request.getSourceType())
-                .setCategory(request.getCategory());
-            
-            entity = repository.save(entity);
+        // 不存在，检查是否需要淘汰旧数据
+        long count = repository.countByUserIdAndDeleteTimeIsNull(userId);
+        if (count >= MAX_PHRASES_PER_USER) {
+            // 淘汰最不常用的短语
+            int toDelete = (int) (count - MAX_PHRASES_PER_USER + 1);
+            repository.deleteOldestPhrases(userId, toDelete);
+            log.info("Evicted {} old phrases for user {}", toDelete, userId);
+            // 被淘汰的短语可能还在缓存里，整体重新加载
+            userPhraseCache.invalidate(userId);
         }
 
-        // 刷新缓存
-        refreshUserCache(userId);
+        // 创建新短语，同时计算拼音键
+        PinyinUtil.Spelling spelling = spell(phrase);
+        CompletionPhraseEntity entity = repository.save(new CompletionPhraseEntity()
+            .setUserId(userId)
+            .setPhrase(phrase)
+            .setPhrasePrefix(phrase.substring(0, Math.min(10, phrase.length())))
+            .setPhrasePinyin(spelling.full())
+            .setPhraseInitials(spelling.initials())
+            .setFrequency(1)
+            .setLastUsedAt(now)
+            .setSourceType(request.getSourceType())
+            .setCategory(request.getCategory()));
 
-        return toDTO(entity);
+        CompletionPhraseDTO dto = toDTO(entity);
+        PhraseIndex cached = userPhraseCache.getIfPresent(userId);
+        if (cached != null) {
+            cached.upsert(dto);
+            // 重新放入以按新的大小计重（已被剔除则不放回）
+            userPhraseCache.asMap().replace(userId, cached, cached);
+        }
+        cacheInvalidationBus.publish(CACHE_NAME, String.valueOf(userId));
+        return dto;
     }
 
     /**
@@ -188,7 +318,11 @@ public class CompletionPhraseService {
             userId, 
             PageRequest.of(0, Math.min(limit, MAX_PHRASES_PER_USER))
         );
-        return entities.stream().map(this::toDTO).collect(Collectors.toList());
+        // 合并尚未写回的使用次数
+        return entities.stream()
+            .map(e -> toDTO(e).setFrequency(e.getFrequency() + phraseUsageBuffer.pendingDelta(e.getId())))
+            .sorted(RANKING)
+            .collect(Collectors.toList());
     }
 
     /**
@@ -204,16 +338,66 @@ public class CompletionPhraseService {
      * 刷新用户缓存
      */
     public void refreshUserCache(Long userId) {
-        List<CompletionPhraseDTO> topPhrases = getTopPhrases(userId, 100); // 缓存 top 100
-        userPhraseCache.put(userId, topPhrases);
-        log.debug("Refreshed cache for user {}: {} phrases", userId, topPhrases.size());
+        PhraseIndex index = loadIndex(userId);
+        userPhraseCache.put(userId, index);
+        log.debug("Refreshed cache for user {}: {} phrases", userId, index.size());
+    }
+
+    /**
+     * 在后台加载用户的前缀索引（已缓存或正在加载时忽略）
+     */
+    public void warmUpAsync(Long userId) {
+        // 用 asMap 判断，不计入命中统计
+        if (userPhraseCache.asMap().containsKey(userId) || !warmingUsers.add(userId)) {
+            return;
+        }
+        try {
+            warmUpExecutor.execute(() -> {
+                try {
+                    if (!userPhraseCache.asMap().containsKey(userId)) {
+                        userPhraseCache.asMap().putIfAbsent(userId, loadIndex(userId));
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to warm up completion cache for user {}: {}", userId, e.getMessage());
+                } finally {
+                    warmingUsers.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 队列已满时放弃：预热只是优化，下次查询会再次触发
+            warmingUsers.remove(userId);
+        }
+    }
+
+    /**
+     * 本节点缓存统计
+     */
+    public CompletionCacheStats getCacheStats() {
+        CacheStats stats = userPhraseCache.stats();
+        long estimatedBytes = userPhraseCache.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L))
+            .orElse(0L);
+        return new CompletionCacheStats(
+            userPhraseCache.estimatedSize(),
+            estimatedBytes,
+            cacheMaxBytes,
+            stats.hitCount(),
+            stats.missCount(),
+            stats.hitRate(),
+            stats.evictionCount()
+        );
+    }
+
+    private PhraseIndex loadIndex(Long userId) {
+        return PhraseIndex.build(getTopPhrases(userId, MAX_PHRASES_PER_USER), RANKING, INDEX_TOP_K);
     }
 
     /**
      * 清除用户缓存
      */
     public void clearUserCache(Long userId) {
-        userPhraseCache.remove(userId);
+        userPhraseCache.invalidate(userId);
+        cacheInvalidationBus.publish(CACHE_NAME, String.valueOf(userId));
     }
 
     /**
@@ -223,20 +407,66 @@ public class CompletionPhraseService {
      */
     private double calculateScore(CompletionPhraseDTO dto) {
         long daysSinceLastUse = (System.currentTimeMillis() - dto.getLastUsedAt()) / (1000 * 60 * 60 * 24);
-        double decay = Math.pow(0.9, daysSinceLastUse); // 每天衰减 10%
+        double decay = DECAY[Math.clamp(daysSinceLastUse, 0, DECAY.length - 1)]; // 每天衰减 10%
         return dto.getFrequency() * decay;
     }
 
-    private double calculateScore(CompletionPhraseEntity entity) {
-        long daysSinceLastUse = (System.currentTimeMillis() - entity.getLastUsedAt()) / (1000 * 60 * 60 * 24);
-        double decay = Math.pow(0.9, daysSinceLastUse);
-        return entity.getFrequency() * decay;
+    /**
+     * 计算短语的全拼与首字母，多音字的各读音组合以空格分隔（如 银行 -> "yinxing yinhang ..."），
+     * 按整个组合截断到列宽
+     */
+    static PinyinUtil.Spelling spell(String phrase) {
+        Set<String> full = new LinkedHashSet<>();
+        Set<String> initials = new LinkedHashSet<>();
+        for (PinyinUtil.Spelling spelling : PinyinUtil.spellAll(phrase, MAX_SPELLINGS)) {
+            full.add(spelling.full());
+            initials.add(spelling.initials());
+        }
+        return new PinyinUtil.Spelling(joinSpellings(full, PINYIN_MAX_LENGTH), joinSpellings(initials, INITIALS_MAX_LENGTH));
+    }
+
+    private static String joinSpellings(Set<String> spellings, int maxLength) {
+        StringBuilder joined = new StringBuilder();
+        for (String spelling : spellings) {
+            if (joined.isEmpty()) {
+                joined.append(StringUtils.left(spelling, maxLength));
+            } else if (joined.length() + 1 + spelling.length() <= maxLength) {
+                joined.append(' ').append(spelling);
+            } else {
+                break;
+            }
+        }
+        return joined.toString();
+    }
+
+    /**
+     * 清空本节点及其他节点的全部短语缓存
+     */
+    public void clearAllUserCaches() {
+        userPhraseCache.invalidateAll();
+        cacheInvalidationBus.publish(CACHE_NAME, null);
+    }
+
+    private CompletionResult toResult(CompletionPhraseDTO p, String prefix) {
+        CompletionResult result = new CompletionResult()
+            .setPhrase(p.getPhrase())
+            .setScore(calculateScore(p))
+            .setSourceType(p.getSourceType());
+        if (p.getPhrase().startsWith(prefix)) {
+            return result.setMatchType(MATCH_PHRASE).setCompletion(p.getPhrase().substring(prefix.length()));
+        }
+        // 拼音匹配时已输入的是字母，补全内容为整条短语
+        boolean pinyin = p.getPhrasePinyin() != null
+            && Arrays.stream(StringUtils.split(p.getPhrasePinyin(), ' ')).anyMatch(spelling -> spelling.startsWith(prefix));
+        return result.setMatchType(pinyin ? MATCH_PINYIN : MATCH_INITIALS).setCompletion(p.getPhrase());
     }
 
     private CompletionPhraseDTO toDTO(CompletionPhraseEntity entity) {
         return new CompletionPhraseDTO()
             .setId(entity.getId())
             .setPhrase(entity.getPhrase())
+            .setPhrasePinyin(entity.getPhrasePinyin())
+            .setPhraseInitials(entity.getPhraseInitials())
             .setFrequency(entity.getFrequency())
             .setLastUsedAt(entity.getLastUsedAt())
             .setSourceType(entity.getSourceType())
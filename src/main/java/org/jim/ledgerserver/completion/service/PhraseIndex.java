@@ -0,0 +1,362 @@
+package org.jim.ledgerserver.completion.service;
+
+import org.jim.ledgerserver.completion.dto.CompletionPhraseDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 单个用户的短语前缀索引（压缩前缀树）
+ *
+ * 每条短语以原文、全拼、首字母三个键挂在同一棵树上，每个节点保存其子树中排名最高的 topK 条短语（按短语去重），
+ * 前缀查询只需沿树走到前缀所在节点，耗时与前缀长度相关，与短语总数无关。
+ * 短语变化时只重算从根到各个键路径上的节点。索引内的 DTO 视为不可变，更新时替换为新对象。
+ *
+ * @author James Smith
+ */
+final class PhraseIndex {
+
+    /**
+     * 每条短语除字符外的大致开销：DTO 及其装箱字段、HashMap 条目、树节点和各节点 topK 列表中的引用
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 480;
+
+    private final Comparator<CompletionPhraseDTO> ranking;
+
+    private final int topK;
+
+    private final Node root = new Node("");
+
+    /**
+     * phrase -> 短语
+     */
+    private final Map<String, CompletionPhraseDTO> phrases = new HashMap<>();
+
+    private long estimatedBytes;
+
+    private static final class Node {
+
+        /**
+         * 父节点到本节点的边上的字符串
+         */
+        String label;
+
+        final Map<Character, Node> children = new HashMap<>(4);
+
+        /**
+         * 键以本节点结尾的短语（不同短语的拼音可能相同）
+         */
+        List<CompletionPhraseDTO> terminals = List.of();
+
+        /**
+         * 子树（含本节点）中排名最高的短语
+         */
+        List<CompletionPhraseDTO> top = List.of();
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    PhraseIndex(Comparator<CompletionPhraseDTO> ranking, int topK) {
+        this.ranking = ranking;
+        this.topK = topK;
+    }
+
+    static PhraseIndex build(Collection<CompletionPhraseDTO> phrases, Comparator<CompletionPhraseDTO> ranking, int topK) {
+        PhraseIndex index = new PhraseIndex(ranking, topK);
+        for (CompletionPhraseDTO phrase : phrases) {
+            index.upsert(phrase);
+        }
+        return index;
+    }
+
+    synchronized int size() {
+        return phrases.size();
+    }
+
+    /**
+     * 估算占用的堆内存（字节）
+     */
+    synchronized long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    synchronized CompletionPhraseDTO get(String phrase) {
+        return phrases.get(phrase);
+    }
+
+    /**
+     * 以 prefix 开头的排名最高的短语（最多 topK 条，按排名排序）
+     */
+    synchronized List<CompletionPhraseDTO> search(String prefix) {
+        Node node = root;
+        int offset = 0;
+        while (offset < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(offset));
+            if (child == null) {
+                return List.of();
+            }
+            int remaining = prefix.length() - offset;
+            int labelLength = child.label.length();
+            if (remaining <= labelLength) {
+                // 前缀在这条边的中间结束
+                return child.label.regionMatches(0, prefix, offset, remaining) ? child.top : List.of();
+            }
+            if (!prefix.regionMatches(offset, child.label, 0, labelLength)) {
+                return List.of();
+            }
+            offset += labelLength;
+            node = child;
+        }
+        return node.top;
+    }
+
+    /**
+     * 排名最高的短语
+     */
+    synchronized List<CompletionPhraseDTO> top() {
+        return root.top;
+    }
+
+    /**
+     * 插入或替换短语
+     */
+    synchronized void upsert(CompletionPhraseDTO phrase) {
+        CompletionPhraseDTO previous = phrases.put(phrase.getPhrase(), phrase);
+        estimatedBytes += estimateBytes(phrase) - (previous == null ? 0 : estimateBytes(previous));
+        Set<String> keys = keys(phrase);
+        if (previous != null) {
+            for (String key : keys(previous)) {
+                if (!keys.contains(key)) {
+                    detach(key, previous.getPhrase());
+                }
+            }
+        }
+        // 排名下降时可能有别的短语顶上来，需要按子树重算
+        boolean demoted = previous != null && ranking.compare(phrase, previous) > 0;
+        for (String key : keys) {
+            List<Node> path = insertPath(key);
+            Node node = path.getLast();
+            List<CompletionPhraseDTO> terminals = new ArrayList<>(node.terminals.size() + 1);
+            for (CompletionPhraseDTO p : node.terminals) {
+                if (!p.getPhrase().equals(phrase.getPhrase())) {
+                    terminals.add(p);
+                }
+            }
+            terminals.add(phrase);
+            node.terminals = terminals;
+            if (demoted) {
+                recompute(path);
+            } else {
+                promote(path, phrase);
+            }
+        }
+    }
+
+    /**
+     * 记录一次使用：使用次数加一并更新最后使用时间
+     * @return 更新后的短语，不在索引中时返回 null
+     */
+    synchronized CompletionPhraseDTO recordUsage(String phrase, long usedAt) {
+        CompletionPhraseDTO current = phrases.get(phrase);
+        if (current == null) {
+            return null;
+        }
+        CompletionPhraseDTO updated = new CompletionPhraseDTO()
+            .setId(current.getId())
+            .setPhrase(current.getPhrase())
+            .setPhrasePinyin(current.getPhrasePinyin())
+            .setPhraseInitials(current.getPhraseInitials())
+            .setFrequency(current.getFrequency() + 1)
+            .setLastUsedAt(Math.max(current.getLastUsedAt(), usedAt))
+            .setSourceType(current.getSourceType())
+            .setCategory(current.getCategory());
+        upsert(updated);
+        return updated;
+    }
+
+    /**
+     * 移除短语
+     */
+    synchronized void remove(String phrase) {
+        CompletionPhraseDTO previous = phrases.remove(phrase);
+        if (previous == null) {
+            return;
+        }
+        estimatedBytes -= estimateBytes(previous);
+        for (String key : keys(previous)) {
+            detach(key, phrase);
+        }
+    }
+
+    /**
+     * 从键对应的节点上摘掉短语
+     */
+    private void detach(String key, String phrase) {
+        List<Node> path = findPath(key);
+        if (path == null) {
+            return;
+        }
+        Node last = path.getLast();
+        last.terminals = last.terminals.stream().filter(p -> !p.getPhrase().equals(phrase)).toList();
+        // 剪掉不再有短语的叶子节点
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            if (!node.terminals.isEmpty() || !node.children.isEmpty()) {
+                break;
+            }
+            path.get(i - 1).children.remove(node.label.charAt(0));
+            path.remove(i);
+        }
+        recompute(path);
+    }
+
+    /**
+     * 短语在树上的键：原文、各读音组合的全拼与首字母（空格分隔，去重、去空）
+     */
+    private static Set<String> keys(CompletionPhraseDTO phrase) {
+        Set<String> keys = new LinkedHashSet<>(8);
+        keys.add(phrase.getPhrase());
+        addSpellings(keys, phrase.getPhrasePinyin());
+        addSpellings(keys, phrase.getPhraseInitials());
+        return keys;
+    }
+
+    private static void addSpellings(Set<String> keys, String spellings) {
+        if (spellings == null) {
+            return;
+        }
+        for (String spelling : spellings.split(" ")) {
+            if (!spelling.isEmpty()) {
+                keys.add(spelling);
+            }
+        }
+    }
+
+    /**
+     * 找到（必要时创建）短语对应的节点，返回从根到该节点的路径
+     */
+    private List<Node> insertPath(String phrase) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int offset = 0;
+        while (offset < phrase.length()) {
+            char c = phrase.charAt(offset);
+            Node child = node.children.get(c);
+            if (child == null) {
+                child = new Node(phrase.substring(offset));
+                node.children.put(c, child);
+                path.add(child);
+                return path;
+            }
+            int common = commonPrefixLength(child.label, phrase, offset);
+            if (common < child.label.length()) {
+                // 拆分边：node -> split -> child
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children.put(child.label.charAt(0), child);
+                split.top = child.top;
+                node.children.put(c, split);
+                child = split;
+            }
+            offset += common;
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private List<Node> findPath(String phrase) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int offset = 0;
+        while (offset < phrase.length()) {
+            Node child = node.children.get(phrase.charAt(offset));
+            if (child == null || !phrase.startsWith(child.label, offset)) {
+                return null;
+            }
+            offset += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * 各个键的字符串与边上的字符串各按 UTF-16 计
+     */
+    private static long estimateBytes(CompletionPhraseDTO phrase) {
+        long chars = 0;
+        for (String key : keys(phrase)) {
+            chars += key.length();
+        }
+        return ENTRY_OVERHEAD_BYTES + 4L * chars;
+    }
+
+    private static int commonPrefixLength(String label, String phrase, int offset) {
+        int max = Math.min(label.length(), phrase.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == phrase.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 短语排名上升（或新增）：只需把它并入路径上每个节点的 topK
+     */
+    private void promote(List<Node> path, CompletionPhraseDTO phrase) {
+        for (Node node : path) {
+            List<CompletionPhraseDTO> top = new ArrayList<>(node.top.size() + 1);
+            for (CompletionPhraseDTO p : node.top) {
+                if (!p.getPhrase().equals(phrase.getPhrase())) {
+                    top.add(p);
+                }
+            }
+            top.add(phrase);
+            node.top = trim(top);
+        }
+    }
+
+    /**
+     * 自底向上按子节点的 topK 重算路径上每个节点的 topK
+     */
+    private void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            List<CompletionPhraseDTO> top = new ArrayList<>(node.terminals);
+            for (Node child : node.children.values()) {
+                top.addAll(child.top);
+            }
+            node.top = trim(top);
+        }
+    }
+
+    /**
+     * 排序、按短语去重（原文与拼音路径在共同前缀上会汇合）后取前 topK 条
+     */
+    private List<CompletionPhraseDTO> trim(List<CompletionPhraseDTO> top) {
+        top.sort(ranking);
+        List<CompletionPhraseDTO> result = new ArrayList<>(Math.min(top.size(), topK));
+        Set<String> seen = new HashSet<>();
+        for (CompletionPhraseDTO p : top) {
+            if (seen.add(p.getPhrase())) {
+                result.add(p);
+                if (result.size() == topK) {
+                    break;
+                }
+            }
+        }
+        return List.copyOf(result);
+    }
+}
@@ -0,0 +1,64 @@
+package org.jim.ledgerserver.completion.service;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.jim.ledgerserver.common.util.PinyinUtil;
+import org.jim.ledgerserver.completion.entity.CompletionPhraseEntity;
+import org.jim.ledgerserver.completion.repository.CompletionPhraseRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 补全短语拼音回填
+ * 新增拼音列之前（或拼音规则变更后被清空）的短语没有全拼和首字母，启动后在后台分批补齐；补齐后清空短语缓存，让索引带上拼音键重新加载。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+public class PhrasePinyinBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 只写拼音列，不覆盖同时被写回的使用次数
+     */
+    private static final String UPDATE_SQL =
+            "UPDATE completion_phrase SET phrase_pinyin = ?, phrase_initials = ? WHERE id = ?";
+
+    @Resource
+    private CompletionPhraseRepository repository;
+
+    @Resource
+    private CompletionPhraseService completionPhraseService;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long total = 0;
+        List<CompletionPhraseEntity> batch;
+        while (!(batch = repository.findByPhrasePinyinIsNullOrderByIdAsc(PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+            List<Object[]> args = new ArrayList<>(batch.size());
+            for (CompletionPhraseEntity entity : batch) {
+                PinyinUtil.Spelling spelling = CompletionPhraseService.spell(entity.getPhrase());
+                args.add(new Object[]{spelling.full(), spelling.initials(), entity.getId()});
+            }
+            jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+            total += batch.size();
+        }
+        if (total > 0) {
+            log.info("Backfilled pinyin for {} completion phrases", total);
+            completionPhraseService.clearAllUserCaches();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.jim.ledgerserver.completion.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.jim.ledgerserver.common.cache.CacheInvalidationBus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 短语使用次数写回缓冲
+ * 补全短语每次被使用只在内存中累加（按短语ID分段加锁的 ConcurrentHashMap，不同短语互不阻塞），
+ * 定期把同一短语的多次使用合并成一条 UPDATE，通过 JDBC 批量写回 completion_phrase。
+ * 停机时会把未写回的增量全部落库。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+public class PhraseUsageBuffer {
+
+    private static final String FLUSH_SQL =
+            "UPDATE completion_phrase SET frequency = frequency + ?, last_used_at = GREATEST(last_used_at, ?) WHERE id = ?";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * phraseId -> 未写回的增量
+     */
+    private final Map<Long, PendingUsage> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 未写回的增量（不可变，合并时生成新对象，写回时整条摘除）
+     */
+    private record PendingUsage(Long userId, int delta, long lastUsedAt) {
+
+        PendingUsage merge(PendingUsage other) {
+            return new PendingUsage(userId, delta + other.delta, Math.max(lastUsedAt, other.lastUsedAt));
+        }
+    }
+
+    /**
+     * 记录一次使用
+     * @param phraseId 短语ID
+     * @param userId 用户ID
+     * @param usedAt 使用时间戳（毫秒）
+     */
+    public void record(Long phraseId, Long userId, long usedAt) {
+        pending.merge(phraseId, new PendingUsage(userId, 1, usedAt), PendingUsage::merge);
+    }
+
+    /**
+     * 短语尚未写回的使用次数（从数据库读取短语时需要加上）
+     */
+    public int pendingDelta(Long phraseId) {
+        PendingUsage usage = pending.get(phraseId);
+        return usage == null ? 0 : usage.delta();
+    }
+
+    /**
+     * 定期写回
+     */
+    @Scheduled(fixedDelayString = "${ledger.completion.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Long> phraseIds = new ArrayList<>();
+        List<PendingUsage> usages = new ArrayList<>();
+        for (Long phraseId : pending.keySet()) {
+            PendingUsage usage = pending.remove(phraseId);
+            if (usage != null) {
+                phraseIds.add(phraseId);
+                usages.add(usage);
+            }
+        }
+        if (phraseIds.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(phraseIds.size());
+        Set<Long> userIds = new HashSet<>();
+        for (int i = 0; i < phraseIds.size(); i++) {
+            PendingUsage usage = usages.get(i);
+            args.add(new Object[]{usage.delta(), usage.lastUsedAt(), phraseIds.get(i)});
+            userIds.add(usage.userId());
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, args);
+        } catch (Exception e) {
+            // 写回失败时把增量放回，下次重试
+            log.warn("Failed to flush {} phrase usages, will retry: {}", phraseIds.size(), e.getMessage());
+            for (int i = 0; i < phraseIds.size(); i++) {
+                pending.merge(phraseIds.get(i), usages.get(i), PendingUsage::merge);
+            }
+            return;
+        }
+
+        // 数据库已是最新，通知其他节点按需重新加载
+        userIds.forEach(userId -> cacheInvalidationBus.publish(CompletionPhraseService.CACHE_NAME, String.valueOf(userId)));
+        log.debug("Flushed {} phrase usages for {} users", phraseIds.size(), userIds.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("{} phrase usages were not flushed before shutdown", pending.size());
+        }
+    }
+}
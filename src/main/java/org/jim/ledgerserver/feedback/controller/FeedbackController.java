@@ -82,13 +82,19 @@ public class FeedbackController {
     }
 
     /**
-     * 获取所有公开反馈
+     * 获取公开反馈（按点赞数排序分页）
      *
+     * @param afterUpvotes 上一页最后一条的点赞数（翻页时与 afterId 一起传入）
+     * @param afterId 上一页最后一条的ID
+     * @param size 每页条数，默认 20，最大 100
      * @return 反馈列表
      */
     @GetMapping("/public")
-    public JSONResult<List<FeedbackResponse>> getAllPublicFeedbacks() {
-        List<FeedbackResponse> feedbacks = feedbackService.getAllPublicFeedbacks();
+    public JSONResult<List<FeedbackResponse>> getAllPublicFeedbacks(
+            @RequestParam(required = false) Integer afterUpvotes,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size) {
+        List<FeedbackResponse> feedbacks = feedbackService.getAllPublicFeedbacks(afterUpvotes, afterId, size);
         return JSONResult.success(feedbacks);
     }
 
@@ -96,11 +102,18 @@ public class FeedbackController {
      * 根据类型获取公开反馈
      *
      * @param type 反馈类型
+     * @param afterUpvotes 上一页最后一条的点赞数（翻页时与 afterId 一起传入）
+     * @param afterId 上一页最后一条的ID
+     * @param size 每页条数，默认 20，最大 100
      * @return 反馈列表
      */
     @GetMapping("/public/type/{type}")
-    public JSONResult<List<FeedbackResponse>> getPublicFeedbacksByType(@PathVariable String type) {
-        List<FeedbackResponse> feedbacks = feedbackService.getPublicFeedbacksByType(type);
+    public JSONResult<List<FeedbackResponse>> getPublicFeedbacksByType(
+            @PathVariable String type,
+            @RequestParam(required = false) Integer afterUpvotes,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size) {
+        List<FeedbackResponse> feedbacks = feedbackService.getPublicFeedbacksByType(type, afterUpvotes, afterId, size);
         return JSONResult.success(feedbacks);
     }
 
@@ -108,23 +121,39 @@ public class FeedbackController {
      * 根据状态获取公开反馈
      *
      * @param status 反馈状态
+     * @param afterUpvotes 上一页最后一条的点赞数（翻页时与 afterId 一起传入）
+     * @param afterId 上一页最后一条的ID
+     * @param size 每页条数，默认 20，最大 100
      * @return 反馈列表
      */
     @GetMapping("/public/status/{status}")
-    public JSONResult<List<FeedbackResponse>> getPublicFeedbacksByStatus(@PathVariable String status) {
-        List<FeedbackResponse> feedbacks = feedbackService.getPublicFeedbacksByStatus(status);
+    public JSONResult<List<FeedbackResponse>> getPublicFeedbacksByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) Integer afterUpvotes,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size) {
+        List<FeedbackResponse> feedbacks = feedbackService.getPublicFeedbacksByStatus(status, afterUpvotes, afterId, size);
         return JSONResult.success(feedbacks);
     }
 
     /**
      * 搜索反馈
      *
-     * @param keyword 关键词
+     * @param keyword 关键词（匹配标题、描述和评论内容，按相关度排序；单个字时按点赞数排序）
+     * @param afterScore 上一页最后一条的 score（按相关度排序时翻页，与 afterId 一起传入）
+     * @param afterUpvotes 上一页最后一条的点赞数（按点赞数排序时翻页，与 afterId 一起传入）
+     * @param afterId 上一页最后一条的ID
+     * @param size 每页条数，默认 20，最大 100
      * @return 反馈列表
      */
     @GetMapping("/search")
-    public JSONResult<List<FeedbackResponse>> searchFeedbacks(@RequestParam String keyword) {
-        List<FeedbackResponse> feedbacks = feedbackService.searchFeedbacks(keyword);
+    public JSONResult<List<FeedbackResponse>> searchFeedbacks(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Double afterScore,
+            @RequestParam(required = false) Integer afterUpvotes,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size) {
+        List<FeedbackResponse> feedbacks = feedbackService.searchFeedbacks(keyword, afterScore, afterUpvotes, afterId, size);
         return JSONResult.success(feedbacks);
     }
 
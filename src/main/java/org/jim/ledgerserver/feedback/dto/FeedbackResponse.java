@@ -102,4 +102,9 @@ public class FeedbackResponse {
      * 当前用户是否可以关闭/重开该反馈
      */
     private Boolean canClose;
+
+    /**
+     * 搜索相关度，仅全文搜索结果有值，翻页时作为 afterScore 传入
+     */
+    private Double score;
 }
@@ -2,6 +2,8 @@ package org.jim.ledgerserver.feedback.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
@@ -16,6 +18,11 @@ import org.jim.ledgerserver.base.BaseEntity;
 @EqualsAndHashCode(callSuper = false)
 @Accessors(chain = true)
 @Entity(name = "feedback")
+@Table(indexes = {
+    @Index(name = "idx_feedback_upvotes", columnList = "upvoteCount, id"),
+    @Index(name = "idx_feedback_type_upvotes", columnList = "type, upvoteCount, id"),
+    @Index(name = "idx_feedback_status_upvotes", columnList = "status, upvoteCount, id")
+})
 public class FeedbackEntity extends BaseEntity {
 
     /**
@@ -65,4 +72,23 @@ public class FeedbackEntity extends BaseEntity {
      */
     @Column(columnDefinition = "TEXT")
     private String adminReply;
+
+    /**
+     * 点赞数（反应增删时原子更新，公开列表按它排序分页）
+     * 计数列只通过 FeedbackRepository 的原子更新语句修改，保存实体时不写入，避免覆盖并发更新
+     */
+    @Column(nullable = false, updatable = false, columnDefinition = "int default 0")
+    private Integer upvoteCount = 0;
+
+    /**
+     * 倒赞数
+     */
+    @Column(nullable = false, updatable = false, columnDefinition = "int default 0")
+    private Integer downvoteCount = 0;
+
+    /**
+     * 评论数
+     */
+    @Column(nullable = false, updatable = false, columnDefinition = "int default 0")
+    private Integer commentCount = 0;
 }
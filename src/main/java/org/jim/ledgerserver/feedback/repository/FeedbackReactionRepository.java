@@ -51,4 +51,15 @@ public interface FeedbackReactionRepository extends JpaRepository<FeedbackReacti
     List<FeedbackReactionEntity> findByTargetIdsAndTargetType(
             @Param("targetIds") List<Long> targetIds,
             @Param("targetType") String targetType);
+
+    /**
+     * 批量查询用户对多个目标的反应
+     *
+     * @param targetIds 目标ID列表
+     * @param targetType 目标类型
+     * @param userId 用户ID
+     * @return 反应实体列表
+     */
+    List<FeedbackReactionEntity> findByTargetIdInAndTargetTypeAndUserId(
+            List<Long> targetIds, String targetType, Long userId);
 }
@@ -1,10 +1,13 @@
 package org.jim.ledgerserver.feedback.repository;
 
 import org.jim.ledgerserver.feedback.entity.FeedbackEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -29,26 +32,86 @@ public interface FeedbackRepository extends JpaRepository<FeedbackEntity, Long>
     List<FeedbackEntity> findByUserIdAndType(@Param("userId") Long userId, @Param("type") String type);
 
     /**
-     * 查询所有公开反馈（未删除）
+     * 分页查询公开反馈（未删除），按点赞数、ID 降序
+     * 键集分页：传入上一页最后一条的点赞数和ID，为空时查第一页；type / status 为空表示不过滤
      */
-    @Query("SELECT f FROM feedback f WHERE f.deleteTime IS NULL ORDER BY f.createTime DESC")
-    List<FeedbackEntity> findAllPublic();
+    @Query("""
+        SELECT f FROM feedback f
+        WHERE f.deleteTime IS NULL
+        AND (:type IS NULL OR f.type = :type)
+        AND (:status IS NULL OR f.status = :status)
+        AND (:afterUpvotes IS NULL OR f.upvoteCount < :afterUpvotes
+             OR (f.upvoteCount = :afterUpvotes AND f.id < :afterId))
+        ORDER BY f.upvoteCount DESC, f.id DESC
+        """)
+    List<FeedbackEntity> findPublicPage(@Param("type") String type,
+                                        @Param("status") String status,
+                                        @Param("afterUpvotes") Integer afterUpvotes,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
 
     /**
-     * 根据类型查询所有公开反馈（未删除）
+     * 搜索反馈（标题或描述包含关键词，未删除），分页方式同 findPublicPage
+     * 只用于短于全文索引分词长度的关键词，其余走 searchIdsByFullText
      */
-    @Query("SELECT f FROM feedback f WHERE f.type = :type AND f.deleteTime IS NULL ORDER BY f.createTime DESC")
-    List<FeedbackEntity> findAllPublicByType(@Param("type") String type);
+    @Query("""
+        SELECT f FROM feedback f
+        WHERE f.deleteTime IS NULL
+        AND (LOWER(f.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(f.description) LIKE LOWER(CONCAT('%', :keyword, '%')))
+        AND (:afterUpvotes IS NULL OR f.upvoteCount < :afterUpvotes
+             OR (f.upvoteCount = :afterUpvotes AND f.id < :afterId))
+        ORDER BY f.upvoteCount DESC, f.id DESC
+        """)
+    List<FeedbackEntity> searchByKeyword(@Param("keyword") String keyword,
+                                         @Param("afterUpvotes") Integer afterUpvotes,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
 
     /**
-     * 根据状态查询所有公开反馈（未删除）
+     * 全文检索反馈（ngram 全文索引，见 V1_20 迁移脚本），按相关度、ID 降序
+     * 标题/描述与评论内容都参与匹配，评论命中的相关度减半；同一反馈取最高分。
+     * 键集分页：传入上一页最后一条的相关度和ID，为空时查第一页
+     * 游标只能放在 HAVING 里按每条反馈的最高分比较：放进各分支的 WHERE 会让最高分已在前页的反馈凭较低分的行再次出现。
+     * 相关度无法走索引范围扫描，每页仍要计算并分组全部命中行，游标保证翻页不重复、不遗漏，并不减少扫描量。
+     *
+     * @return 每行为 [反馈ID, 相关度]
      */
-    @Query("SELECT f FROM feedback f WHERE f.status = :status AND f.deleteTime IS NULL ORDER BY f.createTime DESC")
-    List<FeedbackEntity> findAllPublicByStatus(@Param("status") String status);
+    @Query(value = """
+        SELECT t.feedback_id, MAX(t.score) AS relevance
+        FROM (
+            SELECT f.id AS feedback_id, MATCH(f.title, f.description) AGAINST (:keyword) AS score
+            FROM feedback f
+            WHERE f.delete_time IS NULL AND MATCH(f.title, f.description) AGAINST (:keyword)
+            UNION ALL
+            SELECT c.feedback_id, MATCH(c.content) AGAINST (:keyword) * 0.5 AS score
+            FROM feedback_comment c
+            JOIN feedback f ON f.id = c.feedback_id AND f.delete_time IS NULL
+            WHERE c.delete_time IS NULL AND MATCH(c.content) AGAINST (:keyword)
+        ) t
+        GROUP BY t.feedback_id
+        HAVING :afterScore IS NULL OR MAX(t.score) < :afterScore
+            OR (MAX(t.score) = :afterScore AND t.feedback_id < :afterId)
+        ORDER BY relevance DESC, t.feedback_id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> searchIdsByFullText(@Param("keyword") String keyword,
+                                       @Param("afterScore") Double afterScore,
+                                       @Param("afterId") Long afterId,
+                                       @Param("limit") int limit);
 
     /**
-     * 搜索反馈（标题或描述包含关键词，未删除）
+     * 调整点赞/倒赞计数（原子加减）
      */
-    @Query("SELECT f FROM feedback f WHERE f.deleteTime IS NULL AND (LOWER(f.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(f.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) ORDER BY f.createTime DESC")
-    List<FeedbackEntity> searchByKeyword(@Param("keyword") String keyword);
+    @Modifying
+    @Transactional
+    @Query("UPDATE feedback f SET f.upvoteCount = f.upvoteCount + :upDelta, f.downvoteCount = f.downvoteCount + :downDelta WHERE f.id = :id")
+    int adjustVoteCounts(@Param("id") Long id, @Param("upDelta") int upDelta, @Param("downDelta") int downDelta);
+
+    /**
+     * 调整评论计数（原子加减）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE feedback f SET f.commentCount = f.commentCount + :delta WHERE f.id = :id")
+    int adjustCommentCount(@Param("id") Long id, @Param("delta") int delta);
 }
@@ -13,14 +13,18 @@ import org.jim.ledgerserver.feedback.entity.FeedbackReactionEntity;
 import org.jim.ledgerserver.feedback.repository.FeedbackCommentRepository;
 import org.jim.ledgerserver.feedback.repository.FeedbackReactionRepository;
 import org.jim.ledgerserver.feedback.repository.FeedbackRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +35,16 @@ import java.util.stream.Collectors;
 @Service
 public class FeedbackService {
 
+    /**
+     * 公开列表每页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 全文索引 ngram 分词长度（MySQL ngram_token_size 默认 2）
+     */
+    private static final int FULL_TEXT_MIN_LENGTH = 2;
+
     @Resource
     private FeedbackRepository feedbackRepository;
 
@@ -76,10 +90,7 @@ public class FeedbackService {
      */
     public List<FeedbackResponse> getUserFeedbacks() {
         Long userId = UserContext.getCurrentUserId();
-        List<FeedbackEntity> feedbacks = feedbackRepository.findByUserId(userId);
-        return feedbacks.stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return toResponseList(feedbackRepository.findByUserId(userId));
     }
 
     /**
@@ -95,10 +106,7 @@ public class FeedbackService {
             throw new BusinessException("反馈类型无效");
         }
         
-        List<FeedbackEntity> feedbacks = feedbackRepository.findByUserIdAndType(userId, type);
-        return feedbacks.stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return toResponseList(feedbackRepository.findByUserIdAndType(userId, type));
     }
 
     /**
@@ -143,84 +151,98 @@ public class FeedbackService {
     }
 
     /**
-     * 获取所有公开反馈（按点赞数排序）
-     * 优化：使用批量查询避免N+1问题
+     * 获取公开反馈（按点赞数排序，键集分页）
      *
+     * @param afterUpvotes 上一页最后一条的点赞数，为空时查第一页
+     * @param afterId 上一页最后一条的ID
+     * @param size 每页条数
      * @return 反馈列表
      */
-    public List<FeedbackResponse> getAllPublicFeedbacks() {
-        List<FeedbackEntity> feedbacks = feedbackRepository.findAllPublic();
-        List<FeedbackResponse> responses = toResponseList(feedbacks);
-        
-        // 按点赞数降序排序（默认排序方式）
-        responses.sort((a, b) -> Long.compare(b.getUpvoteCount(), a.getUpvoteCount()));
-        
-        return responses;
+    public List<FeedbackResponse> getAllPublicFeedbacks(Integer afterUpvotes, Long afterId, int size) {
+        return toResponseList(feedbackRepository.findPublicPage(
+                null, null, afterUpvotes, afterId, pageOf(afterUpvotes, afterId, size)));
     }
 
     /**
-     * 根据类型获取公开反馈（按点赞数排序）
-     * 优化：使用批量查询避免N+1问题
+     * 根据类型获取公开反馈（按点赞数排序，键集分页）
      *
      * @param type 反馈类型
      * @return 反馈列表
      */
-    public List<FeedbackResponse> getPublicFeedbacksByType(String type) {
+    public List<FeedbackResponse> getPublicFeedbacksByType(String type, Integer afterUpvotes, Long afterId, int size) {
         if (!isValidType(type)) {
             throw new BusinessException("反馈类型无效");
         }
-        
-        List<FeedbackEntity> feedbacks = feedbackRepository.findAllPublicByType(type);
-        List<FeedbackResponse> responses = toResponseList(feedbacks);
-        
-        // 按点赞数降序排序
-        responses.sort((a, b) -> Long.compare(b.getUpvoteCount(), a.getUpvoteCount()));
-        
-        return responses;
+        return toResponseList(feedbackRepository.findPublicPage(
+                type, null, afterUpvotes, afterId, pageOf(afterUpvotes, afterId, size)));
     }
 
     /**
-     * 根据状态获取公开反馈（按点赞数排序）
-     * 优化：使用批量查询避免N+1问题
+     * 根据状态获取公开反馈（按点赞数排序，键集分页）
      *
      * @param status 反馈状态
      * @return 反馈列表
      */
-    public List<FeedbackResponse> getPublicFeedbacksByStatus(String status) {
+    public List<FeedbackResponse> getPublicFeedbacksByStatus(String status, Integer afterUpvotes, Long afterId, int size) {
         if (!isValidStatus(status)) {
             throw new BusinessException("反馈状态无效");
         }
-        
-        List<FeedbackEntity> feedbacks = feedbackRepository.findAllPublicByStatus(status);
-        List<FeedbackResponse> responses = toResponseList(feedbacks);
-        
-        // 按点赞数降序排序
-        responses.sort((a, b) -> Long.compare(b.getUpvoteCount(), a.getUpvoteCount()));
-        
-        return responses;
+        return toResponseList(feedbackRepository.findPublicPage(
+                null, status, afterUpvotes, afterId, pageOf(afterUpvotes, afterId, size)));
     }
 
     /**
-     * 搜索反馈（按点赞数排序）
-     * 优化：使用批量查询避免N+1问题
+     * 搜索反馈（键集分页）
+     * 标题、描述和评论内容走 ngram 全文索引，按相关度排序，游标为上一页最后一条的 score 和 id；
+     * 关键词为空或短于分词长度时按点赞数排序，游标同公开列表。只对返回的这一页做响应组装。
      *
      * @param keyword 关键词
      * @return 反馈列表
      */
-    public List<FeedbackResponse> searchFeedbacks(String keyword) {
+    public List<FeedbackResponse> searchFeedbacks(String keyword, Double afterScore, Integer afterUpvotes,
+                                                  Long afterId, int size) {
         if (keyword == null || keyword.trim().isEmpty()) {
-            return getAllPublicFeedbacks();
+            return getAllPublicFeedbacks(afterUpvotes, afterId, size);
         }
-        
-        List<FeedbackEntity> feedbacks = feedbackRepository.searchByKeyword(keyword.trim());
-        List<FeedbackResponse> responses = toResponseList(feedbacks);
-        
-        // 按点赞数降序排序
-        responses.sort((a, b) -> Long.compare(b.getUpvoteCount(), a.getUpvoteCount()));
-        
+
+        String trimmed = keyword.trim();
+        if (trimmed.length() < FULL_TEXT_MIN_LENGTH) {
+            // 短于分词长度的关键词无法命中全文索引
+            return toResponseList(feedbackRepository.searchByKeyword(
+                    trimmed, afterUpvotes, afterId, pageOf(afterUpvotes, afterId, size)));
+        }
+
+        if ((afterScore == null) != (afterId == null)) {
+            throw new BusinessException("分页参数 afterScore 与 afterId 须同时提供");
+        }
+        List<Object[]> hits = feedbackRepository.searchIdsByFullText(
+                trimmed, afterScore, afterId, Math.clamp(size, 1, MAX_PAGE_SIZE));
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        for (Object[] row : hits) {
+            scores.put(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue());
+        }
+        Map<Long, FeedbackEntity> byId = feedbackRepository.findAllById(scores.keySet()).stream()
+                .collect(Collectors.toMap(FeedbackEntity::getId, f -> f));
+        // 按相关度顺序组装
+        List<FeedbackEntity> ranked = scores.keySet().stream().map(byId::get).filter(Objects::nonNull).toList();
+        List<FeedbackResponse> responses = toResponseList(ranked);
+        responses.forEach(response -> response.setScore(scores.get(response.getId())));
         return responses;
     }
 
+    /**
+     * 键集分页只取前 size 条，游标两个字段须同时给出
+     */
+    private Pageable pageOf(Integer afterUpvotes, Long afterId, int size) {
+        if ((afterUpvotes == null) != (afterId == null)) {
+            throw new BusinessException("分页参数 afterUpvotes 与 afterId 须同时提供");
+        }
+        return PageRequest.of(0, Math.clamp(size, 1, MAX_PAGE_SIZE));
+    }
+
     /**
      * 获取反馈的评论列表
      *
@@ -262,6 +284,7 @@ public class FeedbackService {
         comment.setContent(request.content());
 
         FeedbackCommentEntity savedComment = feedbackCommentRepository.save(comment);
+        feedbackRepository.adjustCommentCount(feedbackId, 1);
         
         // 更新反馈的更新时间
         feedback.setUpdateTime(LocalDateTime.now());
@@ -339,12 +362,15 @@ public class FeedbackService {
         response.setCreateTime(entity.getCreateTime());
         response.setUpdateTime(entity.getUpdateTime());
         
-        // 统计评论数量
-        long commentCount = feedbackCommentRepository.countByFeedbackIdAndDeleteTimeIsNull(entity.getId());
-        response.setCommentCount(commentCount);
-        
-        // 添加点赞统计
-        fillReactionStats(response, entity.getId(), "feedback");
+        // 计数直接取反馈上维护的计数列
+        response.setCommentCount(entity.getCommentCount().longValue());
+        response.setUpvoteCount(entity.getUpvoteCount().longValue());
+        response.setDownvoteCount(entity.getDownvoteCount().longValue());
+        Long currentUserId = UserContext.getCurrentUserId();
+        if (currentUserId != null) {
+            feedbackReactionRepository.findByTargetIdAndTargetTypeAndUserId(entity.getId(), "feedback", currentUserId)
+                    .ifPresent(reaction -> response.setUserReaction(reaction.getReactionType()));
+        }
         
         // 设置权限字段
         response.setCanDelete(permissionUtil.canDelete(entity.getUserId()));
@@ -355,7 +381,7 @@ public class FeedbackService {
 
     /**
      * 批量将实体转换为响应对象（性能优化版本）
-     * 使用批量查询避免N+1问题
+     * 计数取反馈上的计数列，只需再批量查询一次当前用户的反应
      */
     private List<FeedbackResponse> toResponseList(List<FeedbackEntity> entities) {
         if (entities == null || entities.isEmpty()) {
@@ -367,39 +393,13 @@ public class FeedbackService {
                 .map(FeedbackEntity::getId)
                 .collect(Collectors.toList());
 
-        // 批量查询评论数量
-        Map<Long, Long> commentCountMap = new HashMap<>();
-        List<Map<String, Object>> commentCounts = feedbackCommentRepository.countByFeedbackIds(feedbackIds);
-        for (Map<String, Object> row : commentCounts) {
-            Long feedbackId = ((Number) row.get("feedbackId")).longValue();
-            Long count = ((Number) row.get("count")).longValue();
-            commentCountMap.put(feedbackId, count);
-        }
-
-        // 批量查询所有反应数据
+        // 批量查询当前用户的反应
         Long currentUserId = UserContext.getCurrentUserId();
-        List<FeedbackReactionEntity> allReactions = feedbackReactionRepository
-                .findByTargetIdsAndTargetType(feedbackIds, "feedback");
-
-        // 构建统计Map
-        Map<Long, Long> upvoteCountMap = new HashMap<>();
-        Map<Long, Long> downvoteCountMap = new HashMap<>();
         Map<Long, String> userReactionMap = new HashMap<>();
-
-        for (FeedbackReactionEntity reaction : allReactions) {
-            Long targetId = reaction.getTargetId();
-            String reactionType = reaction.getReactionType();
-            
-            // 统计点赞和倒赞数
-            if ("upvote".equals(reactionType)) {
-                upvoteCountMap.put(targetId, upvoteCountMap.getOrDefault(targetId, 0L) + 1);
-            } else if ("downvote".equals(reactionType)) {
-                downvoteCountMap.put(targetId, downvoteCountMap.getOrDefault(targetId, 0L) + 1);
-            }
-            
-            // 记录当前用户的反应
-            if (currentUserId != null && currentUserId.equals(reaction.getUserId())) {
-                userReactionMap.put(targetId, reactionType);
+        if (currentUserId != null) {
+            for (FeedbackReactionEntity reaction : feedbackReactionRepository
+                    .findByTargetIdInAndTargetTypeAndUserId(feedbackIds, "feedback", currentUserId)) {
+                userReactionMap.put(reaction.getTargetId(), reaction.getReactionType());
             }
         }
 
@@ -423,12 +423,10 @@ public class FeedbackService {
             response.setCreateTime(entity.getCreateTime());
             response.setUpdateTime(entity.getUpdateTime());
             
-            // 设置评论数量
-            response.setCommentCount(commentCountMap.getOrDefault(entity.getId(), 0L));
-            
-            // 设置反应统计
-            response.setUpvoteCount(upvoteCountMap.getOrDefault(entity.getId(), 0L));
-            response.setDownvoteCount(downvoteCountMap.getOrDefault(entity.getId(), 0L));
+            // 设置评论数量与反应统计
+            response.setCommentCount(entity.getCommentCount().longValue());
+            response.setUpvoteCount(entity.getUpvoteCount().longValue());
+            response.setDownvoteCount(entity.getDownvoteCount().longValue());
             response.setUserReaction(userReactionMap.get(entity.getId()));
             
             // 设置权限字段（使用缓存的用户信息）
@@ -473,13 +471,17 @@ public class FeedbackService {
 
         if (existingReaction.isPresent()) {
             FeedbackReactionEntity reaction = existingReaction.get();
+            String previousType = reaction.getReactionType();
             // 如果是相同的反应类型，则删除（取消反应）
-            if (reaction.getReactionType().equals(reactionType)) {
+            if (previousType.equals(reactionType)) {
                 feedbackReactionRepository.delete(reaction);
+                adjustVoteCounts(targetId, targetType, previousType, -1);
             } else {
                 // 否则更新反应类型
                 reaction.setReactionType(reactionType);
                 feedbackReactionRepository.save(reaction);
+                adjustVoteCounts(targetId, targetType, previousType, -1);
+                adjustVoteCounts(targetId, targetType, reactionType, 1);
             }
         } else {
             // 创建新反应
@@ -489,6 +491,7 @@ public class FeedbackService {
             reaction.setUserId(userId);
             reaction.setReactionType(reactionType);
             feedbackReactionRepository.save(reaction);
+            adjustVoteCounts(targetId, targetType, reactionType, 1);
         }
     }
 
@@ -501,7 +504,25 @@ public class FeedbackService {
     @Transactional
     public void removeReaction(Long targetId, String targetType) {
         Long userId = UserContext.getCurrentUserId();
-        feedbackReactionRepository.deleteByTargetIdAndTargetTypeAndUserId(targetId, targetType, userId);
+        feedbackReactionRepository.findByTargetIdAndTargetTypeAndUserId(targetId, targetType, userId)
+                .ifPresent(reaction -> {
+                    feedbackReactionRepository.delete(reaction);
+                    adjustVoteCounts(targetId, targetType, reaction.getReactionType(), -1);
+                });
+    }
+
+    /**
+     * 同步反馈上的点赞/倒赞计数（评论的反应不计数）
+     */
+    private void adjustVoteCounts(Long targetId, String targetType, String reactionType, int delta) {
+        if (!"feedback".equals(targetType)) {
+            return;
+        }
+        if ("upvote".equals(reactionType)) {
+            feedbackRepository.adjustVoteCounts(targetId, delta, 0);
+        } else if ("downvote".equals(reactionType)) {
+            feedbackRepository.adjustVoteCounts(targetId, 0, delta);
+        }
     }
 
     /**
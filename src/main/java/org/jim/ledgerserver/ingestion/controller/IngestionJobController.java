@@ -0,0 +1,52 @@
+package org.jim.ledgerserver.ingestion.controller;
+
+import jakarta.annotation.Resource;
+import org.jim.ledgerserver.common.JSONResult;
+import org.jim.ledgerserver.common.util.UserContext;
+import org.jim.ledgerserver.ingestion.dto.IngestionJobResponse;
+import org.jim.ledgerserver.ingestion.service.IngestionJobService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 导入任务控制器
+ * 批量创建/账单导入提交后返回任务ID，客户端通过本接口轮询进度
+ *
+ * @author James Smith
+ */
+@RestController
+@RequestMapping("/api/ingestion/jobs")
+public class IngestionJobController {
+
+    @Resource
+    private IngestionJobService ingestionJobService;
+
+    /**
+     * 查询任务状态与进度
+     */
+    @GetMapping("/{jobId}")
+    public JSONResult<IngestionJobResponse> getJob(@PathVariable Long jobId) {
+        Long currentUserId = UserContext.getCurrentUserId();
+        if (currentUserId == null) {
+            return JSONResult.fail("用户未登录");
+        }
+        return JSONResult.success(IngestionJobResponse.from(ingestionJobService.getJob(currentUserId, jobId)));
+    }
+
+    /**
+     * 最近的任务列表
+     */
+    @GetMapping
+    public JSONResult<List<IngestionJobResponse>> listJobs(@RequestParam(defaultValue = "20") int limit) {
+        Long currentUserId = UserContext.getCurrentUserId();
+        if (currentUserId == null) {
+            return JSONResult.fail("用户未登录");
+        }
+        List<IngestionJobResponse> jobs = ingestionJobService.listRecentJobs(currentUserId, Math.min(Math.max(limit, 1), 100))
+                .stream()
+                .map(IngestionJobResponse::from)
+                .toList();
+        return JSONResult.success(jobs);
+    }
+}
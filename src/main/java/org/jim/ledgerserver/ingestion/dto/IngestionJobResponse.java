@@ -0,0 +1,49 @@
+package org.jim.ledgerserver.ingestion.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import org.jim.ledgerserver.ingestion.entity.IngestionJobEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 导入任务状态响应
+ *
+ * @author James Smith
+ */
+public record IngestionJobResponse(
+        Long id,
+        String type,
+        String status,
+        Long ledgerId,
+        Long processedRows,
+        Long successCount,
+        Long failedCount,
+        /**
+         * 错误文件ID（有失败行时，通过 /api/import/errors/{id} 下载）
+         */
+        String errorFileId,
+        String errorMessage,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime createTime,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime startTime,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime finishTime
+) {
+    public static IngestionJobResponse from(IngestionJobEntity job) {
+        return new IngestionJobResponse(
+                job.getId(),
+                job.getType(),
+                job.getStatus(),
+                job.getLedgerId(),
+                job.getProcessedRows(),
+                job.getSuccessCount(),
+                job.getFailedCount(),
+                job.getErrorFileId(),
+                job.getErrorMessage(),
+                job.getCreateTime(),
+                job.getStartTime(),
+                job.getFinishTime()
+        );
+    }
+}
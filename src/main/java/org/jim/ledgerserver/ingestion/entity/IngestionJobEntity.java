@@ -0,0 +1,124 @@
+package org.jim.ledgerserver.ingestion.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+import org.jim.ledgerserver.base.BaseEntity;
+import org.jim.ledgerserver.ingestion.enums.IngestionJobStatus;
+import org.jim.ledgerserver.ingestion.enums.IngestionJobType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 交易导入任务实体
+ * 批量创建/账单导入先落盘为载荷文件并登记任务，由后台工作线程按批写入，进度回写到本表。
+ *
+ * @author James Smith
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@Entity(name = "ingestion_job")
+@Table(name = "ingestion_job", indexes = {
+    @Index(name = "idx_ingestion_job_user", columnList = "user_id,status"),
+    @Index(name = "idx_ingestion_job_status", columnList = "status,node_id"),
+    @Index(name = "idx_ingestion_job_heartbeat", columnList = "status,update_time")
+})
+public class IngestionJobEntity extends BaseEntity {
+
+    /**
+     * 提交用户ID
+     */
+    @Column(nullable = false)
+    private Long userId;
+
+    /**
+     * 目标账本ID（可选）
+     */
+    private Long ledgerId;
+
+    /**
+     * 任务类型
+     * @see IngestionJobType
+     */
+    @Column(nullable = false, length = 20)
+    private String type;
+
+    /**
+     * 任务状态
+     * @see IngestionJobStatus
+     */
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    /**
+     * 写入交易的来源
+     * @see org.jim.ledgerserver.common.enums.TransactionSourceEnum
+     */
+    private Integer source;
+
+    /**
+     * 载荷格式：CSV / JSON
+     */
+    @Column(length = 10)
+    private String format;
+
+    /**
+     * 载荷编码
+     */
+    @Column(length = 20)
+    private String charset;
+
+    /**
+     * 载荷文件路径（本地磁盘，任务结束后删除）
+     */
+    @Column(length = 500)
+    private String payloadPath;
+
+    /**
+     * 载荷所在节点，只有该节点会领取任务；该节点定期刷新 updateTime 作为心跳
+     */
+    @Column(length = 100)
+    private String nodeId;
+
+    /**
+     * 已处理行数
+     */
+    private Long processedRows = 0L;
+
+    /**
+     * 成功条数
+     */
+    private Long successCount = 0L;
+
+    /**
+     * 失败条数
+     */
+    private Long failedCount = 0L;
+
+    /**
+     * 错误文件ID（有失败行时）
+     */
+    @Column(length = 64)
+    private String errorFileId;
+
+    /**
+     * 任务失败原因
+     */
+    @Column(length = 500)
+    private String errorMessage;
+
+    /**
+     * 开始执行时间
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime finishTime;
+}
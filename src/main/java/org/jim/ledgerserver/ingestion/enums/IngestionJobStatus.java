@@ -0,0 +1,23 @@
+package org.jim.ledgerserver.ingestion.enums;
+
+import lombok.Getter;
+
+/**
+ * 导入任务状态
+ *
+ * @author James Smith
+ */
+@Getter
+public enum IngestionJobStatus {
+
+    PENDING("排队中"),
+    RUNNING("执行中"),
+    SUCCEEDED("已完成"),
+    FAILED("失败");
+
+    private final String label;
+
+    IngestionJobStatus(String label) {
+        this.label = label;
+    }
+}
@@ -0,0 +1,28 @@
+package org.jim.ledgerserver.ingestion.enums;
+
+import lombok.Getter;
+
+/**
+ * 导入任务类型
+ *
+ * @author James Smith
+ */
+@Getter
+public enum IngestionJobType {
+
+    /**
+     * Agent 批量创建交易
+     */
+    AGENT_BATCH("Agent批量创建"),
+
+    /**
+     * 账单文件导入
+     */
+    FILE_IMPORT("账单导入");
+
+    private final String label;
+
+    IngestionJobType(String label) {
+        this.label = label;
+    }
+}
@@ -0,0 +1,121 @@
+package org.jim.ledgerserver.ingestion.repository;
+
+import org.jim.ledgerserver.ingestion.entity.IngestionJobEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 导入任务数据访问层
+ *
+ * @author James Smith
+ */
+@Repository
+public interface IngestionJobRepository extends JpaRepository<IngestionJobEntity, Long> {
+
+    Optional<IngestionJobEntity> findByIdAndUserId(Long id, Long userId);
+
+    List<IngestionJobEntity> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+
+    long countByUserIdAndStatusIn(Long userId, Collection<String> statuses);
+
+    /**
+     * 本节点排队中的任务（按提交顺序）
+     */
+    List<IngestionJobEntity> findByStatusAndNodeIdOrderByIdAsc(String status, String nodeId, Pageable pageable);
+
+    /**
+     * 各用户正在执行的任务数（跨节点），只用来跳过明显已满的用户，以 {@link #claim} 的结果为准
+     * @return [userId, count]
+     */
+    @Query("SELECT j.userId, COUNT(j) FROM ingestion_job j WHERE j.status = 'RUNNING' GROUP BY j.userId")
+    List<Object[]> countRunningGroupByUserId();
+
+    /**
+     * 领取任务：仅当仍处于排队状态、且该用户执行中的任务数低于上限时改为执行中，返回 0 表示未领取
+     * 上限检查与领取在同一条语句里；InnoDB 对 UPDATE 中子查询读到的行加共享锁，
+     * 多个节点同时为同一用户领取时会互相等待（或其中一个因死锁回滚），不会同时越过上限。
+     * 子查询多包一层派生表，绕开 MySQL 不能在 UPDATE 的子查询里直接引用目标表的限制。
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE ingestion_job SET status = 'RUNNING', start_time = :now, update_time = :now " +
+                   "WHERE id = :id AND status = 'PENDING' AND (SELECT r.running FROM (" +
+                   "SELECT COUNT(*) AS running FROM ingestion_job WHERE user_id = :userId AND status = 'RUNNING') r" +
+                   ") < :maxRunning", nativeQuery = true)
+    int claim(@Param("id") Long id, @Param("userId") Long userId, @Param("maxRunning") int maxRunning,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * 心跳：刷新本节点排队中和执行中任务的更新时间
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ingestion_job j SET j.updateTime = :now " +
+           "WHERE j.nodeId = :nodeId AND j.status IN ('PENDING', 'RUNNING')")
+    int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    /**
+     * 把超过时限没有心跳的任务标记为失败（所在节点已下线或更名，载荷在那台机器上，无法接着执行）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ingestion_job j SET j.status = 'FAILED', j.errorMessage = :message, j.finishTime = :now " +
+           "WHERE j.status IN ('PENDING', 'RUNNING') AND j.updateTime < :staleBefore")
+    int failStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("message") String message,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * 回写进度
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ingestion_job j SET j.processedRows = :processed, j.successCount = :success, " +
+           "j.failedCount = :failed, j.updateTime = :now WHERE j.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("processed") long processed,
+                       @Param("success") long success, @Param("failed") long failed,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * 执行成功：写入最终计数；仅当任务仍由本节点执行中时生效，返回 0 表示已被判定失联或重启回收
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ingestion_job j SET j.status = 'SUCCEEDED', j.processedRows = :processed, " +
+           "j.successCount = :success, j.failedCount = :failed, j.errorFileId = :errorFileId, " +
+           "j.finishTime = :now, j.updateTime = :now " +
+           "WHERE j.id = :id AND j.status = 'RUNNING' AND j.nodeId = :nodeId")
+    int succeedRunning(@Param("id") Long id, @Param("nodeId") String nodeId, @Param("processed") long processed,
+                       @Param("success") long success, @Param("failed") long failed,
+                       @Param("errorFileId") String errorFileId, @Param("now") LocalDateTime now);
+
+    /**
+     * 执行失败：保留已回写的进度；条件同 {@link #succeedRunning}
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ingestion_job j SET j.status = 'FAILED', j.errorMessage = :message, " +
+           "j.finishTime = :now, j.updateTime = :now " +
+           "WHERE j.id = :id AND j.status = 'RUNNING' AND j.nodeId = :nodeId")
+    int failRunning(@Param("id") Long id, @Param("nodeId") String nodeId, @Param("message") String message,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * 节点重启后，把该节点上次未执行完的任务标记为失败（已提交的批次不会回滚，不能简单重跑）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ingestion_job j SET j.status = 'FAILED', j.errorMessage = :message, j.finishTime = :now " +
+           "WHERE j.status = 'RUNNING' AND j.nodeId = :nodeId")
+    int failRunningOnNode(@Param("nodeId") String nodeId, @Param("message") String message,
+                          @Param("now") LocalDateTime now);
+}
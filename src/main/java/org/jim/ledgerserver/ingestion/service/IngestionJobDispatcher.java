@@ -0,0 +1,224 @@
+package org.jim.ledgerserver.ingestion.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jim.ledgerserver.common.util.UserContext;
+import org.jim.ledgerserver.ingestion.entity.IngestionJobEntity;
+import org.jim.ledgerserver.ingestion.enums.IngestionJobStatus;
+import org.jim.ledgerserver.ingestion.enums.IngestionJobType;
+import org.jim.ledgerserver.ingestion.repository.IngestionJobRepository;
+import org.jim.ledgerserver.ledger.service.ImportService;
+import org.jim.ledgerserver.ledger.vo.imports.ImportResult;
+import org.jim.ledgerserver.user.entity.UserEntity;
+import org.jim.ledgerserver.user.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 导入任务调度器
+ * 定期（以及提交任务时）领取本节点排队中的任务，交给固定大小的工作线程池执行。
+ * 只在有空闲工作线程时才领取，且同一用户同时执行的任务数不超过 max-running-per-user，
+ * 导入占用的数据库连接数因此被限制在 worker-threads 以内，不会挤占交互请求。
+ * 各节点定期为自己的任务刷新心跳，并把任何节点上超过 stale-timeout-ms 没有心跳的任务标记为失败，
+ * 节点被替换或更名后遗留的任务不会一直占着用户的执行名额。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+public class IngestionJobDispatcher {
+
+    private static final int ERROR_MESSAGE_MAX_LENGTH = 500;
+
+    @Resource
+    private IngestionJobRepository ingestionJobRepository;
+
+    @Resource
+    private ImportService importService;
+
+    @Resource
+    private UserRepository userRepository;
+
+    @Value("${ledger.ingestion.node-id:${HOSTNAME:local}}")
+    private String nodeId;
+
+    @Value("${ledger.ingestion.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${ledger.ingestion.max-running-per-user:1}")
+    private int maxRunningPerUser;
+
+    @Value("${ledger.ingestion.stale-timeout-ms:120000}")
+    private long staleTimeoutMs;
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerThreads), runnable -> {
+                    Thread thread = new Thread(runnable, "ingestion-worker-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        int interrupted = ingestionJobRepository.failRunningOnNode(nodeId, "服务重启，任务中断", LocalDateTime.now());
+        if (interrupted > 0) {
+            log.warn("Marked {} interrupted ingestion jobs on node {} as failed", interrupted, nodeId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 领取并执行排队中的任务
+     */
+    @Scheduled(fixedDelayString = "${ledger.ingestion.poll-interval-ms:1000}")
+    public synchronized void dispatch() {
+        int free = workerThreads - activeWorkers.get();
+        if (free <= 0) {
+            return;
+        }
+        List<IngestionJobEntity> pending = ingestionJobRepository.findByStatusAndNodeIdOrderByIdAsc(
+                IngestionJobStatus.PENDING.name(), nodeId, PageRequest.of(0, 50));
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> runningByUser = new HashMap<>();
+        for (Object[] row : ingestionJobRepository.countRunningGroupByUserId()) {
+            runningByUser.put((Long) row[0], (Long) row[1]);
+        }
+
+        for (IngestionJobEntity job : pending) {
+            if (free <= 0) {
+                break;
+            }
+            long running = runningByUser.getOrDefault(job.getUserId(), 0L);
+            if (running >= maxRunningPerUser) {
+                continue;
+            }
+            if (!claim(job)) {
+                continue;
+            }
+            runningByUser.put(job.getUserId(), running + 1);
+            free--;
+            activeWorkers.incrementAndGet();
+            executor.execute(() -> run(job.getId()));
+        }
+    }
+
+    /**
+     * 刷新本节点任务的心跳，回收失联节点的任务
+     */
+    @Scheduled(fixedDelayString = "${ledger.ingestion.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        ingestionJobRepository.heartbeat(nodeId, now);
+        int stale = ingestionJobRepository.failStale(now.minus(Duration.ofMillis(staleTimeoutMs)),
+                "执行节点失联，任务中断", now);
+        if (stale > 0) {
+            log.warn("Marked {} ingestion jobs without heartbeat for {} ms as failed", stale, staleTimeoutMs);
+        }
+    }
+
+    private boolean claim(IngestionJobEntity job) {
+        try {
+            return ingestionJobRepository.claim(job.getId(), job.getUserId(), maxRunningPerUser, LocalDateTime.now()) > 0;
+        } catch (PessimisticLockingFailureException e) {
+            // 其他节点正在为同一用户领取，下一轮再试
+            log.debug("Ingestion job {} claim contended: {}", job.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void run(Long jobId) {
+        IngestionJobEntity job = null;
+        try {
+            job = ingestionJobRepository.findById(jobId).orElseThrow();
+            UserEntity user = userRepository.findById(job.getUserId()).orElseThrow();
+            UserContext.setCurrentUser(user);
+
+            Long id = job.getId();
+            ImportResult result;
+            try (InputStream input = Files.newInputStream(Paths.get(job.getPayloadPath()))) {
+                // Agent 批量创建与同步路径一致：不推断类型、不改金额符号，只有账单文件按流水规则处理
+                boolean signedAmounts = !IngestionJobType.AGENT_BATCH.name().equals(job.getType());
+                result = importService.importTransactions(job.getUserId(), job.getLedgerId(), job.getFormat(),
+                        Charset.forName(job.getCharset()), job.getSource(), signedAmounts, input,
+                        progress -> ingestionJobRepository.updateProgress(id, progress.processedRows(),
+                                progress.successCount(), progress.failedCount(), LocalDateTime.now()));
+            }
+            finish(job, IngestionJobStatus.SUCCEEDED, result, null);
+        } catch (Exception e) {
+            log.warn("Ingestion job {} failed: {}", jobId, e.getMessage());
+            if (job != null) {
+                finish(job, IngestionJobStatus.FAILED, null, e.getMessage());
+            }
+        } finally {
+            UserContext.clear();
+            if (job != null) {
+                deletePayload(job.getPayloadPath());
+            }
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 写入最终状态，只在任务仍由本节点执行中时生效：执行期间被判定失联而标记失败的任务不会被改回成功
+     */
+    private void finish(IngestionJobEntity job, IngestionJobStatus status, ImportResult result, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = status == IngestionJobStatus.SUCCEEDED
+                ? ingestionJobRepository.succeedRunning(job.getId(), nodeId, result.processedRows(),
+                        result.successCount(), result.failedCount(), result.errorFileId(), now)
+                : ingestionJobRepository.failRunning(job.getId(), nodeId,
+                        StringUtils.truncate(errorMessage, ERROR_MESSAGE_MAX_LENGTH), now);
+        if (updated == 0) {
+            log.warn("Ingestion job {} finished as {} but is no longer running on node {}, status left unchanged",
+                    job.getId(), status, nodeId);
+        }
+    }
+
+    private void deletePayload(String payloadPath) {
+        if (payloadPath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Path.of(payloadPath));
+        } catch (IOException e) {
+            log.warn("Failed to delete ingestion payload {}: {}", payloadPath, e.getMessage());
+        }
+    }
+}
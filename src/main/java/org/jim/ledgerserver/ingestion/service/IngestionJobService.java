@@ -0,0 +1,150 @@
+package org.jim.ledgerserver.ingestion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.jim.ledgerserver.common.enums.TransactionSourceEnum;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.ingestion.entity.IngestionJobEntity;
+import org.jim.ledgerserver.ingestion.enums.IngestionJobStatus;
+import org.jim.ledgerserver.ingestion.enums.IngestionJobType;
+import org.jim.ledgerserver.ingestion.repository.IngestionJobRepository;
+import org.jim.ledgerserver.ledger.service.ImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 导入任务服务
+ * 提交时把载荷写入本地磁盘并登记任务后立即返回任务ID，实际写入由 {@link IngestionJobDispatcher} 在后台完成。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Service
+public class IngestionJobService {
+
+    private static final List<String> ACTIVE_STATUSES =
+            List.of(IngestionJobStatus.PENDING.name(), IngestionJobStatus.RUNNING.name());
+
+    @Resource
+    private IngestionJobRepository ingestionJobRepository;
+
+    @Resource
+    private IngestionJobDispatcher ingestionJobDispatcher;
+
+    @Resource
+    private ImportService importService;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${ledger.ingestion.payload-dir:${java.io.tmpdir}/ledger-ingestion}")
+    private String payloadDir;
+
+    @Value("${ledger.ingestion.max-queued-per-user:10}")
+    private int maxQueuedPerUser;
+
+    /**
+     * 提交账单文件导入任务
+     * @param userId 用户ID
+     * @param ledgerId 目标账本ID（可选）
+     * @param format 文件格式 CSV / JSON
+     * @param charset 文件编码
+     * @param file 上传的文件
+     * @return 任务
+     */
+    public IngestionJobEntity submitFileImport(Long userId, Long ledgerId, String format, String charset,
+                                               MultipartFile file) {
+        if (!Charset.isSupported(charset)) {
+            throw new BusinessException("不支持的文件编码: " + charset);
+        }
+        prepare(userId, ledgerId);
+        Path payload = newPayloadPath();
+        try {
+            file.transferTo(payload);
+        } catch (IOException e) {
+            throw new BusinessException("保存上传文件失败: " + e.getMessage());
+        }
+        return createJob(userId, ledgerId, IngestionJobType.FILE_IMPORT, TransactionSourceEnum.MANUAL.getCode(),
+                format, charset, payload);
+    }
+
+    /**
+     * 提交 Agent 批量创建任务
+     * @param userId 用户ID
+     * @param ledgerId 目标账本ID
+     * @param items 交易列表，序列化为 JSON 数组后按 JSON 导入执行
+     * @return 任务
+     */
+    public IngestionJobEntity submitAgentBatch(Long userId, Long ledgerId, List<?> items) {
+        prepare(userId, ledgerId);
+        Path payload = newPayloadPath();
+        try {
+            objectMapper.writeValue(payload.toFile(), items);
+        } catch (IOException e) {
+            throw new BusinessException("保存批量数据失败: " + e.getMessage());
+        }
+        return createJob(userId, ledgerId, IngestionJobType.AGENT_BATCH, TransactionSourceEnum.AI.getCode(),
+                ImportService.FORMAT_JSON, StandardCharsets.UTF_8.name(), payload);
+    }
+
+    /**
+     * 查询任务（只能查询自己的）
+     */
+    public IngestionJobEntity getJob(Long userId, Long jobId) {
+        return ingestionJobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new BusinessException(404, "任务不存在"));
+    }
+
+    /**
+     * 最近提交的任务
+     */
+    public List<IngestionJobEntity> listRecentJobs(Long userId, int limit) {
+        return ingestionJobRepository.findByUserIdOrderByIdDesc(userId, PageRequest.of(0, limit));
+    }
+
+    private void prepare(Long userId, Long ledgerId) {
+        importService.checkImportPermission(ledgerId, userId);
+        if (ingestionJobRepository.countByUserIdAndStatusIn(userId, ACTIVE_STATUSES) >= maxQueuedPerUser) {
+            throw new BusinessException(429, "未完成的导入任务过多，请稍后再试");
+        }
+    }
+
+    private Path newPayloadPath() {
+        try {
+            Path dir = Files.createDirectories(Paths.get(payloadDir));
+            return dir.resolve(UUID.randomUUID() + ".payload");
+        } catch (IOException e) {
+            throw new BusinessException("创建任务目录失败: " + e.getMessage());
+        }
+    }
+
+    private IngestionJobEntity createJob(Long userId, Long ledgerId, IngestionJobType type, Integer source,
+                                         String format, String charset, Path payload) {
+        IngestionJobEntity job = new IngestionJobEntity()
+                .setUserId(userId)
+                .setLedgerId(ledgerId)
+                .setType(type.name())
+                .setStatus(IngestionJobStatus.PENDING.name())
+                .setSource(source)
+                .setFormat(format)
+                .setCharset(charset)
+                .setPayloadPath(payload.toAbsolutePath().toString())
+                .setNodeId(ingestionJobDispatcher.getNodeId());
+        IngestionJobEntity saved = ingestionJobRepository.save(job);
+        log.info("Ingestion job {} submitted: user={}, type={}", saved.getId(), userId, type);
+        ingestionJobDispatcher.dispatch();
+        return saved;
+    }
+}
@@ -3,7 +3,11 @@ package org.jim.ledgerserver.ledger.controller;
 import jakarta.annotation.Resource;
 import jakarta.persistence.criteria.Predicate;
 import org.jim.ledgerserver.common.JSONResult;
+import org.jim.ledgerserver.common.sharding.ShardContext;
 import org.jim.ledgerserver.common.util.UserContext;
+import org.jim.ledgerserver.ingestion.entity.IngestionJobEntity;
+import org.jim.ledgerserver.ingestion.service.IngestionJobService;
+import org.jim.ledgerserver.ledger.dto.BulkCreateResult;
 import org.jim.ledgerserver.ledger.entity.CategoryEntity;
 import org.jim.ledgerserver.ledger.entity.LedgerEntity;
 import org.jim.ledgerserver.ledger.entity.PaymentMethodEntity;
@@ -18,6 +22,7 @@ import org.jim.ledgerserver.common.enums.TransactionSourceEnum;
 import org.jim.ledgerserver.common.enums.TransactionTypeEnum;
 import org.jim.ledgerserver.user.entity.UserEntity;
 import org.jim.ledgerserver.user.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -45,6 +50,20 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/agent")
 public class AgentController {
 
+    /**
+     * 批量创建交易单次上限
+     */
+    private static final int BATCH_CREATE_MAX_SIZE = 2000;
+
+    /**
+     * 超过该条数的批量创建转为后台任务执行
+     */
+    @Value("${ledger.ingestion.agent-sync-threshold:50}")
+    private int batchCreateSyncThreshold;
+
+    @Resource
+    private IngestionJobService ingestionJobService;
+
     @Resource
     private TransactionService transactionService;
 
@@ -164,7 +183,7 @@ public class AgentController {
         Specification<TransactionEntity> spec = buildQuerySpecification(request, currentUserId);
         
         // 执行查询
-        Page<TransactionEntity> page = transactionRepository.findAll(spec, pageable);
+        Page<TransactionEntity> page = ShardContext.forLedger(request.ledgerId(), () -> transactionRepository.findAll(spec, pageable));
 
         // 转换为响应对象（使用批量查询优化）
         List<AgentTransactionResp> transactions = buildAgentTransactionRespBatch(page.getContent());
@@ -246,7 +265,7 @@ public class AgentController {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
         
-        Page<TransactionEntity> pageResult = transactionRepository.findAll(spec, pageable);
+        Page<TransactionEntity> pageResult = ShardContext.forLedger(ledgerId, () -> transactionRepository.findAll(spec, pageable));
         
         // 使用批量查询优化
         List<AgentTransactionResp> transactions = buildAgentTransactionRespBatch(pageResult.getContent());
@@ -315,7 +334,7 @@ public class AgentController {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
         
-        Page<TransactionEntity> page = transactionRepository.findAll(spec, pageable);
+        Page<TransactionEntity> page = ShardContext.forLedger(ledgerId, () -> transactionRepository.findAll(spec, pageable));
         
         // 使用批量查询优化
         List<AgentTransactionResp> transactions = buildAgentTransactionRespBatch(page.getContent());
@@ -711,6 +730,7 @@ public class AgentController {
     /**
      * 批量创建交易 - Agent 专用
      * 适合从图片/文字批量导入交易场景
+     * 整批在一个事务内批量插入，单条校验失败不影响其他条目
      */
     @PostMapping("/transactions/batch-create")
     public JSONResult<AgentBatchResultResp> batchCreateTransactions(
@@ -730,32 +750,40 @@ public class AgentController {
         }
 
         // 限制单次批量数量
-        if (request.transactions().size() > 50) {
-            return JSONResult.fail("单次最多创建50条交易");
+        if (request.transactions().size() > BATCH_CREATE_MAX_SIZE) {
+            return JSONResult.fail("单次最多创建" + BATCH_CREATE_MAX_SIZE + "条交易");
         }
 
-        List<AgentTransactionResp> successItems = new ArrayList<>();
-        List<AgentBatchResultResp.FailedItem> failedItems = new ArrayList<>();
+        List<AgentBatchCreateTransactionReq.TransactionItem> items = request.transactions();
+        if (items.size() > batchCreateSyncThreshold) {
+            return submitBatchCreateJob(request.ledgerId(), items, currentUserId);
+        }
 
-        for (int i = 0; i < request.transactions().size(); i++) {
-            AgentBatchCreateTransactionReq.TransactionItem item = request.transactions().get(i);
-            try {
-                TransactionEntity transaction = transactionService.create(
-                        item.description(),
-                        item.amount(),
-                        item.type().getCode(),
-                        item.transactionDateTime() != null ? item.transactionDateTime() : LocalDateTime.now(),
-                        request.ledgerId(),
-                        item.categoryId(),
-                        item.paymentMethodId(),
-                        TransactionSourceEnum.AI.getCode()  // 批量创建也标记为 AI 来源
-                );
-                successItems.add(buildAgentTransactionResp(transaction));
-            } catch (Exception e) {
-                failedItems.add(new AgentBatchResultResp.FailedItem(i, item.description(), e.getMessage()));
-            }
+        List<TransactionEntity> drafts = new ArrayList<>(items.size());
+        for (AgentBatchCreateTransactionReq.TransactionItem item : items) {
+            drafts.add(new TransactionEntity()
+                    .setDescription(item.description())
+                    .setAmount(item.amount())
+                    .setType(item.type() != null ? item.type().getCode() : null)
+                    .setTransactionDateTime(item.transactionDateTime())
+                    .setLedgerId(request.ledgerId())
+                    .setCategoryId(item.categoryId())
+                    .setPaymentMethodId(item.paymentMethodId())
+                    .setSource(TransactionSourceEnum.AI.getCode()));  // 批量创建也标记为 AI 来源
+        }
+
+        BulkCreateResult result;
+        try {
+            result = transactionService.bulkCreate(drafts);
+        } catch (Exception e) {
+            return JSONResult.fail("批量创建失败: " + e.getMessage());
         }
 
+        List<AgentTransactionResp> successItems = buildAgentTransactionRespBatch(result.created());
+        List<AgentBatchResultResp.FailedItem> failedItems = result.failures().stream()
+                .map(f -> new AgentBatchResultResp.FailedItem(f.index(), items.get(f.index()).description(), f.message()))
+                .toList();
+
         String message = String.format("批量创建完成：成功 %d 条，失败 %d 条",
                 successItems.size(), failedItems.size());
 
@@ -764,10 +792,27 @@ public class AgentController {
                 failedItems.size(),
                 successItems,
                 failedItems,
-                message
+                message,
+                null
         ));
     }
 
+    /**
+     * 大批量创建：提交后台任务，不占用请求线程和数据库连接
+     */
+    private JSONResult<AgentBatchResultResp> submitBatchCreateJob(
+            Long ledgerId, List<AgentBatchCreateTransactionReq.TransactionItem> items, Long currentUserId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AgentBatchCreateTransactionReq.TransactionItem> normalized = items.stream()
+                .map(item -> item.transactionDateTime() != null ? item : new AgentBatchCreateTransactionReq.TransactionItem(
+                        item.description(), item.amount(), item.type(), item.categoryId(), item.paymentMethodId(), now))
+                .toList();
+
+        IngestionJobEntity job = ingestionJobService.submitAgentBatch(currentUserId, ledgerId, normalized);
+        String message = String.format("共 %d 条交易已提交后台处理，任务ID：%d", items.size(), job.getId());
+        return JSONResult.success(new AgentBatchResultResp(0, 0, List.of(), List.of(), message, job.getId()));
+    }
+
     /**
      * 获取分类汇总明细 - Agent 专用
      * 返回指定时间范围内的完整分类汇总（不分页）
@@ -932,7 +977,7 @@ public class AgentController {
                 return cb.and(predicates.toArray(new Predicate[0]));
             };
 
-            List<TransactionEntity> transactions = transactionRepository.findAll(spec);
+            List<TransactionEntity> transactions = ShardContext.forLedger(ledgerId, () -> transactionRepository.findAll(spec));
 
             // 计算汇总
             BigDecimal totalIncome = BigDecimal.ZERO;
@@ -1297,7 +1342,7 @@ public class AgentController {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        return transactionRepository.findAll(spec);
+        return ShardContext.forLedger(ledgerId, () -> transactionRepository.findAll(spec));
     }
 
     /**
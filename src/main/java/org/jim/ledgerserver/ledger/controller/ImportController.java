@@ -0,0 +1,93 @@
+package org.jim.ledgerserver.ledger.controller;
+
+import jakarta.annotation.Resource;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Strings;
+import org.jim.ledgerserver.common.JSONResult;
+import org.jim.ledgerserver.common.util.UserContext;
+import org.jim.ledgerserver.ingestion.dto.IngestionJobResponse;
+import org.jim.ledgerserver.ingestion.entity.IngestionJobEntity;
+import org.jim.ledgerserver.ingestion.service.IngestionJobService;
+import org.jim.ledgerserver.ledger.service.ImportService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * 数据导入控制器
+ * 导入微信/支付宝/银行导出的 CSV 账单，或本系统导出的 JSON 数据
+ *
+ * @author James Smith
+ */
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    @Resource
+    private ImportService importService;
+
+    @Resource
+    private IngestionJobService ingestionJobService;
+
+    /**
+     * 导入交易
+     * 上传文件落盘后登记为后台任务，立即返回任务ID，进度通过 /api/ingestion/jobs/{id} 查询。
+     *
+     * @param file 账单文件（.csv / .json）
+     * @param ledgerId 目标账本ID（可选）
+     * @param format 文件格式 CSV / JSON（可选，默认按扩展名判断）
+     * @param charset 文件编码（可选，默认 UTF-8；支付宝账单为 GBK）
+     * @return 导入任务
+     */
+    @PostMapping("/transactions")
+    public JSONResult<IngestionJobResponse> importTransactions(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) Long ledgerId,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false, defaultValue = "UTF-8") String charset) {
+        Long currentUserId = UserContext.getCurrentUserId();
+        if (currentUserId == null) {
+            return JSONResult.fail("用户未登录");
+        }
+        if (file == null || file.isEmpty()) {
+            return JSONResult.fail("文件不能为空");
+        }
+
+        IngestionJobEntity job = ingestionJobService.submitFileImport(currentUserId, ledgerId,
+                resolveFormat(format, file.getOriginalFilename()), charset, file);
+        return JSONResult.success(IngestionJobResponse.from(job));
+    }
+
+    /**
+     * 下载错误文件（失败行及原因）
+     */
+    @GetMapping("/errors/{errorFileId}")
+    public ResponseEntity<FileSystemResource> downloadErrorFile(@PathVariable String errorFileId) {
+        Long currentUserId = UserContext.getCurrentUserId();
+        if (currentUserId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Path file = importService.getErrorFile(currentUserId, errorFileId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+        headers.setContentDispositionFormData("attachment", "import-errors.csv");
+
+        return new ResponseEntity<>(new FileSystemResource(file), headers, HttpStatus.OK);
+    }
+
+    private String resolveFormat(String format, String fileName) {
+        if (StringUtils.isNotBlank(format)) {
+            return format;
+        }
+        return Strings.CI.endsWith(fileName, ".json") ? ImportService.FORMAT_JSON : ImportService.FORMAT_CSV;
+    }
+}
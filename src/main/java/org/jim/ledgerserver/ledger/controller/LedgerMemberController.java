@@ -20,6 +20,7 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -88,8 +89,9 @@ public class LedgerMemberController {
         }
         
         List<LedgerMemberEntity> members = ledgerMemberService.findMembersByLedgerId(ledgerId);
+        Map<Long, UserEntity> users = userService.findByIds(members.stream().map(LedgerMemberEntity::getUserId).toList());
         List<LedgerMemberResponse> responses = members.stream()
-                .map(this::convertToResponse)
+                .map(member -> convertToResponse(member, users.get(member.getUserId())))
                 .collect(Collectors.toList());
         
         return JSONResult.success(responses);
@@ -110,7 +112,8 @@ public class LedgerMemberController {
         }
         
         Page<LedgerMemberEntity> members = ledgerMemberService.findMembersByLedgerId(ledgerId, pageable);
-        Page<LedgerMemberResponse> responses = members.map(this::convertToResponse);
+        Map<Long, UserEntity> users = userService.findByIds(members.map(LedgerMemberEntity::getUserId).getContent());
+        Page<LedgerMemberResponse> responses = members.map(member -> convertToResponse(member, users.get(member.getUserId())));
         
         return JSONResult.success(responses);
     }
@@ -194,6 +197,20 @@ public class LedgerMemberController {
      * 转换为响应对象
      */
     private LedgerMemberResponse convertToResponse(LedgerMemberEntity member) {
+        UserEntity user = null;
+        try {
+            user = userService.findById(member.getUserId());
+        } catch (Exception e) {
+            // 用户信息获取失败时按未知用户处理
+        }
+        return convertToResponse(member, user);
+    }
+
+    /**
+     * 转换为响应对象
+     * @param user 成员对应的用户（列表接口批量查出后传入），为空时显示为未知用户
+     */
+    private LedgerMemberResponse convertToResponse(LedgerMemberEntity member, UserEntity user) {
         LedgerMemberResponse response = new LedgerMemberResponse();
         response.setId(member.getId());
         response.setLedgerId(member.getLedgerId());
@@ -204,18 +221,16 @@ public class LedgerMemberController {
         response.setInvitedByUserId(member.getInvitedByUserId());
         response.setStatus(member.getStatus());
         response.setRemark(member.getRemark());
-        
-        // 获取用户信息
-        try {
-            UserEntity user = userService.findById(member.getUserId());
+
+        if (user != null) {
             response.setUsername(user.getUsername());
             response.setNickname(user.getNickname());
             response.setAvatarUrl(user.getAvatarUrl());
-        } catch (Exception e) {
+        } else {
             // 用户信息获取失败时的降级处理
             response.setUsername("未知用户");
         }
-        
+
         return response;
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.jim.ledgerserver.ledger.dto;
+
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+
+import java.util.List;
+
+/**
+ * 批量创建交易结果
+ * @author James Smith
+ */
+public record BulkCreateResult(
+        List<TransactionEntity> created,
+        List<Failure> failures
+) {
+    /**
+     * 校验未通过的条目
+     * @param index 在请求列表中的下标
+     * @param message 失败原因
+     */
+    public record Failure(int index, String message) {
+    }
+}
@@ -1,11 +1,16 @@
 package org.jim.ledgerserver.ledger.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.jim.ledgerserver.base.BaseEntity;
+import org.jim.ledgerserver.common.cache.SecondLevelCacheListener;
 
 import java.math.BigDecimal;
 
@@ -17,6 +22,9 @@ import java.math.BigDecimal;
 @EqualsAndHashCode(callSuper = true)
 @Accessors(chain = true)
 @Entity(name = "budget_setting")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "budget_setting")
+@EntityListeners(SecondLevelCacheListener.class)
 public class BudgetSettingEntity extends BaseEntity {
 
     /**
@@ -1,11 +1,16 @@
 package org.jim.ledgerserver.ledger.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.jim.ledgerserver.base.BaseEntity;
+import org.jim.ledgerserver.common.cache.SecondLevelCacheListener;
 import org.jim.ledgerserver.common.enums.LedgerTypeEnum;
 
 /**
@@ -16,6 +21,9 @@ import org.jim.ledgerserver.common.enums.LedgerTypeEnum;
 @EqualsAndHashCode(callSuper = false)
 @Accessors(chain = true)
 @Entity(name = "ledger")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ledger")
+@EntityListeners(SecondLevelCacheListener.class)
 public class LedgerEntity extends BaseEntity {
 
     /**
@@ -2,7 +2,10 @@ package org.jim.ledgerserver.ledger.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Comment;
+import org.jim.ledgerserver.common.cache.SecondLevelCacheListener;
 
 import java.time.LocalDateTime;
 
@@ -13,6 +16,9 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "payment_method")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "payment_method")
+@EntityListeners(SecondLevelCacheListener.class)
 public class PaymentMethodEntity {
 
     @Id
@@ -1,11 +1,15 @@
 package org.jim.ledgerserver.ledger.entity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
 import jakarta.persistence.Lob;
+import jakarta.persistence.TableGenerator;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
-import org.jim.ledgerserver.base.BaseEntity;
+import org.jim.ledgerserver.base.BaseTimeEntity;
 
 /**
  * 交易附件实体类
@@ -15,7 +19,24 @@ import org.jim.ledgerserver.base.BaseEntity;
 @EqualsAndHashCode(callSuper = false)
 @Accessors(chain = true)
 @Entity(name = "transaction_attachment")
-public class TransactionAttachmentEntity extends BaseEntity {
+public class TransactionAttachmentEntity extends BaseTimeEntity {
+
+    /**
+     * 号段分配的主键数量
+     */
+    public static final int ID_ALLOCATION_SIZE = 20;
+
+    /**
+     * ID
+     * 与交易一样使用号段表分配：分片后各分片的号段互不重叠，附件迁移到其他分片时保留原ID；
+     * 自增列在插入带ID的迁移数据后会被抬高，无法保证各分片的ID不冲突。
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "transaction_attachment_id")
+    @TableGenerator(name = "transaction_attachment_id", table = "id_generator",
+            pkColumnName = "name", valueColumnName = "next_val", pkColumnValue = "transaction_attachment",
+            allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
 
     /**
      * 关联的交易ID
@@ -1,12 +1,16 @@
 package org.jim.ledgerserver.ledger.entity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
-import org.jim.ledgerserver.base.BaseEntity;
+import org.jim.ledgerserver.base.BaseTimeEntity;
 import org.jim.ledgerserver.common.enums.TransactionSourceEnum;
 import org.jim.ledgerserver.common.enums.TransactionTypeEnum;
 
@@ -18,7 +22,7 @@ import java.time.LocalDateTime;
  * @author James Smith
  */
 @Data
-@EqualsAndHashCode(callSuper = false)
+@EqualsAndHashCode(callSuper = true)
 @Accessors(chain = true)
 @Entity(name = "transaction")
 @Table(name = "transaction", indexes = {
@@ -31,7 +35,24 @@ import java.time.LocalDateTime;
     @Index(name = "idx_transaction_user_datetime", columnList = "created_by_user_id,transaction_date_time,delete_time"),
     @Index(name = "idx_transaction_payment_method", columnList = "payment_method_id")
 })
-public class TransactionEntity extends BaseEntity {
+public class TransactionEntity extends BaseTimeEntity {
+
+    /**
+     * 号段分配的主键数量
+     */
+    public static final int ID_ALLOCATION_SIZE = 100;
+
+    /**
+     * ID
+     * 使用号段表（pooled）预分配主键，而不是自增列：IDENTITY 需要逐条 INSERT 才能拿到主键，
+     * Hibernate 无法对其做 JDBC 批量插入；号段方式每 {@value #ID_ALLOCATION_SIZE} 条只访问一次号段表。
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "transaction_id")
+    @TableGenerator(name = "transaction_id", table = "id_generator",
+            pkColumnName = "name", valueColumnName = "next_val", pkColumnValue = "transaction",
+            allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
 
     /**
      * 交易描述
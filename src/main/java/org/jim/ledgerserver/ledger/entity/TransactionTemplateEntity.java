@@ -2,7 +2,10 @@ package org.jim.ledgerserver.ledger.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Comment;
+import org.jim.ledgerserver.common.cache.SecondLevelCacheListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,6 +17,9 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "transaction_template")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "transaction_template")
+@EntityListeners(SecondLevelCacheListener.class)
 public class TransactionTemplateEntity {
 
     @Id
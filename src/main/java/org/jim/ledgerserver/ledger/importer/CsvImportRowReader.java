@@ -0,0 +1,140 @@
+package org.jim.ledgerserver.ledger.importer;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.jim.ledgerserver.common.exception.BusinessException;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * CSV 账单读取器
+ * 兼容本系统导出的 CSV、微信/支付宝账单导出和常见银行流水：
+ * 跳过表头前的说明行，按列名别名把各家的列映射到统一字段。
+ *
+ * @author James Smith
+ */
+public class CsvImportRowReader implements ImportRowReader {
+
+    /**
+     * 表头之前最多允许的说明行数（微信账单约 16 行）
+     */
+    private static final int MAX_PREAMBLE_ROWS = 50;
+
+    /**
+     * 统一字段 -> 列名别名，按优先级排列
+     */
+    private static final Map<String, List<String>> HEADER_ALIASES = new LinkedHashMap<>();
+
+    static {
+        HEADER_ALIASES.put(ImportRow.AMOUNT, List.of("金额", "金额(元)", "交易金额", "amount"));
+        HEADER_ALIASES.put(ImportRow.TYPE, List.of("类型", "收/支", "收支类型", "收支", "type"));
+        HEADER_ALIASES.put(ImportRow.TRANSACTION_DATE_TIME,
+                List.of("交易时间", "交易日期", "时间", "日期", "transactiondatetime", "date"));
+        HEADER_ALIASES.put(ImportRow.DESCRIPTION,
+                List.of("描述", "商品说明", "商品", "摘要", "备注", "名称", "description"));
+        HEADER_ALIASES.put(ImportRow.CATEGORY_NAME, List.of("分类", "交易分类", "类别", "category", "categoryname"));
+        HEADER_ALIASES.put(ImportRow.PAYMENT_METHOD_NAME,
+                List.of("支付方式", "收/付款方式", "付款方式", "paymentmethod", "paymentmethodname"));
+        HEADER_ALIASES.put(ImportRow.COUNTERPARTY, List.of("交易对方", "对方户名", "counterparty"));
+    }
+
+    private final CSVParser parser;
+
+    private final Iterator<CSVRecord> records;
+
+    private final Map<String, Integer> columnIndexes;
+
+    public CsvImportRowReader(Reader reader) {
+        try {
+            this.parser = CSVFormat.DEFAULT.builder()
+                    .setIgnoreEmptyLines(true)
+                    .setTrim(true)
+                    .get()
+                    .parse(skipBom(reader));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.records = parser.iterator();
+        this.columnIndexes = locateHeader();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return records.hasNext();
+    }
+
+    @Override
+    public ImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        CSVRecord record = records.next();
+        Map<String, String> fields = new HashMap<>();
+        columnIndexes.forEach((field, index) -> {
+            if (index < record.size()) {
+                fields.put(field, record.get(index));
+            }
+        });
+        return new ImportRow(record.getRecordNumber(), fields, String.join(",", record.values()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * 找到同时包含金额列和时间列的第一行作为表头
+     */
+    private Map<String, Integer> locateHeader() {
+        for (int i = 0; i < MAX_PREAMBLE_ROWS && records.hasNext(); i++) {
+            Map<String, Integer> indexes = resolveColumns(records.next());
+            if (indexes.containsKey(ImportRow.AMOUNT) && indexes.containsKey(ImportRow.TRANSACTION_DATE_TIME)) {
+                return indexes;
+            }
+        }
+        throw new BusinessException("未识别到表头，需包含金额列和交易时间列");
+    }
+
+    private Map<String, Integer> resolveColumns(CSVRecord header) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.putIfAbsent(normalizeHeader(header.get(i)), i);
+        }
+        Map<String, Integer> indexes = new HashMap<>();
+        HEADER_ALIASES.forEach((field, aliases) -> aliases.stream()
+                .map(positions::get)
+                .filter(index -> index != null && !indexes.containsValue(index))
+                .findFirst()
+                .ifPresent(index -> indexes.put(field, index)));
+        return indexes;
+    }
+
+    private static String normalizeHeader(String header) {
+        return header.replace('（', '(').replace('）', ')')
+                .replaceAll("\\s", "")
+                .toLowerCase();
+    }
+
+    /**
+     * 去掉 UTF-8 BOM（Excel 另存的 CSV 常带 BOM，会导致第一列列名匹配失败）
+     */
+    private static Reader skipBom(Reader reader) throws IOException {
+        PushbackReader pushback = new PushbackReader(reader, 1);
+        int first = pushback.read();
+        if (first != -1 && first != '\uFEFF') {
+            pushback.unread(first);
+        }
+        return pushback;
+    }
+}
@@ -0,0 +1,68 @@
+package org.jim.ledgerserver.ledger.importer;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 导入错误文件写入器
+ * 第一次出现失败行时才创建文件，全部成功的导入不会留下空文件。
+ * 输出带 BOM 的 UTF-8 CSV，方便直接用 Excel 打开。
+ *
+ * @author James Smith
+ */
+public class ImportErrorWriter implements Closeable {
+
+    private final Path file;
+
+    private CSVPrinter printer;
+
+    private long count;
+
+    public ImportErrorWriter(Path file) {
+        this.file = file;
+    }
+
+    public void write(long rowNumber, String message, String raw) {
+        try {
+            if (printer == null) {
+                Files.createDirectories(file.getParent());
+                Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                writer.write('\uFEFF');
+                printer = CSVFormat.DEFAULT.builder()
+                        .setHeader("行号", "错误原因", "原始内容")
+                        .get()
+                        .print(writer);
+            }
+            printer.printRecord(rowNumber, message, raw);
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 是否生成了错误文件
+     */
+    public boolean hasErrors() {
+        return printer != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (printer != null) {
+            printer.close(true);
+        }
+    }
+}
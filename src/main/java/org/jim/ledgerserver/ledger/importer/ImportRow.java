@@ -0,0 +1,42 @@
+package org.jim.ledgerserver.ledger.importer;
+
+import java.util.Map;
+
+/**
+ * 导入文件中的一行数据（已按表头映射为统一字段名）
+ *
+ * @param rowNumber 行号（CSV 为文件中的记录号，JSON 为数组下标 + 1）
+ * @param fields 统一字段名 -> 原始文本
+ * @param raw 原始内容，用于写入错误文件
+ * @author James Smith
+ */
+public record ImportRow(long rowNumber, Map<String, String> fields, String raw) {
+
+    public static final String DESCRIPTION = "description";
+    public static final String AMOUNT = "amount";
+    public static final String TYPE = "type";
+    public static final String TRANSACTION_DATE_TIME = "transactionDateTime";
+    public static final String CATEGORY_NAME = "categoryName";
+    public static final String PAYMENT_METHOD_NAME = "paymentMethodName";
+    /**
+     * 分类/支付方式ID（Agent 批量创建时直接给出ID，优先于名称）
+     */
+    public static final String CATEGORY_ID = "categoryId";
+    public static final String PAYMENT_METHOD_ID = "paymentMethodId";
+    /**
+     * 交易对方（微信/支付宝账单），描述为空时作为描述
+     */
+    public static final String COUNTERPARTY = "counterparty";
+
+    /**
+     * 取字段值，空白和微信/支付宝账单中的占位符 "/" 视为空
+     */
+    public String get(String field) {
+        String value = fields.get(field);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() || "/".equals(value) ? null : value;
+    }
+}
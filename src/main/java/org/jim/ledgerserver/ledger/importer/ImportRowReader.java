@@ -0,0 +1,14 @@
+package org.jim.ledgerserver.ledger.importer;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * 导入文件逐行读取器
+ * 实现必须是流式的：每次只解析下一行，不得把整个文件读入内存。
+ * 读取过程中的 IO 异常以 {@link java.io.UncheckedIOException} 抛出。
+ *
+ * @author James Smith
+ */
+public interface ImportRowReader extends Iterator<ImportRow>, Closeable {
+}
@@ -0,0 +1,130 @@
+package org.jim.ledgerserver.ledger.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jim.ledgerserver.common.exception.BusinessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * JSON 账单读取器
+ * 支持交易对象数组，或本系统导出的完整数据（读取其中的 transactions 数组）。
+ * 基于 Jackson 流式解析，每次只把一个交易对象读成树。
+ *
+ * @author James Smith
+ */
+public class JsonImportRowReader implements ImportRowReader {
+
+    private static final String TRANSACTIONS_FIELD = "transactions";
+
+    /**
+     * 统一字段 -> JSON 字段名，与 ExportTransactionData / Agent 批量创建请求保持一致
+     */
+    private static final Map<String, String[]> FIELD_NAMES = Map.of(
+            ImportRow.DESCRIPTION, new String[]{"description", "name"},
+            ImportRow.AMOUNT, new String[]{"amount"},
+            ImportRow.TYPE, new String[]{"type"},
+            ImportRow.TRANSACTION_DATE_TIME, new String[]{"transactionDateTime"},
+            ImportRow.CATEGORY_NAME, new String[]{"categoryName"},
+            ImportRow.PAYMENT_METHOD_NAME, new String[]{"paymentMethodName"},
+            ImportRow.CATEGORY_ID, new String[]{"categoryId"},
+            ImportRow.PAYMENT_METHOD_ID, new String[]{"paymentMethodId"}
+    );
+
+    private final JsonParser parser;
+
+    private final ObjectMapper objectMapper;
+
+    private long rowNumber;
+
+    private boolean exhausted;
+
+    public JsonImportRowReader(InputStream input, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        try {
+            this.parser = objectMapper.getFactory().createParser(input);
+            moveToTransactionArray();
+        } catch (IOException e) {
+            throw new BusinessException("JSON 格式错误: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (exhausted) {
+            return false;
+        }
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                return true;
+            }
+            if (token == JsonToken.END_ARRAY || token == null) {
+                exhausted = true;
+                return false;
+            }
+            throw new BusinessException("交易数组中只能包含对象");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 必须紧跟在返回 true 的 {@link #hasNext()} 之后调用
+     */
+    @Override
+    public ImportRow next() {
+        if (exhausted || parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new NoSuchElementException();
+        }
+        try {
+            JsonNode node = objectMapper.readTree(parser);
+            Map<String, String> fields = new HashMap<>();
+            FIELD_NAMES.forEach((field, names) -> {
+                for (String name : names) {
+                    JsonNode value = node.get(name);
+                    if (value != null && !value.isNull()) {
+                        fields.put(field, value.asText());
+                        break;
+                    }
+                }
+            });
+            return new ImportRow(++rowNumber, fields, node.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * 定位到交易数组的起始位置：根节点本身是数组，或根对象的 transactions 字段
+     */
+    private void moveToTransactionArray() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return;
+        }
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+                if (TRANSACTIONS_FIELD.equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                    return;
+                }
+                parser.skipChildren();
+            }
+        }
+        throw new BusinessException("JSON 中未找到交易数组");
+    }
+}
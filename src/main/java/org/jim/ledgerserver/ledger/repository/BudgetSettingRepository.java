@@ -1,7 +1,9 @@
 package org.jim.ledgerserver.ledger.repository;
 
+import jakarta.persistence.QueryHint;
 import org.jim.ledgerserver.ledger.entity.BudgetSettingEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -13,5 +15,9 @@ import java.util.Optional;
 @Repository
 public interface BudgetSettingRepository extends JpaRepository<BudgetSettingEntity, Long> {
     
+    /**
+     * 按账本查询预算设置（走查询缓存，实体本身走二级缓存）
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<BudgetSettingEntity> findByLedgerId(Long ledgerId);
 }
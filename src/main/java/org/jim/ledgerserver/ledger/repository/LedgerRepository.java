@@ -103,6 +103,18 @@ public interface LedgerRepository extends JpaRepository<LedgerEntity, Long> {
            "ORDER BY l.type ASC, l.createTime DESC")
     Page<LedgerEntity> findAccessibleLedgersByUserId(@Param("userId") Long userId, Pageable pageable);
 
+    /**
+     * 查找用户可访问的所有账本ID（只取主键，用于计算 ETag 等轻量场景）
+     * @param userId 用户ID
+     * @return 账本ID列表（升序）
+     */
+    @Query("SELECT DISTINCT l.id FROM ledger l " +
+           "LEFT JOIN ledger_member lm ON l.id = lm.ledgerId " +
+           "WHERE (l.ownerUserId = :userId OR (lm.userId = :userId AND lm.deleteTime IS NULL)) " +
+           "AND l.deleteTime IS NULL " +
+           "ORDER BY l.id ASC")
+    List<Long> findAccessibleLedgerIdsByUserId(@Param("userId") Long userId);
+
     /**
      * 查找用户参与的共享账本
      * @param userId 用户ID
@@ -1,6 +1,7 @@
 package org.jim.ledgerserver.ledger.service;
 
 import jakarta.annotation.Resource;
+import org.jim.ledgerserver.common.util.DataVersionTracker;
 import org.jim.ledgerserver.ledger.entity.BudgetDetailEntity;
 import org.jim.ledgerserver.ledger.entity.BudgetSettingEntity;
 import org.jim.ledgerserver.ledger.entity.CategoryEntity;
@@ -46,6 +47,9 @@ public class BudgetService {
     @Resource
     private CategoryRepository categoryRepository;
 
+    @Resource
+    private DataVersionTracker dataVersionTracker;
+
     /**
      * 设置预算
      */
@@ -73,6 +77,8 @@ public class BudgetService {
                     .collect(Collectors.toList());
             budgetDetailRepository.saveAll(details);
         }
+
+        dataVersionTracker.bumpLedger(ledgerId);
     }
 
     /**
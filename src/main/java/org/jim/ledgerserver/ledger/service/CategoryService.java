@@ -5,6 +5,7 @@ import jakarta.annotation.Resource;
 import org.apache.commons.lang3.StringUtils;
 import org.jim.ledgerserver.common.enums.TransactionTypeEnum;
 import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.util.DataVersionTracker;
 import org.jim.ledgerserver.common.util.UserContext;
 import org.jim.ledgerserver.ledger.dto.CategoryResponse;
 import org.jim.ledgerserver.ledger.dto.CreateCategoryRequest;
@@ -37,6 +38,9 @@ public class CategoryService {
     @Resource
     private LedgerMemberService ledgerMemberService;
 
+    @Resource
+    private DataVersionTracker dataVersionTracker;
+
     /**
      * 应用启动时初始化系统预设分类
      */
@@ -273,6 +277,7 @@ public class CategoryService {
         }
 
         CategoryEntity savedEntity = categoryRepository.save(entity);
+        dataVersionTracker.bumpUser(currentUserId);
         return convertToResponse(savedEntity);
     }
 
@@ -326,6 +331,7 @@ public class CategoryService {
         }
 
         CategoryEntity savedEntity = categoryRepository.save(entity);
+        dataVersionTracker.bumpUser(currentUserId);
         return convertToResponse(savedEntity);
     }
 
@@ -354,6 +360,7 @@ public class CategoryService {
 
         entity.setDeleteTime(LocalDateTime.now());
         categoryRepository.save(entity);
+        dataVersionTracker.bumpUser(currentUserId);
     }
 
     /**
@@ -488,6 +495,7 @@ public class CategoryService {
 
         entity.setIsFrequent(true);
         categoryRepository.save(entity);
+        markCategoryChanged(entity, currentUserId);
     }
 
     /**
@@ -510,6 +518,18 @@ public class CategoryService {
 
         entity.setIsFrequent(false);
         categoryRepository.save(entity);
+        markCategoryChanged(entity, currentUserId);
+    }
+
+    /**
+     * 系统分类对所有用户可见，变化时递增全局版本
+     */
+    private void markCategoryChanged(CategoryEntity entity, Long currentUserId) {
+        if (Boolean.TRUE.equals(entity.getIsSystem())) {
+            dataVersionTracker.bumpGlobal();
+        } else {
+            dataVersionTracker.bumpUser(currentUserId);
+        }
     }
 
     /**
@@ -1,12 +1,16 @@
 package org.jim.ledgerserver.ledger.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import jakarta.annotation.Resource;
+import org.jim.ledgerserver.common.config.MetricsConfig;
 import org.jim.ledgerserver.common.enums.LedgerTypeEnum;
 import org.jim.ledgerserver.common.enums.TransactionTypeEnum;
+import org.jim.ledgerserver.common.sharding.ShardContext;
 import org.jim.ledgerserver.ledger.entity.*;
 import org.jim.ledgerserver.ledger.repository.*;
 import org.jim.ledgerserver.ledger.vo.export.*;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +25,7 @@ import java.util.stream.Collectors;
  * 
  * @author James Smith
  */
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Service
 public class ExportService {
 
@@ -182,8 +187,8 @@ public class ExportService {
                 .findByUserIdAndDeleteTimeIsNull(userId)
                 .stream().collect(Collectors.toMap(PaymentMethodEntity::getId, p -> p));
 
-        // 查询交易记录
-        List<TransactionEntity> transactions = transactionRepository.findAll((root, query, cb) -> {
+        // 查询交易记录（只涉及一个账本时声明账本，避免扇出到所有分片）
+        Specification<TransactionEntity> spec = (root, query, cb) -> {
             List<jakarta.persistence.criteria.Predicate> predicates = new ArrayList<>();
             
             // 只查询未删除的
@@ -195,7 +200,9 @@ public class ExportService {
             }
             
             return cb.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
-        });
+        };
+        List<TransactionEntity> transactions = ShardContext.forLedger(singleLedger(finalAccessibleLedgerIds),
+                () -> transactionRepository.findAll(spec));
 
         // 转换为导出格式
         return transactions.stream()
@@ -312,12 +319,20 @@ public class ExportService {
             return 0;
         }
         
-        return transactionRepository.count((root, query, cb) -> {
+        Specification<TransactionEntity> spec = (root, query, cb) -> {
             List<jakarta.persistence.criteria.Predicate> predicates = new ArrayList<>();
             predicates.add(cb.isNull(root.get("deleteTime")));
             predicates.add(root.get("ledgerId").in(ledgerIds));
             return cb.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
-        });
+        };
+        return ShardContext.forLedger(singleLedger(ledgerIds), () -> transactionRepository.count(spec));
+    }
+
+    /**
+     * 账本列表只有一个账本时返回该账本ID，否则返回 null
+     */
+    private static Long singleLedger(List<Long> ledgerIds) {
+        return ledgerIds.size() == 1 ? ledgerIds.getFirst() : null;
     }
 
     // ==================== 数据转换方法 ====================
@@ -429,7 +444,7 @@ public class ExportService {
         return sb.toString();
     }
 
-    private void appendTransactionsCsv(StringBuilder sb, List<ExportTransactionData> transactions) {
+    void appendTransactionsCsv(StringBuilder sb, List<ExportTransactionData> transactions) {
         // CSV 头部
         sb.append("ID,名称,描述,金额,类型,交易时间,账本,分类,支付方式,创建时间\n");
         
@@ -499,7 +514,7 @@ public class ExportService {
         }
     }
 
-    private String escapeCsv(String value) {
+    String escapeCsv(String value) {
         if (value == null) {
             return "";
         }
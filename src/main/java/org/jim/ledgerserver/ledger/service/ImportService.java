@@ -0,0 +1,399 @@
+package org.jim.ledgerserver.ledger.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jim.ledgerserver.common.enums.TransactionSourceEnum;
+import org.jim.ledgerserver.common.enums.TransactionTypeEnum;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.ledger.dto.BulkCreateResult;
+import org.jim.ledgerserver.ledger.entity.CategoryEntity;
+import org.jim.ledgerserver.ledger.entity.LedgerEntity;
+import org.jim.ledgerserver.ledger.entity.PaymentMethodEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.jim.ledgerserver.ledger.importer.CsvImportRowReader;
+import org.jim.ledgerserver.ledger.importer.ImportErrorWriter;
+import org.jim.ledgerserver.ledger.importer.ImportRow;
+import org.jim.ledgerserver.ledger.importer.ImportRowReader;
+import org.jim.ledgerserver.ledger.importer.JsonImportRowReader;
+import org.jim.ledgerserver.ledger.repository.CategoryRepository;
+import org.jim.ledgerserver.ledger.repository.PaymentMethodRepository;
+import org.jim.ledgerserver.ledger.vo.imports.ImportResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 账单导入服务（ExportService 的逆操作）
+ * 流式读取上传文件，逐行映射为交易，按 chunk-size 分批调用 {@link TransactionService#bulkCreate} 提交，
+ * 内存占用只与批大小有关，与文件行数无关。失败行写入错误文件，不影响其他行。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Service
+public class ImportService {
+
+    public static final String FORMAT_CSV = "CSV";
+
+    public static final String FORMAT_JSON = "JSON";
+
+    /**
+     * 分类名称缓存上限，超过后不再缓存，避免异常文件撑大内存
+     */
+    private static final int CATEGORY_CACHE_LIMIT = 1000;
+
+    /**
+     * 兼容 2024-01-02 03:04:05、2024/1/2 3:04、2024-01-02 等写法
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("uuuu-M-d[ H:m[:s]]");
+
+    @Resource
+    private TransactionService transactionService;
+
+    @Resource
+    private LedgerService ledgerService;
+
+    @Resource
+    private LedgerMemberService ledgerMemberService;
+
+    @Resource
+    private CategoryRepository categoryRepository;
+
+    @Resource
+    private PaymentMethodRepository paymentMethodRepository;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${ledger.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${ledger.import.error-dir:${java.io.tmpdir}/ledger-import-errors}")
+    private String errorDir;
+
+    @Value("${ledger.import.error-retention-hours:24}")
+    private long errorRetentionHours;
+
+    /**
+     * 导入交易
+     * @param userId 用户ID（交易创建者，需与 UserContext 一致）
+     * @param ledgerId 目标账本ID（可选）
+     * @param format 文件格式：CSV / JSON
+     * @param charset 文件编码（支付宝账单为 GBK）
+     * @param source 交易来源
+     * @param signedAmounts 金额是否带符号（银行/支付宝流水）：是则缺少收支列时按正负判断类型、金额取绝对值；
+     *                      否则类型和金额按原值交给 {@link TransactionService#bulkCreate} 校验，与同步创建一致
+     * @param input 文件内容
+     * @param progressListener 每提交一批回调一次
+     * @return 导入结果
+     */
+    public ImportResult importTransactions(Long userId, Long ledgerId, String format, Charset charset, Integer source,
+                                           boolean signedAmounts, InputStream input,
+                                           Consumer<ImportResult> progressListener) {
+        checkImportPermission(ledgerId, userId);
+
+        String errorFileId = UUID.randomUUID().toString();
+        RowMapper rowMapper = new RowMapper(userId, ledgerId, source, signedAmounts);
+
+        long processed = 0;
+        long success = 0;
+        ImportErrorWriter errors = new ImportErrorWriter(errorFile(userId, errorFileId));
+        try (errors; ImportRowReader reader = openReader(format, input, charset)) {
+            List<TransactionEntity> drafts = new ArrayList<>(chunkSize);
+            List<ImportRow> rows = new ArrayList<>(chunkSize);
+
+            while (reader.hasNext()) {
+                ImportRow row = reader.next();
+                processed++;
+                try {
+                    drafts.add(rowMapper.toDraft(row));
+                    rows.add(row);
+                } catch (BusinessException | IllegalArgumentException e) {
+                    errors.write(row.rowNumber(), e.getMessage(), row.raw());
+                }
+
+                if (drafts.size() >= chunkSize) {
+                    success += commitChunk(drafts, rows, errors);
+                    progressListener.accept(new ImportResult(processed, success, errors.getCount(), null));
+                }
+            }
+            success += commitChunk(drafts, rows, errors);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Import aborted at row {}: {}", processed, e.getMessage());
+            progressListener.accept(new ImportResult(processed, success, errors.getCount(), errorFileIdIfAny(errors, errorFileId)));
+            throw new BusinessException("读取导入文件失败（已导入 " + success + " 条）: " + e.getMessage());
+        }
+
+        log.info("Import finished: user={}, processed={}, success={}, failed={}", userId, processed, success, errors.getCount());
+        return new ImportResult(processed, success, errors.getCount(), errorFileIdIfAny(errors, errorFileId));
+    }
+
+    /**
+     * 校验用户是否可以向账本导入交易（提交任务时提前校验，执行时再校验一次）
+     * @param ledgerId 账本ID（为空表示不归属账本，总是允许）
+     * @param userId 用户ID
+     */
+    public void checkImportPermission(Long ledgerId, Long userId) {
+        if (ledgerId == null) {
+            return;
+        }
+        LedgerEntity ledger = ledgerService.findById(ledgerId);
+        if (ledger.getOwnerUserId().equals(userId)) {
+            return;
+        }
+        if (ledger.isPersonal() || !ledgerMemberService.hasEditPermission(ledgerId, userId)) {
+            throw new BusinessException(403, "无权限在该账本中导入交易");
+        }
+    }
+
+    /**
+     * 获取错误文件（只能访问自己的）
+     */
+    public Path getErrorFile(Long userId, String errorFileId) {
+        try {
+            UUID.fromString(errorFileId);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("错误文件ID无效");
+        }
+        Path file = errorFile(userId, errorFileId);
+        if (!Files.isRegularFile(file)) {
+            throw new BusinessException(404, "错误文件不存在或已过期");
+        }
+        return file;
+    }
+
+    /**
+     * 定期清理过期的错误文件
+     */
+    @Scheduled(fixedDelay = 3_600_000L)
+    public void purgeExpiredErrorFiles() {
+        Path dir = Paths.get(errorDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Instant expireBefore = Instant.now().minus(Duration.ofHours(errorRetentionHours));
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> isModifiedBefore(file, expireBefore)).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Failed to delete import error file {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to purge import error files: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 提交一批交易，返回成功条数；调用后清空两个列表
+     */
+    private long commitChunk(List<TransactionEntity> drafts, List<ImportRow> rows, ImportErrorWriter errors) {
+        if (drafts.isEmpty()) {
+            return 0;
+        }
+        long created;
+        try {
+            BulkCreateResult result = transactionService.bulkCreate(drafts);
+            for (BulkCreateResult.Failure failure : result.failures()) {
+                ImportRow row = rows.get(failure.index());
+                errors.write(row.rowNumber(), failure.message(), row.raw());
+            }
+            created = result.created().size();
+        } catch (BusinessException | DataAccessException | PersistenceException e) {
+            // 整批回滚，逐行记录失败；bulkCreate 内部 flush 抛出的是未经转换的 Hibernate 异常（超长、约束冲突等）
+            log.warn("Import chunk failed: {}", e.getMessage());
+            for (ImportRow row : rows) {
+                errors.write(row.rowNumber(), "保存失败: " + e.getMessage(), row.raw());
+            }
+            created = 0;
+        }
+        drafts.clear();
+        rows.clear();
+        return created;
+    }
+
+    private ImportRowReader openReader(String format, InputStream input, Charset charset) {
+        if (FORMAT_JSON.equalsIgnoreCase(format)) {
+            return new JsonImportRowReader(input, objectMapper);
+        }
+        if (FORMAT_CSV.equalsIgnoreCase(format)) {
+            return new CsvImportRowReader(new BufferedReader(new InputStreamReader(input, charset)));
+        }
+        throw new BusinessException("不支持的导入格式: " + format);
+    }
+
+    private Path errorFile(Long userId, String errorFileId) {
+        return Paths.get(errorDir).resolve(userId + "_" + errorFileId + ".csv");
+    }
+
+    private static String errorFileIdIfAny(ImportErrorWriter errors, String errorFileId) {
+        return errors.hasErrors() ? errorFileId : null;
+    }
+
+    private static boolean isModifiedBefore(Path file, Instant instant) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(instant);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 行 -> 交易草稿，持有本次导入的分类/支付方式名称缓存
+     */
+    private class RowMapper {
+
+        private final Long userId;
+
+        private final Long ledgerId;
+
+        private final Integer source;
+
+        private final boolean signedAmounts;
+
+        private final Map<String, Long> paymentMethodIds = new HashMap<>();
+
+        private final Map<String, Optional<Long>> categoryIds = new HashMap<>();
+
+        RowMapper(Long userId, Long ledgerId, Integer source, boolean signedAmounts) {
+            this.userId = userId;
+            this.ledgerId = ledgerId;
+            this.signedAmounts = signedAmounts;
+            this.source = source != null ? source : TransactionSourceEnum.MANUAL.getCode();
+            for (PaymentMethodEntity method : paymentMethodRepository.findByUserIdAndDeleteTimeIsNull(userId)) {
+                paymentMethodIds.putIfAbsent(method.getName(), method.getId());
+            }
+        }
+
+        TransactionEntity toDraft(ImportRow row) {
+            BigDecimal amount = parseAmount(row.get(ImportRow.AMOUNT));
+            Integer type = signedAmounts
+                    ? parseType(row.get(ImportRow.TYPE), amount)
+                    : parseType(row.get(ImportRow.TYPE));
+            String description = StringUtils.defaultIfBlank(row.get(ImportRow.DESCRIPTION), row.get(ImportRow.COUNTERPARTY));
+
+            return new TransactionEntity()
+                    .setDescription(StringUtils.truncate(description, 255))
+                    .setAmount(signedAmounts ? amount.abs() : amount)
+                    .setType(type)
+                    .setTransactionDateTime(parseDateTime(row.get(ImportRow.TRANSACTION_DATE_TIME)))
+                    .setLedgerId(ledgerId)
+                    .setCategoryId(row.get(ImportRow.CATEGORY_ID) != null
+                            ? parseId(row.get(ImportRow.CATEGORY_ID))
+                            : findCategoryId(row.get(ImportRow.CATEGORY_NAME), type))
+                    .setPaymentMethodId(row.get(ImportRow.PAYMENT_METHOD_ID) != null
+                            ? parseId(row.get(ImportRow.PAYMENT_METHOD_ID))
+                            : paymentMethodIds.get(row.get(ImportRow.PAYMENT_METHOD_NAME)))
+                    .setSource(source);
+        }
+
+        /**
+         * 先找用户自定义分类，再找系统分类；找不到时不设置分类
+         */
+        private Long findCategoryId(String name, Integer type) {
+            if (name == null) {
+                return null;
+            }
+            String key = type + ":" + name;
+            Optional<Long> cached = categoryIds.get(key);
+            if (cached != null) {
+                return cached.orElse(null);
+            }
+            Optional<Long> categoryId = categoryRepository.findByNameAndTypeAndUserId(name, type, userId)
+                    .or(() -> categoryRepository.findByNameAndTypeAndUserId(name, type, null))
+                    .map(CategoryEntity::getId);
+            if (categoryIds.size() < CATEGORY_CACHE_LIMIT) {
+                categoryIds.put(key, categoryId);
+            }
+            return categoryId.orElse(null);
+        }
+    }
+
+    private static Long parseId(String text) {
+        try {
+            return Long.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new BusinessException("ID格式错误: " + text);
+        }
+    }
+
+    private static BigDecimal parseAmount(String text) {
+        if (text == null) {
+            throw new BusinessException("交易金额不能为空");
+        }
+        String normalized = text.replaceAll("[¥￥,，元\\s]", "");
+        try {
+            return new BigDecimal(normalized);
+        } catch (NumberFormatException e) {
+            throw new BusinessException("金额格式错误: " + text);
+        }
+    }
+
+    /**
+     * 没有收支列时按金额正负判断（银行流水常见）
+     */
+    private static Integer parseType(String text, BigDecimal signedAmount) {
+        if (text == null) {
+            return signedAmount.signum() < 0 ? TransactionTypeEnum.EXPENSE.getCode() : TransactionTypeEnum.INCOME.getCode();
+        }
+        return parseType(text);
+    }
+
+    /**
+     * 按收支列判断，没有时返回 null（由创建时的校验报错）
+     */
+    private static Integer parseType(String text) {
+        if (text == null) {
+            return null;
+        }
+        return switch (text.toUpperCase()) {
+            case "收入", "收", "INCOME", "1" -> TransactionTypeEnum.INCOME.getCode();
+            case "支出", "支", "EXPENSE", "2" -> TransactionTypeEnum.EXPENSE.getCode();
+            default -> throw new BusinessException("无法识别收支类型: " + text);
+        };
+    }
+
+    private static LocalDateTime parseDateTime(String text) {
+        if (text == null) {
+            throw new BusinessException("交易时间不能为空");
+        }
+        String normalized = text.replace('/', '-').replace('T', ' ').replaceFirst("\\.\\d+$", "");
+        try {
+            TemporalAccessor parsed = DATE_TIME_FORMATTER.parseBest(normalized, LocalDateTime::from, LocalDate::from);
+            return parsed instanceof LocalDate date ? date.atStartOfDay() : (LocalDateTime) parsed;
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("交易时间格式错误: " + text);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.annotation.Resource;
 import org.jim.ledgerserver.common.enums.LedgerMemberRoleEnum;
 import org.jim.ledgerserver.common.enums.LedgerTypeEnum;
 import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.util.DataVersionTracker;
 import org.jim.ledgerserver.ledger.entity.LedgerEntity;
 import org.jim.ledgerserver.ledger.entity.LedgerMemberEntity;
 import org.jim.ledgerserver.ledger.repository.LedgerMemberRepository;
@@ -34,6 +35,9 @@ public class LedgerMemberService {
     @Resource
     private UserRepository userRepository;
 
+    @Resource
+    private DataVersionTracker dataVersionTracker;
+
     /**
      * 添加成员到账本
      * @param ledgerId 账本ID
@@ -78,7 +82,7 @@ public class LedgerMemberService {
         member.setRemark(remark);
         member.setStatus(LedgerMemberEntity.MemberStatus.ACTIVE.getCode());
         
-        return ledgerMemberRepository.save(member);
+        return save(member);
     }
 
     /**
@@ -102,7 +106,7 @@ public class LedgerMemberService {
         
         // 逻辑删除
         member.setDeleteTime(LocalDateTime.now());
-        ledgerMemberRepository.save(member);
+        save(member);
     }
 
     /**
@@ -127,7 +131,7 @@ public class LedgerMemberService {
         validateUpdateRolePermission(ledgerId, operatorUserId, member, newRole);
         
         member.setMemberRole(newRole);
-        return ledgerMemberRepository.save(member);
+        return save(member);
     }
 
     /**
@@ -254,7 +258,11 @@ public class LedgerMemberService {
      * @return 保存后的成员实体
      */
     public LedgerMemberEntity save(LedgerMemberEntity member) {
-        return ledgerMemberRepository.save(member);
+        LedgerMemberEntity saved = ledgerMemberRepository.save(member);
+        // 成员变化同时影响账本（成员数、权限）和该用户的可访问账本列表
+        dataVersionTracker.bumpLedger(saved.getLedgerId());
+        dataVersionTracker.bumpUser(saved.getUserId());
+        return saved;
     }
 
     /**
@@ -5,6 +5,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.jim.ledgerserver.common.enums.LedgerMemberRoleEnum;
 import org.jim.ledgerserver.common.enums.LedgerTypeEnum;
 import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.util.DataVersionTracker;
 import org.jim.ledgerserver.ledger.entity.LedgerEntity;
 import org.jim.ledgerserver.ledger.entity.LedgerMemberEntity;
 import org.jim.ledgerserver.ledger.repository.LedgerRepository;
@@ -29,6 +30,9 @@ public class LedgerService {
     @Resource
     private LedgerMemberService ledgerMemberService;
 
+    @Resource
+    private DataVersionTracker dataVersionTracker;
+
     /**
      * 创建个人账本
      * @param name 账本名称
@@ -97,6 +101,8 @@ public class LedgerService {
             ownerMember.setStatus(LedgerMemberEntity.MemberStatus.ACTIVE.getCode());
             ledgerMemberService.save(ownerMember); // 需要在 LedgerMemberService 中添加 save 方法
         }
+
+        dataVersionTracker.bumpUser(ownerUserId);
         
         return ledger;
     }
@@ -242,7 +248,9 @@ public class LedgerService {
             }
         }
 
-        return ledgerRepository.save(ledger);
+        LedgerEntity saved = ledgerRepository.save(ledger);
+        dataVersionTracker.bumpLedger(id);
+        return saved;
     }
 
     /**
@@ -256,6 +264,7 @@ public class LedgerService {
         }
         ledger.setDeleteTime(LocalDateTime.now());
         ledgerRepository.save(ledger);
+        dataVersionTracker.bumpLedger(id);
     }
 
     /**
@@ -270,5 +279,6 @@ public class LedgerService {
             throw new BusinessException("账本不存在");
         }
         ledgerRepository.deleteById(id);
+        dataVersionTracker.bumpLedger(id);
     }
 }
@@ -1,12 +1,16 @@
 package org.jim.ledgerserver.ledger.service;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.annotation.Resource;
+import org.jim.ledgerserver.common.config.MetricsConfig;
 import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.sharding.ShardContext;
 import org.jim.ledgerserver.ledger.entity.TransactionEntity;
 import org.jim.ledgerserver.ledger.repository.TransactionRepository;
 import org.jim.ledgerserver.ledger.vo.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.criteria.Predicate;
 import java.math.BigDecimal;
@@ -21,6 +25,7 @@ import java.util.stream.Collectors;
  * 报表业务逻辑层
  * @author James Smith
  */
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Component
 public class ReportService {
 
@@ -42,6 +47,7 @@ public class ReportService {
      * @param currentUserId 当前用户ID
      * @return 分类统计结果
      */
+    @Transactional(readOnly = true)
     public CategoryStatisticsResp getStatisticsByCategory(ReportQueryReq request, Long currentUserId) {
         validateRequest(request, currentUserId);
 
@@ -197,6 +203,7 @@ public class ReportService {
      * @param currentUserId 当前用户ID
      * @return 趋势统计结果
      */
+    @Transactional(readOnly = true)
     public TrendStatisticsResp getTrendStatistics(ReportQueryReq request, Long currentUserId) {
         validateRequest(request, currentUserId);
 
@@ -328,7 +335,7 @@ public class ReportService {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        return transactionRepository.findAll(spec);
+        return ShardContext.forLedger(request.ledgerId(), () -> transactionRepository.findAll(spec));
     }
 
     /**
@@ -2,8 +2,10 @@ package org.jim.ledgerserver.ledger.service;
 
 import jakarta.annotation.Resource;
 import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.sharding.ShardContext;
 import org.jim.ledgerserver.common.util.UserContext;
 import org.jim.ledgerserver.ledger.entity.TransactionAttachmentEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
 import org.jim.ledgerserver.ledger.repository.TransactionAttachmentRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -55,7 +57,7 @@ public class TransactionAttachmentService {
     @Transactional
     public TransactionAttachmentEntity uploadAttachment(Long transactionId, MultipartFile file) {
         // 验证交易是否存在（会抛出异常如果不存在）
-        transactionService.findById(transactionId);
+        TransactionEntity transaction = transactionService.findById(transactionId);
         
         // 验证权限
         Long currentUserId = UserContext.getCurrentUserId();
@@ -128,7 +130,11 @@ public class TransactionAttachmentService {
                 }
             }
 
-            return attachmentRepository.save(attachment);
+            TransactionAttachmentEntity saved = ShardContext.forTransaction(transaction,
+                    () -> attachmentRepository.save(attachment));
+            // 交易列表中带有附件数量
+            transactionService.markChanged(transaction);
+            return saved;
         } catch (IOException e) {
             throw new BusinessException("文件读取失败: " + e.getMessage());
         }
@@ -214,8 +220,10 @@ public class TransactionAttachmentService {
             throw new BusinessException("无权限删除该附件");
         }
 
+        TransactionEntity transaction = transactionService.findById(attachment.getTransactionId());
         attachment.setDeleteTime(LocalDateTime.now());
-        attachmentRepository.save(attachment);
+        ShardContext.forTransaction(transaction, () -> attachmentRepository.save(attachment));
+        transactionService.markChanged(transaction);
     }
 
     /**
@@ -0,0 +1,318 @@
+package org.jim.ledgerserver.ledger.service;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jim.ledgerserver.common.enums.TransactionTypeEnum;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.util.LedgerPermissionHelper;
+import org.jim.ledgerserver.common.util.UserContext;
+import org.jim.ledgerserver.ledger.entity.CategoryEntity;
+import org.jim.ledgerserver.ledger.entity.PaymentMethodEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.jim.ledgerserver.ledger.repository.CategoryRepository;
+import org.jim.ledgerserver.ledger.repository.PaymentMethodRepository;
+import org.springaicommunity.mcp.annotation.McpTool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 交易列表 MCP 工具类
+ * 列表按交易时间倒序分页返回，默认每页 {@code ledger.mcp.transactions.page-size} 条，超出部分通过游标继续读取。
+ * 结果为紧凑表格：一行表头加每笔交易一行，分类和支付方式名称只在字典行中出现一次，行内以编码引用。
+ *
+ * @author James Smith
+ */
+@Component
+@Slf4j
+public class TransactionListMCP {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final DateTimeFormatter ROW_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final String HEADER = "id|time|type|amount|cat|pay|desc";
+
+    /**
+     * 行内描述的最大长度，超出部分截断
+     */
+    private static final int MAX_DESCRIPTION_LENGTH = 80;
+
+    @Resource
+    private TransactionService transactionService;
+
+    @Resource
+    private LedgerPermissionHelper ledgerPermissionHelper;
+
+    @Resource
+    private CategoryRepository categoryRepository;
+
+    @Resource
+    private PaymentMethodRepository paymentMethodRepository;
+
+    @Value("${ledger.mcp.transactions.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${ledger.mcp.transactions.max-page-size:200}")
+    private int maxPageSize;
+
+    /**
+     * 游标：上一页最后一条交易的时间和ID
+     */
+    private record Cursor(LocalDateTime time, Long id) {
+
+        String encode() {
+            String raw = time + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            if (StringUtils.isBlank(cursor)) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+                int comma = raw.indexOf(',');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, comma)), Long.valueOf(raw.substring(comma + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new BusinessException("无效的游标: " + cursor);
+            }
+        }
+    }
+
+    @McpTool(description = """
+            Purpose: Page through transactions of a ledger, newest first
+
+            Prerequisites:
+            - User must be logged in and have view permission on the ledger
+
+            Parameters:
+            - ledgerId: Ledger ID (required)
+            - cursor: Value of "next" from the previous page (optional, omit for the first page)
+            - limit: Page size (optional, default 50, max 200)
+
+            Returns:
+            - Compact table, see "Result format" below
+
+            Result format:
+            - "cat:" / "pay:" lines map codes to category / payment method names (c<id>=name, p<id>=name)
+            - Header "id|time|type|amount|cat|pay|desc", then one row per transaction
+            - type is I (income) or E (expense); empty cells mean no value
+            - Last line is "next:<cursor>" when more rows exist, otherwise "end"
+
+            Workflow:
+            1. Call without cursor to get the first page
+            2. Call again with the returned cursor only if more rows are needed
+            """)
+    public String listLedgerTransactions(Long ledgerId, String cursor, Integer limit) {
+        log.info("Listing transactions for ledger: {}, cursor={}", ledgerId, cursor);
+        if (ledgerId == null) {
+            throw new BusinessException("账本ID不能为空");
+        }
+        Long userId = requireCurrentUserId();
+        ledgerPermissionHelper.requireViewPermission(ledgerId, userId);
+        return page(ledgerId, null, null, null, null, userId, cursor, limit);
+    }
+
+    @McpTool(description = """
+            Purpose: Page through transactions created by the current user, newest first
+
+            Prerequisites:
+            - User must be logged in
+
+            Parameters:
+            - cursor: Value of "next" from the previous page (optional, omit for the first page)
+            - limit: Page size (optional, default 50, max 200)
+
+            Returns:
+            - Compact table in the same format as listLedgerTransactions
+            """)
+    public String listUserTransactions(String cursor, Integer limit) {
+        log.info("Listing transactions for current user, cursor={}", cursor);
+        return page(null, null, null, null, null, requireCurrentUserId(), cursor, limit);
+    }
+
+    @McpTool(description = """
+            Purpose: Page through income or expense transactions of the current user, newest first
+
+            Prerequisites:
+            - User must be logged in
+
+            Parameters:
+            - type: Transaction type (required, 1 for INCOME, 2 for EXPENSE)
+            - cursor: Value of "next" from the previous page (optional, omit for the first page)
+            - limit: Page size (optional, default 50, max 200)
+
+            Returns:
+            - Compact table in the same format as listLedgerTransactions
+            """)
+    public String listTransactionsByType(Integer type, String cursor, Integer limit) {
+        log.info("Listing transactions by type: type={}, cursor={}", type, cursor);
+        if (type == null) {
+            throw new BusinessException("交易类型不能为空");
+        }
+        return page(null, type, null, null, null, requireCurrentUserId(), cursor, limit);
+    }
+
+    @McpTool(description = """
+            Purpose: Page through transactions of the current user within a date range, newest first
+
+            Prerequisites:
+            - User must be logged in
+
+            Parameters:
+            - startTime: Start date time (required, format: yyyy-MM-dd HH:mm:ss)
+            - endTime: End date time (required, format: yyyy-MM-dd HH:mm:ss)
+            - cursor: Value of "next" from the previous page (optional, omit for the first page)
+            - limit: Page size (optional, default 50, max 200)
+
+            Returns:
+            - Compact table in the same format as listLedgerTransactions
+
+            Error Handling:
+            - If startTime is after endTime: Return "开始时间不能晚于结束时间" error
+            """)
+    public String listTransactionsByDateRange(String startTime, String endTime, String cursor, Integer limit) {
+        log.info("Listing transactions by date range: start={}, end={}, cursor={}", startTime, endTime, cursor);
+        if (StringUtils.isAnyBlank(startTime, endTime)) {
+            throw new BusinessException("开始时间和结束时间不能为空");
+        }
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            start = LocalDateTime.parse(startTime.trim(), FORMATTER);
+            end = LocalDateTime.parse(endTime.trim(), FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("时间格式应为 yyyy-MM-dd HH:mm:ss");
+        }
+        return page(null, null, null, start, end, requireCurrentUserId(), cursor, limit);
+    }
+
+    @McpTool(description = """
+            Purpose: Page through transactions of the current user in a category, newest first
+
+            Prerequisites:
+            - User must be logged in
+
+            Parameters:
+            - categoryId: Category ID (required)
+            - cursor: Value of "next" from the previous page (optional, omit for the first page)
+            - limit: Page size (optional, default 50, max 200)
+
+            Returns:
+            - Compact table in the same format as listLedgerTransactions
+            """)
+    public String listTransactionsByCategory(Long categoryId, String cursor, Integer limit) {
+        log.info("Listing transactions for category: {}, cursor={}", categoryId, cursor);
+        if (categoryId == null) {
+            throw new BusinessException("分类ID不能为空");
+        }
+        return page(null, null, categoryId, null, null, requireCurrentUserId(), cursor, limit);
+    }
+
+    private String page(Long ledgerId, Integer type, Long categoryId, LocalDateTime startTime, LocalDateTime endTime,
+                        Long userId, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+        Cursor after = Cursor.decode(cursor);
+
+        // 多取一条用于判断是否还有下一页
+        List<TransactionEntity> rows = transactionService.scanTransactions(ledgerId, type, categoryId, startTime,
+                endTime, userId, after == null ? null : after.time(), after == null ? null : after.id(), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        return encode(rows, hasMore);
+    }
+
+    /**
+     * 编码为紧凑表格
+     */
+    private String encode(List<TransactionEntity> rows, boolean hasMore) {
+        if (rows.isEmpty()) {
+            return "rows:0\nend";
+        }
+
+        Map<Long, String> categories = new TreeMap<>();
+        Map<Long, String> paymentMethods = new TreeMap<>();
+        rows.stream().map(TransactionEntity::getCategoryId).filter(Objects::nonNull).forEach(id -> categories.put(id, null));
+        rows.stream().map(TransactionEntity::getPaymentMethodId).filter(Objects::nonNull).forEach(id -> paymentMethods.put(id, null));
+        for (CategoryEntity category : categoryRepository.findAllById(categories.keySet())) {
+            categories.put(category.getId(), category.getName());
+        }
+        for (PaymentMethodEntity paymentMethod : paymentMethodRepository.findAllById(paymentMethods.keySet())) {
+            paymentMethods.put(paymentMethod.getId(), paymentMethod.getName());
+        }
+
+        StringBuilder sb = new StringBuilder(64 + rows.size() * 64);
+        sb.append("rows:").append(rows.size()).append('\n');
+        appendDictionary(sb, "cat:", 'c', categories);
+        appendDictionary(sb, "pay:", 'p', paymentMethods);
+        sb.append(HEADER).append('\n');
+        for (TransactionEntity t : rows) {
+            sb.append(t.getId()).append('|')
+                    .append(t.getTransactionDateTime() == null ? "" : t.getTransactionDateTime().format(ROW_TIME_FORMATTER)).append('|')
+                    .append(TransactionTypeEnum.INCOME.getCode().equals(t.getType()) ? 'I' : 'E').append('|')
+                    .append(t.getAmount() == null ? "" : t.getAmount().stripTrailingZeros().toPlainString()).append('|');
+            if (t.getCategoryId() != null) {
+                sb.append('c').append(t.getCategoryId());
+            }
+            sb.append('|');
+            if (t.getPaymentMethodId() != null) {
+                sb.append('p').append(t.getPaymentMethodId());
+            }
+            sb.append('|').append(cell(t.getDescription())).append('\n');
+        }
+
+        if (hasMore) {
+            TransactionEntity last = rows.getLast();
+            sb.append("next:").append(new Cursor(last.getTransactionDateTime(), last.getId()).encode());
+        } else {
+            sb.append("end");
+        }
+        return sb.toString();
+    }
+
+    private void appendDictionary(StringBuilder sb, String label, char prefix, Map<Long, String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        sb.append(label);
+        boolean first = true;
+        for (Map.Entry<Long, String> entry : names.entrySet()) {
+            sb.append(first ? "" : ",").append(prefix).append(entry.getKey()).append('=')
+                    .append(entry.getValue() == null ? "?" : cell(entry.getValue()).replace(',', '，'));
+            first = false;
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * 单元格内容：去掉分隔符和换行，过长截断
+     */
+    private static String cell(String value) {
+        if (value == null) {
+            return "";
+        }
+        String cleaned = value.replace('|', '/').replace('\r', ' ').replace('\n', ' ').trim();
+        return StringUtils.abbreviate(cleaned, MAX_DESCRIPTION_LENGTH);
+    }
+
+    private static Long requireCurrentUserId() {
+        Long userId = UserContext.getCurrentUserId();
+        if (userId == null) {
+            throw new BusinessException("用户未登录");
+        }
+        return userId;
+    }
+}
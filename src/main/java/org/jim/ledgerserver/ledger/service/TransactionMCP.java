@@ -12,13 +12,13 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.stream.Collectors;
 
 import static org.jim.ledgerserver.common.enums.TransactionTypeEnum.getTypeDescription;
 
 */
 /**
  * 交易 MCP 工具类
+ * 交易列表查询见 {@link TransactionListMCP}
  * @author James Smith
  *//*
 
@@ -119,140 +119,6 @@ public class TransactionMCP {
         return formatTransactionInfo(transaction);
     }
 
-    @McpTool(description = """
-            Purpose: Query all transactions for a specific ledger
-
-            Prerequisites:
-            - NONE
-
-            Parameters:
-            - ledgerId: Ledger ID (required)
-
-            Returns:
-            - Success: List of transactions with their details
-            - Failure: Error message if query fails
-
-            Workflow:
-            1. Validate ledger ID is provided
-            2. Query all transactions by ledger ID
-            3. Return formatted list of transaction details
-            """)
-    public String listLedgerTransactions(Long ledgerId) {
-        log.info("Listing transactions for ledger: {}", ledgerId);
-        var transactions = transactionService.findByLedgerId(ledgerId);
-
-        if (transactions.isEmpty()) {
-            return "该账本暂无交易记录";
-        }
-
-        return transactions.stream()
-                .map(this::formatTransactionInfo)
-                .collect(Collectors.joining("\n---\n"));
-    }
-
-    @McpTool(description = """
-            Purpose: Query all transactions created by a specific user
-
-            Prerequisites:
-            - NONE
-
-            Parameters:
-            - createdByUserId: Creator user ID (required)
-
-            Returns:
-            - Success: List of transactions with their details
-            - Failure: Error message if query fails
-
-            Workflow:
-            1. Validate user ID is provided
-            2. Query all transactions by user ID
-            3. Return formatted list of transaction details
-            """)
-    public String listUserTransactions(Long createdByUserId) {
-        log.info("Listing transactions for user: {}", createdByUserId);
-        var transactions = transactionService.findByCreatedByUserId(createdByUserId);
-
-        if (transactions.isEmpty()) {
-            return "该用户暂无交易记录";
-        }
-
-        return transactions.stream()
-                .map(this::formatTransactionInfo)
-                .collect(Collectors.joining("\n---\n"));
-    }
-
-    @McpTool(description = """
-            Purpose: Query transactions by type (income or expense) for a specific user
-
-            Prerequisites:
-            - NONE
-
-            Parameters:
-            - type: Transaction type (required, "1" for INCOME, "2" for EXPENSE)
-            - createdByUserId: Creator user ID (required)
-
-            Returns:
-            - Success: List of transactions matching the type
-            - Failure: Error message if query fails
-
-            Workflow:
-            1. Validate parameters
-            2. Query transactions by type and user ID
-            3. Return formatted list
-            """)
-    public String listTransactionsByType(Integer type, Long createdByUserId) {
-        log.info("Listing transactions by type: type={}, userId={}", type, createdByUserId);
-        var transactions = transactionService.findByTypeAndCreatedByUserId(type, createdByUserId);
-
-        if (transactions.isEmpty()) {
-            return String.format("该用户暂无%s记录", getTypeDescription(type));
-        }
-
-        return transactions.stream()
-                .map(this::formatTransactionInfo)
-                .collect(Collectors.joining("\n---\n"));
-    }
-
-    @McpTool(description = """
-            Purpose: Query transactions within a specific date range
-
-            Prerequisites:
-            - NONE
-
-            Parameters:
-            - startTime: Start date time (required, format: yyyy-MM-dd HH:mm:ss)
-            - endTime: End date time (required, format: yyyy-MM-dd HH:mm:ss)
-            - createdByUserId: Creator user ID (required)
-
-            Returns:
-            - Success: List of transactions within the date range
-            - Failure: Error message if query fails
-
-            Error Handling:
-            - If startTime is after endTime: Return "开始时间不能晚于结束时间" error
-
-            Workflow:
-            1. Validate and parse date time parameters
-            2. Query transactions within date range
-            3. Return formatted list
-            """)
-    public String listTransactionsByDateRange(String startTime, String endTime, Long createdByUserId) {
-        log.info("Listing transactions by date range: start={}, end={}, userId={}", startTime, endTime, createdByUserId);
-
-        var start = LocalDateTime.parse(startTime, FORMATTER);
-        var end = LocalDateTime.parse(endTime, FORMATTER);
-
-        var transactions = transactionService.findByDateRange(start, end, createdByUserId);
-
-        if (transactions.isEmpty()) {
-            return String.format("在 %s 至 %s 期间暂无交易记录", startTime, endTime);
-        }
-
-        return transactions.stream()
-                .map(this::formatTransactionInfo)
-                .collect(Collectors.joining("\n---\n"));
-    }
-
     @McpTool(description = """
             Purpose: Update transaction information
 
@@ -450,37 +316,5 @@ public class TransactionMCP {
         );
     }
 
-    @McpTool(description = """
-            Purpose: Query transactions by category
-
-            Prerequisites:
-            - NONE
-
-            Parameters:
-            - categoryId: Category ID (required)
-
-            Returns:
-            - Success: List of transactions in the specified category
-            - Failure: Error message if query fails
-
-            Workflow:
-            1. Validate category ID is provided
-            2. Query all transactions by category ID
-            3. Return formatted list of transaction details
-            """)
-    public String listTransactionsByCategory(Long categoryId) {
-        log.info("Listing transactions for category: {}", categoryId);
-        var transactions = transactionService.findByCategoryId(categoryId);
-
-        if (transactions.isEmpty()) {
-            return "该分类暂无交易记录";
-        }
-
-        return transactions.stream()
-                .map(this::formatTransactionInfo)
-                .collect(Collectors.joining("\n---\n"));
-    }
-
-
 }
 */
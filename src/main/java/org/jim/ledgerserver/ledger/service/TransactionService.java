@@ -1,15 +1,26 @@
 package org.jim.ledgerserver.ledger.service;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.Predicate;
 import org.apache.commons.lang3.StringUtils;
+import org.jim.ledgerserver.common.config.MetricsConfig;
 import org.jim.ledgerserver.common.enums.TransactionSourceEnum;
 import org.jim.ledgerserver.common.enums.TransactionTypeEnum;
 import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.sharding.ShardContext;
+import org.jim.ledgerserver.common.sharding.ShardKey;
+import org.jim.ledgerserver.common.sharding.ShardMigrator;
+import org.jim.ledgerserver.common.util.DataVersionTracker;
 import org.jim.ledgerserver.common.util.UserContext;
+import org.jim.ledgerserver.ledger.dto.BulkCreateResult;
 import org.jim.ledgerserver.ledger.entity.LedgerEntity;
 import org.jim.ledgerserver.ledger.entity.TransactionEntity;
 import org.jim.ledgerserver.ledger.repository.TransactionRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -21,12 +32,16 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 交易业务逻辑层
  * @author James Smith
  */
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Component
 public class TransactionService {
 
@@ -39,6 +54,38 @@ public class TransactionService {
     @Resource
     private LedgerMemberService ledgerMemberService;
 
+    @Resource
+    private DataVersionTracker dataVersionTracker;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 跨分片改挂账本时搬迁数据，未启用分片时为空
+     */
+    @Resource
+    private ObjectProvider<ShardMigrator> shardMigrators;
+
+    /**
+     * 批量创建时每多少条 flush 一次，与 JDBC 批大小保持一致
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int bulkFlushSize;
+
+    /**
+     * 启用分片时交易不在主库的持久化单元中，批量创建改为按批交给仓库写入各分片
+     */
+    @Value("${ledger.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    /**
+     * 游标读取的顺序：交易时间、ID倒序
+     */
+    private static final Comparator<TransactionEntity> SCAN_ORDER = Comparator
+            .comparing(TransactionEntity::getTransactionDateTime)
+            .thenComparing(TransactionEntity::getId)
+            .reversed();
+
     /**
      * 创建交易
      * @param description 交易描述
@@ -54,12 +101,7 @@ public class TransactionService {
     public TransactionEntity create(String description, BigDecimal amount,
                                     Integer type, LocalDateTime transactionDateTime,
                                     Long ledgerId, Long categoryId, Long paymentMethodId, Integer source) {
-        if (amount == null) {
-            throw new BusinessException("交易金额不能为空");
-        }
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new BusinessException("交易金额必须大于0");
-        }
+        validateAmountAndType(amount, type);
 
         Long currentUserId = UserContext.getCurrentUserId();
 
@@ -67,9 +109,6 @@ public class TransactionService {
             throw new BusinessException("创建用户ID不能为空");
         }
 
-        // 验证交易类型
-        TransactionTypeEnum.fromCode(type);
-
         var transaction = new TransactionEntity();
         transaction.setDescription(description);
         transaction.setAmount(amount);
@@ -82,7 +121,100 @@ public class TransactionService {
         // 设置来源，默认为手动(1)
         transaction.setSource(source != null ? source : TransactionSourceEnum.MANUAL.getCode());
 
-        return transactionRepository.save(transaction);
+        TransactionEntity saved = transactionRepository.save(transaction);
+        markChanged(saved);
+        return saved;
+    }
+
+    /**
+     * 批量创建交易
+     * 整批在同一事务内写入，主键由号段分配，配合 JDBC 批量插入按 {@code bulkFlushSize} 分批 flush，
+     * 每批 flush 后清空持久化上下文，避免上千条实体堆积在一级缓存中。
+     * 单条校验失败只记录失败原因并跳过，不影响其他条目。
+     * 启用分片时每批在各分片上单独提交，中途失败时之前的批次已写入。
+     * @param drafts 待创建的交易（ledgerId、描述、金额、类型等已填好；时间和来源为空时取默认值）
+     * @return 创建成功的交易及失败条目
+     */
+    @Transactional
+    public BulkCreateResult bulkCreate(List<TransactionEntity> drafts) {
+        Long currentUserId = UserContext.getCurrentUserId();
+        if (currentUserId == null) {
+            throw new BusinessException("创建用户ID不能为空");
+        }
+
+        List<TransactionEntity> created = new ArrayList<>(drafts.size());
+        List<TransactionEntity> pending = new ArrayList<>();
+        List<BulkCreateResult.Failure> failures = new ArrayList<>();
+        Set<Long> changedLedgerIds = new LinkedHashSet<>();
+        boolean personalChanged = false;
+
+        for (int i = 0; i < drafts.size(); i++) {
+            TransactionEntity transaction = drafts.get(i);
+            try {
+                validateAmountAndType(transaction.getAmount(), transaction.getType());
+            } catch (BusinessException | IllegalArgumentException e) {
+                failures.add(new BulkCreateResult.Failure(i, e.getMessage()));
+                continue;
+            }
+
+            transaction.setId(null);
+            transaction.setCreatedByUserId(currentUserId);
+            if (transaction.getTransactionDateTime() == null) {
+                transaction.setTransactionDateTime(LocalDateTime.now());
+            }
+            if (transaction.getSource() == null) {
+                transaction.setSource(TransactionSourceEnum.MANUAL.getCode());
+            }
+
+            if (shardingEnabled) {
+                pending.add(transaction);
+            } else {
+                entityManager.persist(transaction);
+            }
+            created.add(transaction);
+            if (transaction.getLedgerId() != null) {
+                changedLedgerIds.add(transaction.getLedgerId());
+            } else {
+                personalChanged = true;
+            }
+
+            if (created.size() % bulkFlushSize == 0) {
+                flushBulk(pending);
+            }
+        }
+        if (shardingEnabled) {
+            flushBulk(pending);
+        }
+
+        changedLedgerIds.forEach(dataVersionTracker::bumpLedger);
+        if (personalChanged) {
+            dataVersionTracker.bumpUser(currentUserId);
+        }
+        return new BulkCreateResult(created, failures);
+    }
+
+    private void flushBulk(List<TransactionEntity> pending) {
+        if (!shardingEnabled) {
+            entityManager.flush();
+            entityManager.clear();
+        } else if (!pending.isEmpty()) {
+            transactionRepository.saveAll(pending);
+            pending.clear();
+        }
+    }
+
+    /**
+     * 校验交易金额与类型
+     */
+    private void validateAmountAndType(BigDecimal amount, Integer type) {
+        if (amount == null) {
+            throw new BusinessException("交易金额不能为空");
+        }
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BusinessException("交易金额必须大于0");
+        }
+        // 验证交易类型
+        TransactionTypeEnum.fromCode(type);
     }
 
     /**
@@ -201,7 +333,7 @@ public class TransactionService {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        return transactionRepository.findAll(spec, pageable);
+        return ShardContext.forLedger(ledgerId, () -> transactionRepository.findAll(spec, pageable));
     }
 
     /**
@@ -220,6 +352,73 @@ public class TransactionService {
         return queryTransactions(ledgerId, type, categoryId, startTime, endTime, createdByUserId, null, pageable);
     }
 
+    /**
+     * 按游标顺序读取交易（未删除，按交易时间、ID倒序）
+     * 不统计总数，下一页从上一页最后一条之后继续，翻页代价与页码无关。
+     * @param ledgerId 账本ID（可选，为空时查询用户自己创建的交易）
+     * @param type 交易类型（可选）
+     * @param categoryId 分类ID（可选）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param createdByUserId 创建用户ID
+     * @param afterTime 上一页最后一条的交易时间（第一页为空）
+     * @param afterId 上一页最后一条的ID（第一页为空）
+     * @param limit 最多返回条数
+     * @return 交易列表
+     */
+    public List<TransactionEntity> scanTransactions(Long ledgerId, Integer type, Long categoryId,
+                                                    LocalDateTime startTime, LocalDateTime endTime,
+                                                    Long createdByUserId, LocalDateTime afterTime, Long afterId,
+                                                    int limit) {
+        if (createdByUserId == null) {
+            throw new BusinessException("创建用户ID不能为空");
+        }
+        if (type != null) {
+            TransactionTypeEnum.fromCode(type);
+        }
+        if (startTime != null && endTime != null && startTime.isAfter(endTime)) {
+            throw new BusinessException("开始时间不能晚于结束时间");
+        }
+
+        Specification<TransactionEntity> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNull(root.get("deleteTime")));
+            if (ledgerId != null) {
+                predicates.add(cb.equal(root.get("ledgerId"), ledgerId));
+            } else {
+                predicates.add(cb.equal(root.get("createdByUserId"), createdByUserId));
+            }
+            if (type != null) {
+                predicates.add(cb.equal(root.get("type"), type));
+            }
+            if (categoryId != null) {
+                predicates.add(cb.equal(root.get("categoryId"), categoryId));
+            }
+            if (startTime != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("transactionDateTime"), startTime));
+            }
+            if (endTime != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("transactionDateTime"), endTime));
+            }
+            if (afterTime != null && afterId != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("transactionDateTime"), afterTime),
+                        cb.and(cb.equal(root.get("transactionDateTime"), afterTime),
+                                cb.lessThan(root.get("id"), afterId))));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+
+        Sort sort = Sort.by(Sort.Order.desc("transactionDateTime"), Sort.Order.desc("id"));
+        List<TransactionEntity> transactions = ShardContext.forLedger(ledgerId,
+                () -> transactionRepository.findBy(spec, q -> q.sortBy(sort).limit(limit).all()));
+        if (shardingEnabled && ledgerId == null) {
+            // 各分片各自排好序取了 limit 条，拼接后重新排序截取
+            return transactions.stream().sorted(SCAN_ORDER).limit(limit).toList();
+        }
+        return transactions;
+    }
+
     /**
      * 根据ID查询交易
      * @param id 交易ID
@@ -383,7 +582,9 @@ public class TransactionService {
             transaction.setCategoryId(categoryId);
         }
 
-        return transactionRepository.save(transaction);
+        TransactionEntity saved = transactionRepository.save(transaction);
+        markChanged(saved);
+        return saved;
     }
 
     /**
@@ -411,6 +612,7 @@ public class TransactionService {
         }
         transaction.setDeleteTime(LocalDateTime.now());
         transactionRepository.save(transaction);
+        markChanged(transaction);
     }
 
     /**
@@ -426,7 +628,10 @@ public class TransactionService {
         if (existing.getDeleteTime() != null) {
             throw new BusinessException("交易已删除");
         }
-        return transactionRepository.save(transaction);
+        TransactionEntity saved = transactionRepository.save(transaction);
+        markChanged(existing);
+        markChanged(saved);
+        return saved;
     }
 
     /**
@@ -437,10 +642,29 @@ public class TransactionService {
         if (id == null) {
             throw new BusinessException("交易ID不能为空");
         }
-        if (!transactionRepository.existsById(id)) {
-            throw new BusinessException("交易不存在");
+        TransactionEntity transaction = transactionRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("交易不存在"));
+        transactionRepository.delete(transaction);
+        markChanged(transaction);
+    }
+
+    /**
+     * 标记交易所在范围的数据已变化（用于 ETag 条件请求失效）
+     * 附件等挂在交易上的数据变化时也需调用
+     * @param transaction 交易实体
+     */
+    public void markChanged(TransactionEntity transaction) {
+        dataVersionTracker.bumpLedgerOrUser(transaction.getLedgerId(), transaction.getCreatedByUserId());
+    }
+
+    /**
+     * 标记交易所在范围的数据已变化（交易不存在时忽略）
+     * @param transactionId 交易ID
+     */
+    public void markChanged(Long transactionId) {
+        if (transactionId != null) {
+            transactionRepository.findById(transactionId).ifPresent(this::markChanged);
         }
-        transactionRepository.deleteById(id);
     }
 
     /**
@@ -561,8 +785,16 @@ public class TransactionService {
             throw new BusinessException("无权限移动到目标账本");
         }
 
+        // 原账本与目标账本的版本都需要递增
+        markChanged(transaction);
+        ShardKey previousKey = ShardKey.of(transaction.getLedgerId(), transaction.getCreatedByUserId());
         transaction.setLedgerId(targetLedgerId);
-        return transactionRepository.save(transaction);
+        ShardMigrator shardMigrator = shardMigrators.getIfAvailable();
+        TransactionEntity saved = shardMigrator != null
+                ? shardMigrator.saveMoved(transaction, previousKey)
+                : transactionRepository.save(transaction);
+        markChanged(saved);
+        return saved;
     }
 
     private void ensureLedgerActive(LedgerEntity ledger, String label) {
@@ -607,6 +839,7 @@ public class TransactionService {
      * @param userId 用户ID
      * @return 每日统计列表
      */
+    @Transactional(readOnly = true)
     public List<org.jim.ledgerserver.ledger.vo.DailyStatisticsResp> getDailyStatistics(
             Long ledgerId,
             String startTimeStr,
@@ -646,7 +879,7 @@ public class TransactionService {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        List<TransactionEntity> transactions = transactionRepository.findAll(spec);
+        List<TransactionEntity> transactions = ShardContext.forLedger(ledgerId, () -> transactionRepository.findAll(spec));
 
         // 按日期分组统计
         java.util.Map<String, org.jim.ledgerserver.ledger.vo.DailyStatisticsResp> dailyMap = new java.util.HashMap<>();
@@ -695,6 +928,7 @@ public class TransactionService {
      * @param userId 用户ID
      * @return 月度汇总统计
      */
+    @Transactional(readOnly = true)
     public org.jim.ledgerserver.ledger.vo.MonthlySummaryResp getMonthlySummary(
             Long ledgerId,
             String startTimeStr,
@@ -734,7 +968,7 @@ public class TransactionService {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        List<TransactionEntity> transactions = transactionRepository.findAll(spec);
+        List<TransactionEntity> transactions = ShardContext.forLedger(ledgerId, () -> transactionRepository.findAll(spec));
 
         // 计算汇总数据
         BigDecimal totalIncome = BigDecimal.ZERO;
@@ -816,7 +1050,7 @@ public class TransactionService {
         Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "amount"));
 
         // 使用 Slice 避免 count 查询，或者直接 getContent
-        return transactionRepository.findAll(spec, pageable).getContent();
+        return ShardContext.forLedger(ledgerId, () -> transactionRepository.findAll(spec, pageable)).getContent();
     }
 
     /**
@@ -871,7 +1105,9 @@ public class TransactionService {
         childTransaction.setPaymentMethodId(parentTransaction.getPaymentMethodId());
         childTransaction.setSource(TransactionSourceEnum.MANUAL.getCode());
 
-        return transactionRepository.save(childTransaction);
+        TransactionEntity saved = transactionRepository.save(childTransaction);
+        markChanged(saved);
+        return saved;
     }
 
     /**
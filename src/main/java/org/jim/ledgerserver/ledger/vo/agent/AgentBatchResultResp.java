@@ -12,7 +12,12 @@ public record AgentBatchResultResp(
         int failedCount,
         List<AgentTransactionResp> successItems,
         List<FailedItem> failedItems,
-        String message
+        String message,
+        /**
+         * 后台任务ID：批量较大时转为异步执行，此时成功/失败列表为空，
+         * 通过 /api/ingestion/jobs/{jobId} 查询进度和结果
+         */
+        Long jobId
 ) {
     /**
      * 失败项
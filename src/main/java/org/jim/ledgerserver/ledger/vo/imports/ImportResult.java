@@ -0,0 +1,29 @@
+package org.jim.ledgerserver.ledger.vo.imports;
+
+/**
+ * 账单导入结果/进度
+ *
+ * @author James Smith
+ */
+public record ImportResult(
+        /**
+         * 已处理行数
+         */
+        long processedRows,
+
+        /**
+         * 成功导入条数
+         */
+        long successCount,
+
+        /**
+         * 失败条数
+         */
+        long failedCount,
+
+        /**
+         * 错误文件ID（有失败行时才有，通过 /api/import/errors/{id} 下载）
+         */
+        String errorFileId
+) {
+}
@@ -0,0 +1,463 @@
+package org.jim.ledgerserver.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.util.UserContext;
+import org.jim.ledgerserver.mcp.dto.McpBatchCall;
+import org.jim.ledgerserver.mcp.dto.McpBatchResult;
+import org.jim.ledgerserver.user.entity.UserEntity;
+import org.springaicommunity.mcp.annotation.McpTool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 批量 MCP 工具
+ * 一次请求携带多个工具调用，无依赖的调用并发执行，全部在同一个已认证的用户上下文中完成，结果一次性返回。
+ * 参数中的 {"$ref": "c1.result.id"} 在执行前替换为前面调用 c1 的结果（或结果中的字段），被引用的调用自动成为依赖。
+ * 所有批次共用一个有界线程池；单个批次同时占用的线程数有上限，避免一个大批次占满线程池。
+ * 队列已满时提交不了的调用直接标记为 ERROR；超时后尚未开始的调用不再执行，已在执行的调用无法中断，会继续跑完。
+ *
+ * @author James Smith
+ */
+@Component
+@Slf4j
+public class BatchMCP {
+
+    private static final String TOOL_NAME = "batch";
+
+    /**
+     * 结果引用：参数值为只含该键的对象，值为 "调用ID.result[.字段...]"
+     */
+    private static final String REF_KEY = "$ref";
+
+    private static final String REF_RESULT = "result";
+
+    /**
+     * 文本结果中的字段，如 "账本创建成功: ID=5, 名称=旅行" 中的 ID=5
+     */
+    private static final Pattern TEXT_FIELD = Pattern.compile("([\\p{L}\\p{N}_]+)=([^,，\\n]*)");
+
+    @Resource
+    private McpToolRegistry mcpToolRegistry;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${ledger.mcp.batch.max-calls:20}")
+    private int maxCalls;
+
+    @Value("${ledger.mcp.batch.worker-threads:8}")
+    private int workerThreads;
+
+    @Value("${ledger.mcp.batch.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${ledger.mcp.batch.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${ledger.mcp.batch.timeout-seconds:30}")
+    private int timeoutSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "mcp-batch-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @McpTool(name = TOOL_NAME, description = """
+            Purpose: Execute several tool calls in one request to save round trips
+            
+            Prerequisites:
+            - NONE - Every call runs with the caller's authentication
+            
+            Parameters:
+            - calls: List of tool calls (required, at most 20), each with:
+              - id: Call ID, unique within the batch (required)
+              - tool: Name of the tool to call, e.g. "getLedger" (required, "batch" itself is not allowed)
+              - arguments: Object of tool arguments keyed by parameter name (optional);
+                any value may be a reference {"$ref": "<id>.result[.<field>...]"} to an earlier call's result
+              - dependsOn: IDs of earlier calls that must succeed first (optional)
+            
+            References:
+            - {"$ref": "c1.result"} is replaced by the whole result of call c1
+            - {"$ref": "c1.result.id"} is replaced by field "id" of that result; JSON results are navigated
+              by field name or array index, text results like "账本创建成功: ID=5, 名称=旅行" expose their
+              "key=value" pairs as fields (keys match case-insensitively)
+            - A referenced call is an implicit dependency; a reference that cannot be resolved fails the call with ERROR
+            
+            Example:
+            [{"id": "c1", "tool": "createLedger", "arguments": {"name": "旅行"}},
+             {"id": "c2", "tool": "createTransaction", "arguments": {"name": "机票", "amount": 30, "ledgerId": {"$ref": "c1.result.id"}}}]
+            
+            Returns:
+            - JSON array with one entry per call, in request order:
+              id, tool, status (OK / ERROR / SKIPPED / TIMEOUT), result, error, elapsedMs
+            
+            Workflow:
+            1. Validate IDs are unique and dependencies and references only point to earlier calls
+            2. Run calls without pending dependencies concurrently, a few at a time;
+               a call the server is too busy to start fails with ERROR
+            3. Run a call after all of its dependencies succeed, with references replaced by their results;
+               skip it if any of them failed
+            4. Return all results together
+            """)
+    public String batch(List<McpBatchCall> calls) {
+        validate(calls);
+        log.info("Executing MCP batch: {} calls", calls.size());
+
+        BatchRun run = new BatchRun(UserContext.getCurrentUser(), UserContext.getCurrentToken());
+
+        Map<String, CompletableFuture<McpBatchResult>> futures = new LinkedHashMap<>();
+        for (McpBatchCall call : calls) {
+            List<CompletableFuture<McpBatchResult>> dependencies = dependencyIds(call).stream().map(futures::get).toList();
+            CompletableFuture<McpBatchResult> future = new CompletableFuture<>();
+            CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new)).thenRun(() -> {
+                Map<String, McpBatchResult> done = new LinkedHashMap<>();
+                for (CompletableFuture<McpBatchResult> dependency : dependencies) {
+                    McpBatchResult result = dependency.join();
+                    if (!result.ok()) {
+                        future.complete(new McpBatchResult(call.id(), call.tool(), McpBatchResult.SKIPPED, null,
+                                "依赖的调用未成功: " + result.id(), 0));
+                        return;
+                    }
+                    done.put(result.id(), result);
+                }
+                McpBatchCall resolved;
+                try {
+                    resolved = new McpBatchCall(call.id(), call.tool(), resolveRefs(call.arguments(), done),
+                            call.dependsOn());
+                } catch (BusinessException e) {
+                    future.complete(new McpBatchResult(call.id(), call.tool(), McpBatchResult.ERROR, null,
+                            e.getMessage(), 0));
+                    return;
+                }
+                run.submit(new PendingCall(resolved, future));
+            });
+            futures.put(call.id(), future);
+        }
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new));
+        try {
+            all.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("MCP batch timed out after {}s", timeoutSeconds);
+            run.cancel();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ignored) {
+            // 单个调用的异常已转换为 ERROR 结果
+        }
+
+        List<McpBatchResult> results = new ArrayList<>(calls.size());
+        futures.forEach((id, future) -> {
+            McpBatchResult result = future.getNow(null);
+            if (result == null) {
+                result = new McpBatchResult(id, toolOf(calls, id), McpBatchResult.TIMEOUT, null, "执行超时", 0);
+            }
+            results.add(result);
+        });
+
+        try {
+            return objectMapper.writeValueAsString(results);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("序列化批量结果失败: " + e.getMessage());
+        }
+    }
+
+    private record PendingCall(McpBatchCall call, CompletableFuture<McpBatchResult> future) {
+    }
+
+    /**
+     * 一个批次的调度：依赖已满足的调用经此提交到线程池，同时在执行或排队的不超过 maxConcurrency 个，
+     * 其余在本批次内等待，前一个结束后再提交
+     */
+    private final class BatchRun {
+
+        private final UserEntity user;
+
+        private final String token;
+
+        private final Deque<PendingCall> waiting = new ArrayDeque<>();
+
+        private int running;
+
+        private boolean cancelled;
+
+        BatchRun(UserEntity user, String token) {
+            this.user = user;
+            this.token = token;
+        }
+
+        void submit(PendingCall pending) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (running >= maxConcurrency) {
+                    waiting.add(pending);
+                    return;
+                }
+                running++;
+            }
+            dispatch(pending);
+        }
+
+        /**
+         * 批次超时：等待中和还在线程池队列里的调用都不再执行
+         */
+        synchronized void cancel() {
+            cancelled = true;
+            waiting.clear();
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void dispatch(PendingCall pending) {
+            McpBatchCall call = pending.call();
+            try {
+                executor.execute(() -> {
+                    try {
+                        if (!isCancelled()) {
+                            pending.future().complete(execute(call, user, token));
+                        }
+                    } finally {
+                        finished();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("MCP batch call {} ({}) rejected: worker queue is full", call.id(), call.tool());
+                pending.future().complete(new McpBatchResult(call.id(), call.tool(), McpBatchResult.ERROR, null,
+                        "服务繁忙，调用未执行，请稍后重试", 0));
+                finished();
+            }
+        }
+
+        private void finished() {
+            PendingCall next;
+            synchronized (this) {
+                next = cancelled ? null : waiting.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+            }
+            dispatch(next);
+        }
+    }
+
+    /**
+     * 在工作线程上以调用方身份执行单个调用，执行后恢复线程原有的上下文
+     */
+    private McpBatchResult execute(McpBatchCall call, UserEntity user, String token) {
+        UserEntity previousUser = UserContext.getCurrentUser();
+        String previousToken = UserContext.getCurrentToken();
+        UserContext.setCurrentUser(user);
+        UserContext.setCurrentToken(token);
+        long start = System.currentTimeMillis();
+        try {
+            Object result = mcpToolRegistry.invoke(call.tool(), call.arguments());
+            return new McpBatchResult(call.id(), call.tool(), McpBatchResult.OK, result, null,
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("MCP batch call {} ({}) failed: {}", call.id(), call.tool(), e.getMessage());
+            return new McpBatchResult(call.id(), call.tool(), McpBatchResult.ERROR, null,
+                    StringUtils.defaultIfBlank(e.getMessage(), e.getClass().getSimpleName()),
+                    System.currentTimeMillis() - start);
+        } finally {
+            UserContext.setCurrentUser(previousUser);
+            UserContext.setCurrentToken(previousToken);
+        }
+    }
+
+    private void validate(List<McpBatchCall> calls) {
+        if (calls == null || calls.isEmpty()) {
+            throw new BusinessException("调用列表不能为空");
+        }
+        if (calls.size() > maxCalls) {
+            throw new BusinessException("单次批量调用最多 " + maxCalls + " 个");
+        }
+        List<String> seen = new ArrayList<>(calls.size());
+        for (McpBatchCall call : calls) {
+            if (StringUtils.isBlank(call.id()) || StringUtils.isBlank(call.tool())) {
+                throw new BusinessException("调用ID和工具名称不能为空");
+            }
+            if (seen.contains(call.id())) {
+                throw new BusinessException("调用ID重复: " + call.id());
+            }
+            if (TOOL_NAME.equals(call.tool())) {
+                throw new BusinessException("批量调用不能嵌套");
+            }
+            for (String dependency : dependencyIds(call)) {
+                // 只允许依赖和引用前面的调用，因此不会出现环
+                if (!seen.contains(dependency)) {
+                    throw new BusinessException("调用 " + call.id() + " 依赖的 " + dependency + " 不存在或不在其之前");
+                }
+            }
+            seen.add(call.id());
+        }
+    }
+
+    /**
+     * 调用需要等待的调用ID：显式的 dependsOn 加上参数中引用的调用
+     */
+    private static Set<String> dependencyIds(McpBatchCall call) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (call.dependsOn() != null) {
+            ids.addAll(call.dependsOn());
+        }
+        collectRefs(call.arguments(), call.id(), ids);
+        return ids;
+    }
+
+    private static void collectRefs(Object value, String callId, Set<String> ids) {
+        if (value instanceof Map<?, ?> map) {
+            String ref = refOf(map);
+            if (ref != null) {
+                String[] path = ref.split("\\.");
+                if (path.length < 2 || !REF_RESULT.equals(path[1])) {
+                    throw new BusinessException("调用 " + callId + " 的引用格式应为 调用ID.result[.字段]: " + ref);
+                }
+                ids.add(path[0]);
+                return;
+            }
+            map.values().forEach(v -> collectRefs(v, callId, ids));
+        } else if (value instanceof List<?> list) {
+            list.forEach(v -> collectRefs(v, callId, ids));
+        }
+    }
+
+    private static String refOf(Map<?, ?> map) {
+        return map.size() == 1 && map.get(REF_KEY) instanceof String ref ? ref : null;
+    }
+
+    /**
+     * 把参数中的引用替换为已完成调用的结果
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T resolveRefs(T value, Map<String, McpBatchResult> done) {
+        if (value instanceof Map<?, ?> map) {
+            String ref = refOf(map);
+            if (ref != null) {
+                return (T) lookup(ref, done);
+            }
+            Map<Object, Object> resolved = new LinkedHashMap<>();
+            map.forEach((k, v) -> resolved.put(k, resolveRefs(v, done)));
+            return (T) resolved;
+        }
+        if (value instanceof List<?> list) {
+            return (T) list.stream().map(v -> resolveRefs(v, done)).toList();
+        }
+        return value;
+    }
+
+    private Object lookup(String ref, Map<String, McpBatchResult> done) {
+        String[] path = ref.split("\\.");
+        JsonNode node = toNode(done.get(path[0]).result());
+        for (int i = 2; i < path.length && node != null; i++) {
+            node = child(node, path[i]);
+        }
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            throw new BusinessException("引用的结果不存在: " + ref);
+        }
+        try {
+            return objectMapper.treeToValue(node, Object.class);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("引用的结果无法转换: " + ref);
+        }
+    }
+
+    /**
+     * 工具结果转为 JSON 节点，JSON 文本按 JSON 解析，其他文本保持为字符串
+     */
+    private JsonNode toNode(Object result) {
+        if (result instanceof String text) {
+            String trimmed = text.trim();
+            if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
+                try {
+                    return objectMapper.readTree(trimmed);
+                } catch (JsonProcessingException ignored) {
+                    // 不是合法 JSON，按普通文本处理
+                }
+            }
+            return TextNode.valueOf(text);
+        }
+        return objectMapper.valueToTree(result);
+    }
+
+    private JsonNode child(JsonNode node, String field) {
+        if (node.isArray()) {
+            return StringUtils.isNumeric(field) ? node.get(Integer.parseInt(field)) : null;
+        }
+        if (node.isTextual()) {
+            node = textFields(node.textValue());
+        }
+        if (!node.isObject()) {
+            return null;
+        }
+        if (node.has(field)) {
+            return node.get(field);
+        }
+        for (Iterator<String> names = node.fieldNames(); names.hasNext(); ) {
+            String name = names.next();
+            if (name.equalsIgnoreCase(field)) {
+                return node.get(name);
+            }
+        }
+        return null;
+    }
+
+    private ObjectNode textFields(String text) {
+        ObjectNode fields = objectMapper.createObjectNode();
+        Matcher matcher = TEXT_FIELD.matcher(text);
+        while (matcher.find()) {
+            fields.put(matcher.group(1), matcher.group(2).trim());
+        }
+        return fields;
+    }
+
+    private static String toolOf(List<McpBatchCall> calls, String id) {
+        return calls.stream().filter(c -> c.id().equals(id)).map(McpBatchCall::tool).findFirst().orElse(null);
+    }
+}
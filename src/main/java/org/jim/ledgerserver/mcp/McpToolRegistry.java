@@ -0,0 +1,99 @@
+package org.jim.ledgerserver.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.springaicommunity.mcp.annotation.McpTool;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MCP 工具注册表
+ * 启动完成后收集所有 @McpTool 方法，供批量工具在服务端直接按名称调用（参数按参数名从 JSON 对象绑定）。
+ *
+ * @author James Smith
+ */
+@Slf4j
+@Component
+public class McpToolRegistry implements SmartInitializingSingleton {
+
+    @Resource
+    private ApplicationContext applicationContext;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    private record ToolMethod(Object bean, Method method) {
+    }
+
+    private final Map<String, ToolMethod> tools = new HashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> type = applicationContext.getType(beanName, false);
+            if (type == null) {
+                continue;
+            }
+            Map<Method, McpTool> methods = MethodIntrospector.selectMethods(ClassUtils.getUserClass(type),
+                    (MethodIntrospector.MetadataLookup<McpTool>) method ->
+                            AnnotatedElementUtils.findMergedAnnotation(method, McpTool.class));
+            if (methods.isEmpty()) {
+                continue;
+            }
+            Object bean = applicationContext.getBean(beanName);
+            methods.forEach((method, annotation) -> {
+                String name = StringUtils.defaultIfBlank(annotation.name(), method.getName());
+                if (tools.putIfAbsent(name, new ToolMethod(bean, method)) != null) {
+                    log.warn("Duplicate MCP tool name {}, keeping the first one", name);
+                }
+            });
+        }
+        log.info("Registered {} MCP tools for batch execution", tools.size());
+    }
+
+    public Set<String> getToolNames() {
+        return tools.keySet();
+    }
+
+    /**
+     * 按名称调用工具
+     *
+     * @param name 工具名称
+     * @param arguments 参数，键为参数名，缺失的参数传 null
+     * @return 工具返回值
+     */
+    public Object invoke(String name, Map<String, Object> arguments) throws Exception {
+        ToolMethod tool = tools.get(name);
+        if (tool == null) {
+            throw new BusinessException("未知的工具: " + name);
+        }
+        Parameter[] parameters = tool.method().getParameters();
+        Object[] args = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Object raw = arguments == null ? null : arguments.get(parameters[i].getName());
+            if (raw != null) {
+                args[i] = objectMapper.convertValue(raw,
+                        objectMapper.constructType(parameters[i].getParameterizedType()));
+            }
+        }
+        try {
+            return tool.method().invoke(tool.bean(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.jim.ledgerserver.mcp.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量工具调用中的单个调用
+ * @author James Smith
+ */
+public record McpBatchCall(
+        /**
+         * 调用ID（批内唯一，供 dependsOn 和 $ref 引用）
+         */
+        String id,
+
+        /**
+         * 工具名称
+         */
+        String tool,
+
+        /**
+         * 工具参数，键为参数名；值可以是 {"$ref": "调用ID.result.字段"}，执行前替换为前面调用的结果
+         */
+        Map<String, Object> arguments,
+
+        /**
+         * 依赖的调用ID，只能引用排在前面的调用
+         */
+        List<String> dependsOn
+) {
+}
@@ -0,0 +1,47 @@
+package org.jim.ledgerserver.mcp.dto;
+
+/**
+ * 批量工具调用中单个调用的结果
+ * @author James Smith
+ */
+public record McpBatchResult(
+        /**
+         * 调用ID
+         */
+        String id,
+
+        /**
+         * 工具名称
+         */
+        String tool,
+
+        /**
+         * 状态：OK / ERROR / SKIPPED / TIMEOUT
+         */
+        String status,
+
+        /**
+         * 工具返回内容（成功时）
+         */
+        Object result,
+
+        /**
+         * 错误信息（非成功时）
+         */
+        String error,
+
+        /**
+         * 耗时（毫秒）
+         */
+        long elapsedMs
+) {
+
+    public static final String OK = "OK";
+    public static final String ERROR = "ERROR";
+    public static final String SKIPPED = "SKIPPED";
+    public static final String TIMEOUT = "TIMEOUT";
+
+    public boolean ok() {
+        return OK.equals(status);
+    }
+}
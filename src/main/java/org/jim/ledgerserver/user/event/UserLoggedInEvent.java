@@ -0,0 +1,21 @@
+package org.jim.ledgerserver.user.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 用户登录成功事件
+ * @author James Smith
+ */
+public class UserLoggedInEvent extends ApplicationEvent {
+
+    private final Long userId;
+
+    public UserLoggedInEvent(Object source, Long userId) {
+        super(source);
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -10,11 +10,13 @@ import org.jim.ledgerserver.user.dto.OAuthUserInfo;
 import org.jim.ledgerserver.user.entity.UserEntity;
 import org.jim.ledgerserver.user.entity.UserOAuthEntity;
 import org.jim.ledgerserver.user.enums.OAuthType;
+import org.jim.ledgerserver.user.event.UserLoggedInEvent;
 import org.jim.ledgerserver.user.repository.UserOAuthRepository;
 import org.jim.ledgerserver.user.repository.UserRepository;
 import org.jim.ledgerserver.ledger.service.PaymentMethodService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -56,6 +58,9 @@ public class OAuthBusinessService {
     @Resource
     private List<OAuthService> oauthServices;
     
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * OAuth服务映射表
      * 使用 Map 实现策略模式
@@ -109,6 +114,7 @@ public class OAuthBusinessService {
         
         // 4. 更新或创建 OAuth 绑定关系
         updateOAuthBinding(user.getId(), oauthUserInfo);
+        eventPublisher.publishEvent(new UserLoggedInEvent(this, user.getId()));
         
         // 5. 生成 JWT token
         String token = jwtUtil.generateToken(user.getId(), user.getUsername());
@@ -3,6 +3,7 @@ package org.jim.ledgerserver.user.service;
 import jakarta.annotation.Resource;
 import org.apache.commons.lang3.StringUtils;
 import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.util.DataVersionTracker;
 import org.jim.ledgerserver.common.util.JwtUtil;
 import org.jim.ledgerserver.common.util.PasswordEncoder;
 import org.jim.ledgerserver.common.util.UserContext;
@@ -18,12 +19,18 @@ import org.jim.ledgerserver.user.entity.UserAvatarEntity;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
+import org.jim.ledgerserver.user.event.UserLoggedInEvent;
 import org.jim.ledgerserver.user.event.UserRegisteredEvent;
+import org.jim.ledgerserver.ledger.repository.LedgerRepository;
 import org.jim.ledgerserver.ledger.service.PaymentMethodService;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author James Smith
@@ -49,6 +56,12 @@ public class UserService {
     @Resource
     private ApplicationEventPublisher eventPublisher;
 
+    @Resource
+    private LedgerRepository ledgerRepository;
+
+    @Resource
+    private DataVersionTracker dataVersionTracker;
+
     /**
      * 通过用户名、密码简单注册用户
      */
@@ -137,6 +150,7 @@ public class UserService {
         // 4. 更新登录信息
         user.setLastLoginTime(LocalDateTime.now());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserLoggedInEvent(this, user.getId()));
 
         // 5. 生成 JWT token
         String token = jwtUtil.generateToken(user.getId(), user.getUsername());
@@ -222,6 +236,7 @@ public class UserService {
         // 如果需要记录 IP，可以从 HttpServletRequest 中获取
         // user.setLastLoginIp(ipAddress);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserLoggedInEvent(this, user.getId()));
 
         // 6. 生成 JWT token
         String token = jwtUtil.generateToken(user.getId(), user.getUsername());
@@ -322,6 +337,19 @@ public class UserService {
                 .orElseThrow(() -> new BusinessException("用户不存在"));
     }
 
+    /**
+     * 批量查找用户（一次查询）
+     * @param userIds 用户ID
+     * @return userId -> 用户实体，不存在的用户不在结果中
+     */
+    public Map<Long, UserEntity> findByIds(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+    }
+
     /**
      * 更新用户默认账本
      * @param userId 用户ID
@@ -372,7 +400,17 @@ public class UserService {
             user.setAvatarUrl(request.avatarUrl());
         }
         
-        return userRepository.save(user);
+        UserEntity saved = userRepository.save(user);
+        markProfileChanged(userId);
+        return saved;
+    }
+
+    /**
+     * 昵称、头像会出现在共享账本的交易列表中，资料变化时递增其所在账本的版本
+     */
+    private void markProfileChanged(Long userId) {
+        dataVersionTracker.bumpUser(userId);
+        ledgerRepository.findAccessibleLedgerIdsByUserId(userId).forEach(dataVersionTracker::bumpLedger);
     }
 
     /**
@@ -420,6 +458,7 @@ public class UserService {
             UserEntity user = findById(userId);
             user.setAvatarUrl(avatarUrl);
             userRepository.save(user);
+            markProfileChanged(userId);
             
             return avatarUrl;
         } catch (IOException e) {
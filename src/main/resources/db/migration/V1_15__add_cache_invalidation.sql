@@ -0,0 +1,11 @@
+-- 创建缓存失效事件表
+-- 多节点部署时作为跨节点缓存失效广播的通道，各节点按自增ID轮询消费
+
+CREATE TABLE IF NOT EXISTS cache_invalidation (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '事件ID（自增，各节点按ID顺序消费）',
+    cache_name VARCHAR(64) NOT NULL COMMENT '缓存名称',
+    cache_key VARCHAR(255) COMMENT '缓存键，为空表示清空整个缓存',
+    source_node VARCHAR(64) NOT NULL COMMENT '发布节点ID',
+    create_time DATETIME COMMENT '创建时间',
+    INDEX idx_cache_invalidation_create_time (create_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='缓存失效事件表';
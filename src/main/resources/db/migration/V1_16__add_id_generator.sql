@@ -0,0 +1,11 @@
+-- 创建主键号段表
+-- 交易表改为号段（pooled）方式分配主键以支持 JDBC 批量插入，起始值需高于现有最大ID
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    name VARCHAR(64) NOT NULL PRIMARY KEY COMMENT '号段名称（对应实体）',
+    next_val BIGINT NOT NULL COMMENT '下一号段的上界'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='主键号段表';
+
+INSERT INTO id_generator (name, next_val)
+SELECT 'transaction', COALESCE(MAX(id), 0) + 100 FROM `transaction`
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
@@ -0,0 +1,27 @@
+-- 创建导入任务表
+-- 批量创建/账单导入改为后台任务执行，记录任务状态和进度供客户端轮询
+
+CREATE TABLE IF NOT EXISTS ingestion_job (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '任务ID',
+    user_id BIGINT NOT NULL COMMENT '提交用户ID',
+    ledger_id BIGINT COMMENT '目标账本ID',
+    type VARCHAR(20) NOT NULL COMMENT '任务类型：AGENT_BATCH/FILE_IMPORT',
+    status VARCHAR(20) NOT NULL COMMENT '状态：PENDING/RUNNING/SUCCEEDED/FAILED',
+    source INT COMMENT '写入交易的来源',
+    format VARCHAR(10) COMMENT '载荷格式：CSV/JSON',
+    charset VARCHAR(20) COMMENT '载荷编码',
+    payload_path VARCHAR(500) COMMENT '载荷文件路径',
+    node_id VARCHAR(100) COMMENT '载荷所在节点',
+    processed_rows BIGINT DEFAULT 0 COMMENT '已处理行数',
+    success_count BIGINT DEFAULT 0 COMMENT '成功条数',
+    failed_count BIGINT DEFAULT 0 COMMENT '失败条数',
+    error_file_id VARCHAR(64) COMMENT '错误文件ID',
+    error_message VARCHAR(500) COMMENT '失败原因',
+    start_time DATETIME COMMENT '开始执行时间',
+    finish_time DATETIME COMMENT '结束时间',
+    create_time DATETIME COMMENT '创建时间',
+    update_time DATETIME COMMENT '更新时间',
+    delete_time DATETIME COMMENT '删除时间',
+    INDEX idx_ingestion_job_user (user_id, status),
+    INDEX idx_ingestion_job_status (status, node_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='导入任务表';
@@ -0,0 +1,9 @@
+-- 补全短语增加全拼和首字母列
+-- 使用拼音输入法时可用 wucan / wc 补全出 午餐；已有数据由应用启动后回填
+
+ALTER TABLE completion_phrase
+    ADD COLUMN phrase_pinyin VARCHAR(1000) COMMENT '短语全拼' AFTER phrase_prefix,
+    ADD COLUMN phrase_initials VARCHAR(500) COMMENT '短语拼音首字母' AFTER phrase_pinyin;
+
+CREATE INDEX idx_user_pinyin ON completion_phrase (user_id, phrase_pinyin(32));
+CREATE INDEX idx_user_initials ON completion_phrase (user_id, phrase_initials(32));
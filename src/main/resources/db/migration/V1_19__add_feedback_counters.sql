@@ -0,0 +1,31 @@
+-- 反馈增加点赞/倒赞/评论计数列
+-- 反应和评论写入时原子更新计数，公开列表按 (upvote_count, id) 索引键集分页，不再每次全表统计
+
+ALTER TABLE feedback
+    ADD COLUMN upvote_count INT NOT NULL DEFAULT 0 COMMENT '点赞数' AFTER admin_reply,
+    ADD COLUMN downvote_count INT NOT NULL DEFAULT 0 COMMENT '倒赞数' AFTER upvote_count,
+    ADD COLUMN comment_count INT NOT NULL DEFAULT 0 COMMENT '评论数' AFTER downvote_count;
+
+-- 回填已有数据
+UPDATE feedback f
+    LEFT JOIN (
+        SELECT target_id,
+               SUM(reaction_type = 'upvote') AS upvotes,
+               SUM(reaction_type = 'downvote') AS downvotes
+        FROM feedback_reaction
+        WHERE target_type = 'feedback'
+        GROUP BY target_id
+    ) r ON r.target_id = f.id
+    LEFT JOIN (
+        SELECT feedback_id, COUNT(*) AS comments
+        FROM feedback_comment
+        WHERE delete_time IS NULL
+        GROUP BY feedback_id
+    ) c ON c.feedback_id = f.id
+SET f.upvote_count = COALESCE(r.upvotes, 0),
+    f.downvote_count = COALESCE(r.downvotes, 0),
+    f.comment_count = COALESCE(c.comments, 0);
+
+CREATE INDEX idx_feedback_upvotes ON feedback (upvote_count, id);
+CREATE INDEX idx_feedback_type_upvotes ON feedback (type, upvote_count, id);
+CREATE INDEX idx_feedback_status_upvotes ON feedback (status, upvote_count, id);
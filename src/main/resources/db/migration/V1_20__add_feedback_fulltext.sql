@@ -0,0 +1,5 @@
+-- 反馈与评论全文索引（ngram 分词，支持中文）
+-- 替代 LIKE '%kw%' 全表扫描，搜索按相关度排序
+
+ALTER TABLE feedback ADD FULLTEXT INDEX ft_feedback_text (title, description) WITH PARSER ngram;
+ALTER TABLE feedback_comment ADD FULLTEXT INDEX ft_feedback_comment_content (content) WITH PARSER ngram;
@@ -0,0 +1,15 @@
+-- 交易附件改为号段方式分配主键（分片后各分片号段互不重叠），起始值需高于现有最大ID
+INSERT INTO id_generator (name, next_val)
+SELECT 'transaction_attachment', COALESCE(MAX(id), 0) + 20 FROM transaction_attachment
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+-- 分片目录：账本/用户的交易所在分片（仅启用 ledger.sharding 时使用）
+CREATE TABLE IF NOT EXISTS shard_directory (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    scope VARCHAR(16) NOT NULL COMMENT '键类型：LEDGER / USER',
+    routing_key BIGINT NOT NULL COMMENT '账本ID或用户ID',
+    shard INT NOT NULL COMMENT '分片号',
+    migrating BIT(1) NOT NULL DEFAULT b'0' COMMENT '是否正在迁移（迁移期间拒绝写入）',
+    update_time DATETIME(6) NULL COMMENT '更新时间',
+    UNIQUE KEY uk_shard_directory_key (scope, routing_key)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='分片目录';
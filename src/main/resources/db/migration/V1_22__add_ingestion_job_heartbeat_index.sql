@@ -0,0 +1,5 @@
+-- 导入任务心跳
+-- 各节点定期刷新自己任务的 update_time，任一节点按 (status, update_time) 回收超时未刷新的任务
+
+CREATE INDEX idx_ingestion_job_heartbeat
+ON ingestion_job(status, update_time);
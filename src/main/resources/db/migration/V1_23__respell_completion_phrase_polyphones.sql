@@ -0,0 +1,4 @@
+-- 补全短语的全拼和首字母改为记录多音字的全部读音组合
+-- 清空后由应用启动后的回填任务重新计算
+
+UPDATE completion_phrase SET phrase_pinyin = NULL, phrase_initials = NULL;
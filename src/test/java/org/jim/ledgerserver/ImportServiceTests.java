@@ -0,0 +1,95 @@
+package org.jim.ledgerserver;
+
+import jakarta.annotation.Resource;
+import org.jim.ledgerserver.common.util.UserContext;
+import org.jim.ledgerserver.ledger.service.ImportService;
+import org.jim.ledgerserver.ledger.vo.imports.ImportResult;
+import org.jim.ledgerserver.support.EmbeddedMariaDb;
+import org.jim.ledgerserver.user.entity.UserEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 账单导入：保存时被数据库拒绝的批次写入错误文件，不中断整个导入
+ * 批大小与 JDBC 批量大小都设为 2，满批时在 bulkCreate 内部 flush。
+ *
+ * @author James Smith
+ */
+@SpringBootTest(properties = {
+        "ledger.import.chunk-size=2",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=2"
+})
+class ImportServiceTests {
+
+    private static final long USER_ID = 7_001L;
+
+    @Resource
+    private ImportService importService;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void embeddedDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.jdbcUrl("import"));
+        registry.add("spring.datasource.username", EmbeddedMariaDb::username);
+        registry.add("spring.datasource.password", EmbeddedMariaDb::password);
+    }
+
+    @AfterEach
+    void clearUser() {
+        UserContext.clear();
+    }
+
+    @Test
+    void rejectedChunkGoesToErrorFile() throws Exception {
+        UserEntity user = new UserEntity();
+        user.setId(USER_ID);
+        UserContext.setCurrentUser(user);
+        String csv = """
+                交易时间,类型,金额,描述
+                2024-01-01 12:00,支出,10,早餐
+                2024-01-01 13:00,支出,20,午餐
+                2024-01-02 12:00,支出,30,这一条的描述比数据库列更长所以插入会失败
+                2024-01-02 13:00,支出,40,晚餐
+                2024-01-03 12:00,支出,50,夜宵
+                """;
+
+        // 导入时描述已截断到默认列宽，这里把列改窄来制造超长
+        jdbcTemplate.execute("ALTER TABLE `transaction` MODIFY description VARCHAR(8)");
+        ImportResult result;
+        try {
+            result = importService.importTransactions(USER_ID, null, ImportService.FORMAT_CSV, StandardCharsets.UTF_8,
+                    null, false, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), progress -> {
+                    });
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE `transaction` MODIFY description VARCHAR(255)");
+        }
+
+        assertEquals(5, result.processedRows());
+        assertEquals(3, result.successCount());
+        assertEquals(2, result.failedCount());
+        assertEquals(List.of("早餐", "午餐", "夜宵"), jdbcTemplate.queryForList(
+                "SELECT description FROM `transaction` WHERE created_by_user_id = ? ORDER BY amount",
+                String.class, USER_ID));
+
+        assertNotNull(result.errorFileId());
+        List<String> errorLines = Files.readAllLines(importService.getErrorFile(USER_ID, result.errorFileId()));
+        assertEquals(3, errorLines.size());
+        assertTrue(errorLines.get(1).contains("这一条的描述"), errorLines.get(1));
+        assertTrue(errorLines.get(2).contains("晚餐"), errorLines.get(2));
+    }
+}
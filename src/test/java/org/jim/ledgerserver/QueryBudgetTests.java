@@ -0,0 +1,69 @@
+package org.jim.ledgerserver;
+
+import org.jim.ledgerserver.support.QueryBudgetTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 列表接口的 SQL 条数预算
+ * 预算与返回条数无关：逐条加载关联数据（N+1）时，一页 20 条数据会带来 20 条以上的额外查询，必然超出预算。
+ * 预算取实测条数、不留余量，多出任何一条都需要在这里说明；认证拦截器按 token 查询当前用户计 1 条。
+ *
+ * @author James Smith
+ */
+class QueryBudgetTests extends QueryBudgetTestSupport {
+
+    /**
+     * 认证 1 + 分页与计数 2 + 记账人、附件数量、子交易统计各 1
+     */
+    @Test
+    void transactionQuery() throws Exception {
+        performWithinBudget(6, post("/api/transactions/query")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + fixture.ownerToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ledgerId\":" + fixture.getSharedLedger().getId() + ",\"page\":0,\"size\":20}"));
+    }
+
+    /**
+     * 认证 1 + 账本（所有者不再查成员表）1 + 分页与计数 2 + 账本、分类、支付方式、记账人、附件数量各 1
+     */
+    @Test
+    void agentTransactionQuery() throws Exception {
+        performWithinBudget(9, post("/api/agent/transactions/query")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + fixture.ownerToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ledgerId\":" + fixture.getSharedLedger().getId() + ",\"page\":0,\"size\":20}"));
+    }
+
+    /**
+     * 认证 1 + 可访问账本ID 1 + 账本 1 + 成员数量 1
+     */
+    @Test
+    void ledgerList() throws Exception {
+        performWithinBudget(4, get("/api/ledgers")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + fixture.ownerToken()));
+    }
+
+    /**
+     * 认证 1 + 查看权限 1 + 成员 1 + 成员用户信息 1
+     */
+    @Test
+    void memberList() throws Exception {
+        performWithinBudget(4, get("/api/ledgers/{ledgerId}/members", fixture.getSharedLedger().getId())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + fixture.ownerToken()));
+    }
+
+    /**
+     * 认证 1 + 反馈分页 1 + 当前用户的点赞状态 1 + 判断管理员时重新读取当前用户 1
+     */
+    @Test
+    void publicFeedbackList() throws Exception {
+        performWithinBudget(4, get("/feedback/public")
+                .param("size", "20")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + fixture.ownerToken()));
+    }
+}
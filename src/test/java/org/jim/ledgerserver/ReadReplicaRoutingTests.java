@@ -0,0 +1,172 @@
+package org.jim.ledgerserver;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jim.ledgerserver.common.datasource.ReadYourWritesWindow;
+import org.jim.ledgerserver.common.datasource.ReplicaRoutingDataSource;
+import org.jim.ledgerserver.common.util.UserContext;
+import org.jim.ledgerserver.support.EmbeddedMariaDb;
+import org.jim.ledgerserver.user.entity.UserEntity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 主库 / 只读副本路由
+ * 两个内嵌 MariaDB 实例分别充当主库和副本（不配置复制），用 SELECT @@port 判断语句落在哪个实例上。
+ *
+ * @author James Smith
+ */
+class ReadReplicaRoutingTests {
+
+    private static HikariDataSource primary;
+
+    private static HikariDataSource replica;
+
+    private static int primaryPort;
+
+    private static int replicaPort;
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    @BeforeAll
+    static void startDatabases() {
+        primary = pool(EmbeddedMariaDb.jdbcUrl("primary"));
+        replica = pool(EmbeddedMariaDb.jdbcUrl("replica"));
+        primaryPort = new JdbcTemplate(primary).queryForObject("SELECT @@port", Integer.class);
+        replicaPort = new JdbcTemplate(replica).queryForObject("SELECT @@port", Integer.class);
+    }
+
+    @AfterAll
+    static void closePools() {
+        primary.close();
+        replica.close();
+    }
+
+    @AfterEach
+    void clearUser() {
+        UserContext.clear();
+        ReadYourWritesWindow.clearReadScopes();
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        Router router = new Router(replica);
+        loginAs(1L);
+        assertEquals(replicaPort, router.port(true));
+    }
+
+    @Test
+    void readOnlyTransactionWithoutUserUsesPrimary() {
+        Router router = new Router(replica);
+        assertEquals(primaryPort, router.port(true));
+    }
+
+    @Test
+    void readWriteTransactionUsesPrimary() {
+        Router router = new Router(replica);
+        assertEquals(primaryPort, router.port(false));
+    }
+
+    @Test
+    void statementOutsideTransactionUsesPrimary() {
+        Router router = new Router(replica);
+        assertEquals(primaryPort, router.jdbc.queryForObject("SELECT @@port", Integer.class));
+    }
+
+    @Test
+    void writerReadsFromPrimaryWithinWindow() {
+        Router router = new Router(replica);
+        loginAs(1L);
+        router.port(false);
+        assertEquals(primaryPort, router.port(true));
+
+        loginAs(2L);
+        assertEquals(replicaPort, router.port(true));
+
+        loginAs(1L);
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertEquals(replicaPort, router.port(true));
+    }
+
+    @Test
+    void readerOfRecentlyChangedScopeUsesPrimary() {
+        Router router = new Router(replica);
+        router.window.recordScopeWrite("ledger:3");
+        loginAs(2L);
+        ReadYourWritesWindow.readsScope("ledger:4");
+        assertEquals(replicaPort, router.port(true));
+
+        ReadYourWritesWindow.readsScope("ledger:3");
+        assertEquals(primaryPort, router.port(true));
+
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertEquals(replicaPort, router.port(true));
+    }
+
+    @Test
+    void unavailableReplicaFallsBackToPrimary() {
+        HikariDataSource unreachable = new HikariDataSource();
+        unreachable.setJdbcUrl("jdbc:mysql://localhost:1/ledger");
+        unreachable.setUsername(EmbeddedMariaDb.username());
+        unreachable.setConnectionTimeout(250);
+        unreachable.setInitializationFailTimeout(-1);
+        try (unreachable) {
+            Router router = new Router(unreachable);
+            loginAs(1L);
+            assertEquals(primaryPort, router.port(true));
+        }
+    }
+
+    /**
+     * 与应用相同的组合：LazyConnectionDataSourceProxy 包装路由数据源，事务管理器和 JdbcTemplate 都使用外层代理
+     */
+    private class Router {
+
+        final JdbcTemplate jdbc;
+
+        final DataSourceTransactionManager transactionManager;
+
+        final ReadYourWritesWindow window = new ReadYourWritesWindow(Duration.ofSeconds(5), ticker::get);
+
+        Router(DataSource replicaDataSource) {
+            DataSource dataSource = new LazyConnectionDataSourceProxy(
+                    new ReplicaRoutingDataSource(primary, replicaDataSource, window, new SimpleMeterRegistry()));
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.transactionManager = new DataSourceTransactionManager(dataSource);
+        }
+
+        int port(boolean readOnly) {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(readOnly);
+            return template.execute(status -> jdbc.queryForObject("SELECT @@port", Integer.class));
+        }
+    }
+
+    private static void loginAs(Long userId) {
+        UserEntity user = new UserEntity();
+        user.setId(userId);
+        UserContext.setCurrentUser(user);
+    }
+
+    private static HikariDataSource pool(String jdbcUrl) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(jdbcUrl);
+        dataSource.setUsername(EmbeddedMariaDb.username());
+        dataSource.setPassword(EmbeddedMariaDb.password());
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+}
@@ -0,0 +1,362 @@
+package org.jim.ledgerserver;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import org.jim.ledgerserver.common.enums.TransactionTypeEnum;
+import org.jim.ledgerserver.common.exception.BusinessException;
+import org.jim.ledgerserver.common.sharding.ShardContext;
+import org.jim.ledgerserver.common.sharding.ShardDataSources;
+import org.jim.ledgerserver.common.sharding.ShardDirectory;
+import org.jim.ledgerserver.common.sharding.ShardKey;
+import org.jim.ledgerserver.common.sharding.ShardMigrator;
+import org.jim.ledgerserver.ledger.entity.TransactionAttachmentEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.jim.ledgerserver.ledger.repository.TransactionAttachmentRepository;
+import org.jim.ledgerserver.ledger.repository.TransactionRepository;
+import org.jim.ledgerserver.support.EmbeddedMariaDb;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 交易分片端到端：应用连接一个主库和两个分片（均为内嵌 MariaDB）启动，经由真实的仓库、路由切面、目录和迁移工具读写
+ * 目录不缓存、迁移不等待，用例之间使用不同的账本/用户ID互不影响。
+ *
+ * @author James Smith
+ */
+@SpringBootTest
+class ShardedTransactionTests {
+
+    private static final int EXPENSE = TransactionTypeEnum.EXPENSE.getCode();
+
+    private static final AtomicLong NEXT_ID = new AtomicLong(9_000_000);
+
+    @Resource
+    private TransactionRepository transactionRepository;
+
+    @Resource
+    private TransactionAttachmentRepository attachmentRepository;
+
+    @Resource
+    private ShardDirectory shardDirectory;
+
+    @Resource
+    private ShardMigrator shardMigrator;
+
+    @Resource
+    private ShardDataSources shardDataSources;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void shardedDatabases(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.jdbcUrl("sharded-main"));
+        registry.add("spring.datasource.username", EmbeddedMariaDb::username);
+        registry.add("spring.datasource.password", EmbeddedMariaDb::password);
+        registry.add("ledger.sharding.enabled", () -> "true");
+        for (int i = 0; i < 2; i++) {
+            String instance = "sharded-" + i;
+            registry.add("ledger.sharding.shards[" + i + "].url", () -> EmbeddedMariaDb.jdbcUrl(instance));
+            registry.add("ledger.sharding.shards[" + i + "].username", EmbeddedMariaDb::username);
+            registry.add("ledger.sharding.shards[" + i + "].password", EmbeddedMariaDb::password);
+        }
+        registry.add("ledger.sharding.directory-cache-ttl", () -> "0s");
+        registry.add("ledger.sharding.migration-grace-period", () -> "0s");
+    }
+
+    @Test
+    void saveGoesToTheLedgersShard() {
+        long ledgerId = NEXT_ID.incrementAndGet();
+        transactionRepository.save(transaction(ledgerId, NEXT_ID.incrementAndGet(), "12", 1L));
+
+        int shard = shardOf(ledgerId);
+        assertEquals(1, transactionRows(shard, ledgerId));
+        assertEquals(0, transactionRows(1 - shard, ledgerId));
+    }
+
+    @Test
+    void saveAllSplitsTheBatchByShard() {
+        long[] ledgers = ledgersOnDifferentShards();
+        long userId = NEXT_ID.incrementAndGet();
+        List<TransactionEntity> saved = transactionRepository.saveAll(List.of(
+                transaction(ledgers[0], userId, "1", 1L),
+                transaction(ledgers[1], userId, "2", 1L),
+                transaction(ledgers[0], userId, "3", 1L)));
+
+        assertEquals(3, saved.stream().map(TransactionEntity::getId).distinct().count());
+        assertEquals(2, transactionRows(shardOf(ledgers[0]), ledgers[0]));
+        assertEquals(1, transactionRows(shardOf(ledgers[1]), ledgers[1]));
+    }
+
+    @Test
+    void fanOutMergesPagesSumsAndGroupedRows() {
+        long[] ledgers = ledgersOnDifferentShards();
+        long userId = NEXT_ID.incrementAndGet();
+        transactionRepository.saveAll(List.of(
+                transaction(ledgers[0], userId, "5", 1L),
+                transaction(ledgers[0], userId, "40", 1L),
+                transaction(ledgers[0], userId, "25", 2L),
+                transaction(ledgers[1], userId, "30", 1L),
+                transaction(ledgers[1], userId, "10", 1L),
+                transaction(ledgers[1], userId, "50", 2L)));
+
+        Page<TransactionEntity> page = transactionRepository.findByCreatedByUserId(userId,
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "amount")));
+        assertEquals(6, page.getTotalElements());
+        assertEquals(List.of(30, 25), page.getContent().stream().map(t -> t.getAmount().intValue()).toList());
+
+        BigDecimal expenses = transactionRepository.sumAmountByCreatedByUserIdAndType(userId, EXPENSE);
+        assertEquals(0, new BigDecimal("160").compareTo(expenses));
+
+        List<Object[]> categories = transactionRepository.findTopCategoriesByUsageInLastWeek(userId, EXPENSE,
+                LocalDateTime.now().minusDays(7));
+        assertEquals(2, categories.size());
+        assertArrayEquals(new long[]{1, 4}, counts(categories.get(0)));
+        assertArrayEquals(new long[]{2, 2}, counts(categories.get(1)));
+    }
+
+    @Test
+    void attachmentsFollowTheirTransaction() {
+        long ledgerId = NEXT_ID.incrementAndGet();
+        TransactionEntity parent = transactionRepository.save(transaction(ledgerId, NEXT_ID.incrementAndGet(), "8", 1L));
+        double lookups = parentLookups();
+
+        ShardContext.forTransaction(parent, () -> attachmentRepository.save(attachment(parent)));
+        assertEquals(lookups, parentLookups());
+
+        attachmentRepository.save(attachment(parent));
+        assertEquals(lookups + 1, parentLookups());
+
+        int shard = shardOf(ledgerId);
+        assertEquals(2, attachmentRows(shard, parent.getId()));
+        assertEquals(0, attachmentRows(1 - shard, parent.getId()));
+    }
+
+    @Test
+    void moveCopiesTransactionsWithAttachmentsAndSwitchesShard() {
+        long ledgerId = NEXT_ID.incrementAndGet();
+        TransactionEntity withAttachment = seed(ledgerId, 3);
+        int source = shardOf(ledgerId);
+        int target = 1 - source;
+
+        ShardMigrator.MoveResult result = shardMigrator.move(ShardKey.ledger(ledgerId), target);
+
+        assertEquals(3, result.transactions());
+        assertEquals(1, result.attachments());
+        assertEquals(target, shardOf(ledgerId));
+        assertEquals(0, transactionRows(source, ledgerId));
+        assertEquals(3, transactionRows(target, ledgerId));
+        assertEquals(0, attachmentRows(source, withAttachment.getId()));
+        assertEquals(1, attachmentRows(target, withAttachment.getId()));
+        assertEquals(3, transactionRepository.findByLedgerId(ledgerId).size());
+    }
+
+    @Test
+    void saveMovedCarriesTheTransactionAndAttachmentsToTheNewLedgersShard() {
+        long[] ledgers = ledgersOnDifferentShards();
+        TransactionEntity transaction = seed(ledgers[0], 1);
+        ShardKey previousKey = ShardKey.ledger(ledgers[0]);
+
+        transaction.setLedgerId(ledgers[1]);
+        shardMigrator.saveMoved(transaction, previousKey);
+
+        int source = shardOf(ledgers[0]);
+        int target = shardOf(ledgers[1]);
+        assertEquals(0, transactionRows(source, ledgers[0]));
+        assertEquals(1, transactionRows(target, ledgers[1]));
+        assertEquals(0, attachmentRows(source, transaction.getId()));
+        assertEquals(1, attachmentRows(target, transaction.getId()));
+        assertEquals(ledgers[1], transactionRepository.findById(transaction.getId()).orElseThrow().getLedgerId());
+    }
+
+    @Test
+    void failedCopyRollsBackAndReopensWrites() {
+        long ledgerId = NEXT_ID.incrementAndGet();
+        seed(ledgerId, 2);
+        int source = shardOf(ledgerId);
+        int target = 1 - source;
+        ShardKey key = ShardKey.ledger(ledgerId);
+
+        BusinessException e = withTrigger(target, "reject_attachment_copy",
+                "BEFORE INSERT ON transaction_attachment FOR EACH ROW "
+                        + "SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'attachment copy rejected'",
+                () -> assertThrows(BusinessException.class, () -> shardMigrator.move(key, target)));
+
+        assertTrue(e.getMessage().contains("attachment copy rejected"), e.getMessage());
+        assertEquals(0, transactionRows(target, ledgerId));
+        assertEquals(2, transactionRows(source, ledgerId));
+        assertEquals(source, shardDirectory.shardForWrite(key));
+    }
+
+    @Test
+    void rowCountMismatchRollsBack() {
+        long ledgerId = NEXT_ID.incrementAndGet();
+        long strayLedgerId = NEXT_ID.incrementAndGet();
+        seed(ledgerId, 2);
+        int source = shardOf(ledgerId);
+        int target = 1 - source;
+        ShardKey key = ShardKey.ledger(ledgerId);
+
+        // 目标分片上把复制过去的行改挂到其他账本，复制本身成功但行数对不上
+        BusinessException e = withTrigger(target, "misroute_transaction_copy",
+                "BEFORE INSERT ON `transaction` FOR EACH ROW SET NEW.ledger_id = " + strayLedgerId,
+                () -> assertThrows(BusinessException.class, () -> shardMigrator.move(key, target)));
+        shardDataSources.jdbc(target).update("DELETE FROM `transaction` WHERE ledger_id = ?", strayLedgerId);
+
+        assertTrue(e.getMessage().contains("Row count mismatch"), e.getMessage());
+        assertEquals(2, transactionRows(source, ledgerId));
+        assertEquals(source, shardDirectory.shardForWrite(key));
+    }
+
+    @Test
+    void writesAreRejectedWhileMigrating() throws Exception {
+        long ledgerId = NEXT_ID.incrementAndGet();
+        long userId = NEXT_ID.incrementAndGet();
+        transactionRepository.save(transaction(ledgerId, userId, "3", 1L));
+        int target = 1 - shardOf(ledgerId);
+        ShardKey key = ShardKey.ledger(ledgerId);
+
+        BusinessException rejected = withTrigger(target, "slow_transaction_copy",
+                "BEFORE INSERT ON `transaction` FOR EACH ROW DO SLEEP(2)", () -> {
+                    CompletableFuture<ShardMigrator.MoveResult> move =
+                            CompletableFuture.supplyAsync(() -> shardMigrator.move(key, target));
+                    awaitMigrating(key);
+                    BusinessException e = assertThrows(BusinessException.class,
+                            () -> transactionRepository.save(transaction(ledgerId, userId, "4", 1L)));
+                    assertEquals(1, transactionRepository.findByLedgerId(ledgerId).size());
+                    assertEquals(1, move.get(30, TimeUnit.SECONDS).transactions());
+                    return e;
+                });
+
+        assertEquals(503, rejected.getCode());
+        assertEquals(target, shardOf(ledgerId));
+        transactionRepository.save(transaction(ledgerId, userId, "4", 1L));
+        assertEquals(2, transactionRows(target, ledgerId));
+    }
+
+    /**
+     * 一个账本的若干条交易，第一条带一个附件
+     *
+     * @return 带附件的交易
+     */
+    private TransactionEntity seed(long ledgerId, int transactions) {
+        long userId = NEXT_ID.incrementAndGet();
+        List<TransactionEntity> batch = new ArrayList<>();
+        for (int i = 0; i < transactions; i++) {
+            batch.add(transaction(ledgerId, userId, String.valueOf(i + 1), 1L));
+        }
+        List<TransactionEntity> saved = transactionRepository.saveAll(batch);
+        TransactionEntity first = saved.getFirst();
+        ShardContext.forTransaction(first, () -> attachmentRepository.save(attachment(first)));
+        return first;
+    }
+
+    /**
+     * 两个落在不同分片上的新账本ID
+     */
+    private long[] ledgersOnDifferentShards() {
+        long first = NEXT_ID.incrementAndGet();
+        long second = NEXT_ID.incrementAndGet();
+        while (shardOf(second) == shardOf(first)) {
+            second = NEXT_ID.incrementAndGet();
+        }
+        return new long[]{first, second};
+    }
+
+    private int shardOf(long ledgerId) {
+        return shardDirectory.shardForRead(ShardKey.ledger(ledgerId));
+    }
+
+    private long transactionRows(int shard, long ledgerId) {
+        return shardDataSources.jdbc(shard).queryForObject(
+                "SELECT COUNT(*) FROM `transaction` WHERE ledger_id = ?", Long.class, ledgerId);
+    }
+
+    private long attachmentRows(int shard, long transactionId) {
+        return shardDataSources.jdbc(shard).queryForObject(
+                "SELECT COUNT(*) FROM transaction_attachment WHERE transaction_id = ?", Long.class, transactionId);
+    }
+
+    private double parentLookups() {
+        return meterRegistry.counter("ledger.sharding.attachment.parent.lookups").count();
+    }
+
+    private void awaitMigrating(ShardKey key) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT migrating FROM shard_directory WHERE scope = ? AND routing_key = ?",
+                Boolean.class, key.scope().name(), key.id()))) {
+            assertTrue(System.nanoTime() < deadline, "migration of " + key + " did not start");
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * 在分片上建触发器执行 action，结束后删除触发器
+     */
+    private <T> T withTrigger(int shard, String name, String definition, ThrowingSupplier<T> action) {
+        JdbcTemplate jdbc = shardDataSources.jdbc(shard);
+        jdbc.execute("CREATE TRIGGER " + name + " " + definition);
+        try {
+            return action.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            jdbc.execute("DROP TRIGGER " + name);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier<T> {
+
+        T get() throws Exception;
+    }
+
+    private static long[] counts(Object[] row) {
+        return new long[]{((Number) row[0]).longValue(), ((Number) row[1]).longValue()};
+    }
+
+    private static TransactionEntity transaction(long ledgerId, long userId, String amount, long categoryId) {
+        return new TransactionEntity()
+                .setDescription("sharded")
+                .setAmount(new BigDecimal(amount))
+                .setType(EXPENSE)
+                .setTransactionDateTime(LocalDateTime.now().minusHours(1))
+                .setLedgerId(ledgerId)
+                .setCreatedByUserId(userId)
+                .setCategoryId(categoryId);
+    }
+
+    private static TransactionAttachmentEntity attachment(TransactionEntity transaction) {
+        TransactionAttachmentEntity attachment = new TransactionAttachmentEntity();
+        attachment.setTransactionId(transaction.getId());
+        attachment.setFileName("receipt.png");
+        attachment.setFileType("image/png");
+        attachment.setFileSize(3L);
+        attachment.setFileData(new byte[]{1, 2, 3});
+        attachment.setUploadedByUserId(transaction.getCreatedByUserId());
+        return attachment;
+    }
+}
@@ -0,0 +1,120 @@
+package org.jim.ledgerserver;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.jim.ledgerserver.common.sharding.ShardDataSources;
+import org.jim.ledgerserver.common.sharding.ShardKey;
+import org.jim.ledgerserver.common.sharding.ShardRoutingDataSource;
+import org.jim.ledgerserver.common.sharding.ShardSchemaManager;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.jim.ledgerserver.support.EmbeddedMariaDb;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 交易分片：各分片建表、主键号段和默认路由
+ * 两个内嵌 MariaDB 实例充当分片 0 和分片 1。
+ *
+ * @author James Smith
+ */
+class ShardingTests {
+
+    private static final long SHARD_ID_SPACE = 1L << 40;
+
+    private static ShardDataSources shards;
+
+    @BeforeAll
+    static void startShards() {
+        shards = new ShardDataSources(List.of(
+                pool(EmbeddedMariaDb.jdbcUrl("shard0")),
+                pool(EmbeddedMariaDb.jdbcUrl("shard1"))));
+        schemaManager().initializeAll();
+    }
+
+    @AfterAll
+    static void closePools() throws Exception {
+        shards.close();
+    }
+
+    @Test
+    void eachShardGetsTransactionTables() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            JdbcTemplate jdbc = shards.jdbc(shard);
+            assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM `transaction`", Long.class));
+            assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM transaction_attachment", Long.class));
+        }
+    }
+
+    @Test
+    void idGeneratorsStayInsideShardRange() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (String name : List.of("transaction", "transaction_attachment")) {
+                long next = nextVal(shard, name);
+                assertTrue(next >= shard * SHARD_ID_SPACE && next < (shard + 1) * SHARD_ID_SPACE,
+                        "shard " + shard + " " + name + " next_val " + next);
+            }
+        }
+    }
+
+    @Test
+    void idGeneratorSkipsPastExistingRows() {
+        long existingId = SHARD_ID_SPACE + 5_000;
+        JdbcTemplate jdbc = shards.jdbc(1);
+        jdbc.update("INSERT INTO `transaction` (id, description, amount, type, ledger_id, created_by_user_id, "
+                + "transaction_date_time) VALUES (?, 'existing', 1, 2, 1, 1, NOW())",
+                existingId);
+        try {
+            schemaManager().initializeAll();
+            assertTrue(nextVal(1, "transaction") > existingId + TransactionEntity.ID_ALLOCATION_SIZE - 1);
+            assertTrue(nextVal(0, "transaction") < SHARD_ID_SPACE);
+        } finally {
+            jdbc.update("DELETE FROM `transaction` WHERE id = ?", existingId);
+        }
+    }
+
+    @Test
+    void routingDataSourceDefaultsToFirstShard() {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards.all());
+        assertEquals(port(shards.jdbc(0)), port(new JdbcTemplate(routing)));
+    }
+
+    @Test
+    void shardKeyPrefersLedger() {
+        assertEquals(ShardKey.ledger(3L), ShardKey.of(3L, 7L));
+        assertEquals(ShardKey.user(7L), ShardKey.of(null, 7L));
+        assertEquals("ledger:3", ShardKey.ledger(3L).toString());
+    }
+
+    private static long nextVal(int shard, String name) {
+        return shards.jdbc(shard).queryForObject("SELECT next_val FROM id_generator WHERE name = ?", Long.class, name);
+    }
+
+    private static int port(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT @@port", Integer.class);
+    }
+
+    private static ShardSchemaManager schemaManager() {
+        return new ShardSchemaManager(shards, Map.of(
+                AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName()), true);
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(EmbeddedMariaDb.username());
+        dataSource.setPassword(EmbeddedMariaDb.password());
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+}
@@ -0,0 +1,56 @@
+package org.jim.ledgerserver.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 拼音转换：全拼、首字母、多音字的读音组合和非汉字字符
+ *
+ * @author James Smith
+ */
+class PinyinUtilTests {
+
+    @Test
+    void spellsFullPinyinAndInitials() {
+        assertEquals(new PinyinUtil.Spelling("wucan", "wc"), PinyinUtil.spell("午餐"));
+        assertEquals(new PinyinUtil.Spelling("naicha", "nc"), PinyinUtil.spell("奶茶"));
+    }
+
+    @Test
+    void writesUmlautAsV() {
+        assertEquals(new PinyinUtil.Spelling("lvcha", "lc"), PinyinUtil.spell("绿茶"));
+        assertEquals(new PinyinUtil.Spelling("nvzhuang", "nz"), PinyinUtil.spell("女装"));
+    }
+
+    @Test
+    void spellAllListsEveryReadingOfPolyphones() {
+        List<PinyinUtil.Spelling> bank = PinyinUtil.spellAll("银行", 16);
+        assertEquals(PinyinUtil.spell("银行"), bank.get(0));
+        assertTrue(bank.contains(new PinyinUtil.Spelling("yinhang", "yh")), bank.toString());
+        assertTrue(PinyinUtil.spellAll("行长", 16).contains(new PinyinUtil.Spelling("hangzhang", "hz")));
+        assertTrue(PinyinUtil.spellAll("重庆", 16).contains(new PinyinUtil.Spelling("chongqing", "cq")));
+        assertEquals(List.of(new PinyinUtil.Spelling("wucan", "wc")), PinyinUtil.spellAll("午餐", 16));
+    }
+
+    @Test
+    void spellAllStopsAtLimit() {
+        assertEquals(List.of(PinyinUtil.spell("银行")), PinyinUtil.spellAll("银行", 1));
+        assertEquals(3, PinyinUtil.spellAll("行行行行", 3).size());
+        assertEquals(List.of(new PinyinUtil.Spelling("", "")), PinyinUtil.spellAll(null, 3));
+        assertThrows(IllegalArgumentException.class, () -> PinyinUtil.spellAll("银行", 0));
+    }
+
+    @Test
+    void keepsOtherCharactersLowercasedAndDropsWhitespace() {
+        assertEquals(new PinyinUtil.Spelling("kfczaocan", "kfczc"), PinyinUtil.spell("KFC早餐"));
+        assertEquals(new PinyinUtil.Spelling("2beinaicha", "2bnc"), PinyinUtil.spell("2杯 奶茶"));
+        assertEquals(new PinyinUtil.Spelling("xingbakecoffee", "xbkcoffee"), PinyinUtil.spell("星巴克 Coffee"));
+        assertEquals(new PinyinUtil.Spelling("", ""), PinyinUtil.spell(null));
+        assertEquals(new PinyinUtil.Spelling("", ""), PinyinUtil.spell(" "));
+    }
+}
@@ -0,0 +1,146 @@
+package org.jim.ledgerserver.completion.service;
+
+import org.jim.ledgerserver.common.util.PinyinUtil;
+import org.jim.ledgerserver.completion.dto.CompletionPhraseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 短语前缀索引：原文/全拼/首字母查找、边的拆分与剪枝、更新后的 topK 排名
+ *
+ * @author James Smith
+ */
+class PhraseIndexTests {
+
+    private static final Comparator<CompletionPhraseDTO> RANKING = Comparator
+        .comparing(CompletionPhraseDTO::getFrequency, Comparator.reverseOrder())
+        .thenComparing(CompletionPhraseDTO::getLastUsedAt, Comparator.reverseOrder());
+
+    @Test
+    void findsPhrasesByTextPinyinAndInitials() {
+        PhraseIndex index = PhraseIndex.build(List.of(
+            phrase("午餐", 5, 1), phrase("午饭", 3, 1), phrase("晚餐", 4, 1)), RANKING, 10);
+
+        assertEquals(List.of("午餐", "午饭"), texts(index.search("午")));
+        assertEquals(List.of("午餐", "午饭"), texts(index.search("wu")));
+        assertEquals(List.of("午餐"), texts(index.search("wuc")));
+        assertEquals(List.of("午餐", "晚餐"), texts(index.search("wc")));
+        assertEquals(List.of("晚餐"), texts(index.search("wanc")));
+        assertEquals(List.of("午餐", "晚餐", "午饭"), texts(index.search("w")));
+        assertEquals(List.of(), index.search("x"));
+        assertEquals(List.of(), index.search("wucanx"));
+    }
+
+    @Test
+    void eachPhraseAppearsOnceWhereItsKeysMeet() {
+        // 纯字母短语的原文、全拼、首字母相同，中文短语的全拼与首字母在 "w" 下汇合
+        PhraseIndex index = PhraseIndex.build(List.of(phrase("wifi", 2, 1), phrase("午餐", 1, 1)), RANKING, 10);
+
+        assertEquals(List.of("wifi", "午餐"), texts(index.top()));
+        assertEquals(List.of("wifi", "午餐"), texts(index.search("w")));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void splitsEdgesOnPartialOverlap() {
+        PhraseIndex index = PhraseIndex.build(List.of(phrase("coffee", 3, 1)), RANKING, 10);
+        index.upsert(phrase("cola", 2, 1));
+
+        assertEquals(List.of("coffee", "cola"), texts(index.search("co")));
+        assertEquals(List.of("coffee"), texts(index.search("cof")));
+        assertEquals(List.of("cola"), texts(index.search("col")));
+        assertEquals(List.of(), index.search("cox"));
+        assertEquals(List.of(), index.search("coffees"));
+
+        // 短语恰好结束在拆分点上
+        index.upsert(phrase("co", 1, 1));
+        assertEquals(List.of("coffee", "cola", "co"), texts(index.search("co")));
+        assertEquals(List.of("coffee"), texts(index.search("coff")));
+    }
+
+    @Test
+    void removePrunesBranchesAndRecomputesTop() {
+        PhraseIndex index = PhraseIndex.build(List.of(
+            phrase("coffee", 3, 1), phrase("cola", 2, 1), phrase("cake", 1, 1)), RANKING, 2);
+
+        index.remove("coffee");
+
+        assertEquals(List.of("cola", "cake"), texts(index.search("c")));
+        assertEquals(List.of(), index.search("cof"));
+        assertEquals(List.of("cola"), texts(index.search("co")));
+        assertNull(index.get("coffee"));
+        index.remove("cola");
+        index.remove("cake");
+        assertEquals(0, index.size());
+        assertEquals(0, index.estimatedBytes());
+        assertEquals(List.of(), index.top());
+    }
+
+    @Test
+    void upsertKeepsTopKRanked() {
+        PhraseIndex index = PhraseIndex.build(List.of(
+            phrase("咖啡", 5, 1), phrase("可乐", 4, 1), phrase("卡布奇诺", 3, 1)), RANKING, 2);
+        assertEquals(List.of("咖啡", "可乐"), texts(index.search("k")));
+
+        // 排名上升挤进 topK
+        index.upsert(phrase("卡布奇诺", 6, 1));
+        assertEquals(List.of("卡布奇诺", "咖啡"), texts(index.search("k")));
+
+        // 排名下降后被挤出的短语重新回到 topK
+        index.upsert(phrase("卡布奇诺", 1, 1));
+        assertEquals(List.of("咖啡", "可乐"), texts(index.search("k")));
+        assertEquals(List.of("卡布奇诺"), texts(index.search("kb")));
+
+        // 使用次数相同时最近使用的在前
+        CompletionPhraseDTO used = index.recordUsage("可乐", 100);
+        assertEquals(5, used.getFrequency());
+        assertEquals(List.of("可乐", "咖啡"), texts(index.search("k")));
+        assertNull(index.recordUsage("雪碧", 100));
+    }
+
+    @Test
+    void findsPolyphonesByEveryReading() {
+        PhraseIndex index = PhraseIndex.build(List.of(phrase("银行", 2, 1), phrase("行李", 1, 1)), RANKING, 10);
+
+        assertEquals(List.of("银行"), texts(index.search("yh")));
+        assertEquals(List.of("银行"), texts(index.search("yinhang")));
+        assertEquals(List.of("银行"), texts(index.search("yx")));
+        assertEquals(List.of("行李"), texts(index.search("xingli")));
+        assertEquals(List.of("行李"), texts(index.search("hl")));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void upsertWithNewSpellingDetachesOldKeys() {
+        PhraseIndex index = PhraseIndex.build(List.of(phrase("银行", 1, 1)), RANKING, 10);
+        assertEquals(List.of("银行"), texts(index.search("yinx")));
+
+        index.upsert(phrase("银行", 1, 1).setPhrasePinyin("yinhang").setPhraseInitials("yh"));
+
+        assertEquals(List.of("银行"), texts(index.search("yinh")));
+        assertEquals(List.of("银行"), texts(index.search("yh")));
+        assertEquals(List.of(), index.search("yinx"));
+        assertEquals(List.of(), index.search("yx"));
+        assertTrue(index.estimatedBytes() > 0);
+    }
+
+    private static CompletionPhraseDTO phrase(String text, int frequency, long lastUsedAt) {
+        PinyinUtil.Spelling spelling = CompletionPhraseService.spell(text);
+        return new CompletionPhraseDTO()
+            .setPhrase(text)
+            .setPhrasePinyin(spelling.full())
+            .setPhraseInitials(spelling.initials())
+            .setFrequency(frequency)
+            .setLastUsedAt(lastUsedAt);
+    }
+
+    private static List<String> texts(List<CompletionPhraseDTO> phrases) {
+        return phrases.stream().map(CompletionPhraseDTO::getPhrase).toList();
+    }
+}
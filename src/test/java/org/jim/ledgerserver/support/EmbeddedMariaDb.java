@@ -0,0 +1,75 @@
+package org.jim.ledgerserver.support;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 测试用内嵌 MariaDB（与 MySQL 协议和方言兼容）
+ * 每个实例名在同一个 JVM 内只启动一次，随机端口，进程退出时由 MariaDB4j 清理；
+ * 需要多个独立数据库（主库与副本）时按实例名区分
+ *
+ * @author James Smith
+ */
+public final class EmbeddedMariaDb {
+
+    private static final String DATABASE = "ledger";
+
+    private static final String DEFAULT_INSTANCE = "default";
+
+    private static final Map<String, String> JDBC_URLS = new HashMap<>();
+
+    private EmbeddedMariaDb() {
+    }
+
+    public static String jdbcUrl() {
+        return jdbcUrl(DEFAULT_INSTANCE);
+    }
+
+    public static synchronized String jdbcUrl(String instance) {
+        return JDBC_URLS.computeIfAbsent(instance, k -> start());
+    }
+
+    public static String username() {
+        return "root";
+    }
+
+    public static String password() {
+        return "";
+    }
+
+    private static String start() {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        config.addArg("--character-set-server=utf8mb4");
+        config.addArg("--collation-server=utf8mb4_unicode_ci");
+        // 容器里常以 root 运行，mariadbd 默认拒绝以 root 启动
+        if ("root".equals(System.getProperty("user.name"))) {
+            config.addArg("--user=root");
+        }
+        DBConfiguration configuration = config.build();
+        String server = "jdbc:mysql://localhost:" + configuration.getPort() + "/";
+        String params = "?useSSL=false&allowPublicKeyRetrieval=true&characterEncoding=utf8";
+        try {
+            DB.newEmbeddedDB(configuration).start();
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Failed to start embedded MariaDB", e);
+        }
+        // 通过 JDBC 建库，不依赖 mariadb 命令行客户端（它需要 libncurses5，很多镜像里没有）
+        try (Connection connection = DriverManager.getConnection(server + params, username(), password());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE IF NOT EXISTS " + DATABASE);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to create database on embedded MariaDB", e);
+        }
+        return server + DATABASE + params;
+    }
+}
@@ -0,0 +1,205 @@
+package org.jim.ledgerserver.support;
+
+import jakarta.annotation.Resource;
+import lombok.Getter;
+import org.jim.ledgerserver.common.enums.LedgerMemberRoleEnum;
+import org.jim.ledgerserver.common.enums.LedgerTypeEnum;
+import org.jim.ledgerserver.common.enums.TransactionSourceEnum;
+import org.jim.ledgerserver.common.enums.TransactionTypeEnum;
+import org.jim.ledgerserver.common.util.JwtUtil;
+import org.jim.ledgerserver.feedback.entity.FeedbackCommentEntity;
+import org.jim.ledgerserver.feedback.entity.FeedbackEntity;
+import org.jim.ledgerserver.feedback.entity.FeedbackReactionEntity;
+import org.jim.ledgerserver.feedback.repository.FeedbackCommentRepository;
+import org.jim.ledgerserver.feedback.repository.FeedbackReactionRepository;
+import org.jim.ledgerserver.feedback.repository.FeedbackRepository;
+import org.jim.ledgerserver.ledger.entity.CategoryEntity;
+import org.jim.ledgerserver.ledger.entity.LedgerEntity;
+import org.jim.ledgerserver.ledger.entity.LedgerMemberEntity;
+import org.jim.ledgerserver.ledger.entity.PaymentMethodEntity;
+import org.jim.ledgerserver.ledger.entity.TransactionEntity;
+import org.jim.ledgerserver.ledger.repository.CategoryRepository;
+import org.jim.ledgerserver.ledger.repository.LedgerMemberRepository;
+import org.jim.ledgerserver.ledger.repository.LedgerRepository;
+import org.jim.ledgerserver.ledger.repository.PaymentMethodRepository;
+import org.jim.ledgerserver.ledger.repository.TransactionRepository;
+import org.jim.ledgerserver.user.entity.UserEntity;
+import org.jim.ledgerserver.user.repository.UserRepository;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 查询预算测试数据
+ * 一个共享账本挂多名成员，账本内的交易分属不同记账人、分类和支付方式，公开反馈带评论和点赞。
+ * 每种关联都有多个不同取值，逐条加载关联数据的写法会在这份数据上明显超出预算。
+ *
+ * @author James Smith
+ */
+@TestComponent
+public class QueryBudgetFixture {
+
+    private static final int MEMBERS = 12;
+    private static final int CATEGORIES = 10;
+    private static final int PAYMENT_METHODS = 4;
+    private static final int TRANSACTIONS = 300;
+    private static final int FEEDBACKS = 30;
+    private static final int COMMENTS_PER_FEEDBACK = 3;
+
+    @Resource
+    private UserRepository userRepository;
+
+    @Resource
+    private LedgerRepository ledgerRepository;
+
+    @Resource
+    private LedgerMemberRepository ledgerMemberRepository;
+
+    @Resource
+    private CategoryRepository categoryRepository;
+
+    @Resource
+    private PaymentMethodRepository paymentMethodRepository;
+
+    @Resource
+    private TransactionRepository transactionRepository;
+
+    @Resource
+    private FeedbackRepository feedbackRepository;
+
+    @Resource
+    private FeedbackCommentRepository feedbackCommentRepository;
+
+    @Resource
+    private FeedbackReactionRepository feedbackReactionRepository;
+
+    @Resource
+    private JwtUtil jwtUtil;
+
+    /**
+     * 共享账本所有者，请求以该用户身份发出
+     */
+    @Getter
+    private UserEntity owner;
+
+    @Getter
+    private LedgerEntity sharedLedger;
+
+    private boolean seeded;
+
+    /**
+     * 写入测试数据（同一个 Spring 上下文内只写一次）
+     */
+    public synchronized void seed() {
+        if (seeded) {
+            return;
+        }
+
+        List<UserEntity> users = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            users.add(userRepository.save(new UserEntity()
+                    .setUsername("budget_user_" + i)
+                    .setPassword("x")
+                    .setNickname("成员" + i)
+                    .setStatus(1)));
+        }
+        owner = users.getFirst();
+
+        sharedLedger = ledgerRepository.save(new LedgerEntity()
+                .setName("家庭账本")
+                .setOwnerUserId(owner.getId())
+                .setType(LedgerTypeEnum.SHARED.getCode())
+                .setMaxMembers(MEMBERS + 8)
+                .setIsPublic(false));
+        LedgerEntity personalLedger = ledgerRepository.save(new LedgerEntity()
+                .setName("个人账本")
+                .setOwnerUserId(owner.getId())
+                .setType(LedgerTypeEnum.PERSONAL.getCode())
+                .setIsPublic(false));
+
+        for (int i = 0; i < users.size(); i++) {
+            ledgerMemberRepository.save(new LedgerMemberEntity()
+                    .setLedgerId(sharedLedger.getId())
+                    .setUserId(users.get(i).getId())
+                    .setRole(i == 0 ? LedgerMemberRoleEnum.OWNER.getCode() : LedgerMemberRoleEnum.EDITOR.getCode())
+                    .setJoinedAt(LocalDateTime.now())
+                    .setInvitedByUserId(i == 0 ? null : owner.getId())
+                    .setStatus(LedgerMemberEntity.MemberStatus.ACTIVE.getCode()));
+        }
+
+        List<CategoryEntity> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(categoryRepository.save(new CategoryEntity()
+                    .setName("分类" + i)
+                    .setType(i % 4 == 0 ? TransactionTypeEnum.INCOME.getCode() : TransactionTypeEnum.EXPENSE.getCode())
+                    .setSortOrder(i)
+                    .setCreatedByUserId(owner.getId())));
+        }
+
+        List<PaymentMethodEntity> paymentMethods = new ArrayList<>();
+        for (int i = 0; i < PAYMENT_METHODS; i++) {
+            PaymentMethodEntity paymentMethod = new PaymentMethodEntity();
+            paymentMethod.setName("支付方式" + i);
+            paymentMethod.setUserId(owner.getId());
+            paymentMethod.setSortOrder(i);
+            paymentMethods.add(paymentMethodRepository.save(paymentMethod));
+        }
+
+        List<TransactionEntity> transactions = new ArrayList<>(TRANSACTIONS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            CategoryEntity category = categories.get(i % CATEGORIES);
+            transactions.add(new TransactionEntity()
+                    .setDescription("交易" + i)
+                    .setAmount(BigDecimal.valueOf(10 + i % 97, 0))
+                    .setType(category.getType())
+                    .setTransactionDateTime(now.minusHours(i * 7L))
+                    .setLedgerId(i % 5 == 4 ? personalLedger.getId() : sharedLedger.getId())
+                    .setCreatedByUserId(users.get(i % MEMBERS).getId())
+                    .setCategoryId(category.getId())
+                    .setPaymentMethodId(paymentMethods.get(i % PAYMENT_METHODS).getId())
+                    .setSource(TransactionSourceEnum.MANUAL.getCode()));
+        }
+        transactionRepository.saveAll(transactions);
+
+        for (int i = 0; i < FEEDBACKS; i++) {
+            UserEntity author = users.get(i % MEMBERS);
+            FeedbackEntity feedback = feedbackRepository.save(new FeedbackEntity()
+                    .setUserId(author.getId())
+                    .setUserName(author.getUsername())
+                    .setUserNickname(author.getNickname())
+                    .setType(List.of("需求", "优化", "BUG").get(i % 3))
+                    .setTitle("反馈" + i)
+                    .setDescription("反馈内容" + i)
+                    .setUpvoteCount(i % MEMBERS)
+                    .setCommentCount(COMMENTS_PER_FEEDBACK));
+            for (int c = 0; c < COMMENTS_PER_FEEDBACK; c++) {
+                UserEntity commenter = users.get((i + c + 1) % MEMBERS);
+                feedbackCommentRepository.save(new FeedbackCommentEntity()
+                        .setFeedbackId(feedback.getId())
+                        .setUserId(commenter.getId())
+                        .setUserName(commenter.getUsername())
+                        .setContent("评论" + c));
+            }
+            for (int v = 0; v < i % MEMBERS; v++) {
+                feedbackReactionRepository.save(new FeedbackReactionEntity()
+                        .setTargetId(feedback.getId())
+                        .setTargetType("feedback")
+                        .setUserId(users.get(v).getId())
+                        .setReactionType("upvote"));
+            }
+        }
+
+        seeded = true;
+    }
+
+    /**
+     * 所有者的访问令牌
+     */
+    public String ownerToken() {
+        return jwtUtil.generateToken(owner.getId(), owner.getUsername());
+    }
+}
@@ -0,0 +1,88 @@
+package org.jim.ledgerserver.support;
+
+import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+/**
+ * 查询预算测试基类
+ * 应用连接内嵌 MariaDB 启动，数据源经过语句计数代理；每个用例声明接口允许执行的 SQL 条数上限，超出即失败并列出全部语句。
+ * 计数前清空二级缓存，预算按缓存未命中的情况计算。
+ *
+ * @author James Smith
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import({QueryCountingDataSourceConfig.class, QueryBudgetFixture.class})
+public abstract class QueryBudgetTestSupport {
+
+    @Resource
+    protected MockMvc mockMvc;
+
+    @Resource
+    protected QueryBudgetFixture fixture;
+
+    @Resource
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void embeddedDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedMariaDb::jdbcUrl);
+        registry.add("spring.datasource.username", EmbeddedMariaDb::username);
+        registry.add("spring.datasource.password", EmbeddedMariaDb::password);
+    }
+
+    @BeforeEach
+    void seedFixture() {
+        fixture.seed();
+    }
+
+    /**
+     * 执行请求并检查 SQL 条数
+     * @param budget 允许执行的最多 SQL 条数（含认证查询）
+     * @param request 请求，需返回业务成功（code=200），失败的请求往往查询更少，不能用来衡量预算
+     * @return 请求结果
+     */
+    protected MvcResult performWithinBudget(int budget, RequestBuilder request) throws Exception {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        QueryRecorder.start();
+        MvcResult result;
+        List<String> statements;
+        try {
+            result = mockMvc.perform(request).andReturn();
+        } finally {
+            statements = QueryRecorder.stop();
+        }
+
+        assertEquals(200, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+        jsonPath("$.code").value(200).match(result);
+
+        if (statements.size() > budget) {
+            StringBuilder message = new StringBuilder()
+                    .append(result.getRequest().getMethod()).append(' ').append(result.getRequest().getRequestURI())
+                    .append(" executed ").append(statements.size()).append(" statements, budget is ").append(budget)
+                    .append(':');
+            for (int i = 0; i < statements.size(); i++) {
+                message.append(System.lineSeparator()).append(i + 1).append(". ").append(statements.get(i));
+            }
+            fail(message.toString());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,39 @@
+package org.jim.ledgerserver.support;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * 把数据源执行的语句交给 {@link QueryRecorder}：数据源已被应用的代理包装时追加监听，否则用 datasource-proxy 包装
+ *
+ * @author James Smith
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountingDataSourceConfig {
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ProxyDataSource proxy) {
+                    // 应用自己的数据源代理已经包装过，追加监听即可
+                    proxy.getProxyConfig().getQueryListener().addListener(new QueryRecorder());
+                    return proxy;
+                }
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryRecorder())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
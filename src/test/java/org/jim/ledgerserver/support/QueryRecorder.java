@@ -0,0 +1,48 @@
+package org.jim.ledgerserver.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 记录当前线程经数据源执行的 SQL
+ * 挂在数据源代理上，Hibernate 与 JdbcTemplate 的语句都会被记录；其他线程（定时任务、异步任务）的语句不计入
+ *
+ * @author James Smith
+ */
+public class QueryRecorder implements QueryExecutionListener {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    /**
+     * 开始记录当前线程的语句
+     */
+    public static void start() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    /**
+     * 停止记录
+     * @return 自 start 以来执行的语句（批量语句按一条计）
+     */
+    public static List<String> stop() {
+        List<String> statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements == null ? List.of() : statements;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            queryInfoList.forEach(query -> statements.add(query.getQuery()));
+        }
+    }
+}